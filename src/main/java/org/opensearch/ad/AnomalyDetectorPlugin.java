@@ -44,9 +44,10 @@ import org.apache.logging.log4j.Logger;
 import org.opensearch.SpecialPermission;
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionResponse;
+import org.opensearch.action.bulk.BackoffPolicy;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.caching.CacheProvider;
-import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.caching.EntityCacheStats;
 import org.opensearch.ad.caching.PriorityCache;
 import org.opensearch.ad.cluster.ADClusterEventListener;
 import org.opensearch.ad.cluster.HashRing;
@@ -59,6 +60,7 @@ import org.opensearch.ad.dataprocessor.SingleFeatureLinearUniformInterpolator;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.feature.SearchFeatureDao;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.indices.AnomalyResultRollup;
 import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.ml.EntityColdStarter;
 import org.opensearch.ad.ml.HybridThresholdingModel;
@@ -78,6 +80,7 @@ import org.opensearch.ad.rest.RestSearchADTasksAction;
 import org.opensearch.ad.rest.RestSearchAnomalyDetectorAction;
 import org.opensearch.ad.rest.RestSearchAnomalyDetectorInfoAction;
 import org.opensearch.ad.rest.RestSearchAnomalyResultAction;
+import org.opensearch.ad.rest.RestSearchAnomalyResultRollupAction;
 import org.opensearch.ad.rest.RestStatsAnomalyDetectorAction;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.settings.EnabledSetting;
@@ -86,6 +89,7 @@ import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.stats.StatNames;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
 import org.opensearch.ad.stats.suppliers.IndexStatusSupplier;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.ad.stats.suppliers.ModelsOnNodeSupplier;
 import org.opensearch.ad.stats.suppliers.SettableSupplier;
 import org.opensearch.ad.task.ADBatchTaskRunner;
@@ -115,6 +119,8 @@ import org.opensearch.ad.transport.DeleteModelAction;
 import org.opensearch.ad.transport.DeleteModelTransportAction;
 import org.opensearch.ad.transport.EntityProfileAction;
 import org.opensearch.ad.transport.EntityProfileTransportAction;
+import org.opensearch.ad.transport.EntityProfilesAction;
+import org.opensearch.ad.transport.EntityProfilesTransportAction;
 import org.opensearch.ad.transport.EntityResultAction;
 import org.opensearch.ad.transport.EntityResultTransportAction;
 import org.opensearch.ad.transport.ForwardADTaskAction;
@@ -138,6 +144,8 @@ import org.opensearch.ad.transport.SearchAnomalyDetectorInfoAction;
 import org.opensearch.ad.transport.SearchAnomalyDetectorInfoTransportAction;
 import org.opensearch.ad.transport.SearchAnomalyDetectorTransportAction;
 import org.opensearch.ad.transport.SearchAnomalyResultAction;
+import org.opensearch.ad.transport.SearchAnomalyResultRollupAction;
+import org.opensearch.ad.transport.SearchAnomalyResultRollupTransportAction;
 import org.opensearch.ad.transport.SearchAnomalyResultTransportAction;
 import org.opensearch.ad.transport.StatsAnomalyDetectorAction;
 import org.opensearch.ad.transport.StatsAnomalyDetectorTransportAction;
@@ -148,8 +156,10 @@ import org.opensearch.ad.transport.ThresholdResultTransportAction;
 import org.opensearch.ad.transport.handler.ADSearchHandler;
 import org.opensearch.ad.transport.handler.AnomalyIndexHandler;
 import org.opensearch.ad.transport.handler.AnomalyResultBulkIndexHandler;
+import org.opensearch.ad.transport.handler.AnomalyResultSink;
 import org.opensearch.ad.transport.handler.DetectionStateHandler;
 import org.opensearch.ad.transport.handler.MultiEntityResultHandler;
+import org.opensearch.ad.transport.handler.ResultBulkRetryBuffer;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.ad.util.DiscoveryNodeFilterer;
 import org.opensearch.ad.util.IndexUtils;
@@ -223,6 +233,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
     private ADTaskCacheManager adTaskCacheManager;
     private ADTaskManager adTaskManager;
     private ADBatchTaskRunner adBatchTaskRunner;
+    private AnomalyResultSink anomalyResultSink;
 
     static {
         SpecialPermission.check();
@@ -254,6 +265,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             this.indexUtils,
             clusterService
         );
+        anomalyResultHandler.setResultSink(anomalyResultSink);
 
         AnomalyDetectorJobRunner jobRunner = AnomalyDetectorJobRunner.getJobRunnerInstance();
         jobRunner.setClient(client);
@@ -268,6 +280,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
         RestIndexAnomalyDetectorAction restIndexAnomalyDetectorAction = new RestIndexAnomalyDetectorAction(settings, clusterService);
         RestSearchAnomalyDetectorAction searchAnomalyDetectorAction = new RestSearchAnomalyDetectorAction();
         RestSearchAnomalyResultAction searchAnomalyResultAction = new RestSearchAnomalyResultAction();
+        RestSearchAnomalyResultRollupAction searchAnomalyResultRollupAction = new RestSearchAnomalyResultRollupAction();
         RestSearchADTasksAction searchADTasksAction = new RestSearchADTasksAction();
         RestDeleteAnomalyDetectorAction deleteAnomalyDetectorAction = new RestDeleteAnomalyDetectorAction();
         RestExecuteAnomalyDetectorAction executeAnomalyDetectorAction = new RestExecuteAnomalyDetectorAction(settings, clusterService);
@@ -282,6 +295,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 restIndexAnomalyDetectorAction,
                 searchAnomalyDetectorAction,
                 searchAnomalyResultAction,
+                searchAnomalyResultRollupAction,
                 searchADTasksAction,
                 deleteAnomalyDetectorAction,
                 executeAnomalyDetectorAction,
@@ -358,7 +372,8 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             modelMaxSizePercent,
             AnomalyDetectorSettings.DESIRED_MODEL_SIZE_PERCENTAGE,
             clusterService,
-            AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE
+            AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE,
+            AnomalyDetectorSettings.MODEL_MEMORY_MEASUREMENT_RATIO.get(settings)
         );
 
         ModelPartitioner modelPartitioner = new ModelPartitioner(
@@ -378,6 +393,23 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             modelPartitioner
         );
 
+        anomalyResultSink = new AnomalyResultSink(
+            client,
+            threadPool,
+            stateManager,
+            getClock(),
+            BackoffPolicy
+                .exponentialBackoff(
+                    AnomalyDetectorSettings.BACKOFF_INITIAL_DELAY.get(settings),
+                    AnomalyDetectorSettings.MAX_RETRY_FOR_BACKOFF.get(settings)
+                ),
+            AnomalyDetectorSettings.RESULT_WRITE_LINGER.get(settings),
+            AnomalyDetectorSettings.RESULT_WRITE_BULK_SIZE
+        );
+        clusterService
+            .getClusterSettings()
+            .addSettingsUpdateConsumer(AnomalyDetectorSettings.RESULT_WRITE_LINGER, anomalyResultSink::setLinger);
+
         FeatureManager featureManager = new FeatureManager(
             searchFeatureDao,
             interpolator,
@@ -443,10 +475,11 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             entityColdStarter,
             modelPartitioner,
             featureManager,
-            memoryTracker
+            memoryTracker,
+            threadPool
         );
 
-        EntityCache cache = new PriorityCache(
+        PriorityCache cache = new PriorityCache(
             checkpoint,
             AnomalyDetectorSettings.DEDICATED_CACHE_SIZE,
             AnomalyDetectorSettings.CHECKPOINT_TTL,
@@ -467,7 +500,15 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
 
         HashRing hashRing = new HashRing(nodeFilter, getClock(), settings);
 
-        anomalyDetectorRunner = new AnomalyDetectorRunner(modelManager, featureManager, AnomalyDetectorSettings.MAX_PREVIEW_RESULTS);
+        anomalyDetectorRunner = new AnomalyDetectorRunner(
+            modelManager,
+            featureManager,
+            AnomalyDetectorSettings.MAX_PREVIEW_RESULTS,
+            threadPool
+        );
+
+        ADCircuitBreakerService adCircuitBreakerService = new ADCircuitBreakerService(jvmService, threadPool, settings, clusterService)
+            .init();
 
         Map<String, ADStat<?>> stats = ImmutableMap
             .<String, ADStat<?>>builder()
@@ -502,10 +543,25 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             .put(StatNames.AD_CANCELED_BATCH_TASK_COUNT.getName(), new ADStat<>(false, new CounterSupplier()))
             .put(StatNames.AD_TOTAL_BATCH_TASK_EXECUTION_COUNT.getName(), new ADStat<>(false, new CounterSupplier()))
             .put(StatNames.AD_BATCH_TASK_FAILURE_COUNT.getName(), new ADStat<>(false, new CounterSupplier()))
+            .put(StatNames.COLD_START_QUEUE_SIZE.getName(), new ADStat<>(false, entityColdStarter.getScheduler()::getQueueSize))
+            .put(StatNames.COLD_START_AVG_WAIT_TIME.getName(), new ADStat<>(false, entityColdStarter.getScheduler()::getAverageWaitMillis))
+            .put(StatNames.COLD_START_MAX_WAIT_TIME.getName(), new ADStat<>(false, entityColdStarter.getScheduler()::getMaxWaitMillis))
+            .put(StatNames.AD_FEATURE_SEARCH_LATENCY.getName(), new ADStat<>(false, new LatencySupplier()))
+            .put(StatNames.AD_HC_ENTITY_FANOUT_LATENCY.getName(), new ADStat<>(false, new LatencySupplier()))
+            .put(StatNames.AD_ENTITY_CACHE_LOOKUP_LATENCY.getName(), new ADStat<>(false, cache.getLookupLatency()))
+            .put(StatNames.AD_RCF_SCORE_LATENCY.getName(), new ADStat<>(false, modelManager.getRcfScoreLatency()))
+            .put(StatNames.AD_THRESHOLD_GRADE_LATENCY.getName(), new ADStat<>(false, modelManager.getThresholdGradeLatency()))
+            .put(StatNames.AD_RESULT_BULK_LATENCY.getName(), new ADStat<>(false, anomalyResultSink.getBulkLatency()))
+            .put(StatNames.AD_CHECKPOINT_FLUSH_LATENCY.getName(), new ADStat<>(false, checkpoint.getFlushLatency()))
+            .put(
+                StatNames.ENTITY_CACHE.getName(),
+                new ADStat<>(false, () -> EntityCacheStats.withHitRate(cache.getNodeCacheStats().getCounts()))
+            )
+            .put(StatNames.MODEL_MEMORY_DRIFT.getName(), new ADStat<>(false, memoryTracker::getMeasurementStats))
+            .put(StatNames.AD_LOAD_LEVEL.getName(), new ADStat<>(false, () -> adCircuitBreakerService.getLoadLevel().getName()))
             .build();
 
         adStats = new ADStats(indexUtils, modelManager, stats);
-        ADCircuitBreakerService adCircuitBreakerService = new ADCircuitBreakerService(jvmService).init();
         this.detectorStateHandler = new DetectionStateHandler(
             client,
             settings,
@@ -529,6 +585,15 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             clusterService,
             stateManager
         );
+        multiEntityResultHandler.setResultSink(anomalyResultSink);
+        ResultBulkRetryBuffer resultBulkRetryBuffer = new ResultBulkRetryBuffer(
+            client,
+            threadPool,
+            AnomalyDetectorSettings.RESULT_RETRY_BUFFER_SIZE.get(settings).getBytes(),
+            AnomalyDetectorSettings.BACKOFF_INITIAL_DELAY.get(settings),
+            AnomalyDetectorSettings.RESULT_RETRY_MAX_DELAY,
+            AnomalyDetectorSettings.MAX_RETRY_FOR_BACKOFF.get(settings)
+        );
 
         adTaskCacheManager = new ADTaskCacheManager(settings, clusterService, memoryTracker);
         adTaskManager = new ADTaskManager(
@@ -539,7 +604,8 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             anomalyDetectionIndices,
             nodeFilter,
             hashRing,
-            adTaskCacheManager
+            adTaskCacheManager,
+            checkpoint
         );
         AnomalyResultBulkIndexHandler anomalyResultBulkIndexHandler = new AnomalyResultBulkIndexHandler(
             client,
@@ -552,6 +618,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             clusterService,
             anomalyDetectionIndices
         );
+        anomalyResultBulkIndexHandler.setResultSink(anomalyResultSink);
         adBatchTaskRunner = new ADBatchTaskRunner(
             settings,
             threadPool,
@@ -565,11 +632,21 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
             anomalyDetectionIndices,
             adStats,
             anomalyResultBulkIndexHandler,
-            adTaskCacheManager
+            adTaskCacheManager,
+            checkpoint
         );
 
         ADSearchHandler adSearchHandler = new ADSearchHandler(settings, clusterService, client);
 
+        AnomalyResultRollup anomalyResultRollup = new AnomalyResultRollup(
+            client,
+            clusterService,
+            threadPool,
+            anomalyDetectionIndices,
+            getClock(),
+            settings
+        );
+
         // return objects used by Guice to inject dependencies for e.g.,
         // transport action handler constructors
         return ImmutableList
@@ -592,12 +669,14 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 nodeFilter,
                 detectorStateHandler,
                 multiEntityResultHandler,
+                resultBulkRetryBuffer,
                 checkpoint,
                 modelPartitioner,
                 cacheProvider,
                 adTaskManager,
                 adBatchTaskRunner,
-                adSearchHandler
+                adSearchHandler,
+                anomalyResultRollup
             );
     }
 
@@ -661,7 +740,23 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 AnomalyDetectorSettings.MAX_BATCH_TASK_PER_NODE,
                 AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS,
                 AnomalyDetectorSettings.MAX_OLD_AD_TASK_DOCS_PER_DETECTOR,
-                AnomalyDetectorSettings.BATCH_TASK_PIECE_SIZE
+                AnomalyDetectorSettings.BATCH_TASK_PIECE_SIZE,
+                AnomalyDetectorSettings.MAX_CONCURRENT_COLD_STARTS,
+                AnomalyDetectorSettings.FEATURE_QUERY_COALESCE_WINDOW,
+                AnomalyDetectorSettings.LOCAL_MODEL_SCORING,
+                AnomalyDetectorSettings.RESULT_WRITE_LINGER,
+                AnomalyDetectorSettings.RESULT_RETRY_BUFFER_SIZE,
+                AnomalyDetectorSettings.CHANGE_ONLY_ENTITY_RESULTS,
+                AnomalyDetectorSettings.ENTITY_RESULT_HEARTBEAT_INTERVAL,
+                AnomalyDetectorSettings.AD_RESULT_ROLLUP_AGE,
+                AnomalyDetectorSettings.CHECKPOINT_INDEX_PARTITIONING,
+                AnomalyDetectorSettings.MODEL_MEMORY_MEASUREMENT_RATIO,
+                AnomalyDetectorSettings.BATCH_TASK_CHECKPOINT_PIECES,
+                AnomalyDetectorSettings.BATCH_TASK_PROGRESS_UPDATE_INTERVAL,
+                AnomalyDetectorSettings.BATCH_TASK_MAX_ENTITIES,
+                AnomalyDetectorSettings.LOAD_SHEDDING_HEAP_THRESHOLDS,
+                AnomalyDetectorSettings.LOAD_SHEDDING_QUEUE_THRESHOLDS,
+                AnomalyDetectorSettings.LOAD_SHEDDING_GC_TIME_THRESHOLDS
             );
         return unmodifiableList(Stream.concat(enabledSetting.stream(), systemSetting.stream()).collect(Collectors.toList()));
     }
@@ -695,6 +790,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 new ActionHandler<>(RCFPollingAction.INSTANCE, RCFPollingTransportAction.class),
                 new ActionHandler<>(SearchAnomalyDetectorAction.INSTANCE, SearchAnomalyDetectorTransportAction.class),
                 new ActionHandler<>(SearchAnomalyResultAction.INSTANCE, SearchAnomalyResultTransportAction.class),
+                new ActionHandler<>(SearchAnomalyResultRollupAction.INSTANCE, SearchAnomalyResultRollupTransportAction.class),
                 new ActionHandler<>(SearchADTasksAction.INSTANCE, SearchADTasksTransportAction.class),
                 new ActionHandler<>(StatsAnomalyDetectorAction.INSTANCE, StatsAnomalyDetectorTransportAction.class),
                 new ActionHandler<>(DeleteAnomalyDetectorAction.INSTANCE, DeleteAnomalyDetectorTransportAction.class),
@@ -704,6 +800,7 @@ public class AnomalyDetectorPlugin extends Plugin implements ActionPlugin, Scrip
                 new ActionHandler<>(ADResultBulkAction.INSTANCE, ADResultBulkTransportAction.class),
                 new ActionHandler<>(EntityResultAction.INSTANCE, EntityResultTransportAction.class),
                 new ActionHandler<>(EntityProfileAction.INSTANCE, EntityProfileTransportAction.class),
+                new ActionHandler<>(EntityProfilesAction.INSTANCE, EntityProfilesTransportAction.class),
                 new ActionHandler<>(SearchAnomalyDetectorInfoAction.INSTANCE, SearchAnomalyDetectorInfoTransportAction.class),
                 new ActionHandler<>(PreviewAnomalyDetectorAction.INSTANCE, PreviewAnomalyDetectorTransportAction.class),
                 new ActionHandler<>(ADBatchAnomalyResultAction.INSTANCE, ADBatchAnomalyResultTransportAction.class),
@@ -185,6 +185,7 @@ public class AnomalyDetectorProfileRunner extends AbstractProfileRunner {
                             || profilesToCollect.contains(DetectorProfileName.TOTAL_SIZE_IN_BYTES)
                             || profilesToCollect.contains(DetectorProfileName.MODELS)
                             || profilesToCollect.contains(DetectorProfileName.ACTIVE_ENTITIES)
+                            || profilesToCollect.contains(DetectorProfileName.ENTITY_CACHE)
                             || profilesToCollect.contains(DetectorProfileName.INIT_PROGRESS)
                             || profilesToCollect.contains(DetectorProfileName.STATE)) {
                             totalResponsesToWait++;
@@ -225,6 +226,7 @@ public class AnomalyDetectorProfileRunner extends AbstractProfileRunner {
                             || profilesToCollect.contains(DetectorProfileName.TOTAL_SIZE_IN_BYTES)
                             || profilesToCollect.contains(DetectorProfileName.MODELS)
                             || profilesToCollect.contains(DetectorProfileName.ACTIVE_ENTITIES)
+                            || profilesToCollect.contains(DetectorProfileName.ENTITY_CACHE)
                             || profilesToCollect.contains(DetectorProfileName.INIT_PROGRESS)
                             || profilesToCollect.contains(DetectorProfileName.STATE)) {
                             profileModels(detector, profilesToCollect, job, true, delegateListener);
@@ -410,6 +412,9 @@ public class AnomalyDetectorProfileRunner extends AbstractProfileRunner {
             if (isMultientityDetector && profilesToCollect.contains(DetectorProfileName.ACTIVE_ENTITIES)) {
                 profile.activeEntities(profileResponse.getActiveEntities());
             }
+            if (isMultientityDetector && profilesToCollect.contains(DetectorProfileName.ENTITY_CACHE)) {
+                profile.entityCache(profileResponse.getEntityCache());
+            }
 
             if (isMultientityDetector
                 && (profilesToCollect.contains(DetectorProfileName.INIT_PROGRESS)
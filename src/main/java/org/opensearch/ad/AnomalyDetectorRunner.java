@@ -32,13 +32,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.ad.constant.CommonValue;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.feature.Features;
@@ -47,10 +48,9 @@ import org.opensearch.ad.ml.ThresholdingResult;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyResult;
 import org.opensearch.ad.model.Entity;
-import org.opensearch.ad.model.EntityAnomalyResult;
 import org.opensearch.ad.model.Feature;
 import org.opensearch.ad.model.FeatureData;
-import org.opensearch.ad.util.MultiResponsesDelegateActionListener;
+import org.opensearch.threadpool.ThreadPool;
 
 /**
  * Runner to trigger an anomaly detector.
@@ -61,11 +61,13 @@ public final class AnomalyDetectorRunner {
     private final ModelManager modelManager;
     private final FeatureManager featureManager;
     private final int maxPreviewResults;
+    private final ThreadPool threadPool;
 
-    public AnomalyDetectorRunner(ModelManager modelManager, FeatureManager featureManager, int maxPreviewResults) {
+    public AnomalyDetectorRunner(ModelManager modelManager, FeatureManager featureManager, int maxPreviewResults, ThreadPool threadPool) {
         this.modelManager = modelManager;
         this.featureManager = featureManager;
         this.maxPreviewResults = maxPreviewResults;
+        this.threadPool = threadPool;
     }
 
     /**
@@ -88,49 +90,101 @@ public final class AnomalyDetectorRunner {
                     // This also requires front-end change to handle error message correspondingly
                     // We return empty list for now to avoid breaking front-end
                     listener.onResponse(Collections.emptyList());
+                    return;
                 }
-                ActionListener<EntityAnomalyResult> entityAnomalyResultListener = ActionListener
-                    .wrap(
-                        entityAnomalyResult -> { listener.onResponse(entityAnomalyResult.getAnomalyResults()); },
-                        e -> onFailure(e, listener, detector.getDetectorId())
+                featureManager
+                    .getPreviewFeaturesForEntities(
+                        detector,
+                        entities,
+                        startTime.toEpochMilli(),
+                        endTime.toEpochMilli(),
+                        ActionListener
+                            .wrap(
+                                entityFeatures -> previewEntities(detector, entityFeatures, listener),
+                                e -> onFailure(e, listener, detector.getDetectorId())
+                            )
                     );
-                MultiResponsesDelegateActionListener<EntityAnomalyResult> multiEntitiesResponseListener =
-                    new MultiResponsesDelegateActionListener<EntityAnomalyResult>(
-                        entityAnomalyResultListener,
-                        entities.size(),
-                        String.format(Locale.ROOT, "Fail to get preview result for multi entity detector %s", detector.getDetectorId()),
-                        true
-                    );
-                for (Entity entity : entities) {
-                    featureManager
-                        .getPreviewFeaturesForEntity(
-                            detector,
-                            entity,
-                            startTime.toEpochMilli(),
-                            endTime.toEpochMilli(),
-                            ActionListener.wrap(features -> {
-                                List<ThresholdingResult> entityResults = modelManager.getPreviewResults(features.getProcessedFeatures());
-                                List<AnomalyResult> sampledEntityResults = sample(
-                                    parsePreviewResult(detector, features, entityResults, Arrays.asList(entity)),
-                                    maxPreviewResults
-                                );
-                                multiEntitiesResponseListener.onResponse(new EntityAnomalyResult(sampledEntityResults));
-                            }, e -> multiEntitiesResponseListener.onFailure(e))
-                        );
-                }
             }, e -> onFailure(e, listener, detector.getDetectorId())));
         } else {
             featureManager.getPreviewFeatures(detector, startTime.toEpochMilli(), endTime.toEpochMilli(), ActionListener.wrap(features -> {
-                try {
-                    List<ThresholdingResult> results = modelManager.getPreviewResults(features.getProcessedFeatures());
-                    listener.onResponse(sample(parsePreviewResult(detector, features, results, null), maxPreviewResults));
-                } catch (Exception e) {
-                    onFailure(e, listener, detector.getDetectorId());
-                }
+                modelManager
+                    .getPreviewResults(
+                        features.getProcessedFeatures(),
+                        ActionListener
+                            .wrap(
+                                results -> listener
+                                    .onResponse(sample(parsePreviewResult(detector, features, results, null), maxPreviewResults)),
+                                e -> onFailure(e, listener, detector.getDetectorId())
+                            )
+                    );
             }, e -> onFailure(e, listener, detector.getDetectorId())));
         }
     }
 
+    /**
+     * Trains and scores the preview models of entities in parallel.  Entities are split
+     * round-robin into at most {@link #getPreviewParallelism()} groups, and each group runs
+     * on one thread of the AD thread pool.  An entity whose model fails, e.g., for lack
+     * of data, is left out of the results.
+     *
+     * @param detector anomaly detector
+     * @param entityFeatures preview features of entities
+     * @param listener handle anomaly results of all entities, in entity order
+     */
+    private void previewEntities(
+        AnomalyDetector detector,
+        Map<Entity, Features> entityFeatures,
+        ActionListener<List<AnomalyResult>> listener
+    ) {
+        List<Map.Entry<Entity, Features>> entries = new ArrayList<>(entityFeatures.entrySet());
+        AtomicReferenceArray<List<AnomalyResult>> entityResults = new AtomicReferenceArray<>(entries.size());
+        int groups = Math.max(1, Math.min(entries.size(), getPreviewParallelism()));
+        GroupedActionListener<Void> groupListener = new GroupedActionListener<>(ActionListener.wrap(r -> {
+            List<AnomalyResult> results = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                List<AnomalyResult> result = entityResults.get(i);
+                if (result != null) {
+                    results.addAll(result);
+                }
+            }
+            listener.onResponse(results);
+        }, e -> onFailure(e, listener, detector.getDetectorId())), groups);
+
+        for (int g = 0; g < groups; g++) {
+            int group = g;
+            try {
+                threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME).execute(() -> {
+                    for (int i = group; i < entries.size(); i += groups) {
+                        Entity entity = entries.get(i).getKey();
+                        Features features = entries.get(i).getValue();
+                        try {
+                            List<ThresholdingResult> results = modelManager.getPreviewResults(features.getProcessedFeatures());
+                            entityResults
+                                .set(i, sample(parsePreviewResult(detector, features, results, Arrays.asList(entity)), maxPreviewResults));
+                        } catch (Exception e) {
+                            logger.info("Fail to preview entity " + entity.getValue() + " of detector " + detector.getDetectorId(), e);
+                        }
+                    }
+                    groupListener.onResponse(null);
+                });
+            } catch (Exception e) {
+                groupListener.onFailure(e);
+            }
+        }
+    }
+
+    /**
+     * Get max number of entity groups of a preview run at once.  The AD thread pool also
+     * runs real time detection, so a preview takes at most a quarter of its threads.
+     *
+     * @return max number of entity groups
+     */
+    int getPreviewParallelism() {
+        ThreadPool.Info info = threadPool.info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+        int poolSize = info == null ? 1 : info.getMax();
+        return Math.max(1, poolSize / 4);
+    }
+
     private void onFailure(Exception e, ActionListener<List<AnomalyResult>> listener, String detectorId) {
         logger.info("Fail to preview anomaly detector " + detectorId, e);
         // TODO return exception like IllegalArgumentException to explain data is not enough for preview
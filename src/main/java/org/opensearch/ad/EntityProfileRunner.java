@@ -32,9 +32,18 @@ import static org.opensearch.ad.settings.AnomalyDetectorSettings.CATEGORY_FIELD_
 import static org.opensearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
 
 import java.security.InvalidParameterException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -42,6 +51,7 @@ import org.apache.lucene.search.join.ScoreMode;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.get.GetRequest;
 import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.ad.constant.CommonErrorMessages;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.model.AnomalyDetector;
@@ -55,6 +65,8 @@ import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.transport.EntityProfileAction;
 import org.opensearch.ad.transport.EntityProfileRequest;
 import org.opensearch.ad.transport.EntityProfileResponse;
+import org.opensearch.ad.transport.EntityProfilesAction;
+import org.opensearch.ad.transport.EntityProfilesRequest;
 import org.opensearch.ad.util.MultiResponsesDelegateActionListener;
 import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.client.Client;
@@ -67,13 +79,23 @@ import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.NestedQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.query.TermQueryBuilder;
+import org.opensearch.index.query.TermsQueryBuilder;
 import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.bucket.nested.Nested;
+import org.opensearch.search.aggregations.bucket.nested.ReverseNested;
+import org.opensearch.search.aggregations.bucket.terms.IncludeExclude;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.opensearch.search.aggregations.metrics.Max;
 import org.opensearch.search.builder.SearchSourceBuilder;
 
 public class EntityProfileRunner extends AbstractProfileRunner {
     private final Logger logger = LogManager.getLogger(EntityProfileRunner.class);
 
     static final String NOT_HC_DETECTOR_ERR_MSG = "This is not a high cardinality detector";
+    static final String ENTITY_AGG = "entity";
+    static final String ENTITY_VALUE_AGG = "entity_value";
+    static final String RESULT_AGG = "result";
     private Client client;
     private NamedXContentRegistry xContentRegistry;
 
@@ -101,6 +123,79 @@ public class EntityProfileRunner extends AbstractProfileRunner {
             listener.onFailure(new InvalidParameterException(CommonErrorMessages.EMPTY_PROFILES_COLLECT));
             return;
         }
+        getDetector(
+            detectorId,
+            listener,
+            detector -> prepareEntityProfile(
+                listener,
+                detectorId,
+                entityValue,
+                profilesToCollect,
+                detector,
+                detector.getCategoryField().get(0)
+            )
+        );
+    }
+
+    /**
+     * Get profile info of many entities of a detector at once.
+     *
+     * Entities are grouped by the node hosting their models so that each node
+     * gets one request, and the last sample times of all entities come from one
+     * aggregated search. Use it instead of one {@link #profile} call per entity
+     * when showing a list of entities.
+     *
+     * @param detectorId detector identifier
+     * @param entityValues entity values
+     * @param profilesToCollect profiles to collect
+     * @param listener action listener to handle exception and process entity profiles keyed by entity value,
+     *  in the order of the entity values
+     */
+    public void profile(
+        String detectorId,
+        List<String> entityValues,
+        Set<EntityProfileName> profilesToCollect,
+        ActionListener<Map<String, EntityProfile>> listener
+    ) {
+        if (profilesToCollect == null || profilesToCollect.size() == 0) {
+            listener.onFailure(new InvalidParameterException(CommonErrorMessages.EMPTY_PROFILES_COLLECT));
+            return;
+        }
+        if (entityValues == null || entityValues.isEmpty()) {
+            listener.onResponse(Collections.emptyMap());
+            return;
+        }
+        getDetector(detectorId, listener, detector -> {
+            EntityProfilesRequest request = new EntityProfilesRequest(detectorId, entityValues, profilesToCollect);
+            client
+                .execute(
+                    EntityProfilesAction.INSTANCE,
+                    request,
+                    ActionListener
+                        .wrap(
+                            r -> getJob(
+                                detectorId,
+                                detector.getCategoryField().get(0),
+                                entityValues,
+                                profilesToCollect,
+                                detector,
+                                r.getProfiles(),
+                                listener
+                            ),
+                            listener::onFailure
+                        )
+                );
+        });
+    }
+
+    /**
+     * Get the detector and make sure it is a high cardinality detector.
+     *
+     * @param detectorId detector identifier
+     * @param listener listener to notify of failures
+     * @param function what to do with the detector
+     */
+    private void getDetector(String detectorId, ActionListener<?> listener, Consumer<AnomalyDetector> function) {
         GetRequest getDetectorRequest = new GetRequest(ANOMALY_DETECTORS_INDEX, detectorId);
 
         client.get(getDetectorRequest, ActionListener.wrap(getResponse -> {
@@ -121,7 +216,7 @@ public class EntityProfileRunner extends AbstractProfileRunner {
                                 new InvalidParameterException(CommonErrorMessages.CATEGORICAL_FIELD_NUMBER_SURPASSED + CATEGORY_FIELD_LIMIT)
                             );
                     } else {
-                        prepareEntityProfile(listener, detectorId, entityValue, profilesToCollect, detector, categoryField.get(0));
+                        function.accept(detector);
                     }
                 } catch (Exception t) {
                     listener.onFailure(t);
@@ -173,91 +268,113 @@ public class EntityProfileRunner extends AbstractProfileRunner {
                 ) {
                     ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
                     AnomalyDetectorJob job = AnomalyDetectorJob.parse(parser);
-
-                    int totalResponsesToWait = 0;
-                    if (profilesToCollect.contains(EntityProfileName.INIT_PROGRESS)
-                        || profilesToCollect.contains(EntityProfileName.STATE)) {
-                        totalResponsesToWait++;
-                    }
-                    if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
-                        totalResponsesToWait++;
-                    }
-                    if (profilesToCollect.contains(EntityProfileName.MODELS)) {
-                        totalResponsesToWait++;
-                    }
-                    MultiResponsesDelegateActionListener<EntityProfile> delegateListener =
-                        new MultiResponsesDelegateActionListener<EntityProfile>(
-                            listener,
-                            totalResponsesToWait,
-                            CommonErrorMessages.FAIL_FETCH_ERR_MSG + entityValue + " of detector " + detectorId,
-                            false
-                        );
-
-                    if (profilesToCollect.contains(EntityProfileName.MODELS)) {
-                        EntityProfile.Builder builder = new EntityProfile.Builder(categoryField, entityValue);
-                        if (false == job.isEnabled()) {
-                            delegateListener.onResponse(builder.build());
-                        } else {
-                            delegateListener.onResponse(builder.modelProfile(entityProfileResponse.getModelProfile()).build());
-                        }
-                    }
-
-                    if (profilesToCollect.contains(EntityProfileName.INIT_PROGRESS)
-                        || profilesToCollect.contains(EntityProfileName.STATE)) {
-                        profileStateRelated(
-                            entityProfileResponse.getTotalUpdates(),
+                    profileEntity(
+                        detectorId,
+                        categoryField,
+                        entityValue,
+                        profilesToCollect,
+                        detector,
+                        job,
+                        entityProfileResponse,
+                        sampleTimeListener -> getLastSampleTime(
                             detectorId,
-                            categoryField,
+                            job.getEnabledTime().toEpochMilli(),
                             entityValue,
-                            profilesToCollect,
-                            detector,
-                            job,
-                            delegateListener
-                        );
-                    }
-
-                    if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
-                        long enabledTimeMs = job.getEnabledTime().toEpochMilli();
-                        SearchRequest lastSampleTimeRequest = createLastSampleTimeRequest(detectorId, enabledTimeMs, entityValue);
-
-                        EntityProfile.Builder builder = new EntityProfile.Builder(categoryField, entityValue);
+                            sampleTimeListener
+                        ),
+                        listener
+                    );
+                } catch (Exception e) {
+                    logger.error(CommonErrorMessages.FAIL_TO_GET_PROFILE_MSG, e);
+                    listener.onFailure(e);
+                }
+            } else {
+                sendUnknownState(profilesToCollect, categoryField, entityValue, true, listener);
+            }
+        }, exception -> {
+            if (exception instanceof IndexNotFoundException) {
+                logger.info(exception.getMessage());
+                sendUnknownState(profilesToCollect, categoryField, entityValue, true, listener);
+            } else {
+                logger.error(CommonErrorMessages.FAIL_TO_GET_PROFILE_MSG + detectorId, exception);
+                listener.onFailure(exception);
+            }
+        }));
+    }
 
-                        Optional<Boolean> isActiveOp = entityProfileResponse.isActive();
-                        if (isActiveOp.isPresent()) {
-                            builder.isActive(isActiveOp.get());
-                        }
-                        builder.lastActiveTimestampMs(entityProfileResponse.getLastActiveMs());
+    private void getJob(
+        String detectorId,
+        String categoryField,
+        List<String> entityValues,
+        Set<EntityProfileName> profilesToCollect,
+        AnomalyDetector detector,
+        Map<String, EntityProfileResponse> entityProfileResponses,
+        ActionListener<Map<String, EntityProfile>> listener
+    ) {
+        Set<String> uniqueEntityValues = new LinkedHashSet<>(entityValues);
+        GroupedActionListener<Entry<String, EntityProfile>> profilesListener = new GroupedActionListener<>(ActionListener.wrap(profiles -> {
+            Map<String, EntityProfile> profileMap = profiles.stream().collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+            Map<String, EntityProfile> results = new LinkedHashMap<>();
+            for (String entityValue : entityValues) {
+                results.put(entityValue, profileMap.get(entityValue));
+            }
+            listener.onResponse(results);
+        }, listener::onFailure), uniqueEntityValues.size());
 
-                        client.search(lastSampleTimeRequest, ActionListener.wrap(searchResponse -> {
-                            Optional<Long> latestSampleTimeMs = ParseUtils.getLatestDataTime(searchResponse);
+        GetRequest getRequest = new GetRequest(ANOMALY_DETECTOR_JOB_INDEX, detectorId);
+        client.get(getRequest, ActionListener.wrap(getResponse -> {
+            if (getResponse != null && getResponse.isExists()) {
+                try (
+                    XContentParser parser = XContentType.JSON
+                        .xContent()
+                        .createParser(xContentRegistry, LoggingDeprecationHandler.INSTANCE, getResponse.getSourceAsString())
+                ) {
+                    ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
+                    AnomalyDetectorJob job = AnomalyDetectorJob.parse(parser);
 
-                            if (latestSampleTimeMs.isPresent()) {
-                                builder.lastSampleTimestampMs(latestSampleTimeMs.get());
+                    Consumer<Map<String, Long>> profileEntities = lastSampleTimes -> {
+                        for (String entityValue : uniqueEntityValues) {
+                            ActionListener<EntityProfile> entityListener = ActionListener
+                                .wrap(
+                                    profile -> profilesListener.onResponse(new SimpleImmutableEntry<>(entityValue, profile)),
+                                    profilesListener::onFailure
+                                );
+                            EntityProfileResponse entityProfileResponse = entityProfileResponses.get(entityValue);
+                            if (entityProfileResponse == null) {
+                                // the node hosting the entity model cannot be found or reached
+                                sendUnknownState(profilesToCollect, categoryField, entityValue, true, entityListener);
+                                continue;
                             }
+                            profileEntity(
+                                detectorId,
+                                categoryField,
+                                entityValue,
+                                profilesToCollect,
+                                detector,
+                                job,
+                                entityProfileResponse,
+                                sampleTimeListener -> sampleTimeListener.onResponse(Optional.ofNullable(lastSampleTimes.get(entityValue))),
+                                entityListener
+                            );
+                        }
+                    };
 
-                            delegateListener.onResponse(builder.build());
-                        }, exception -> {
-                            // sth wrong like result index not created. Return what we have
-                            if (exception instanceof IndexNotFoundException) {
-                                // don't print out stack trace since it is not helpful
-                                logger.info("Result index hasn't been created", exception.getMessage());
-                            } else {
-                                logger.warn("fail to get last sample time", exception);
-                            }
-                            delegateListener.onResponse(builder.build());
-                        }));
+                    if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
+                        getLastSampleTimes(detectorId, job.getEnabledTime().toEpochMilli(), uniqueEntityValues, profileEntities);
+                    } else {
+                        profileEntities.accept(Collections.emptyMap());
                     }
                 } catch (Exception e) {
                     logger.error(CommonErrorMessages.FAIL_TO_GET_PROFILE_MSG, e);
                     listener.onFailure(e);
                 }
             } else {
-                sendUnknownState(profilesToCollect, categoryField, entityValue, true, listener);
+                sendUnknownStates(profilesToCollect, categoryField, uniqueEntityValues, profilesListener);
             }
         }, exception -> {
             if (exception instanceof IndexNotFoundException) {
                 logger.info(exception.getMessage());
-                sendUnknownState(profilesToCollect, categoryField, entityValue, true, listener);
+                sendUnknownStates(profilesToCollect, categoryField, uniqueEntityValues, profilesListener);
             } else {
                 logger.error(CommonErrorMessages.FAIL_TO_GET_PROFILE_MSG + detectorId, exception);
                 listener.onFailure(exception);
@@ -265,6 +382,158 @@ public class EntityProfileRunner extends AbstractProfileRunner {
         }));
     }
 
+    /**
+     * Build the profile of an entity from its model info and job.
+     *
+     * @param detectorId detector identifier
+     * @param categoryField Category field
+     * @param entityValue Entity value
+     * @param profilesToCollect Profiles to Collect
+     * @param detector Detector config
+     * @param job Detector job
+     * @param entityProfileResponse model info from the node hosting the entity model
+     * @param lastSampleTime how to get the last sample time of the entity
+     * @param listener listener to return the profile
+     */
+    private void profileEntity(
+        String detectorId,
+        String categoryField,
+        String entityValue,
+        Set<EntityProfileName> profilesToCollect,
+        AnomalyDetector detector,
+        AnomalyDetectorJob job,
+        EntityProfileResponse entityProfileResponse,
+        Consumer<ActionListener<Optional<Long>>> lastSampleTime,
+        ActionListener<EntityProfile> listener
+    ) {
+        int totalResponsesToWait = 0;
+        if (profilesToCollect.contains(EntityProfileName.INIT_PROGRESS) || profilesToCollect.contains(EntityProfileName.STATE)) {
+            totalResponsesToWait++;
+        }
+        if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
+            totalResponsesToWait++;
+        }
+        if (profilesToCollect.contains(EntityProfileName.MODELS)) {
+            totalResponsesToWait++;
+        }
+        MultiResponsesDelegateActionListener<EntityProfile> delegateListener = new MultiResponsesDelegateActionListener<EntityProfile>(
+            listener,
+            totalResponsesToWait,
+            CommonErrorMessages.FAIL_FETCH_ERR_MSG + entityValue + " of detector " + detectorId,
+            false
+        );
+
+        if (profilesToCollect.contains(EntityProfileName.MODELS)) {
+            EntityProfile.Builder builder = new EntityProfile.Builder(categoryField, entityValue);
+            if (false == job.isEnabled()) {
+                delegateListener.onResponse(builder.build());
+            } else {
+                delegateListener.onResponse(builder.modelProfile(entityProfileResponse.getModelProfile()).build());
+            }
+        }
+
+        if (profilesToCollect.contains(EntityProfileName.INIT_PROGRESS) || profilesToCollect.contains(EntityProfileName.STATE)) {
+            profileStateRelated(
+                entityProfileResponse.getTotalUpdates(),
+                detectorId,
+                categoryField,
+                entityValue,
+                profilesToCollect,
+                detector,
+                job,
+                delegateListener
+            );
+        }
+
+        if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
+            EntityProfile.Builder builder = new EntityProfile.Builder(categoryField, entityValue);
+
+            Optional<Boolean> isActiveOp = entityProfileResponse.isActive();
+            if (isActiveOp.isPresent()) {
+                builder.isActive(isActiveOp.get());
+            }
+            builder.lastActiveTimestampMs(entityProfileResponse.getLastActiveMs());
+
+            lastSampleTime.accept(ActionListener.wrap(latestSampleTimeMs -> {
+                if (latestSampleTimeMs.isPresent()) {
+                    builder.lastSampleTimestampMs(latestSampleTimeMs.get());
+                }
+
+                delegateListener.onResponse(builder.build());
+            }, delegateListener::onFailure));
+        }
+    }
+
+    private void getLastSampleTime(String detectorId, long enabledTime, String entityValue, ActionListener<Optional<Long>> listener) {
+        SearchRequest lastSampleTimeRequest = createLastSampleTimeRequest(detectorId, enabledTime, entityValue);
+        client
+            .search(
+                lastSampleTimeRequest,
+                ActionListener.wrap(searchResponse -> listener.onResponse(ParseUtils.getLatestDataTime(searchResponse)), exception -> {
+                    onLastSampleTimeFailure(exception);
+                    listener.onResponse(Optional.empty());
+                })
+            );
+    }
+
+    /**
+     * Get the last sample times of entities with one search.
+     *
+     * @param detectorId detector identifier
+     * @param enabledTime epoch milliseconds when the job was enabled
+     * @param entityValues entity values
+     * @param function what to do with the last sample times keyed by entity value.
+     *  Entities without samples are left out.
+     */
+    private void getLastSampleTimes(String detectorId, long enabledTime, Set<String> entityValues, Consumer<Map<String, Long>> function) {
+        SearchRequest lastSampleTimesRequest = createLastSampleTimesRequest(detectorId, enabledTime, entityValues);
+        client.search(lastSampleTimesRequest, ActionListener.wrap(searchResponse -> {
+            Map<String, Long> lastSampleTimes = new HashMap<>();
+            Nested nested = searchResponse.getAggregations() == null ? null : searchResponse.getAggregations().get(ENTITY_AGG);
+            Terms entityTerms = nested == null ? null : nested.getAggregations().get(ENTITY_VALUE_AGG);
+            if (entityTerms != null) {
+                for (Terms.Bucket bucket : entityTerms.getBuckets()) {
+                    ReverseNested results = bucket.getAggregations().get(RESULT_AGG);
+                    Max max = results.getAggregations().get(CommonName.AGG_NAME_MAX_TIME);
+                    if (Double.isFinite(max.getValue())) {
+                        lastSampleTimes.put(bucket.getKeyAsString(), (long) max.getValue());
+                    }
+                }
+            }
+            function.accept(lastSampleTimes);
+        }, exception -> {
+            onLastSampleTimeFailure(exception);
+            function.accept(Collections.emptyMap());
+        }));
+    }
+
+    private void onLastSampleTimeFailure(Exception exception) {
+        // sth wrong like result index not created. Return what we have
+        if (exception instanceof IndexNotFoundException) {
+            // don't print out stack trace since it is not helpful
+            logger.info("Result index hasn't been created", exception.getMessage());
+        } else {
+            logger.warn("fail to get last sample time", exception);
+        }
+    }
+
+    private void sendUnknownStates(
+        Set<EntityProfileName> profilesToCollect,
+        String categoryField,
+        Set<String> entityValues,
+        ActionListener<Entry<String, EntityProfile>> listener
+    ) {
+        for (String entityValue : entityValues) {
+            sendUnknownState(
+                profilesToCollect,
+                categoryField,
+                entityValue,
+                true,
+                ActionListener.wrap(profile -> listener.onResponse(new SimpleImmutableEntry<>(entityValue, profile)), listener::onFailure)
+            );
+        }
+    }
+
     private void profileStateRelated(
         long totalUpdates,
         String detectorId,
@@ -349,6 +618,44 @@ public class EntityProfileRunner extends AbstractProfileRunner {
         delegateListener.onResponse(builder.build());
     }
 
+    private SearchRequest createLastSampleTimesRequest(String detectorId, long enabledTime, Set<String> entityValues) {
+        BoolQueryBuilder boolQueryBuilder = new BoolQueryBuilder();
+
+        String path = "entity";
+        String entityValueFieldName = path + ".value";
+        TermsQueryBuilder entityValueFilterQuery = QueryBuilders.termsQuery(entityValueFieldName, entityValues);
+        NestedQueryBuilder nestedQueryBuilder = new NestedQueryBuilder(path, entityValueFilterQuery, ScoreMode.None);
+        boolQueryBuilder.filter(nestedQueryBuilder);
+
+        boolQueryBuilder.filter(QueryBuilders.termQuery(AnomalyResult.DETECTOR_ID_FIELD, detectorId));
+
+        boolQueryBuilder.filter(QueryBuilders.rangeQuery(AnomalyResult.EXECUTION_END_TIME_FIELD).gte(enabledTime));
+
+        boolQueryBuilder.mustNot(QueryBuilders.termQuery(AnomalyResult.RESULT_TYPE_FIELD, AnomalyResult.SUMMARY_RESULT_TYPE));
+
+        // entity value -> max execution end time of the results of the entity
+        TermsAggregationBuilder entityValueAgg = AggregationBuilders
+            .terms(ENTITY_VALUE_AGG)
+            .field(entityValueFieldName)
+            .includeExclude(new IncludeExclude(entityValues.toArray(new String[0]), null))
+            .size(entityValues.size())
+            .subAggregation(
+                AggregationBuilders
+                    .reverseNested(RESULT_AGG)
+                    .subAggregation(AggregationBuilders.max(CommonName.AGG_NAME_MAX_TIME).field(AnomalyResult.EXECUTION_END_TIME_FIELD))
+            );
+
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(boolQueryBuilder)
+            .aggregation(AggregationBuilders.nested(ENTITY_AGG, path).subAggregation(entityValueAgg))
+            .trackTotalHits(false)
+            .size(0);
+
+        SearchRequest request = new SearchRequest(CommonName.ANOMALY_RESULT_INDEX_ALIAS);
+        request.source(source);
+        return request;
+    }
+
     private SearchRequest createLastSampleTimeRequest(String detectorId, long enabledTime, String entityValue) {
         BoolQueryBuilder boolQueryBuilder = new BoolQueryBuilder();
 
@@ -362,6 +669,8 @@ public class EntityProfileRunner extends AbstractProfileRunner {
 
         boolQueryBuilder.filter(QueryBuilders.rangeQuery(AnomalyResult.EXECUTION_END_TIME_FIELD).gte(enabledTime));
 
+        boolQueryBuilder.mustNot(QueryBuilders.termQuery(AnomalyResult.RESULT_TYPE_FIELD, AnomalyResult.SUMMARY_RESULT_TYPE));
+
         SearchSourceBuilder source = new SearchSourceBuilder()
             .query(boolQueryBuilder)
             .aggregation(AggregationBuilders.max(CommonName.AGG_NAME_MAX_TIME).field(AnomalyResult.EXECUTION_END_TIME_FIELD))
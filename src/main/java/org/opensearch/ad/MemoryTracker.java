@@ -27,16 +27,24 @@
 package org.opensearch.ad;
 
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_MEMORY_CORRECTION_WEIGHT;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MODEL_MEMORY_MEASUREMENT_RATIO;
 
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.util.ObjectSizeCalculator;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.Randomness;
+import org.opensearch.common.settings.Settings;
 import org.opensearch.monitor.jvm.JvmService;
 
 import com.amazon.randomcutforest.RandomCutForest;
@@ -44,28 +52,59 @@ import com.amazon.randomcutforest.RandomCutForest;
 /**
  * Class to track AD memory usage.
  *
+ * Model sizes are estimated by a formula calibrated from jmap observations.  When
+ * measurement is enabled, the retained size of a sample of hosted models is measured
+ * during maintenance and a moving average of measured/estimated ratios is used to
+ * correct the formula.
+ *
+ * Accounting is lock-free as it is on the entity admission path: byte counters are
+ * atomics, with one counter per Origin besides the totals.  Readers of several
+ * counters may observe a consume or release half applied, which is fine for limit
+ * checks.  Reservations that must not over-commit go through
+ * {@link #reserveMemory(String, long, Origin)}, which claims bytes with a CAS.
  */
 public class MemoryTracker {
     private static final Logger LOG = LogManager.getLogger(MemoryTracker.class);
 
+    public static final String CORRECTION_FACTOR = "correction_factor";
+    public static final String MEASURED_MODELS = "measured_models";
+    public static final String LAST_ESTIMATED_BYTES = "last_estimated_bytes";
+    public static final String LAST_MEASURED_BYTES = "last_measured_bytes";
+
+    // Bounds of the correction factor so that a bad measurement cannot stop or flood model hosting.
+    // Object graph walks skip what they cannot reach and so give a lower bound of the retained
+    // size. Measurements may therefore only raise the formula's estimate, never lower it.
+    static final double MIN_CORRECTION_FACTOR = 1.0;
+    static final double MAX_CORRECTION_FACTOR = 4;
+
     public enum Origin {
         SINGLE_ENTITY_DETECTOR,
         MULTI_ENTITY_DETECTOR,
         HISTORICAL_SINGLE_ENTITY_DETECTOR,
+        HISTORICAL_MULTI_ENTITY_DETECTOR,
     }
 
     // memory tracker for total consumption of bytes
-    private long totalMemoryBytes;
-    private final Map<Origin, Long> totalMemoryBytesByOrigin;
+    private final AtomicLong totalMemoryBytes;
+    private final Map<Origin, AtomicLong> totalMemoryBytesByOrigin;
     // reserved for models. Cannot be deleted at will.
-    private long reservedMemoryBytes;
-    private final Map<Origin, Long> reservedMemoryBytesByOrigin;
+    private final AtomicLong reservedMemoryBytes;
+    private final Map<Origin, AtomicLong> reservedMemoryBytesByOrigin;
     private long heapSize;
-    private long heapLimitBytes;
+    private volatile long heapLimitBytes;
     private long desiredModelSize;
     // we observe threshold model uses a fixed size array and the size is the same
     private int thresholdModelBytes;
     private int sampleSize;
+    private volatile double measurementRatio;
+    // measured size / estimated size; applied to every estimate
+    private volatile double correctionFactor;
+    // Guarded by this
+    private long measuredModels;
+    // Guarded by this
+    private long lastEstimatedBytes;
+    // Guarded by this
+    private long lastMeasuredBytes;
 
     /**
      * Constructor
@@ -83,10 +122,38 @@ public class MemoryTracker {
         ClusterService clusterService,
         int sampleSize
     ) {
-        this.totalMemoryBytes = 0;
-        this.totalMemoryBytesByOrigin = new EnumMap<Origin, Long>(Origin.class);
-        this.reservedMemoryBytes = 0;
-        this.reservedMemoryBytesByOrigin = new EnumMap<Origin, Long>(Origin.class);
+        this(
+            jvmService,
+            modelMaxSizePercentage,
+            modelDesiredSizePercentage,
+            clusterService,
+            sampleSize,
+            MODEL_MEMORY_MEASUREMENT_RATIO.getDefault(Settings.EMPTY)
+        );
+    }
+
+    /**
+     * Constructor
+     *
+     * @param jvmService Service providing jvm info
+     * @param modelMaxSizePercentage Percentage of heap for the max size of a model
+     * @param modelDesiredSizePercentage percentage of heap for the desired size of a model
+     * @param clusterService Cluster service object
+     * @param sampleSize The sample size used by stream samplers in a RCF forest
+     * @param measurementRatio Fraction of hosted models measured during maintenance
+     */
+    public MemoryTracker(
+        JvmService jvmService,
+        double modelMaxSizePercentage,
+        double modelDesiredSizePercentage,
+        ClusterService clusterService,
+        int sampleSize,
+        double measurementRatio
+    ) {
+        this.totalMemoryBytes = new AtomicLong(0);
+        this.totalMemoryBytesByOrigin = createOriginCounters();
+        this.reservedMemoryBytes = new AtomicLong(0);
+        this.reservedMemoryBytesByOrigin = createOriginCounters();
         this.heapSize = jvmService.info().getMem().getHeapMax().getBytes();
         this.heapLimitBytes = (long) (heapSize * modelMaxSizePercentage);
         this.desiredModelSize = (long) (heapSize * modelDesiredSizePercentage);
@@ -95,9 +162,24 @@ public class MemoryTracker {
             .addSettingsUpdateConsumer(MODEL_MAX_SIZE_PERCENTAGE, it -> this.heapLimitBytes = (long) (heapSize * it));
         this.thresholdModelBytes = 180_000;
         this.sampleSize = sampleSize;
+        this.measurementRatio = measurementRatio;
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(MODEL_MEMORY_MEASUREMENT_RATIO, it -> this.measurementRatio = it);
+        this.correctionFactor = 1.0;
+        this.measuredModels = 0;
+        this.lastEstimatedBytes = 0;
+        this.lastMeasuredBytes = 0;
+    }
+
+    // counters are created up front so that the map is never modified and can be read without locking
+    private static Map<Origin, AtomicLong> createOriginCounters() {
+        Map<Origin, AtomicLong> counters = new EnumMap<Origin, AtomicLong>(Origin.class);
+        for (Origin origin : Origin.values()) {
+            counters.put(origin, new AtomicLong(0));
+        }
+        return Collections.unmodifiableMap(counters);
     }
 
-    public synchronized boolean isHostingAllowed(String detectorId, RandomCutForest rcf) {
+    public boolean isHostingAllowed(String detectorId, RandomCutForest rcf) {
         return canAllocateReserved(detectorId, estimateModelSize(rcf));
     }
 
@@ -106,59 +188,69 @@ public class MemoryTracker {
      * @param requiredBytes required bytes in memory
      * @return whether there is memory required for AD
      */
-    public synchronized boolean canAllocateReserved(String detectorId, long requiredBytes) {
-        if (reservedMemoryBytes + requiredBytes <= heapLimitBytes) {
+    public boolean canAllocateReserved(String detectorId, long requiredBytes) {
+        long reserved = reservedMemoryBytes.get();
+        if (reserved + requiredBytes <= heapLimitBytes) {
             return true;
         } else {
-            throw new LimitExceededException(
-                detectorId,
-                String
-                    .format(
-                        Locale.ROOT,
-                        "Exceeded memory limit. New size is %d bytes and max limit is %d bytes",
-                        reservedMemoryBytes + requiredBytes,
-                        heapLimitBytes
-                    )
-            );
+            throw exceededLimit(detectorId, reserved + requiredBytes);
         }
     }
 
     /**
-     * Whether allocating memory is allowed
-     * @param bytes required bytes
-     * @return true if allowed; false otherwise
+     * Atomically checks and consumes reserved memory.  Unlike calling
+     * {@link #canAllocateReserved(String, long)} and then {@link #consumeMemory(long, boolean, Origin)},
+     * concurrent callers cannot together reserve more than the limit.
+     *
+     * @param detectorId Detector Id, used in error message
+     * @param requiredBytes required bytes in memory
+     * @param origin Origin of the memory consumption
+     * @throws LimitExceededException if reserving the bytes exceeds the limit
      */
-    public synchronized boolean canAllocate(long bytes) {
-        return totalMemoryBytes + bytes <= heapLimitBytes;
+    public void reserveMemory(String detectorId, long requiredBytes, Origin origin) {
+        long reserved = 0;
+        do {
+            reserved = reservedMemoryBytes.get();
+            if (reserved + requiredBytes > heapLimitBytes) {
+                throw exceededLimit(detectorId, reserved + requiredBytes);
+            }
+        } while (!reservedMemoryBytes.compareAndSet(reserved, reserved + requiredBytes));
+        reservedMemoryBytesByOrigin.get(origin).addAndGet(requiredBytes);
+        totalMemoryBytes.addAndGet(requiredBytes);
+        totalMemoryBytesByOrigin.get(origin).addAndGet(requiredBytes);
     }
 
-    public synchronized void consumeMemory(long memoryToConsume, boolean reserved, Origin origin) {
-        totalMemoryBytes += memoryToConsume;
-        adjustOriginMemoryConsumption(memoryToConsume, origin, totalMemoryBytesByOrigin);
-        if (reserved) {
-            reservedMemoryBytes += memoryToConsume;
-            adjustOriginMemoryConsumption(memoryToConsume, origin, reservedMemoryBytesByOrigin);
-        }
+    private LimitExceededException exceededLimit(String detectorId, long newSize) {
+        return new LimitExceededException(
+            detectorId,
+            String.format(Locale.ROOT, "Exceeded memory limit. New size is %d bytes and max limit is %d bytes", newSize, heapLimitBytes)
+        );
     }
 
-    private void adjustOriginMemoryConsumption(long memoryToConsume, Origin origin, Map<Origin, Long> mapToUpdate) {
-        Long originTotalMemoryBytes = mapToUpdate.getOrDefault(origin, 0L);
-        mapToUpdate.put(origin, originTotalMemoryBytes + memoryToConsume);
+    /**
+     * Whether allocating memory is allowed
+     * @param bytes required bytes
+     * @return true if allowed; false otherwise
+     */
+    public boolean canAllocate(long bytes) {
+        return totalMemoryBytes.get() + bytes <= heapLimitBytes;
     }
 
-    public synchronized void releaseMemory(long memoryToShed, boolean reserved, Origin origin) {
-        totalMemoryBytes -= memoryToShed;
-        adjustOriginMemoryRelease(memoryToShed, origin, totalMemoryBytesByOrigin);
+    public void consumeMemory(long memoryToConsume, boolean reserved, Origin origin) {
+        totalMemoryBytes.addAndGet(memoryToConsume);
+        totalMemoryBytesByOrigin.get(origin).addAndGet(memoryToConsume);
         if (reserved) {
-            reservedMemoryBytes -= memoryToShed;
-            adjustOriginMemoryRelease(memoryToShed, origin, reservedMemoryBytesByOrigin);
+            reservedMemoryBytes.addAndGet(memoryToConsume);
+            reservedMemoryBytesByOrigin.get(origin).addAndGet(memoryToConsume);
         }
     }
 
-    private void adjustOriginMemoryRelease(long memoryToConsume, Origin origin, Map<Origin, Long> mapToUpdate) {
-        Long originTotalMemoryBytes = mapToUpdate.get(origin);
-        if (originTotalMemoryBytes != null) {
-            mapToUpdate.put(origin, originTotalMemoryBytes - memoryToConsume);
+    public void releaseMemory(long memoryToShed, boolean reserved, Origin origin) {
+        totalMemoryBytes.addAndGet(-memoryToShed);
+        totalMemoryBytesByOrigin.get(origin).addAndGet(-memoryToShed);
+        if (reserved) {
+            reservedMemoryBytes.addAndGet(-memoryToShed);
+            reservedMemoryBytesByOrigin.get(origin).addAndGet(-memoryToShed);
         }
     }
 
@@ -208,18 +300,85 @@ public class MemoryTracker {
      * @return estimated model size in bytes
      */
     public long estimateModelSize(int dimension, int numberOfTrees, int numSamples) {
+        return (long) (formulaModelSize(dimension, numberOfTrees, numSamples) * correctionFactor);
+    }
+
+    private long formulaModelSize(int dimension, int numberOfTrees, int numSamples) {
         long totalSamples = (long) numberOfTrees * (long) numSamples;
         long rcfSize = totalSamples * (40 * dimension + 132);
         long samplerSize = totalSamples * 36;
         return rcfSize + samplerSize + thresholdModelBytes;
     }
 
+    /**
+     * Whether to measure the next model during maintenance.  Callers ask once per
+     * hosted model so that the configured fraction of models is measured.
+     *
+     * @return true if the model should be measured
+     */
+    public boolean shouldMeasure() {
+        double ratio = measurementRatio;
+        return ratio > 0 && Randomness.get().nextDouble() < ratio;
+    }
+
+    /**
+     * Measures the retained size of a hosted model and feeds the ratio of measured
+     * to estimated size into the correction factor.  The walk is expensive, so only
+     * call it for models picked by {@link #shouldMeasure()}.
+     *
+     * @param forest RCF forest object
+     * @param threshold threshold model of the forest; null if it is hosted separately,
+     *  in which case the fixed threshold model size is used
+     */
+    public void measureModelSize(RandomCutForest forest, Object threshold) {
+        long measured = ObjectSizeCalculator.sizeOf(forest) + (threshold == null
+            ? thresholdModelBytes
+            : ObjectSizeCalculator.sizeOf(threshold));
+        long estimated = formulaModelSize(forest.getDimensions(), forest.getNumberOfTrees(), forest.getSampleSize());
+        recordMeasurement(estimated, measured);
+    }
+
+    synchronized void recordMeasurement(long estimatedBytes, long measuredBytes) {
+        if (estimatedBytes <= 0) {
+            return;
+        }
+        double ratio = (double) measuredBytes / estimatedBytes;
+        double factor = measuredModels == 0
+            ? ratio
+            : correctionFactor * (1 - MODEL_MEMORY_CORRECTION_WEIGHT) + ratio * MODEL_MEMORY_CORRECTION_WEIGHT;
+        correctionFactor = Math.max(MIN_CORRECTION_FACTOR, Math.min(MAX_CORRECTION_FACTOR, factor));
+        measuredModels++;
+        lastEstimatedBytes = estimatedBytes;
+        lastMeasuredBytes = measuredBytes;
+    }
+
+    /**
+     *
+     * @return measured size / formula size applied to model size estimates
+     */
+    public double getCorrectionFactor() {
+        return correctionFactor;
+    }
+
+    /**
+     *
+     * @return how far measured model sizes drift from the formula
+     */
+    public synchronized Map<String, Object> getMeasurementStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put(CORRECTION_FACTOR, correctionFactor);
+        stats.put(MEASURED_MODELS, measuredModels);
+        stats.put(LAST_ESTIMATED_BYTES, lastEstimatedBytes);
+        stats.put(LAST_MEASURED_BYTES, lastMeasuredBytes);
+        return stats;
+    }
+
     /**
      * Bytes to remove to keep AD memory usage within the limit
      * @return bytes to remove
      */
-    public synchronized long memoryToShed() {
-        return totalMemoryBytes - heapLimitBytes;
+    public long memoryToShed() {
+        return totalMemoryBytes.get() - heapLimitBytes;
     }
 
     /**
@@ -239,7 +398,7 @@ public class MemoryTracker {
     }
 
     public long getTotalMemoryBytes() {
-        return totalMemoryBytes;
+        return totalMemoryBytes.get();
     }
 
     /**
@@ -250,9 +409,9 @@ public class MemoryTracker {
      * @param reservedBytes reserved bytes from recomputing
      * @return whether memory adjusted due to mismatch
      */
-    public synchronized boolean syncMemoryState(Origin origin, long totalBytes, long reservedBytes) {
-        long recordedTotalBytes = totalMemoryBytesByOrigin.getOrDefault(origin, 0L);
-        long recordedReservedBytes = reservedMemoryBytesByOrigin.getOrDefault(origin, 0L);
+    public boolean syncMemoryState(Origin origin, long totalBytes, long reservedBytes) {
+        long recordedTotalBytes = totalMemoryBytesByOrigin.get(origin).get();
+        long recordedReservedBytes = reservedMemoryBytesByOrigin.get(origin).get();
         if (totalBytes == recordedTotalBytes && reservedBytes == recordedReservedBytes) {
             return false;
         }
@@ -269,14 +428,13 @@ public class MemoryTracker {
                         reservedBytes
                     )
             );
-        // reserved bytes mismatch
-        long reservedDiff = reservedBytes - recordedReservedBytes;
-        reservedMemoryBytesByOrigin.put(origin, reservedBytes);
-        reservedMemoryBytes += reservedDiff;
-
-        long totalDiff = totalBytes - recordedTotalBytes;
-        totalMemoryBytesByOrigin.put(origin, totalBytes);
-        totalMemoryBytes += totalDiff;
+        // Swap in the recomputed values and apply the difference to what was swapped out,
+        // so that concurrent consumes and releases keep the totals equal to the per-origin sums.
+        long reservedDiff = reservedBytes - reservedMemoryBytesByOrigin.get(origin).getAndSet(reservedBytes);
+        reservedMemoryBytes.addAndGet(reservedDiff);
+
+        long totalDiff = totalBytes - totalMemoryBytesByOrigin.get(origin).getAndSet(totalBytes);
+        totalMemoryBytes.addAndGet(totalDiff);
         return true;
     }
 
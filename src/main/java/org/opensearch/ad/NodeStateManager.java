@@ -37,16 +37,22 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.search.TotalHits;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.get.GetRequest;
 import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.IndicesOptions;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.common.exception.EndRunException;
 import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.constant.CommonErrorMessages;
 import org.opensearch.ad.constant.CommonName;
+import org.opensearch.ad.indices.AnomalyDetectionIndices;
 import org.opensearch.ad.ml.ModelPartitioner;
 import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.transport.BackPressureRouting;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.client.Client;
@@ -56,6 +62,8 @@ import org.opensearch.common.xcontent.LoggingDeprecationHandler;
 import org.opensearch.common.xcontent.NamedXContentRegistry;
 import org.opensearch.common.xcontent.XContentParser;
 import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.builder.SearchSourceBuilder;
 
 /**
  * NodeStateManager is used to manage states shared by transport and ml components
@@ -143,15 +151,35 @@ public class NodeStateManager implements MaintenanceState, CleanState {
     }
 
     public void getAnomalyDetector(String adID, ActionListener<Optional<AnomalyDetector>> listener) {
+        getAnomalyDetector(adID, null, listener);
+    }
+
+    /**
+     * Get Detector config object. The cached config is used unless it is older
+     * than the version the caller has seen.
+     * @param adID detector Id
+     * @param expectedVersion detector document version known to the caller; null if unknown
+     * @param listener listener to handle the config
+     */
+    public void getAnomalyDetector(String adID, Long expectedVersion, ActionListener<Optional<AnomalyDetector>> listener) {
         NodeState state = states.get(adID);
-        if (state != null && state.getDetectorDef() != null) {
-            listener.onResponse(Optional.of(state.getDetectorDef()));
+        AnomalyDetector cachedDetector = state == null ? null : state.getDetectorDef();
+        if (cachedDetector != null && !isStale(cachedDetector, expectedVersion)) {
+            listener.onResponse(Optional.of(cachedDetector));
         } else {
             GetRequest request = new GetRequest(AnomalyDetector.ANOMALY_DETECTORS_INDEX, adID);
             clientUtil.<GetRequest, GetResponse>asyncRequest(request, client::get, onGetDetectorResponse(adID, listener));
         }
     }
 
+    private boolean isStale(AnomalyDetector cachedDetector, Long expectedVersion) {
+        if (expectedVersion == null || expectedVersion < 0) {
+            return false;
+        }
+        Long cachedVersion = cachedDetector.getVersion();
+        return cachedVersion == null || cachedVersion < expectedVersion;
+    }
+
     private ActionListener<GetResponse> onGetDetectorResponse(String adID, ActionListener<Optional<AnomalyDetector>> listener) {
         return ActionListener.wrap(response -> {
             if (response == null || !response.isExists()) {
@@ -166,7 +194,7 @@ public class NodeStateManager implements MaintenanceState, CleanState {
                 XContentParser parser = XContentType.JSON.xContent().createParser(xContentRegistry, LoggingDeprecationHandler.INSTANCE, xc)
             ) {
                 ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
-                AnomalyDetector detector = AnomalyDetector.parse(parser, response.getId());
+                AnomalyDetector detector = AnomalyDetector.parse(parser, response.getId(), response.getVersion());
                 // end execution if all features are disabled
                 if (detector.getEnabledFeatureIds().isEmpty()) {
                     listener
@@ -199,21 +227,35 @@ public class NodeStateManager implements MaintenanceState, CleanState {
             return;
         }
 
-        GetRequest request = new GetRequest(CommonName.CHECKPOINT_INDEX_NAME, modelPartitioner.getRcfModelId(adID, 0));
+        String rcfModelId = modelPartitioner.getRcfModelId(adID, 0);
+        if (AnomalyDetectorSettings.CHECKPOINT_INDEX_PARTITIONING.get(settings)) {
+            // the checkpoint can be in any partition
+            SearchRequest request = new SearchRequest(AnomalyDetectionIndices.ALL_CHECKPOINT_INDEX_PATTERN)
+                .indicesOptions(IndicesOptions.lenientExpandOpen())
+                .source(new SearchSourceBuilder().query(QueryBuilders.idsQuery().addIds(rcfModelId)).size(0).trackTotalHits(true));
+            clientUtil.<SearchRequest, SearchResponse>asyncRequest(request, client::search, ActionListener.wrap(response -> {
+                TotalHits totalHits = response.getHits().getTotalHits();
+                onCheckpointFound(adID, totalHits != null && totalHits.value > 0, listener);
+            }, listener::onFailure));
+            return;
+        }
+
+        GetRequest request = new GetRequest(CommonName.CHECKPOINT_INDEX_NAME, rcfModelId);
 
         clientUtil.<GetRequest, GetResponse>asyncRequest(request, client::get, onGetCheckpointResponse(adID, listener));
     }
 
+    private void onCheckpointFound(String adID, boolean found, ActionListener<Boolean> listener) {
+        if (found) {
+            NodeState state = states.computeIfAbsent(adID, id -> new NodeState(id, clock));
+            state.setCheckpointExists(true);
+        }
+        listener.onResponse(found);
+    }
+
     private ActionListener<GetResponse> onGetCheckpointResponse(String adID, ActionListener<Boolean> listener) {
-        return ActionListener.wrap(response -> {
-            if (response == null || !response.isExists()) {
-                listener.onResponse(Boolean.FALSE);
-            } else {
-                NodeState state = states.computeIfAbsent(adID, id -> new NodeState(id, clock));
-                state.setCheckpointExists(true);
-                listener.onResponse(Boolean.TRUE);
-            }
-        }, listener::onFailure);
+        return ActionListener
+            .wrap(response -> onCheckpointFound(adID, response != null && response.isExists(), listener), listener::onFailure);
     }
 
     /**
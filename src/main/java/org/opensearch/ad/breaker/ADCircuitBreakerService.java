@@ -26,13 +26,19 @@
 
 package org.opensearch.ad.breaker;
 
+import java.time.Clock;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.settings.EnabledSetting;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
 import org.opensearch.monitor.jvm.JvmService;
+import org.opensearch.threadpool.ThreadPool;
 
 /**
  * Class {@code ADCircuitBreakerService} provide storing, retrieving circuit breakers functions.
@@ -43,6 +49,10 @@ public class ADCircuitBreakerService {
 
     private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
     private final JvmService jvmService;
+    private final ThreadPool threadPool;
+    private final Settings settings;
+    private final ClusterService clusterService;
+    private LoadSheddingBreaker loadSheddingBreaker;
 
     private static final Logger logger = LogManager.getLogger(ADCircuitBreakerService.class);
 
@@ -52,7 +62,32 @@ public class ADCircuitBreakerService {
      * @param jvmService jvm info
      */
     public ADCircuitBreakerService(JvmService jvmService) {
+        this(jvmService, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jvmService jvm info
+     * @param threadPool thread pool whose AD queue depth grades load
+     */
+    public ADCircuitBreakerService(JvmService jvmService, ThreadPool threadPool) {
+        this(jvmService, threadPool, Settings.EMPTY, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jvmService jvm info
+     * @param threadPool thread pool whose AD queue depth grades load
+     * @param settings settings to read load shedding thresholds from
+     * @param clusterService cluster service to follow load shedding threshold updates; null to ignore updates
+     */
+    public ADCircuitBreakerService(JvmService jvmService, ThreadPool threadPool, Settings settings, ClusterService clusterService) {
         this.jvmService = jvmService;
+        this.threadPool = threadPool;
+        this.settings = settings;
+        this.clusterService = clusterService;
     }
 
     public void registerBreaker(String name, CircuitBreaker breaker) {
@@ -78,7 +113,9 @@ public class ADCircuitBreakerService {
     /**
      * Initialize circuit breaker service.
      *
-     * Register memory breaker by default.
+     * Register memory breaker by default and create the load shedding breaker.  The load
+     * shedding breaker is kept out of {@link #isOpen()}: paths that shed load read
+     * {@link #getLoadLevel()}, while the other paths keep failing only on the memory breaker.
      *
      * @return ADCircuitBreakerService
      */
@@ -87,6 +124,18 @@ public class ADCircuitBreakerService {
         registerBreaker(BreakerName.MEM.getName(), new MemoryCircuitBreaker(this.jvmService));
         logger.info("Registered memory breaker.");
 
+        loadSheddingBreaker = new LoadSheddingBreaker(this.jvmService, this.threadPool, Clock.systemUTC(), settings);
+        if (clusterService != null) {
+            ClusterSettings clusterSettings = clusterService.getClusterSettings();
+            clusterSettings
+                .addSettingsUpdateConsumer(AnomalyDetectorSettings.LOAD_SHEDDING_HEAP_THRESHOLDS, loadSheddingBreaker::setHeapThresholds);
+            clusterSettings
+                .addSettingsUpdateConsumer(AnomalyDetectorSettings.LOAD_SHEDDING_QUEUE_THRESHOLDS, loadSheddingBreaker::setQueueThresholds);
+            clusterSettings
+                .addSettingsUpdateConsumer(AnomalyDetectorSettings.LOAD_SHEDDING_GC_TIME_THRESHOLDS, loadSheddingBreaker::setGcThresholds);
+        }
+        logger.info("Created load shedding breaker.");
+
         return this;
     }
 
@@ -103,4 +152,17 @@ public class ADCircuitBreakerService {
 
         return false;
     }
+
+    /**
+     * Paths that can degrade gradually, like multi-entity detection, shed work by
+     * the load level instead of failing once {@link #isOpen()}.
+     *
+     * @return current load level; NORMAL if breakers are disabled or not initialized
+     */
+    public LoadLevel getLoadLevel() {
+        if (!EnabledSetting.isADBreakerEnabled() || loadSheddingBreaker == null) {
+            return LoadLevel.NORMAL;
+        }
+        return loadSheddingBreaker.getLevel();
+    }
 }
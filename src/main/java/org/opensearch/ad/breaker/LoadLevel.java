@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.breaker;
+
+/**
+ * Levels of work that multi-entity detection sheds as a node gets loaded.  A level
+ * sheds everything lower levels shed.
+ */
+public enum LoadLevel {
+    // no shedding
+    NORMAL("normal"),
+    // do not train models of entities without a checkpoint
+    SKIP_COLD_START("skip_cold_start"),
+    // do not admit entities not in the cache
+    NO_NEW_ENTITY("no_new_entity"),
+    // only score the higher priority half of cached entities in a request
+    TOP_PRIORITY_ONLY("top_priority_only"),
+    // only write results of anomalies
+    ANOMALY_ONLY("anomaly_only"),
+    // fail requests, as the all-or-nothing breakers do
+    OVERLOADED("overloaded");
+
+    private String name;
+
+    LoadLevel(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param level level to compare with
+     * @return whether this level sheds everything the given level sheds
+     */
+    public boolean atLeast(LoadLevel level) {
+        return compareTo(level) >= 0;
+    }
+}
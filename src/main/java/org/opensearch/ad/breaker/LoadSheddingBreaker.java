@@ -0,0 +1,241 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.breaker;
+
+import java.time.Clock;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ad.AnomalyDetectorPlugin;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.monitor.jvm.JvmService;
+import org.opensearch.monitor.jvm.JvmStats;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.threadpool.ThreadPoolStats;
+
+/**
+ * A multi-level breaker that grades load by JVM heap usage, AD thread pool queue depth,
+ * and the fraction of time spent in GC.  Each signal maps to the highest level whose
+ * threshold it reaches and the node is at the highest level of all signals.  Thresholds
+ * are the dynamic settings {@link AnomalyDetectorSettings#LOAD_SHEDDING_HEAP_THRESHOLDS},
+ * {@link AnomalyDetectorSettings#LOAD_SHEDDING_QUEUE_THRESHOLDS}, and
+ * {@link AnomalyDetectorSettings#LOAD_SHEDDING_GC_TIME_THRESHOLDS}.
+ *
+ * Heap usage swings with every GC cycle, so the heap signal is the lowest usage seen in
+ * the current and the previous {@link #HEAP_WINDOW_MILLIS} window, which approximates the
+ * occupancy right after GC.  GC time is averaged over {@link #GC_WINDOW_MILLIS}.
+ *
+ * To avoid flapping, a level is only left when every signal falls below
+ * {@link #HYSTERESIS} times the threshold that entered it.  Signals are sampled at
+ * most once per {@link #SAMPLE_INTERVAL_MILLIS} so that callers on hot paths read a
+ * cached level.
+ *
+ * The breaker is open at {@link LoadLevel#OVERLOADED}.  It is not registered in
+ * {@link ADCircuitBreakerService}, so it does not count towards
+ * {@link ADCircuitBreakerService#isOpen()}; callers read {@link #getLevel()} instead.
+ */
+public class LoadSheddingBreaker implements CircuitBreaker {
+    private static final Logger LOG = LogManager.getLogger(LoadSheddingBreaker.class);
+
+    static final double HYSTERESIS = 0.9;
+    static final long SAMPLE_INTERVAL_MILLIS = 1000;
+    static final long HEAP_WINDOW_MILLIS = 30_000;
+    static final long GC_WINDOW_MILLIS = 10_000;
+
+    private final JvmService jvmService;
+    private final ThreadPool threadPool;
+    private final Clock clock;
+    private volatile double[] heapThresholds;
+    private volatile double[] queueThresholds;
+    private volatile double[] gcThresholds;
+    private volatile LoadLevel level;
+    // Guarded by this
+    private long lastSampleMillis;
+    // Guarded by this
+    private long heapWindowStartMillis;
+    // Guarded by this
+    private double heapWindowMin;
+    // Guarded by this
+    private double previousHeapWindowMin;
+    // Guarded by this
+    private long gcWindowStartMillis;
+    // Guarded by this
+    private long gcWindowStartGcMillis;
+    // Guarded by this
+    private double gcPercent;
+
+    /**
+     * Constructor with the default thresholds
+     *
+     * @param jvmService jvm info
+     * @param threadPool thread pool to read the AD thread pool queue from; null to ignore queue depth
+     * @param clock clock to time samples
+     */
+    public LoadSheddingBreaker(JvmService jvmService, ThreadPool threadPool, Clock clock) {
+        this(jvmService, threadPool, clock, Settings.EMPTY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param jvmService jvm info
+     * @param threadPool thread pool to read the AD thread pool queue from; null to ignore queue depth
+     * @param clock clock to time samples
+     * @param settings settings to read the initial thresholds from
+     */
+    public LoadSheddingBreaker(JvmService jvmService, ThreadPool threadPool, Clock clock, Settings settings) {
+        this.jvmService = jvmService;
+        this.threadPool = threadPool;
+        this.clock = clock;
+        setHeapThresholds(AnomalyDetectorSettings.LOAD_SHEDDING_HEAP_THRESHOLDS.get(settings));
+        setQueueThresholds(AnomalyDetectorSettings.LOAD_SHEDDING_QUEUE_THRESHOLDS.get(settings));
+        setGcThresholds(AnomalyDetectorSettings.LOAD_SHEDDING_GC_TIME_THRESHOLDS.get(settings));
+        this.level = LoadLevel.NORMAL;
+        this.lastSampleMillis = Long.MIN_VALUE;
+        this.gcWindowStartGcMillis = -1;
+    }
+
+    public void setHeapThresholds(List<Double> thresholds) {
+        this.heapThresholds = toArray(thresholds);
+    }
+
+    public void setQueueThresholds(List<Double> thresholds) {
+        this.queueThresholds = toArray(thresholds);
+    }
+
+    public void setGcThresholds(List<Double> thresholds) {
+        this.gcThresholds = toArray(thresholds);
+    }
+
+    private static double[] toArray(List<Double> thresholds) {
+        return thresholds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * @return the current load level
+     */
+    public LoadLevel getLevel() {
+        long now = clock.millis();
+        synchronized (this) {
+            if (lastSampleMillis == Long.MIN_VALUE || now - lastSampleMillis >= SAMPLE_INTERVAL_MILLIS) {
+                sample(now);
+            }
+        }
+        return level;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return getLevel() == LoadLevel.OVERLOADED;
+    }
+
+    // Guarded by this
+    private void sample(long now) {
+        try {
+            JvmStats stats = jvmService.stats();
+            long gcMillis = 0;
+            for (JvmStats.GarbageCollector collector : stats.getGc().getCollectors()) {
+                gcMillis += collector.getCollectionTime().millis();
+            }
+            if (gcWindowStartGcMillis < 0) {
+                gcWindowStartMillis = now;
+                gcWindowStartGcMillis = gcMillis;
+            } else if (now - gcWindowStartMillis >= GC_WINDOW_MILLIS) {
+                gcPercent = 100.0 * (gcMillis - gcWindowStartGcMillis) / (now - gcWindowStartMillis);
+                gcWindowStartMillis = now;
+                gcWindowStartGcMillis = gcMillis;
+            }
+
+            double heapUsedPercent = stats.getMem().getHeapUsedPercent();
+            if (lastSampleMillis == Long.MIN_VALUE || now - heapWindowStartMillis >= HEAP_WINDOW_MILLIS) {
+                previousHeapWindowMin = lastSampleMillis == Long.MIN_VALUE ? heapUsedPercent : heapWindowMin;
+                heapWindowStartMillis = now;
+                heapWindowMin = heapUsedPercent;
+            } else {
+                heapWindowMin = Math.min(heapWindowMin, heapUsedPercent);
+            }
+
+            double[] signals = { Math.min(heapWindowMin, previousHeapWindowMin), getQueueSize(), gcPercent };
+            LoadLevel newLevel = nextLevel(level, signals, new double[][] { heapThresholds, queueThresholds, gcThresholds });
+            if (newLevel != level) {
+                LOG
+                    .info(
+                        "AD load level changes from {} to {}: heap used after GC {}%, queue size {}, gc time {}%",
+                        level.getName(),
+                        newLevel.getName(),
+                        signals[0],
+                        signals[1],
+                        signals[2]
+                    );
+                level = newLevel;
+            }
+        } catch (Exception e) {
+            // keep the previous level
+            LOG.warn("Fail to sample AD load", e);
+        }
+        lastSampleMillis = now;
+    }
+
+    private long getQueueSize() {
+        if (threadPool == null) {
+            return 0;
+        }
+        for (ThreadPoolStats.Stats stats : threadPool.stats()) {
+            if (AnomalyDetectorPlugin.AD_THREAD_POOL_NAME.equals(stats.getName())) {
+                return stats.getQueue();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param current current level
+     * @param signals heap used percent, AD thread pool queue size, and GC time percent
+     * @param thresholds thresholds entering each level above NORMAL, per signal
+     * @return level after observing the signals
+     */
+    static LoadLevel nextLevel(LoadLevel current, double[] signals, double[][] thresholds) {
+        int entered = 0;
+        int held = 0;
+        for (int i = 0; i < signals.length; i++) {
+            entered = Math.max(entered, levelOf(signals[i], thresholds[i], 1));
+            held = Math.max(held, levelOf(signals[i], thresholds[i], HYSTERESIS));
+        }
+        // go up as soon as a signal reaches a threshold; go down only as far as the exit thresholds allow
+        return LoadLevel.values()[Math.max(entered, Math.min(current.ordinal(), held))];
+    }
+
+    private static int levelOf(double signal, double[] thresholds, double factor) {
+        int level = 0;
+        while (level < thresholds.length && signal >= thresholds[level] * factor) {
+            level++;
+        }
+        return level;
+    }
+}
@@ -85,6 +85,7 @@ public class CacheBuffer implements ExpiringState, MaintenanceState {
     private final long reservedBytes;
     private final PriorityTracker priorityTracker;
     private final Clock clock;
+    private final EntityCacheStats cacheStats;
 
     public CacheBuffer(
         int minimumCapacity,
@@ -114,6 +115,7 @@ public class CacheBuffer implements ExpiringState, MaintenanceState {
         this.reservedBytes = memoryConsumptionPerEntity * minimumCapacity;
         this.clock = clock;
         this.priorityTracker = new PriorityTracker(clock, intervalSecs, clock.instant().getEpochSecond(), MAX_TRACKING_ENTITIES);
+        this.cacheStats = new EntityCacheStats();
     }
 
     /**
@@ -453,6 +455,10 @@ public class CacheBuffer implements ExpiringState, MaintenanceState {
         return items.values().stream().collect(Collectors.toList());
     }
 
+    public EntityCacheStats getCacheStats() {
+        return cacheStats;
+    }
+
     public PriorityTracker getPriorityTracker() {
         return priorityTracker;
     }
@@ -27,11 +27,13 @@
 package org.opensearch.ad.caching;
 
 import java.util.List;
+import java.util.Map;
 
 import org.opensearch.ad.CleanState;
 import org.opensearch.ad.DetectorModelSize;
 import org.opensearch.ad.EntityModelSize;
 import org.opensearch.ad.MaintenanceState;
+import org.opensearch.ad.breaker.LoadLevel;
 import org.opensearch.ad.ml.EntityModel;
 import org.opensearch.ad.ml.ModelState;
 import org.opensearch.ad.model.AnomalyDetector;
@@ -50,6 +52,22 @@ public interface EntityCache extends MaintenanceState, CleanState, DetectorModel
      */
     ModelState<EntityModel> get(String modelId, AnomalyDetector detector, double[] datapoint, String entityName);
 
+    /**
+     * Get the ModelState associated with the entity.  Handling a cache miss sheds
+     * work according to the node's load level: no model is trained for entities
+     * without checkpoint from {@link LoadLevel#SKIP_COLD_START} on, and no entity is
+     * hosted from {@link LoadLevel#NO_NEW_ENTITY} on.
+     *
+     * @param modelId Model Id
+     * @param detector Detector config object
+     * @param datapoint The most recent data point
+     * @param entityName The Entity's name
+     * @param loadLevel The node's load level
+     * @return the ModelState associated with the model or null if no cached item
+     * for the entity
+     */
+    ModelState<EntityModel> get(String modelId, AnomalyDetector detector, double[] datapoint, String entityName, LoadLevel loadLevel);
+
     /**
      * Get the number of active entities of a detector
      * @param detector Detector Id
@@ -109,4 +127,12 @@ public interface EntityCache extends MaintenanceState, CleanState, DetectorModel
      * milliseconds when the entity's state is lastly used.  Otherwise, return -1.
      */
     long getLastActiveMs(String detectorId, String entityModelId);
+
+    /**
+     * Get counts of cache events of a detector on this node
+     *
+     * @param detectorId Detector Id
+     * @return event name to count; empty if the detector has no entity in the cache
+     */
+    Map<String, Long> getCacheStats(String detectorId);
 }
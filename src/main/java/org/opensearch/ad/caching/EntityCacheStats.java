@@ -0,0 +1,135 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.caching;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts entity cache events of a detector or of a node since the counting
+ * starts.  Clients derive rates from successive reads.
+ */
+public class EntityCacheStats {
+    public static final String HIT_RATE = "hit_rate";
+
+    public enum Event {
+        // the entity's model is in the cache
+        HIT("hits"),
+        // the entity's model is not in the cache
+        MISS("misses"),
+        // a miss of an entity seen for the first time in a while, which is not hosted
+        DOOR_KEEPER_REJECTION("door_keeper_rejections"),
+        // a miss not handled as the cache is in maintenance
+        MAINTENANCE_DEFERRAL("maintenance_deferrals"),
+        // a miss not handled as cacheMissHandlingLimiter ran out of permits
+        RATE_LIMITED("rate_limited_misses"),
+        // a miss not handled as the node sheds load
+        LOAD_SHED("load_shed_misses"),
+        // a missed entity hosted in free dedicated or shared cache
+        ADMISSION("admissions"),
+        // a missed entity hosted by evicting an entity of the same detector
+        REPLACEMENT_WITHIN_DETECTOR("replacements_within_detector"),
+        // a missed entity hosted by evicting an entity of another detector
+        REPLACEMENT_ACROSS_DETECTORS("replacements_across_detectors"),
+        // an entity of this detector evicted by an entity of another detector
+        EVICTION_BY_OTHER_DETECTOR("evictions_by_other_detectors"),
+        // a missed entity not hosted as its priority is too low
+        PRIORITY_REJECTION("priority_rejections"),
+        // a hosted entity's model restored from its checkpoint
+        RESTORE("restores"),
+        // a hosted entity without checkpoint, which starts cold
+        COLD_START("cold_starts"),
+        // a hosted entity without checkpoint not trained as the node sheds load
+        SKIPPED_COLD_START("skipped_cold_starts"),
+        // a hosted entity whose checkpoint could not be read
+        RESTORE_FAILURE("restore_failures");
+
+        private final String name;
+
+        Event(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final Map<Event, LongAdder> counters;
+
+    public EntityCacheStats() {
+        this.counters = new EnumMap<>(Event.class);
+        for (Event event : Event.values()) {
+            counters.put(event, new LongAdder());
+        }
+    }
+
+    public void record(Event event) {
+        counters.get(event).increment();
+    }
+
+    public long getCount(Event event) {
+        return counters.get(event).sum();
+    }
+
+    /**
+     * @return event name to count
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<Event, LongAdder> entry : counters.entrySet()) {
+            counts.put(entry.getKey().getName(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * @param counts event name to count
+     * @return the counts with the hit rate
+     */
+    public static Map<String, Object> withHitRate(Map<String, Long> counts) {
+        Map<String, Object> stats = new HashMap<>(counts);
+        long hits = counts.getOrDefault(Event.HIT.getName(), 0L);
+        long lookups = hits + counts.getOrDefault(Event.MISS.getName(), 0L);
+        stats.put(HIT_RATE, lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+
+    /**
+     * Sums counts of the same events
+     *
+     * @param sum event name to count, updated in place
+     * @param counts event name to count to add
+     */
+    public static void add(Map<String, Long> sum, Map<String, Long> counts) {
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            sum.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+    }
+}
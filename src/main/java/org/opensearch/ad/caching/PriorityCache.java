@@ -57,8 +57,8 @@ import org.opensearch.action.support.TransportActions;
 import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.MemoryTracker;
 import org.opensearch.ad.MemoryTracker.Origin;
-import org.opensearch.ad.common.exception.LimitExceededException;
-import org.opensearch.ad.constant.CommonErrorMessages;
+import org.opensearch.ad.breaker.LoadLevel;
+import org.opensearch.ad.caching.EntityCacheStats.Event;
 import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.ml.EntityModel;
 import org.opensearch.ad.ml.ModelManager;
@@ -66,6 +66,7 @@ import org.opensearch.ad.ml.ModelManager.ModelType;
 import org.opensearch.ad.ml.ModelState;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
@@ -92,6 +93,8 @@ public class PriorityCache implements EntityCache {
     private final Clock clock;
     private final Duration modelTtl;
     private final int numMinSamples;
+    private final LatencySupplier lookupLatency;
+    private final EntityCacheStats nodeCacheStats;
     private Map<String, DoorKeeper> doorKeepers;
     private Instant cooldownStart;
     private int coolDownMinutes;
@@ -143,16 +146,62 @@ public class PriorityCache implements EntityCache {
         clusterService
             .getClusterSettings()
             .addSettingsUpdateConsumer(MAX_CACHE_MISS_HANDLING_PER_SECOND, it -> this.cacheMissHandlingLimiter = RateLimiter.create(it));
+        this.lookupLatency = new LatencySupplier();
+        this.nodeCacheStats = new EntityCacheStats();
+    }
+
+    /**
+     * @return counts of cache events of all detectors on this node
+     */
+    public EntityCacheStats getNodeCacheStats() {
+        return nodeCacheStats;
+    }
+
+    private void record(CacheBuffer buffer, Event event) {
+        buffer.getCacheStats().record(event);
+        nodeCacheStats.record(event);
+    }
+
+    /**
+     * @return latency of cache lookups, cache miss handling included
+     */
+    public LatencySupplier getLookupLatency() {
+        return lookupLatency;
     }
 
     @Override
     public ModelState<EntityModel> get(String modelId, AnomalyDetector detector, double[] datapoint, String entityName) {
+        return get(modelId, detector, datapoint, entityName, LoadLevel.NORMAL);
+    }
+
+    @Override
+    public ModelState<EntityModel> get(
+        String modelId,
+        AnomalyDetector detector,
+        double[] datapoint,
+        String entityName,
+        LoadLevel loadLevel
+    ) {
+        long startNanos = System.nanoTime();
+        ModelState<EntityModel> modelState = getModelState(modelId, detector, datapoint, entityName, loadLevel);
+        lookupLatency.recordSince(startNanos);
+        return modelState;
+    }
+
+    private ModelState<EntityModel> getModelState(
+        String modelId,
+        AnomalyDetector detector,
+        double[] datapoint,
+        String entityName,
+        LoadLevel loadLevel
+    ) {
         String detectorId = detector.getDetectorId();
         CacheBuffer buffer = computeBufferIfAbsent(detector, detectorId);
         ModelState<EntityModel> modelState = buffer.get(modelId);
 
         // during maintenance period, stop putting new entries
         if (modelState == null) {
+            record(buffer, Event.MISS);
             DoorKeeper doorKeeper = doorKeepers
                 .computeIfAbsent(
                     detectorId,
@@ -170,6 +219,7 @@ public class PriorityCache implements EntityCache {
             // first hit, ignore
             if (doorKeeper.mightContain(modelId) == false) {
                 doorKeeper.put(modelId);
+                record(buffer, Event.DOOR_KEEPER_REJECTION);
                 return null;
             }
 
@@ -215,9 +265,18 @@ public class PriorityCache implements EntityCache {
                 // matter what.
                 tryClearUpMemory();
             }
-            if (!maintenanceLock.isLocked()
-                && cacheMissHandlingLimiter.tryAcquire()
-                && hostIfPossible(buffer, detectorId, modelId, entityName, detector, state, priority)) {
+            boolean hosted = false;
+            if (maintenanceLock.isLocked()) {
+                record(buffer, Event.MAINTENANCE_DEFERRAL);
+            } else if (loadLevel.atLeast(LoadLevel.NO_NEW_ENTITY)) {
+                record(buffer, Event.LOAD_SHED);
+            } else if (!cacheMissHandlingLimiter.tryAcquire()) {
+                record(buffer, Event.RATE_LIMITED);
+            } else {
+                boolean allowColdStart = !loadLevel.atLeast(LoadLevel.SKIP_COLD_START);
+                hosted = hostIfPossible(buffer, detectorId, modelId, entityName, detector, state, priority, allowColdStart);
+            }
+            if (hosted) {
                 addSample(state, datapoint);
                 inActiveEntities.invalidate(modelId);
             } else {
@@ -227,6 +286,8 @@ public class PriorityCache implements EntityCache {
                 // in small heap machine like t2.
                 inActiveEntities.put(modelId, state);
             }
+        } else {
+            record(buffer, Event.HIT);
         }
 
         return modelState;
@@ -241,6 +302,7 @@ public class PriorityCache implements EntityCache {
      * @param detector Detector Config
      * @param state State to host
      * @param priority The entity's priority
+     * @param allowColdStart Whether to train a model if the entity has no checkpoint
      * @return true if possible; false otherwise
      */
     private boolean hostIfPossible(
@@ -250,13 +312,15 @@ public class PriorityCache implements EntityCache {
         String entityName,
         AnomalyDetector detector,
         ModelState<EntityModel> state,
-        float priority
+        float priority,
+        boolean allowColdStart
     ) {
         // current buffer's dedicated cache has free slots
         // thread safe as each detector has one thread at one time and only the
         // thread can access its buffer.
         if (buffer.dedicatedCacheAvailable()) {
             buffer.put(modelId, state);
+            record(buffer, Event.ADMISSION);
         } else if (memoryTracker.canAllocate(buffer.getMemoryConsumptionPerEntity())) {
             // can allocate in shared cache
             // race conditions can happen when multiple threads evaluating this condition.
@@ -265,12 +329,14 @@ public class PriorityCache implements EntityCache {
             // it is fine we exceed a little. We have regular maintenance to remove
             // extra memory usage.
             buffer.put(modelId, state);
+            record(buffer, Event.ADMISSION);
         } else if (buffer.canReplaceWithinDetector(priority)) {
             // can replace an entity in the same CacheBuffer living in reserved
             // or shared cache
             // thread safe as each detector has one thread at one time and only the
             // thread can access its buffer.
             ModelState<EntityModel> removed = buffer.replace(modelId, state);
+            record(buffer, Event.REPLACEMENT_WITHIN_DETECTOR);
             if (removed != null) {
                 // set last used time for profile API so that we know when an entities is evicted
                 removed.setLastUsedTime(clock.instant());
@@ -286,15 +352,19 @@ public class PriorityCache implements EntityCache {
             ModelState<EntityModel> removed = null;
             if (bufferToRemove != null && ((removed = bufferToRemove.remove(entityModelId)) != null)) {
                 buffer.put(modelId, state);
+                record(buffer, Event.REPLACEMENT_ACROSS_DETECTORS);
+                // per detector only: the node-level count equals replacements across detectors
+                bufferToRemove.getCacheStats().record(Event.EVICTION_BY_OTHER_DETECTOR);
                 // set last used time for profile API so that we know when an entities is evicted
                 removed.setLastUsedTime(clock.instant());
                 inActiveEntities.put(removed.getModelId(), removed);
             } else {
+                record(buffer, Event.PRIORITY_REJECTION);
                 return false;
             }
         }
 
-        maybeRestoreOrTrainModel(modelId, entityName, state);
+        maybeRestoreOrTrainModel(buffer, modelId, entityName, state, allowColdStart);
         return true;
     }
 
@@ -308,29 +378,48 @@ public class PriorityCache implements EntityCache {
         }
     }
 
-    private void maybeRestoreOrTrainModel(String modelId, String entityName, ModelState<EntityModel> state) {
+    private void maybeRestoreOrTrainModel(
+        CacheBuffer buffer,
+        String modelId,
+        String entityName,
+        ModelState<EntityModel> state,
+        boolean allowColdStart
+    ) {
         EntityModel entityModel = state.getModel();
         // rate limit in case of OpenSearchRejectedExecutionException from get threadpool whose queue capacity is 1k
         if (entityModel != null
             && (entityModel.getRcf() == null || entityModel.getThreshold() == null)
             && cooldownStart.plus(Duration.ofMinutes(coolDownMinutes)).isBefore(clock.instant())) {
-            checkpointDao
-                .restoreModelCheckpoint(
-                    modelId,
-                    ActionListener
-                        .wrap(checkpoint -> modelManager.processEntityCheckpoint(checkpoint, modelId, entityName, state), exception -> {
-                            Throwable cause = Throwables.getRootCause(exception);
-                            if (cause instanceof IndexNotFoundException) {
-                                modelManager.processEntityCheckpoint(Optional.empty(), modelId, entityName, state);
-                            } else if (cause instanceof RejectedExecutionException
-                                || TransportActions.isShardNotAvailableException(cause)) {
-                                LOG.error("too many get AD model checkpoint requests or shard not avialble");
-                                cooldownStart = clock.instant();
-                            } else {
-                                LOG.error("Fail to restore models for " + modelId, exception);
-                            }
-                        })
-                );
+            checkpointDao.restoreModelCheckpoint(modelId, ActionListener.wrap(checkpoint -> {
+                if (checkpoint.isPresent()) {
+                    record(buffer, Event.RESTORE);
+                    modelManager.processEntityCheckpoint(checkpoint, modelId, entityName, state);
+                } else {
+                    coldStart(buffer, modelId, entityName, state, allowColdStart);
+                }
+            }, exception -> {
+                Throwable cause = Throwables.getRootCause(exception);
+                if (cause instanceof IndexNotFoundException) {
+                    coldStart(buffer, modelId, entityName, state, allowColdStart);
+                } else if (cause instanceof RejectedExecutionException || TransportActions.isShardNotAvailableException(cause)) {
+                    record(buffer, Event.RESTORE_FAILURE);
+                    LOG.error("too many get AD model checkpoint requests or shard not avialble");
+                    cooldownStart = clock.instant();
+                } else {
+                    record(buffer, Event.RESTORE_FAILURE);
+                    LOG.error("Fail to restore models for " + modelId, exception);
+                }
+            }));
+        }
+    }
+
+    private void coldStart(CacheBuffer buffer, String modelId, String entityName, ModelState<EntityModel> state, boolean allowColdStart) {
+        if (allowColdStart) {
+            record(buffer, Event.COLD_START);
+            modelManager.processEntityCheckpoint(Optional.empty(), modelId, entityName, state);
+        } else {
+            // the entity stays hosted and is trained once scored under normal load
+            record(buffer, Event.SKIPPED_COLD_START);
         }
     }
 
@@ -338,22 +427,19 @@ public class PriorityCache implements EntityCache {
         return activeEnities.computeIfAbsent(detectorId, k -> {
             long requiredBytes = getReservedDetectorMemory(detector);
             tryClearUpMemory();
-            if (memoryTracker.canAllocateReserved(detectorId, requiredBytes)) {
-                memoryTracker.consumeMemory(requiredBytes, true, Origin.MULTI_ENTITY_DETECTOR);
-                long intervalSecs = detector.getDetectorIntervalInSeconds();
-                return new CacheBuffer(
-                    dedicatedCacheSize,
-                    intervalSecs,
-                    checkpointDao,
-                    memoryTracker.estimateModelSize(detector, numberOfTrees),
-                    memoryTracker,
-                    clock,
-                    modelTtl,
-                    detectorId
-                );
-            }
-            // if hosting not allowed, exception will be thrown by isHostingAllowed
-            throw new LimitExceededException(detectorId, CommonErrorMessages.MEMORY_LIMIT_EXCEEDED_ERR_MSG);
+            // throws LimitExceededException if hosting is not allowed
+            memoryTracker.reserveMemory(detectorId, requiredBytes, Origin.MULTI_ENTITY_DETECTOR);
+            long intervalSecs = detector.getDetectorIntervalInSeconds();
+            return new CacheBuffer(
+                dedicatedCacheSize,
+                intervalSecs,
+                checkpointDao,
+                memoryTracker.estimateModelSize(detector, numberOfTrees),
+                memoryTracker,
+                clock,
+                modelTtl,
+                detectorId
+            );
         });
     }
 
@@ -474,6 +560,7 @@ public class PriorityCache implements EntityCache {
                     cacheBuffer.clear();
                 } else {
                     cacheBuffer.maintenance();
+                    measureModelSizes(cacheBuffer);
                 }
             });
             checkpointDao.flush();
@@ -493,6 +580,20 @@ public class PriorityCache implements EntityCache {
 
     }
 
+    private void measureModelSizes(CacheBuffer cacheBuffer) {
+        for (ModelState<?> state : cacheBuffer.getAllModels()) {
+            Object model = state.getModel();
+            if (model instanceof EntityModel && ((EntityModel) model).getRcf() != null && memoryTracker.shouldMeasure()) {
+                EntityModel entityModel = (EntityModel) model;
+                try {
+                    memoryTracker.measureModelSize(entityModel.getRcf(), entityModel.getThreshold());
+                } catch (Exception e) {
+                    LOG.warn("Failed to measure size of model " + state.getModelId(), e);
+                }
+            }
+        }
+    }
+
     /**
      * Permanently deletes models hosted in memory and persisted in index.
      *
@@ -511,6 +612,15 @@ public class PriorityCache implements EntityCache {
         doorKeepers.remove(detectorId);
     }
 
+    @Override
+    public Map<String, Long> getCacheStats(String detectorId) {
+        CacheBuffer cacheBuffer = activeEnities.get(detectorId);
+        if (cacheBuffer != null) {
+            return cacheBuffer.getCacheStats().getCounts();
+        }
+        return new HashMap<>();
+    }
+
     /**
      * Get the number of active entities of a detector
      * @param detectorId Detector Id
@@ -32,12 +32,17 @@ public class CommonName {
     // ======================================
     // index name for anomaly checkpoint of each model. One model one document.
     public static final String CHECKPOINT_INDEX_NAME = ".opendistro-anomaly-checkpoints";
+    // alias of the checkpoint partition being written when checkpoint indices are time-partitioned
+    public static final String CHECKPOINT_WRITE_ALIAS = ".opendistro-anomaly-checkpoints-write";
     // index name for anomaly detection state. Will store AD task in this index as well.
     public static final String DETECTION_STATE_INDEX = ".opendistro-anomaly-detection-state";
     // TODO: move other index name here
 
     // The alias of the index in which to write AD result history
     public static final String ANOMALY_RESULT_INDEX_ALIAS = ".opendistro-anomaly-results";
+    // index name for hourly rollups of aged anomaly results. Must not match the result index pattern
+    // so that result searches, rollover and retention leave it alone.
+    public static final String ANOMALY_RESULT_ROLLUP_INDEX = ".opendistro-anomaly-result-rollups";
 
     // ======================================
     // Format name
@@ -76,6 +81,7 @@ public class CommonName {
 
     public static final String TOTAL_ENTITIES = "total_entities";
     public static final String ACTIVE_ENTITIES = "active_entities";
+    public static final String ENTITY_CACHE = "entity_cache";
     public static final String ENTITY_INFO = "entity_info";
     public static final String TOTAL_UPDATES = "total_updates";
     public static final String AD_TASK = "ad_task";
@@ -107,4 +113,6 @@ public class CommonName {
     public static final String DATE_HISTOGRAM = "date_histogram";
     // feature aggregation name
     public static final String FEATURE_AGGS = "feature_aggs";
+    // composite aggregation source name of entities
+    public static final String ENTITY_TERMS = "entity_terms";
 }
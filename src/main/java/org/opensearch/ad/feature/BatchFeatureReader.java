@@ -0,0 +1,301 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import static org.opensearch.ad.constant.CommonName.DATE_HISTOGRAM;
+import static org.opensearch.ad.constant.CommonName.ENTITY_TERMS;
+import static org.opensearch.ad.constant.CommonName.FEATURE_AGGS;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.search.aggregations.Aggregation;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.composite.InternalComposite;
+
+/**
+ * Reads feature data points of a historical detection range in time order.
+ *
+ * The reader pages through one composite aggregation query over the whole range with
+ * after keys, rather than issuing a query per piece, and decodes buckets straight into
+ * {@link BatchFeatures}.  Pages are fetched ahead of the reads into a queue of at most
+ * maxPages pages; once the queue is full, the next page is only fetched after a read
+ * takes buckets out of it.  Reads must be issued one at a time with increasing end times.
+ * For detectors with a category field, buckets are keyed by time and entity and a read
+ * returns the buckets of all entities in the time range.
+ */
+public class BatchFeatureReader {
+    private final Client client;
+    private final SearchRequest searchRequest;
+    private final CompositeAggregationBuilder compositeAgg;
+    private final List<String> featureIds;
+    private final int maxPages;
+    private final boolean multiEntity;
+    // Guarded by this; fetched pages in time order
+    private final Deque<BatchFeatures> pages;
+    // Guarded by this; index of the first unread bucket of the head page
+    private int position;
+    // Guarded by this
+    private Map<String, Object> afterKey;
+    // Guarded by this; no more page to fetch
+    private boolean exhausted;
+    // Guarded by this
+    private boolean fetching;
+    // Guarded by this
+    private boolean closed;
+    // Guarded by this
+    private Exception failure;
+    // Guarded by this
+    private long pendingEndTime;
+    // Guarded by this
+    private ActionListener<BatchFeatures> pendingListener;
+
+    /**
+     * Constructor
+     *
+     * @param client ES client for search requests
+     * @param searchRequest feature query of the detection range
+     * @param compositeAgg composite aggregation of the query, whose after key is moved
+     *  forward page by page
+     * @param featureIds enabled feature ids
+     * @param maxPages max number of pages fetched ahead of the reads
+     */
+    public BatchFeatureReader(
+        Client client,
+        SearchRequest searchRequest,
+        CompositeAggregationBuilder compositeAgg,
+        List<String> featureIds,
+        int maxPages
+    ) {
+        this(client, searchRequest, compositeAgg, featureIds, maxPages, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param client ES client for search requests
+     * @param searchRequest feature query of the detection range
+     * @param compositeAgg composite aggregation of the query, whose after key is moved
+     *  forward page by page
+     * @param featureIds enabled feature ids
+     * @param maxPages max number of pages fetched ahead of the reads
+     * @param multiEntity whether buckets are keyed by entity besides time
+     */
+    public BatchFeatureReader(
+        Client client,
+        SearchRequest searchRequest,
+        CompositeAggregationBuilder compositeAgg,
+        List<String> featureIds,
+        int maxPages,
+        boolean multiEntity
+    ) {
+        this.client = client;
+        this.searchRequest = searchRequest;
+        this.compositeAgg = compositeAgg;
+        this.featureIds = featureIds;
+        this.maxPages = maxPages;
+        this.multiEntity = multiEntity;
+        this.pages = new ArrayDeque<>();
+        this.position = 0;
+        this.afterKey = null;
+        this.exhausted = false;
+        this.fetching = false;
+        this.closed = false;
+        this.failure = null;
+        this.pendingListener = null;
+    }
+
+    /**
+     * Read data points of buckets starting before endTime that have not been read yet.
+     *
+     * @param endTime end time of the read, exclusive
+     * @param listener listener to receive the data points
+     */
+    public void read(long endTime, ActionListener<BatchFeatures> listener) {
+        synchronized (this) {
+            if (closed || pendingListener != null) {
+                listener.onFailure(new IllegalStateException(closed ? "Feature reader closed" : "Concurrent feature reads"));
+                return;
+            }
+            pendingEndTime = endTime;
+            pendingListener = listener;
+        }
+        serve();
+    }
+
+    /**
+     * Stop fetching pages ahead and drop fetched ones. A read in progress still completes.
+     */
+    public synchronized void close() {
+        closed = true;
+        pages.clear();
+    }
+
+    /**
+     * @return number of pages fetched but not fully read
+     */
+    public synchronized int getBufferedPages() {
+        return pages.size();
+    }
+
+    private void serve() {
+        ActionListener<BatchFeatures> listener = null;
+        BatchFeatures features = null;
+        Exception error = null;
+        boolean fetch = false;
+        synchronized (this) {
+            if (pendingListener != null) {
+                if (failure != null) {
+                    error = failure;
+                    listener = pendingListener;
+                    pendingListener = null;
+                } else if (exhausted || (!pages.isEmpty() && lastTime(pages.peekLast()) >= pendingEndTime)) {
+                    features = take(pendingEndTime);
+                    listener = pendingListener;
+                    pendingListener = null;
+                }
+            }
+            // fetch ahead while the queue has room, and regardless of room when a read waits for data
+            fetch = !fetching && !exhausted && failure == null && (pendingListener != null || (!closed && pages.size() < maxPages));
+            fetching = fetching || fetch;
+        }
+        if (fetch) {
+            fetch();
+        }
+        if (error != null) {
+            listener.onFailure(error);
+        } else if (listener != null) {
+            listener.onResponse(features);
+        }
+    }
+
+    // Guarded by this
+    private BatchFeatures take(long endTime) {
+        int featureCount = featureIds.size();
+        int count = 0;
+        int start = position;
+        for (BatchFeatures page : pages) {
+            int end = start;
+            while (end < page.size() && page.getTime(end) < endTime) {
+                end++;
+            }
+            count += end - start;
+            if (end < page.size()) {
+                break;
+            }
+            start = 0;
+        }
+
+        long[] times = new long[count];
+        double[] values = new double[count * featureCount];
+        String[] entities = multiEntity ? new String[count] : null;
+        int taken = 0;
+        while (taken < count) {
+            BatchFeatures page = pages.peekFirst();
+            int length = Math.min(count - taken, page.size() - position);
+            System.arraycopy(page.getTimes(), position, times, taken, length);
+            System.arraycopy(page.getValues(), position * featureCount, values, taken * featureCount, length * featureCount);
+            if (multiEntity) {
+                System.arraycopy(page.getEntities(), position, entities, taken, length);
+            }
+            taken += length;
+            position += length;
+            if (position == page.size()) {
+                pages.pollFirst();
+                position = 0;
+            }
+        }
+        return new BatchFeatures(times, values, entities, featureCount, count);
+    }
+
+    private void fetch() {
+        synchronized (this) {
+            if (afterKey != null) {
+                compositeAgg.aggregateAfter(afterKey);
+            }
+        }
+        client.search(searchRequest, ActionListener.wrap(response -> {
+            InternalComposite composite = getComposite(response);
+            BatchFeatures page = parsePage(composite);
+            synchronized (this) {
+                fetching = false;
+                if ((!closed || pendingListener != null) && page.size() > 0) {
+                    pages.addLast(page);
+                }
+                afterKey = composite == null ? null : composite.afterKey();
+                exhausted = afterKey == null || page.size() < compositeAgg.size();
+            }
+            serve();
+        }, exception -> {
+            synchronized (this) {
+                fetching = false;
+                failure = exception;
+            }
+            serve();
+        }));
+    }
+
+    private InternalComposite getComposite(SearchResponse response) {
+        Aggregations aggregations = response.getAggregations();
+        return aggregations == null ? null : aggregations.get(FEATURE_AGGS);
+    }
+
+    private BatchFeatures parsePage(InternalComposite composite) {
+        int featureCount = featureIds.size();
+        if (composite == null) {
+            return new BatchFeatures(new long[0], new double[0], multiEntity ? new String[0] : null, featureCount, 0);
+        }
+        List<InternalComposite.InternalBucket> buckets = composite.getBuckets();
+        long[] times = new long[buckets.size()];
+        double[] values = new double[buckets.size() * featureCount];
+        String[] entities = multiEntity ? new String[buckets.size()] : null;
+        for (int i = 0; i < buckets.size(); i++) {
+            InternalComposite.InternalBucket bucket = buckets.get(i);
+            times[i] = (Long) bucket.getKey().get(DATE_HISTOGRAM);
+            if (multiEntity) {
+                entities[i] = String.valueOf(bucket.getKey().get(ENTITY_TERMS));
+            }
+            Map<String, Aggregation> aggs = bucket.getAggregations() == null ? null : bucket.getAggregations().asMap();
+            for (int j = 0; j < featureCount; j++) {
+                Aggregation agg = aggs == null ? null : aggs.get(featureIds.get(j));
+                values[i * featureCount + j] = agg == null ? Double.NaN : SearchFeatureDao.parseAggregation(agg);
+            }
+        }
+        return new BatchFeatures(times, values, entities, featureCount, buckets.size());
+    }
+
+    private static long lastTime(BatchFeatures page) {
+        return page.getTime(page.size() - 1);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Feature data points of a time range in columnar form: bucket start times in
+ * ascending order and their feature values, row by row, in one primitive array.
+ * Buckets of detectors with a category field also carry the entity value they
+ * belong to.
+ */
+public class BatchFeatures {
+    private final long[] times;
+    private final double[] values;
+    private final String[] entities;
+    private final int featureCount;
+    private final int size;
+
+    /**
+     * Constructor
+     *
+     * @param times bucket start times in ascending order
+     * @param values feature values; values of the i-th bucket are at
+     *  [i * featureCount, (i + 1) * featureCount)
+     * @param featureCount number of features
+     * @param size number of buckets
+     */
+    public BatchFeatures(long[] times, double[] values, int featureCount, int size) {
+        this(times, values, null, featureCount, size);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param times bucket start times in ascending order
+     * @param values feature values; values of the i-th bucket are at
+     *  [i * featureCount, (i + 1) * featureCount)
+     * @param entities entity values of the buckets; null if buckets are not keyed by entity
+     * @param featureCount number of features
+     * @param size number of buckets
+     */
+    public BatchFeatures(long[] times, double[] values, String[] entities, int featureCount, int size) {
+        this.times = times;
+        this.values = values;
+        this.entities = entities;
+        this.featureCount = featureCount;
+        this.size = size;
+    }
+
+    /**
+     * @return number of buckets
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    /**
+     * @param index bucket index
+     * @return start time of the bucket
+     */
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * @param index bucket index
+     * @return entity value of the bucket, or null if buckets are not keyed by entity
+     */
+    public String getEntity(int index) {
+        return entities == null ? null : entities[index];
+    }
+
+    /**
+     * @param index bucket index
+     * @return features of the bucket, or empty if any feature has no valid value
+     */
+    public Optional<double[]> getFeatures(int index) {
+        int from = index * featureCount;
+        for (int i = from; i < from + featureCount; i++) {
+            if (Double.isNaN(values[i]) || Double.isInfinite(values[i])) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(Arrays.copyOfRange(values, from, from + featureCount));
+    }
+
+    long[] getTimes() {
+        return times;
+    }
+
+    double[] getValues() {
+        return values;
+    }
+
+    String[] getEntities() {
+        return entities;
+    }
+}
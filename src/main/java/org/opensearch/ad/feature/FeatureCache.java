@@ -0,0 +1,341 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import java.time.Clock;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.IntervalTimeConfiguration;
+
+/**
+ * Caches features of past detection intervals per detector, and per entity for
+ * multi-entity detectors.
+ *
+ * Real time detection, preview and cold start query the same historical
+ * intervals independently, often minutes apart.  Features of an interval do
+ * not change once the interval is older than the detector's window delay, so
+ * every feature read goes through this cache first and only the missing
+ * intervals are searched.
+ *
+ * A series stores interval end times and features in primitive arrays sorted
+ * by time.  Only intervals exactly one detector interval long are cached.
+ * Series are evicted in least recently used order when the total number of
+ * points exceeds the limit.  A series is dropped when the detector's
+ * definition changes.
+ */
+public class FeatureCache {
+
+    static class SeriesKey {
+        private final String detectorId;
+        // null for single-entity detectors
+        private final String entity;
+
+        SeriesKey(String detectorId, String entity) {
+            this.detectorId = detectorId;
+            this.entity = entity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SeriesKey that = (SeriesKey) o;
+            return detectorId.equals(that.detectorId) && Objects.equals(entity, that.entity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(detectorId, entity);
+        }
+    }
+
+    static class TimeSeries {
+        // detector definition the features were queried with
+        private final List<Object> signature;
+        private final int numFeatures;
+        private final int maxPoints;
+        // interval end times in ascending order
+        private long[] ends;
+        // features of the i-th interval at [i * numFeatures, (i + 1) * numFeatures)
+        private double[] values;
+        private int size;
+
+        TimeSeries(List<Object> signature, int numFeatures, int maxPoints) {
+            this.signature = signature;
+            this.numFeatures = numFeatures;
+            this.maxPoints = maxPoints;
+            int capacity = Math.min(16, maxPoints);
+            this.ends = new long[capacity];
+            this.values = new double[capacity * numFeatures];
+            this.size = 0;
+        }
+
+        double[] get(long end) {
+            int index = Arrays.binarySearch(ends, 0, size, end);
+            if (index < 0) {
+                return null;
+            }
+            return Arrays.copyOfRange(values, index * numFeatures, (index + 1) * numFeatures);
+        }
+
+        /**
+         * Stores features of an interval.
+         *
+         * @return change in the number of points
+         */
+        int put(long end, double[] features) {
+            int index = Arrays.binarySearch(ends, 0, size, end);
+            if (index >= 0) {
+                System.arraycopy(features, 0, values, index * numFeatures, numFeatures);
+                return 0;
+            }
+            int insertion = -index - 1;
+            int delta = 1;
+            if (size == maxPoints) {
+                if (insertion == 0) {
+                    // older than all the points of a full series
+                    return 0;
+                }
+                // drop the oldest point
+                System.arraycopy(ends, 1, ends, 0, insertion - 1);
+                System.arraycopy(values, numFeatures, values, 0, (insertion - 1) * numFeatures);
+                insertion--;
+                size--;
+                delta = 0;
+            } else {
+                if (size == ends.length) {
+                    int capacity = Math.min(ends.length * 2, maxPoints);
+                    ends = Arrays.copyOf(ends, capacity);
+                    values = Arrays.copyOf(values, capacity * numFeatures);
+                }
+                System.arraycopy(ends, insertion, ends, insertion + 1, size - insertion);
+                System.arraycopy(values, insertion * numFeatures, values, (insertion + 1) * numFeatures, (size - insertion) * numFeatures);
+            }
+            ends[insertion] = end;
+            System.arraycopy(features, 0, values, insertion * numFeatures, numFeatures);
+            size++;
+            return delta;
+        }
+    }
+
+    private final Clock clock;
+    private final int maxPoints;
+    private final int maxPointsPerSeries;
+    // Guarded by this. Access order, so the first series is the least recently used.
+    private final LinkedHashMap<SeriesKey, TimeSeries> series;
+    // Guarded by this
+    private int numPoints;
+
+    /**
+     * Constructor
+     *
+     * @param clock clock to tell whether an interval is complete
+     * @param maxPoints Max number of cached points of all series
+     * @param maxPointsPerSeries Max number of cached points of a detector or entity
+     */
+    public FeatureCache(Clock clock, int maxPoints, int maxPointsPerSeries) {
+        this.clock = clock;
+        this.maxPoints = maxPoints;
+        this.maxPointsPerSeries = maxPointsPerSeries;
+        this.series = new LinkedHashMap<>(16, 0.75f, true);
+        this.numPoints = 0;
+    }
+
+    /**
+     * Gets cached features of the time ranges.
+     *
+     * @param detector Detector config
+     * @param entity entity value, null for single-entity detectors
+     * @param ranges time ranges
+     * @return features in the order of the ranges, null for a range not cached
+     */
+    public double[][] get(AnomalyDetector detector, String entity, List<Entry<Long, Long>> ranges) {
+        double[][] results = new double[ranges.size()][];
+        if (!isCacheable(detector)) {
+            return results;
+        }
+        long interval = detector.getDetectorIntervalInMilliseconds();
+        synchronized (this) {
+            TimeSeries timeSeries = series.get(new SeriesKey(detector.getDetectorId(), entity));
+            if (timeSeries == null || !timeSeries.signature.equals(signature(detector))) {
+                return results;
+            }
+            for (int i = 0; i < ranges.size(); i++) {
+                Entry<Long, Long> range = ranges.get(i);
+                if (range.getValue() - range.getKey() == interval) {
+                    results[i] = timeSeries.get(range.getValue());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Caches features of the time ranges.
+     *
+     * @param detector Detector config
+     * @param entity entity value, null for single-entity detectors
+     * @param ranges time ranges
+     * @param features features in the order of the ranges, empty for a range without valid features
+     */
+    public void put(AnomalyDetector detector, String entity, List<Entry<Long, Long>> ranges, List<Optional<double[]>> features) {
+        if (!isCacheable(detector) || ranges.size() != features.size()) {
+            return;
+        }
+        long interval = detector.getDetectorIntervalInMilliseconds();
+        long completeBefore = clock.millis() - getWindowDelayMillis(detector);
+        int numFeatures = detector.getEnabledFeatureIds().size();
+        List<Object> signature = signature(detector);
+        SeriesKey key = new SeriesKey(detector.getDetectorId(), entity);
+        synchronized (this) {
+            TimeSeries timeSeries = null;
+            for (int i = 0; i < ranges.size(); i++) {
+                Entry<Long, Long> range = ranges.get(i);
+                double[] point = features.get(i).orElse(null);
+                if (point == null
+                    || point.length != numFeatures
+                    || range.getValue() - range.getKey() != interval
+                    || range.getValue() > completeBefore) {
+                    continue;
+                }
+                if (timeSeries == null) {
+                    timeSeries = getOrCreateSeries(key, signature, numFeatures);
+                }
+                numPoints += timeSeries.put(range.getValue(), point);
+            }
+            if (timeSeries != null) {
+                evict(key);
+            }
+        }
+    }
+
+    /**
+     * Caches features of one time range.
+     *
+     * @param detector Detector config
+     * @param entity entity value, null for single-entity detectors
+     * @param startTime epoch milliseconds at the beginning of the range
+     * @param endTime epoch milliseconds at the end of the range
+     * @param features features of the range
+     */
+    public void put(AnomalyDetector detector, String entity, long startTime, long endTime, double[] features) {
+        put(detector, entity, Arrays.asList(new SimpleImmutableEntry<>(startTime, endTime)), Arrays.asList(Optional.of(features)));
+    }
+
+    /**
+     * Remove the cached features of a detector and its entities.
+     * @param detectorId Detector Id
+     */
+    public synchronized void invalidate(String detectorId) {
+        Iterator<Map.Entry<SeriesKey, TimeSeries>> iterator = series.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SeriesKey, TimeSeries> entry = iterator.next();
+            if (entry.getKey().detectorId.equals(detectorId)) {
+                numPoints -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the number of cached points
+     */
+    public synchronized int size() {
+        return numPoints;
+    }
+
+    private TimeSeries getOrCreateSeries(SeriesKey key, List<Object> signature, int numFeatures) {
+        TimeSeries timeSeries = series.get(key);
+        if (timeSeries != null && timeSeries.signature.equals(signature)) {
+            return timeSeries;
+        }
+        if (timeSeries != null) {
+            numPoints -= timeSeries.size;
+        }
+        timeSeries = new TimeSeries(signature, numFeatures, maxPointsPerSeries);
+        series.put(key, timeSeries);
+        return timeSeries;
+    }
+
+    private void evict(SeriesKey justWritten) {
+        Iterator<Map.Entry<SeriesKey, TimeSeries>> iterator = series.entrySet().iterator();
+        while (numPoints > maxPoints && iterator.hasNext()) {
+            Map.Entry<SeriesKey, TimeSeries> entry = iterator.next();
+            if (entry.getKey().equals(justWritten)) {
+                continue;
+            }
+            numPoints -= entry.getValue().size;
+            iterator.remove();
+        }
+    }
+
+    private boolean isCacheable(AnomalyDetector detector) {
+        // detectors not saved yet (e.g., preview of a new detector) have no id
+        return detector.getDetectorId() != null
+            && detector.getLastUpdateTime() != null
+            && detector.getFeatureAttributes() != null
+            && detector.getDetectionInterval() instanceof IntervalTimeConfiguration;
+    }
+
+    /**
+     * Everything in a detector's definition that changes its features.  Preview
+     * requests may change the definition without bumping the last update time.
+     */
+    private List<Object> signature(AnomalyDetector detector) {
+        return Arrays
+            .asList(
+                detector.getLastUpdateTime(),
+                detector.getIndices(),
+                detector.getTimeField(),
+                detector.getFilterQuery(),
+                detector.getFeatureAttributes(),
+                detector.getCategoryField(),
+                detector.getDetectionInterval()
+            );
+    }
+
+    private long getWindowDelayMillis(AnomalyDetector detector) {
+        if (detector.getWindowDelay() instanceof IntervalTimeConfiguration) {
+            return ((IntervalTimeConfiguration) detector.getWindowDelay()).toDuration().toMillis();
+        }
+        return 0;
+    }
+}
@@ -28,6 +28,7 @@ package org.opensearch.ad.feature;
 
 import static java.util.Arrays.copyOfRange;
 import static org.apache.commons.math3.linear.MatrixUtils.createRealMatrix;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_FEATURE_READER_MAX_PAGES;
 
 import java.io.IOException;
 import java.time.Clock;
@@ -39,6 +40,7 @@ import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -434,13 +436,14 @@ public class FeatureManager implements CleanState {
     }
 
     /**
-     * Deletes managed features for the detector.
+     * Deletes managed features and cached feature points for the detector.
      *
      * @param detectorId ID of the detector
      */
     @Override
     public void clear(String detectorId) {
         detectorIdsToTimeShingles.remove(detectorId);
+        searchFeatureDao.clearFeatureCache(detectorId);
     }
 
     /**
@@ -476,34 +479,49 @@ public class FeatureManager implements CleanState {
     }
 
     /**
-     * Returns to listener feature data points (unprocessed and processed) from the period for preview purpose for specific entity.
+     * Returns to listener feature data points (unprocessed and processed) from the period for preview purpose
+     * for each of the entities.
      *
-     * Due to the constraints (workload, latency) from preview, a small number of data samples are from actual
-     * query results and the remaining are from interpolation. The results are approximate to the actual features.
+     * The samples of all entities are fetched by one search instead of one search per entity.  Entities without
+     * data to preview are left out of the results.
      *
      * @param detector detector info containing indices, features, interval, etc
-     * @param entity entity specified
+     * @param entities entities to preview
      * @param startMilli start of the range in epoch milliseconds
      * @param endMilli end of the range in epoch milliseconds
-     * @param listener onResponse is called with time ranges, unprocessed features,
-     *                                      and processed features of the data points from the period
-     *                 onFailure is called with IllegalArgumentException when there is no data to preview
-     * @throws IOException if a user gives wrong query input when defining a detector
+     * @param listener onResponse is called with features keyed by entity, in the order of the given entities
+     *                 onFailure is called with IllegalArgumentException when no entity has data to preview
      */
-    public void getPreviewFeaturesForEntity(
+    public void getPreviewFeaturesForEntities(
         AnomalyDetector detector,
-        Entity entity,
+        List<Entity> entities,
         long startMilli,
         long endMilli,
-        ActionListener<Features> listener
-    ) throws IOException {
-        // TODO refactor this common lines so that these code can be run for 1 time for all entities
+        ActionListener<Map<Entity, Features>> listener
+    ) {
         Entry<List<Entry<Long, Long>>, Integer> sampleRangeResults = getSampleRanges(detector, startMilli, endMilli);
         List<Entry<Long, Long>> sampleRanges = sampleRangeResults.getKey();
         int stride = sampleRangeResults.getValue();
         int shingleSize = detector.getShingleSize();
 
-        getSamplesInRangesForEntity(detector, sampleRanges, entity, getFeatureSamplesListener(stride, shingleSize, listener));
+        searchFeatureDao.getFeatureSamplesForEntities(detector, sampleRanges, entities, ActionListener.wrap(entitySamples -> {
+            Map<Entity, Features> results = new LinkedHashMap<>();
+            for (Entity entity : entities) {
+                List<Optional<double[]>> featureSamples = entitySamples.get(entity.getValue());
+                if (featureSamples == null) {
+                    continue;
+                }
+                Entry<List<Entry<Long, Long>>, double[][]> samples = toSamplesInRanges(sampleRanges, featureSamples);
+                if (samples.getKey().size() > 0) {
+                    results.put(entity, toPreviewFeatures(samples, stride, shingleSize));
+                }
+            }
+            if (results.isEmpty()) {
+                listener.onFailure(new IllegalArgumentException("No data to preview anomaly detection."));
+                return;
+            }
+            listener.onResponse(results);
+        }, listener::onFailure));
     }
 
     private ActionListener<Entry<List<Entry<Long, Long>>, double[][]>> getFeatureSamplesListener(
@@ -517,13 +535,16 @@ public class FeatureManager implements CleanState {
                 listener.onFailure(new IllegalArgumentException("No data to preview anomaly detection."));
                 return;
             }
-            double[][] sampleFeatures = samples.getValue();
-            List<Entry<Long, Long>> previewRanges = getPreviewRanges(searchTimeRange, stride, shingleSize);
-            Entry<double[][], double[][]> previewFeatures = getPreviewFeatures(sampleFeatures, stride, shingleSize);
-            listener.onResponse(new Features(previewRanges, previewFeatures.getKey(), previewFeatures.getValue()));
+            listener.onResponse(toPreviewFeatures(samples, stride, shingleSize));
         }, listener::onFailure);
     }
 
+    private Features toPreviewFeatures(Entry<List<Entry<Long, Long>>, double[][]> samples, int stride, int shingleSize) {
+        List<Entry<Long, Long>> previewRanges = getPreviewRanges(samples.getKey(), stride, shingleSize);
+        Entry<double[][], double[][]> previewFeatures = getPreviewFeatures(samples.getValue(), stride, shingleSize);
+        return new Features(previewRanges, previewFeatures.getKey(), previewFeatures.getValue());
+    }
+
     /**
      * Returns to listener feature data points (unprocessed and processed) from the period for preview purpose.
      *
@@ -572,45 +593,28 @@ public class FeatureManager implements CleanState {
         return new SimpleImmutableEntry<>(sampleRanges, stride);
     }
 
-    /**
-     * Gets search results in the sampled time ranges for specified entity.
-     *
-     * @param entity specified entity
-     * @param listener handle search results map: key is time ranges, value is corresponding search results
-     * @throws IOException if a user gives wrong query input when defining a detector
-     */
-    void getSamplesInRangesForEntity(
-        AnomalyDetector detector,
+    private ActionListener<List<Optional<double[]>>> getSamplesRangesListener(
         List<Entry<Long, Long>> sampleRanges,
-        Entity entity,
         ActionListener<Entry<List<Entry<Long, Long>>, double[][]>> listener
-    ) throws IOException {
-        searchFeatureDao
-            .getColdStartSamplesForPeriods(
-                detector,
-                sampleRanges,
-                entity.getValue(),
-                true,
-                getSamplesRangesListener(sampleRanges, listener)
-            );
+    ) {
+        return ActionListener
+            .wrap(featureSamples -> listener.onResponse(toSamplesInRanges(sampleRanges, featureSamples)), listener::onFailure);
     }
 
-    private ActionListener<List<Optional<double[]>>> getSamplesRangesListener(
+    private Entry<List<Entry<Long, Long>>, double[][]> toSamplesInRanges(
         List<Entry<Long, Long>> sampleRanges,
-        ActionListener<Entry<List<Entry<Long, Long>>, double[][]>> listener
+        List<Optional<double[]>> featureSamples
     ) {
-        return ActionListener.wrap(featureSamples -> {
-            List<Entry<Long, Long>> ranges = new ArrayList<>(featureSamples.size());
-            List<double[]> samples = new ArrayList<>(featureSamples.size());
-            for (int i = 0; i < featureSamples.size(); i++) {
-                Entry<Long, Long> currentRange = sampleRanges.get(i);
-                featureSamples.get(i).ifPresent(sample -> {
-                    ranges.add(currentRange);
-                    samples.add(sample);
-                });
-            }
-            listener.onResponse(new SimpleImmutableEntry<>(ranges, samples.toArray(new double[0][0])));
-        }, listener::onFailure);
+        List<Entry<Long, Long>> ranges = new ArrayList<>(featureSamples.size());
+        List<double[]> samples = new ArrayList<>(featureSamples.size());
+        for (int i = 0; i < featureSamples.size(); i++) {
+            Entry<Long, Long> currentRange = sampleRanges.get(i);
+            featureSamples.get(i).ifPresent(sample -> {
+                ranges.add(currentRange);
+                samples.add(sample);
+            });
+        }
+        return new SimpleImmutableEntry<>(ranges, samples.toArray(new double[0][0]));
     }
 
     /**
@@ -692,21 +696,51 @@ public class FeatureManager implements CleanState {
         }
     }
 
-    public void getFeatureDataPointsByBatch(
+    /**
+     * Creates a reader of feature data points of a historical detection range.
+     *
+     * @param detector anomaly detector
+     * @param startTime start time of the range
+     * @param endTime end time of the range
+     * @return feature reader
+     * @throws IOException if a user gives wrong query input when defining a detector
+     */
+    public BatchFeatureReader newBatchFeatureReader(AnomalyDetector detector, long startTime, long endTime) throws IOException {
+        return newBatchFeatureReader(detector, null, startTime, endTime);
+    }
+
+    /**
+     * Creates a reader of feature data points of entities in a historical detection range.
+     *
+     * @param detector anomaly detector
+     * @param entities entities to read; null to read the detector as a single entity
+     * @param startTime start time of the range
+     * @param endTime end time of the range
+     * @return feature reader
+     * @throws IOException if a user gives wrong query input when defining a detector
+     */
+    public BatchFeatureReader newBatchFeatureReader(AnomalyDetector detector, List<Entity> entities, long startTime, long endTime)
+        throws IOException {
+        return searchFeatureDao.newBatchFeatureReader(detector, entities, startTime, endTime, BATCH_FEATURE_READER_MAX_PAGES);
+    }
+
+    /**
+     * Returns the entities with most data in a historical detection range to listener.
+     *
+     * @param detector detector config
+     * @param startTime start of the range in epoch milliseconds
+     * @param endTime end of the range in epoch milliseconds
+     * @param maxEntities max number of entities to return
+     * @param listener onResponse is called with entities in descending order of document count
+     */
+    public void getHistoricalEntities(
         AnomalyDetector detector,
         long startTime,
         long endTime,
-        ActionListener<Map<Long, Optional<double[]>>> listener
+        int maxEntities,
+        ActionListener<List<Entity>> listener
     ) {
-        try {
-            searchFeatureDao.getFeaturesForPeriodByBatch(detector, startTime, endTime, ActionListener.wrap(points -> {
-                logger.debug("features size: {}", points.size());
-                listener.onResponse(points);
-            }, listener::onFailure));
-        } catch (Exception e) {
-            logger.error("Failed to get features for detector: " + detector.getDetectorId());
-            listener.onFailure(e);
-        }
+        searchFeatureDao.getHighestCountEntities(detector, startTime, endTime, maxEntities, listener);
     }
 
     public SinglePointFeatures getShingledFeatureForHistoricalDetector(
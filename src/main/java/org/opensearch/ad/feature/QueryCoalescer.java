@@ -0,0 +1,253 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.ad.AnomalyDetectorPlugin;
+import org.opensearch.client.Client;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.filter.Filter;
+import org.opensearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.threadpool.ThreadPool;
+
+import com.amazon.opendistroforelasticsearch.commons.ConfigConstants;
+
+/**
+ * Merges aggregation-only feature queries of different detectors into one search.
+ *
+ * Many detectors often read the same index pattern and fire within a short
+ * time of each other.  Instead of sending one search per detector, requests
+ * against the same indices are held for a short window and then sent as a
+ * single search: each detector's query becomes a filter aggregation
+ * (namespaced by position in the batch) wrapping that detector's aggregations,
+ * and the top-level query is the disjunction of all detectors' queries.  The
+ * response is split back so that each detector sees the same aggregations a
+ * standalone search would have returned.
+ *
+ * Only requests issued with the same security context are merged, so a merged
+ * search never reads with more permissions than any of its callers had.  If a
+ * merged search fails, every request is retried on its own so that one
+ * detector's bad query does not fail the others.
+ */
+public class QueryCoalescer {
+    private static final Logger LOG = LogManager.getLogger(QueryCoalescer.class);
+
+    static final String NAMESPACE_PREFIX = "coalesced_";
+
+    private static class PendingQuery {
+        private final String detectorId;
+        private final SearchSourceBuilder source;
+        private final ActionListener<Aggregations> listener;
+
+        PendingQuery(String detectorId, SearchSourceBuilder source, ActionListener<Aggregations> listener) {
+            this.detectorId = detectorId;
+            this.source = source;
+            this.listener = listener;
+        }
+    }
+
+    // queries with the same key can be answered by one search
+    private static class BatchKey {
+        private final List<String> indices;
+        private final String userInfo;
+        private final Object injectedRoles;
+
+        BatchKey(String[] indices, ThreadContext threadContext) {
+            String[] sortedIndices = Arrays.copyOf(indices, indices.length);
+            Arrays.sort(sortedIndices);
+            this.indices = Arrays.asList(sortedIndices);
+            this.userInfo = threadContext.getTransient(ConfigConstants.OPENDISTRO_SECURITY_USER_INFO_THREAD_CONTEXT);
+            this.injectedRoles = threadContext.getTransient(ConfigConstants.OPENDISTRO_SECURITY_INJECTED_ROLES);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return indices.equals(other.indices)
+                && Objects.equals(userInfo, other.userInfo)
+                && Objects.equals(injectedRoles, other.injectedRoles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(indices, userInfo, injectedRoles);
+        }
+    }
+
+    private final Client client;
+    private final ThreadPool threadPool;
+    private final int maxBatchSize;
+    private volatile TimeValue window;
+    // Guarded by this
+    private final Map<BatchKey, List<PendingQuery>> batches;
+
+    /**
+     * Constructor
+     *
+     * @param client ES client for queries
+     * @param threadPool Accessor to different threadpools
+     * @param window How long to wait for other queries to merge with. Zero disables merging.
+     * @param maxBatchSize Max number of queries merged into one search
+     */
+    public QueryCoalescer(Client client, ThreadPool threadPool, TimeValue window, int maxBatchSize) {
+        this.client = client;
+        this.threadPool = threadPool;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batches = new HashMap<>();
+    }
+
+    public void setWindow(TimeValue window) {
+        this.window = window;
+    }
+
+    /**
+     * Run an aggregation-only query, possibly together with other detectors' queries.
+     *
+     * @param detectorId Detector Id, used for logging
+     * @param indices Indices to search
+     * @param source Search source that only sets query, size 0, and aggregations
+     * @param listener onResponse is called with the aggregations of the query; null if there is none
+     */
+    public void search(String detectorId, String[] indices, SearchSourceBuilder source, ActionListener<Aggregations> listener) {
+        TimeValue currentWindow = window;
+        if (currentWindow.millis() <= 0) {
+            searchAlone(indices, source, listener);
+            return;
+        }
+
+        BatchKey key = new BatchKey(indices, threadPool.getThreadContext());
+        List<PendingQuery> full = null;
+        boolean first = false;
+        synchronized (this) {
+            List<PendingQuery> batch = batches.get(key);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                batches.put(key, batch);
+                first = true;
+            }
+            batch.add(new PendingQuery(detectorId, source, listener));
+            if (batch.size() >= maxBatchSize) {
+                batches.remove(key);
+                full = batch;
+            }
+        }
+
+        if (full != null) {
+            execute(indices, full);
+        } else if (first) {
+            // the scheduled task inherits the caller's thread context
+            threadPool.schedule(() -> flush(key, indices), currentWindow, AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+        }
+    }
+
+    private void flush(BatchKey key, String[] indices) {
+        List<PendingQuery> batch = null;
+        synchronized (this) {
+            batch = batches.remove(key);
+        }
+        // the batch may have been sent already because it was full
+        if (batch != null) {
+            execute(indices, batch);
+        }
+    }
+
+    private void execute(String[] indices, List<PendingQuery> batch) {
+        if (batch.size() == 1) {
+            PendingQuery query = batch.get(0);
+            searchAlone(indices, query.source, query.listener);
+            return;
+        }
+
+        BoolQueryBuilder query = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        SearchSourceBuilder merged = new SearchSourceBuilder().size(0);
+        for (int i = 0; i < batch.size(); i++) {
+            SearchSourceBuilder source = batch.get(i).source;
+            QueryBuilder detectorQuery = source.query() == null ? QueryBuilders.matchAllQuery() : source.query();
+            query.should(detectorQuery);
+            FilterAggregationBuilder namespace = AggregationBuilders.filter(NAMESPACE_PREFIX + i, detectorQuery);
+            if (source.aggregations() != null) {
+                for (AggregationBuilder agg : source.aggregations().getAggregatorFactories()) {
+                    namespace.subAggregation(agg);
+                }
+            }
+            merged.aggregation(namespace);
+        }
+        merged.query(query);
+
+        client.search(new SearchRequest(indices, merged), ActionListener.wrap(response -> {
+            Aggregations aggs = response.getAggregations();
+            for (int i = 0; i < batch.size(); i++) {
+                PendingQuery pending = batch.get(i);
+                try {
+                    Filter namespace = aggs == null ? null : aggs.get(NAMESPACE_PREFIX + i);
+                    pending.listener.onResponse(namespace == null ? null : namespace.getAggregations());
+                } catch (Exception e) {
+                    pending.listener.onFailure(e);
+                }
+            }
+        }, exception -> {
+            LOG.warn(new ParameterizedMessage("Merged feature query of {} detectors failed, retrying separately", batch.size()), exception);
+            for (PendingQuery pending : batch) {
+                searchAlone(indices, pending.source, pending.listener);
+            }
+        }));
+    }
+
+    private void searchAlone(String[] indices, SearchSourceBuilder source, ActionListener<Aggregations> listener) {
+        client
+            .search(
+                new SearchRequest(indices, source),
+                ActionListener.wrap(response -> listener.onResponse(response.getAggregations()), listener::onFailure)
+            );
+    }
+}
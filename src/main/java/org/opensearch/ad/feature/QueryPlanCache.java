@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Feature;
+import org.opensearch.ad.util.ParseUtils;
+import org.opensearch.common.xcontent.NamedXContentRegistry;
+import org.opensearch.search.aggregations.AggregationBuilder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches the parsed feature aggregations of detectors.
+ *
+ * Every feature query used to serialize each feature's aggregation to JSON and
+ * parse it back (so that the aggregation is named after the feature id) on
+ * every detection interval.  The parsed aggregations only change when the
+ * detector is updated, so we keep them keyed by detector id and last update
+ * time.  Callers build the outer query per request and only attach the
+ * cached aggregations; aggregation builders are not modified after parsing so
+ * sharing them across requests is safe.
+ */
+public class QueryPlanCache {
+
+    static class QueryPlan {
+        private final Instant lastUpdateTime;
+        // features the plan was parsed from. Used to tell whether the detector
+        // changed without bumping the last update time (e.g., preview requests).
+        private final List<Feature> features;
+        private final List<AggregationBuilder> featureAggs;
+        private final List<AggregationBuilder> enabledFeatureAggs;
+
+        QueryPlan(
+            Instant lastUpdateTime,
+            List<Feature> features,
+            List<AggregationBuilder> featureAggs,
+            List<AggregationBuilder> enabledFeatureAggs
+        ) {
+            this.lastUpdateTime = lastUpdateTime;
+            this.features = features;
+            this.featureAggs = Collections.unmodifiableList(featureAggs);
+            this.enabledFeatureAggs = Collections.unmodifiableList(enabledFeatureAggs);
+        }
+
+        boolean isValidFor(AnomalyDetector detector) {
+            return lastUpdateTime.equals(detector.getLastUpdateTime()) && features.equals(detector.getFeatureAttributes());
+        }
+    }
+
+    private final NamedXContentRegistry xContentRegistry;
+    // detector id -> parsed feature aggregations
+    private final Cache<String, QueryPlan> plans;
+
+    /**
+     * Constructor
+     *
+     * @param xContentRegistry ES XContentRegistry
+     * @param maxSize Max number of cached detectors
+     * @param ttl Plans not accessed for this long are evicted
+     */
+    public QueryPlanCache(NamedXContentRegistry xContentRegistry, int maxSize, Duration ttl) {
+        this.xContentRegistry = xContentRegistry;
+        this.plans = CacheBuilder.newBuilder().expireAfterAccess(ttl.toMillis(), TimeUnit.MILLISECONDS).maximumSize(maxSize).build();
+    }
+
+    /**
+     * Get parsed aggregations of all features, named after feature ids.
+     *
+     * @param detector Detector config
+     * @return parsed aggregations in feature order
+     * @throws IOException if fail to parse feature aggregation
+     */
+    public List<AggregationBuilder> getFeatureAggregations(AnomalyDetector detector) throws IOException {
+        QueryPlan plan = getPlan(detector);
+        if (plan == null) {
+            return ParseUtils.parseFeatureAggregations(detector, false, xContentRegistry);
+        }
+        return plan.featureAggs;
+    }
+
+    /**
+     * Get parsed aggregations of enabled features, named after feature ids.
+     *
+     * @param detector Detector config
+     * @return parsed aggregations in feature order
+     * @throws IOException if fail to parse feature aggregation
+     */
+    public List<AggregationBuilder> getEnabledFeatureAggregations(AnomalyDetector detector) throws IOException {
+        QueryPlan plan = getPlan(detector);
+        if (plan == null) {
+            return ParseUtils.parseFeatureAggregations(detector, true, xContentRegistry);
+        }
+        return plan.enabledFeatureAggs;
+    }
+
+    /**
+     * Remove the cached plan of a detector.
+     * @param detectorId Detector Id
+     */
+    public void invalidate(String detectorId) {
+        plans.invalidate(detectorId);
+    }
+
+    /**
+     *
+     * @return the number of cached plans
+     */
+    public long size() {
+        return plans.size();
+    }
+
+    /**
+     * Get the cached plan of the detector or parse a new one.
+     *
+     * @param detector Detector config
+     * @return the query plan or null if the detector cannot be cached (e.g., not saved yet)
+     * @throws IOException if fail to parse feature aggregation
+     */
+    private QueryPlan getPlan(AnomalyDetector detector) throws IOException {
+        String detectorId = detector.getDetectorId();
+        if (detectorId == null || detector.getLastUpdateTime() == null || detector.getFeatureAttributes() == null) {
+            return null;
+        }
+        QueryPlan plan = plans.getIfPresent(detectorId);
+        if (plan != null && plan.isValidFor(detector)) {
+            return plan;
+        }
+        // Two threads may parse the same detector concurrently. Both results are the same; the last one wins.
+        List<Feature> features = detector.getFeatureAttributes();
+        List<AggregationBuilder> featureAggs = ParseUtils.parseFeatureAggregations(detector, false, xContentRegistry);
+        List<AggregationBuilder> enabledFeatureAggs = new ArrayList<>();
+        for (int i = 0; i < features.size(); i++) {
+            if (features.get(i).getEnabled()) {
+                enabledFeatureAggs.add(featureAggs.get(i));
+            }
+        }
+        plan = new QueryPlan(detector.getLastUpdateTime(), features, featureAggs, enabledFeatureAggs);
+        plans.put(detectorId, plan);
+        return plan;
+    }
+}
@@ -27,15 +27,22 @@
 package org.opensearch.ad.feature;
 
 import static org.apache.commons.math3.linear.MatrixUtils.createRealMatrix;
-import static org.opensearch.ad.constant.CommonName.DATE_HISTOGRAM;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.FEATURE_QUERY_COALESCE_WINDOW;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_CACHED_FEATURE_POINTS;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_CACHED_FEATURE_POINTS_PER_SERIES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_CACHED_QUERY_PLANS;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_COALESCED_FEATURE_QUERIES;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_ENTITIES_FOR_PREVIEW;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_ENTITIES_PER_QUERY;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.QUERY_PLAN_TTL;
 import static org.opensearch.ad.util.ParseUtils.batchFeatureQuery;
 
 import java.io.IOException;
+import java.time.Clock;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -46,7 +53,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -61,7 +70,6 @@ import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.dataprocessor.Interpolator;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.Entity;
-import org.opensearch.ad.model.Feature;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.ad.util.ParseUtils;
@@ -74,11 +82,11 @@ import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.query.RangeQueryBuilder;
 import org.opensearch.index.query.TermQueryBuilder;
 import org.opensearch.search.aggregations.Aggregation;
+import org.opensearch.search.aggregations.AggregationBuilder;
 import org.opensearch.search.aggregations.AggregationBuilders;
 import org.opensearch.search.aggregations.Aggregations;
-import org.opensearch.search.aggregations.AggregatorFactories;
 import org.opensearch.search.aggregations.bucket.MultiBucketsAggregation;
-import org.opensearch.search.aggregations.bucket.composite.InternalComposite;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
 import org.opensearch.search.aggregations.bucket.range.InternalDateRange;
 import org.opensearch.search.aggregations.bucket.range.InternalDateRange.Bucket;
 import org.opensearch.search.aggregations.bucket.terms.Terms;
@@ -109,6 +117,9 @@ public class SearchFeatureDao {
     private ThreadPool threadPool;
     private int maxEntitiesPerQuery;
     private int maxEntitiesForPreview;
+    private final QueryPlanCache queryPlanCache;
+    private final QueryCoalescer queryCoalescer;
+    private final FeatureCache featureCache;
 
     /**
      * Constructor injection.
@@ -139,6 +150,24 @@ public class SearchFeatureDao {
         clusterService.getClusterSettings().addSettingsUpdateConsumer(MAX_ENTITIES_PER_QUERY, it -> maxEntitiesPerQuery = it);
         this.maxEntitiesForPreview = MAX_ENTITIES_FOR_PREVIEW.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(MAX_ENTITIES_FOR_PREVIEW, it -> maxEntitiesForPreview = it);
+        this.queryPlanCache = new QueryPlanCache(xContent, MAX_CACHED_QUERY_PLANS, QUERY_PLAN_TTL);
+        this.queryCoalescer = new QueryCoalescer(
+            client,
+            threadPool,
+            FEATURE_QUERY_COALESCE_WINDOW.get(settings),
+            MAX_COALESCED_FEATURE_QUERIES
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(FEATURE_QUERY_COALESCE_WINDOW, queryCoalescer::setWindow);
+        this.featureCache = new FeatureCache(Clock.systemUTC(), MAX_CACHED_FEATURE_POINTS, MAX_CACHED_FEATURE_POINTS_PER_SERIES);
+    }
+
+    /**
+     * Drops cached feature points of the detector, including those of its entities.
+     *
+     * @param detectorId ID of the detector
+     */
+    public void clearFeatureCache(String detectorId) {
+        featureCache.invalidate(detectorId);
     }
 
     /**
@@ -189,6 +218,24 @@ public class SearchFeatureDao {
      * @param listener listener to return back the entities
      */
     public void getHighestCountEntities(AnomalyDetector detector, long startTime, long endTime, ActionListener<List<Entity>> listener) {
+        getHighestCountEntities(detector, startTime, endTime, maxEntitiesForPreview, listener);
+    }
+
+    /**
+     * Get list of at most maxEntities entities with high count in descending order within specified time range
+     * @param detector detector config
+     * @param startTime start time of time range
+     * @param endTime end time of time range
+     * @param maxEntities max number of entities to return
+     * @param listener listener to return back the entities
+     */
+    public void getHighestCountEntities(
+        AnomalyDetector detector,
+        long startTime,
+        long endTime,
+        int maxEntities,
+        ActionListener<List<Entity>> listener
+    ) {
         RangeQueryBuilder rangeQuery = new RangeQueryBuilder(detector.getTimeField())
             .from(startTime)
             .to(endTime)
@@ -200,7 +247,7 @@ public class SearchFeatureDao {
         TermsAggregationBuilder termsAgg = AggregationBuilders
             .terms(AGG_NAME_TERM)
             .field(detector.getCategoryField().get(0))
-            .size(maxEntitiesForPreview);
+            .size(maxEntities);
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
             .query(boolQueryBuilder)
             .aggregation(termsAgg)
@@ -313,46 +360,64 @@ public class SearchFeatureDao {
             );
     }
 
-    public void getFeaturesForPeriodByBatch(
+    /**
+     * Creates a reader of features for the given time range by batch.
+     *
+     * @param detector info about indices, feature query
+     * @param startTime epoch milliseconds at the beginning of the range
+     * @param endTime epoch milliseconds at the end of the range
+     * @param maxPages max number of result pages fetched ahead of the reads
+     * @return feature reader
+     * @throws IOException if a user gives wrong query input when defining a detector
+     */
+    public BatchFeatureReader newBatchFeatureReader(AnomalyDetector detector, long startTime, long endTime, int maxPages)
+        throws IOException {
+        return newBatchFeatureReader(detector, null, startTime, endTime, maxPages);
+    }
+
+    /**
+     * Creates a reader of features of entities for the given time range by batch.
+     *
+     * @param detector info about indices, feature query
+     * @param entities entities to read features of; null to read the detector as a single entity
+     * @param startTime epoch milliseconds at the beginning of the range
+     * @param endTime epoch milliseconds at the end of the range
+     * @param maxPages max number of result pages fetched ahead of the reads
+     * @return feature reader
+     * @throws IOException if a user gives wrong query input when defining a detector
+     */
+    public BatchFeatureReader newBatchFeatureReader(
         AnomalyDetector detector,
+        List<Entity> entities,
         long startTime,
         long endTime,
-        ActionListener<Map<Long, Optional<double[]>>> listener
+        int maxPages
     ) throws IOException {
-        SearchSourceBuilder searchSourceBuilder = batchFeatureQuery(detector, startTime, endTime, xContent);
+        SearchSourceBuilder searchSourceBuilder = batchFeatureQuery(
+            detector,
+            entities,
+            startTime,
+            endTime,
+            queryPlanCache.getEnabledFeatureAggregations(detector)
+        );
         logger.debug("Batch query for detector {}: {} ", detector.getDetectorId(), searchSourceBuilder);
 
+        CompositeAggregationBuilder compositeAgg = (CompositeAggregationBuilder) searchSourceBuilder
+            .aggregations()
+            .getAggregatorFactories()
+            .stream()
+            .filter(agg -> CommonName.FEATURE_AGGS.equals(agg.getName()))
+            .findFirst()
+            .get();
         SearchRequest searchRequest = new SearchRequest(detector.getIndices().toArray(new String[0])).source(searchSourceBuilder);
-        client
-            .search(
-                searchRequest,
-                ActionListener
-                    .wrap(
-                        response -> { listener.onResponse(parseBucketAggregationResponse(response, detector.getEnabledFeatureIds())); },
-                        listener::onFailure
-                    )
-            );
-    }
-
-    private Map<Long, Optional<double[]>> parseBucketAggregationResponse(SearchResponse response, List<String> featureIds) {
-        Map<Long, Optional<double[]>> dataPoints = new HashMap<>();
-        List<Aggregation> aggregations = response.getAggregations().asList();
-        logger.debug("Feature aggregation result size {}", aggregations.size());
-        for (Aggregation agg : aggregations) {
-            List<InternalComposite.InternalBucket> buckets = ((InternalComposite) agg).getBuckets();
-            buckets.forEach(bucket -> {
-                Optional<double[]> featureData = parseAggregations(Optional.ofNullable(bucket.getAggregations()), featureIds);
-                dataPoints.put((Long) bucket.getKey().get(DATE_HISTOGRAM), featureData);
-            });
-        }
-        return dataPoints;
+        return new BatchFeatureReader(client, searchRequest, compositeAgg, detector.getEnabledFeatureIds(), maxPages, entities != null);
     }
 
     private Optional<double[]> parseResponse(SearchResponse response, List<String> featureIds) {
         return parseAggregations(Optional.ofNullable(response).map(resp -> resp.getAggregations()), featureIds);
     }
 
-    private double parseAggregation(Aggregation aggregation) {
+    static double parseAggregation(Aggregation aggregation) {
         Double result = null;
         if (aggregation instanceof SingleValue) {
             result = ((SingleValue) aggregation).value();
@@ -371,6 +436,8 @@ public class SearchFeatureDao {
      * Gets samples of features for the time ranges.
      *
      * Sampled features are not true features. They are intended to be approximate results produced at low costs.
+     * Cached features are reused and only the other ranges are searched, see {@link FeatureCache}.
+     * The query may be merged with other detectors' queries on the same indices, see {@link QueryCoalescer}.
      *
      * @param detector info about the indices, documents, feature query
      * @param ranges list of time ranges
@@ -382,25 +449,48 @@ public class SearchFeatureDao {
         List<Entry<Long, Long>> ranges,
         ActionListener<List<Optional<double[]>>> listener
     ) throws IOException {
-        SearchRequest request = createPreviewSearchRequest(detector, ranges);
+        double[][] cached = featureCache.get(detector, null, ranges);
+        List<Entry<Long, Long>> missingRanges = getMissingRanges(ranges, cached);
+        if (missingRanges.isEmpty()) {
+            listener.onResponse(Arrays.stream(cached).map(Optional::of).collect(Collectors.toList()));
+            return;
+        }
 
-        client.search(request, ActionListener.wrap(response -> {
-            Aggregations aggs = response.getAggregations();
-            if (aggs == null) {
+        SearchRequest request = createPreviewSearchRequest(detector, missingRanges);
+
+        // detectors reading the same indices may share one search
+        queryCoalescer.search(detector.getDetectorId(), request.indices(), request.source(), ActionListener.wrap(aggs -> {
+            if (aggs == null && missingRanges.size() == ranges.size()) {
                 listener.onResponse(Collections.emptyList());
                 return;
             }
 
-            listener
-                .onResponse(
-                    aggs
-                        .asList()
-                        .stream()
-                        .filter(InternalDateRange.class::isInstance)
-                        .flatMap(agg -> ((InternalDateRange) agg).getBuckets().stream())
-                        .map(bucket -> parseBucket(bucket, detector.getEnabledFeatureIds()))
-                        .collect(Collectors.toList())
-                );
+            List<Optional<double[]>> searched = aggs == null
+                ? Collections.emptyList()
+                : aggs
+                    .asList()
+                    .stream()
+                    .filter(InternalDateRange.class::isInstance)
+                    .flatMap(agg -> ((InternalDateRange) agg).getBuckets().stream())
+                    .map(bucket -> parseBucket(bucket, detector.getEnabledFeatureIds()))
+                    .collect(Collectors.toList());
+            featureCache.put(detector, null, missingRanges, searched);
+            if (missingRanges.size() == ranges.size()) {
+                listener.onResponse(searched);
+                return;
+            }
+
+            // buckets are in the order of the searched ranges
+            List<Optional<double[]>> samples = new ArrayList<>(ranges.size());
+            Iterator<Optional<double[]>> searchedIterator = searched.iterator();
+            for (double[] point : cached) {
+                if (point != null) {
+                    samples.add(Optional.of(point));
+                } else {
+                    samples.add(searchedIterator.hasNext() ? searchedIterator.next() : Optional.empty());
+                }
+            }
+            listener.onResponse(samples);
         }, listener::onFailure));
     }
 
@@ -509,6 +599,9 @@ public class SearchFeatureDao {
      * If the initial stride {@code maxStride} results into a low count of samples, the implementation
      * may attempt with (exponentially) reduced strides and interpolate missing points.
      *
+     * The periods of all the strides that may be attempted are probed together by one search, so trying
+     * a smaller stride does not wait for another round of searches.
+     *
      * @param detector info about indices, documents, feature query
      * @param maxSamples the maximum number of samples to return
      * @param maxStride the maximum number of periods between samples
@@ -522,174 +615,117 @@ public class SearchFeatureDao {
         long endTime,
         ActionListener<Optional<Entry<double[][], Integer>>> listener
     ) {
-        Map<Long, double[]> cache = new HashMap<>();
         logger.info(String.format(Locale.ROOT, "Getting features for detector %s ending at %d", detector.getDetectorId(), endTime));
-        getFeatureSamplesWithCache(detector, maxSamples, maxStride, endTime, cache, maxStride, listener);
-    }
-
-    private void getFeatureSamplesWithCache(
-        AnomalyDetector detector,
-        int maxSamples,
-        int maxStride,
-        long endTime,
-        Map<Long, double[]> cache,
-        int currentStride,
-        ActionListener<Optional<Entry<double[][], Integer>>> listener
-    ) {
-        getFeatureSamplesForStride(
-            detector,
-            maxSamples,
-            maxStride,
-            currentStride,
-            endTime,
-            cache,
-            ActionListener
-                .wrap(
-                    features -> processFeatureSamplesForStride(
-                        features,
-                        detector,
-                        maxSamples,
-                        maxStride,
-                        currentStride,
-                        endTime,
-                        cache,
-                        listener
-                    ),
-                    listener::onFailure
-                )
-        );
-    }
+        long span = ((IntervalTimeConfiguration) detector.getDetectionInterval()).toDuration().toMillis();
+        TreeSet<Long> ends = new TreeSet<>();
+        for (int stride = maxStride; stride >= 1; stride /= 2) {
+            for (int i = 0; i < maxSamples; i++) {
+                ends.add(endTime - span * stride * i);
+            }
+        }
+        // date range buckets come back in ascending order of range start
+        List<Entry<Long, Long>> ranges = ends.stream().map(end -> new SimpleImmutableEntry<>(end - span, end)).collect(Collectors.toList());
 
-    private void processFeatureSamplesForStride(
-        Optional<double[][]> features,
-        AnomalyDetector detector,
-        int maxSamples,
-        int maxStride,
-        int currentStride,
-        long endTime,
-        Map<Long, double[]> cache,
-        ActionListener<Optional<Entry<double[][], Integer>>> listener
-    ) {
-        if (!features.isPresent()) {
-            logger
-                .info(
-                    String
-                        .format(
-                            Locale.ROOT,
-                            "Get features for detector %s finishes without any features present, current stride %d",
-                            detector.getDetectorId(),
-                            currentStride
-                        )
-                );
-            listener.onResponse(Optional.empty());
-        } else if (features.get().length > maxSamples / 2 || currentStride == 1) {
-            logger
-                .info(
-                    String
-                        .format(
-                            Locale.ROOT,
-                            "Get features for detector %s finishes with %d samples, current stride %d",
-                            detector.getDetectorId(),
-                            features.get().length,
-                            currentStride
-                        )
-                );
-            listener.onResponse(Optional.of(new SimpleEntry<>(features.get(), currentStride)));
-        } else {
-            getFeatureSamplesWithCache(detector, maxSamples, maxStride, endTime, cache, currentStride / 2, listener);
+        try {
+            getFeatureSamplesForPeriods(detector, ranges, ActionListener.wrap(samples -> {
+                Map<Long, double[]> probes = new HashMap<>();
+                for (int i = 0; i < Math.min(samples.size(), ranges.size()); i++) {
+                    long end = ranges.get(i).getValue();
+                    samples.get(i).ifPresent(features -> probes.put(end, features));
+                }
+                listener.onResponse(getFeatureSamplesWithProbes(detector, maxSamples, maxStride, endTime, span, probes));
+            }, listener::onFailure));
+        } catch (Exception e) {
+            listener.onFailure(e);
         }
     }
 
-    private void getFeatureSamplesForStride(
+    /**
+     * Picks the stride from probed periods the same way strides are attempted one after another:
+     * the largest stride with more than half of {@code maxSamples} samples, or else stride 1.
+     */
+    private Optional<Entry<double[][], Integer>> getFeatureSamplesWithProbes(
         AnomalyDetector detector,
         int maxSamples,
         int maxStride,
-        int currentStride,
         long endTime,
-        Map<Long, double[]> cache,
-        ActionListener<Optional<double[][]>> listener
+        long span,
+        Map<Long, double[]> probes
     ) {
-        ArrayDeque<double[]> sampledFeatures = new ArrayDeque<>(maxSamples);
-        boolean isInterpolatable = currentStride < maxStride;
-        long span = ((IntervalTimeConfiguration) detector.getDetectionInterval()).toDuration().toMillis();
-        sampleForIteration(detector, cache, maxSamples, endTime, span, currentStride, sampledFeatures, isInterpolatable, 0, listener);
+        Map<Long, double[]> cache = new HashMap<>();
+        int currentStride = maxStride;
+        while (true) {
+            Optional<double[][]> features = getFeatureSamplesForStride(
+                maxSamples,
+                currentStride,
+                endTime,
+                span,
+                currentStride < maxStride,
+                probes,
+                cache
+            );
+            if (!features.isPresent()) {
+                logger
+                    .info(
+                        String
+                            .format(
+                                Locale.ROOT,
+                                "Get features for detector %s finishes without any features present, current stride %d",
+                                detector.getDetectorId(),
+                                currentStride
+                            )
+                    );
+                return Optional.empty();
+            } else if (features.get().length > maxSamples / 2 || currentStride <= 1) {
+                logger
+                    .info(
+                        String
+                            .format(
+                                Locale.ROOT,
+                                "Get features for detector %s finishes with %d samples, current stride %d",
+                                detector.getDetectorId(),
+                                features.get().length,
+                                currentStride
+                            )
+                    );
+                return Optional.of(new SimpleEntry<>(features.get(), currentStride));
+            }
+            currentStride = currentStride / 2;
+        }
     }
 
-    private void sampleForIteration(
-        AnomalyDetector detector,
-        Map<Long, double[]> cache,
+    private Optional<double[][]> getFeatureSamplesForStride(
         int maxSamples,
+        int stride,
         long endTime,
         long span,
-        int stride,
-        ArrayDeque<double[]> sampledFeatures,
         boolean isInterpolatable,
-        int iteration,
-        ActionListener<Optional<double[][]>> listener
+        Map<Long, double[]> probes,
+        Map<Long, double[]> cache
     ) {
-        if (iteration < maxSamples) {
-            long end = endTime - span * stride * iteration;
+        ArrayDeque<double[]> sampledFeatures = new ArrayDeque<>(maxSamples);
+        for (int i = 0; i < maxSamples; i++) {
+            long end = endTime - span * stride * i;
             if (cache.containsKey(end)) {
                 sampledFeatures.addFirst(cache.get(end));
-                sampleForIteration(
-                    detector,
-                    cache,
-                    maxSamples,
-                    endTime,
-                    span,
-                    stride,
-                    sampledFeatures,
-                    isInterpolatable,
-                    iteration + 1,
-                    listener
-                );
+            } else if (probes.containsKey(end)) {
+                cache.put(end, probes.get(end));
+                sampledFeatures.addFirst(probes.get(end));
+            } else if (isInterpolatable) {
+                Optional<double[]> previous = Optional.ofNullable(cache.get(end - span * stride));
+                Optional<double[]> next = Optional.ofNullable(cache.get(end + span * stride));
+                if (previous.isPresent() && next.isPresent()) {
+                    double[] interpolants = getInterpolants(previous.get(), next.get());
+                    cache.put(end, interpolants);
+                    sampledFeatures.addFirst(interpolants);
+                } else {
+                    break;
+                }
             } else {
-                getFeaturesForPeriod(detector, end - span, end, ActionListener.wrap(features -> {
-                    if (features.isPresent()) {
-                        cache.put(end, features.get());
-                        sampledFeatures.addFirst(features.get());
-                        sampleForIteration(
-                            detector,
-                            cache,
-                            maxSamples,
-                            endTime,
-                            span,
-                            stride,
-                            sampledFeatures,
-                            isInterpolatable,
-                            iteration + 1,
-                            listener
-                        );
-                    } else if (isInterpolatable) {
-                        Optional<double[]> previous = Optional.ofNullable(cache.get(end - span * stride));
-                        Optional<double[]> next = Optional.ofNullable(cache.get(end + span * stride));
-                        if (previous.isPresent() && next.isPresent()) {
-                            double[] interpolants = getInterpolants(previous.get(), next.get());
-                            cache.put(end, interpolants);
-                            sampledFeatures.addFirst(interpolants);
-                            sampleForIteration(
-                                detector,
-                                cache,
-                                maxSamples,
-                                endTime,
-                                span,
-                                stride,
-                                sampledFeatures,
-                                isInterpolatable,
-                                iteration + 1,
-                                listener
-                            );
-                        } else {
-                            listener.onResponse(toMatrix(sampledFeatures));
-                        }
-                    } else {
-                        listener.onResponse(toMatrix(sampledFeatures));
-                    }
-                }, listener::onFailure));
+                break;
             }
-        } else {
-            listener.onResponse(toMatrix(sampledFeatures));
         }
+        return toMatrix(sampledFeatures);
     }
 
     private Optional<double[][]> toMatrix(ArrayDeque<double[]> sampledFeatures) {
@@ -713,7 +749,8 @@ public class SearchFeatureDao {
     private SearchRequest createFeatureSearchRequest(AnomalyDetector detector, long startTime, long endTime, Optional<String> preference) {
         // TODO: FeatureQuery field is planned to be removed and search request creation will migrate to new api.
         try {
-            SearchSourceBuilder searchSourceBuilder = ParseUtils.generateInternalFeatureQuery(detector, startTime, endTime, xContent);
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .generateInternalFeatureQuery(detector, startTime, endTime, queryPlanCache.getFeatureAggregations(detector));
             return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder).preference(preference.orElse(null));
         } catch (IOException e) {
             logger
@@ -727,7 +764,8 @@ public class SearchFeatureDao {
 
     private SearchRequest createPreviewSearchRequest(AnomalyDetector detector, List<Entry<Long, Long>> ranges) throws IOException {
         try {
-            SearchSourceBuilder searchSourceBuilder = ParseUtils.generatePreviewQuery(detector, ranges, xContent);
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .generatePreviewQuery(detector, ranges, queryPlanCache.getFeatureAggregations(detector));
             return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder);
         } catch (IOException e) {
             logger.warn("Failed to create feature search request for " + detector.getDetectorId() + " for preview", e);
@@ -745,7 +783,7 @@ public class SearchFeatureDao {
             .map(
                 map -> featureIds
                     .stream()
-                    .mapToDouble(id -> Optional.ofNullable(map.get(id)).map(this::parseAggregation).orElse(Double.NaN))
+                    .mapToDouble(id -> Optional.ofNullable(map.get(id)).map(SearchFeatureDao::parseAggregation).orElse(Double.NaN))
                     .toArray()
             )
             .filter(result -> Arrays.stream(result).noneMatch(d -> Double.isNaN(d) || Double.isInfinite(d)));
@@ -758,11 +796,18 @@ public class SearchFeatureDao {
         boolean includesEmptyBucket,
         ActionListener<List<Optional<double[]>>> listener
     ) throws IOException {
-        SearchRequest request = createColdStartFeatureSearchRequest(detector, ranges, entityName);
+        double[][] cached = featureCache.get(detector, entityName, ranges);
+        List<Entry<Long, Long>> missingRanges = getMissingRanges(ranges, cached);
+        if (missingRanges.isEmpty()) {
+            listener.onResponse(Arrays.stream(sortedIndices(ranges)).mapToObj(k -> Optional.of(cached[k])).collect(Collectors.toList()));
+            return;
+        }
+
+        SearchRequest request = createColdStartFeatureSearchRequest(detector, missingRanges, entityName);
 
         client.search(request, ActionListener.wrap(response -> {
             Aggregations aggs = response.getAggregations();
-            if (aggs == null) {
+            if (aggs == null && missingRanges.size() == ranges.size()) {
                 listener.onResponse(Collections.emptyList());
                 return;
             }
@@ -779,19 +824,124 @@ public class SearchFeatureDao {
             // We don't want to use default 0 for sum/count aggregation as it might cause false positives during scoring.
             // Terms aggregation only returns non-zero count values. If we use a lot of 0s during cold start,
             // we will see alarming very easily.
-            listener
-                .onResponse(
-                    aggs
+            Map<Long, Optional<double[]>> searched = new HashMap<>();
+            // only buckets with documents are cached so that cached features pass any doc count filter
+            Map<Long, Optional<double[]>> nonEmpty = new HashMap<>();
+            if (aggs != null) {
+                aggs
+                    .asList()
+                    .stream()
+                    .filter(InternalDateRange.class::isInstance)
+                    .flatMap(agg -> ((InternalDateRange) agg).getBuckets().stream())
+                    .filter(bucket -> bucket.getFrom() != null)
+                    .filter(bucket -> bucket.getDocCount() > docCountThreshold)
+                    .forEach(bucket -> {
+                        Long from = Long.valueOf(bucket.getFromAsString());
+                        Optional<double[]> features = parseBucket(bucket, detector.getEnabledFeatureIds());
+                        searched.put(from, features);
+                        if (bucket.getDocCount() > 0) {
+                            nonEmpty.put(from, features);
+                        }
+                    });
+            }
+
+            List<Optional<double[]>> missingSamples = missingRanges
+                .stream()
+                .map(range -> nonEmpty.getOrDefault(range.getKey(), Optional.empty()))
+                .collect(Collectors.toList());
+            featureCache.put(detector, entityName, missingRanges, missingSamples);
+
+            // samples are ordered by range start
+            List<Optional<double[]>> samples = new ArrayList<>();
+            for (int i : sortedIndices(ranges)) {
+                if (cached[i] != null) {
+                    samples.add(Optional.of(cached[i]));
+                } else if (searched.containsKey(ranges.get(i).getKey())) {
+                    samples.add(searched.get(ranges.get(i).getKey()));
+                }
+            }
+            listener.onResponse(samples);
+        }, listener::onFailure));
+    }
+
+    private static List<Entry<Long, Long>> getMissingRanges(List<Entry<Long, Long>> ranges, double[][] cached) {
+        List<Entry<Long, Long>> missingRanges = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            if (cached[i] == null) {
+                missingRanges.add(ranges.get(i));
+            }
+        }
+        return missingRanges;
+    }
+
+    private static int[] sortedIndices(List<Entry<Long, Long>> ranges) {
+        return IntStream
+            .range(0, ranges.size())
+            .boxed()
+            .sorted(Comparator.comparing(i -> ranges.get(i).getKey()))
+            .mapToInt(i -> i)
+            .toArray();
+    }
+
+    /**
+     * Gets samples of features of entities for the time ranges with one search.
+     *
+     * Like {@link #getColdStartSamplesForPeriods} with empty buckets included, the samples of an entity
+     * are in the order of the time ranges, and a time range without valid features gives an empty sample.
+     * Entities without any document in the time ranges are left out of the results.
+     *
+     * @param detector info about the indices, documents, feature query
+     * @param ranges list of time ranges
+     * @param entities entities to sample
+     * @param listener handle samples keyed by entity value
+     */
+    public void getFeatureSamplesForEntities(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        List<Entity> entities,
+        ActionListener<Map<String, List<Optional<double[]>>>> listener
+    ) {
+        SearchRequest request = createEntitiesPreviewSearchRequest(detector, ranges, entities);
+
+        client.search(request, ActionListener.wrap(response -> {
+            Aggregations aggs = response.getAggregations();
+            if (aggs == null) {
+                listener.onResponse(Collections.emptyMap());
+                return;
+            }
+
+            Map<String, List<Optional<double[]>>> results = new HashMap<>();
+            Terms entityTerms = aggs.get(CommonName.ENTITY_TERMS);
+            if (entityTerms != null) {
+                for (Terms.Bucket entityBucket : entityTerms.getBuckets()) {
+                    List<Bucket> buckets = entityBucket
+                        .getAggregations()
                         .asList()
                         .stream()
                         .filter(InternalDateRange.class::isInstance)
                         .flatMap(agg -> ((InternalDateRange) agg).getBuckets().stream())
                         .filter(bucket -> bucket.getFrom() != null)
-                        .filter(bucket -> bucket.getDocCount() > docCountThreshold)
                         .sorted(Comparator.comparing((Bucket bucket) -> Long.valueOf(bucket.getFromAsString())))
-                        .map(bucket -> parseBucket(bucket, detector.getEnabledFeatureIds()))
-                        .collect(Collectors.toList())
-                );
+                        .collect(Collectors.toList());
+                    List<Optional<double[]>> samples = new ArrayList<>(buckets.size());
+                    List<Entry<Long, Long>> nonEmptyRanges = new ArrayList<>();
+                    List<Optional<double[]>> nonEmptySamples = new ArrayList<>();
+                    for (Bucket bucket : buckets) {
+                        Optional<double[]> sample = parseBucket(bucket, detector.getEnabledFeatureIds());
+                        samples.add(sample);
+                        if (bucket.getDocCount() > 0) {
+                            nonEmptyRanges
+                                .add(
+                                    new SimpleImmutableEntry<>(Long.valueOf(bucket.getFromAsString()), Long.valueOf(bucket.getToAsString()))
+                                );
+                            nonEmptySamples.add(sample);
+                        }
+                    }
+                    featureCache.put(detector, entityBucket.getKeyAsString(), nonEmptyRanges, nonEmptySamples);
+                    results.put(entityBucket.getKeyAsString(), samples);
+                }
+            }
+            listener.onResponse(results);
         }, listener::onFailure));
     }
 
@@ -825,10 +975,8 @@ public class SearchFeatureDao {
                 .terms(AGG_NAME_TERM)
                 .field(detector.getCategoryField().get(0))
                 .size(maxEntitiesPerQuery);
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = ParseUtils
-                    .parseAggregators(feature.getAggregation().toString(), xContent, feature.getId());
-                termsAgg.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
+            for (AggregationBuilder featureAgg : queryPlanCache.getFeatureAggregations(detector)) {
+                termsAgg.subAggregation(featureAgg);
             }
 
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
@@ -855,6 +1003,7 @@ public class SearchFeatureDao {
                     .stream()
                     .filter(entry -> entry.getValue().isPresent())
                     .collect(Collectors.toMap(Entry::getKey, entry -> entry.getValue().get()));
+                results.forEach((entity, features) -> featureCache.put(detector, entity, startMilli, endMilli, features));
 
                 listener.onResponse(results);
             }, listener::onFailure);
@@ -873,7 +1022,8 @@ public class SearchFeatureDao {
 
     private SearchRequest createColdStartFeatureSearchRequest(AnomalyDetector detector, List<Entry<Long, Long>> ranges, String entityName) {
         try {
-            SearchSourceBuilder searchSourceBuilder = ParseUtils.generateEntityColdStartQuery(detector, ranges, entityName, xContent);
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .generateEntityColdStartQuery(detector, ranges, entityName, queryPlanCache.getFeatureAggregations(detector));
             return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder);
         } catch (IOException e) {
             logger
@@ -890,6 +1040,21 @@ public class SearchFeatureDao {
         }
     }
 
+    private SearchRequest createEntitiesPreviewSearchRequest(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        List<Entity> entities
+    ) {
+        try {
+            SearchSourceBuilder searchSourceBuilder = ParseUtils
+                .generateEntitiesPreviewQuery(detector, ranges, entities, queryPlanCache.getFeatureAggregations(detector));
+            return new SearchRequest(detector.getIndices().toArray(new String[0]), searchSourceBuilder);
+        } catch (IOException e) {
+            logger.warn("Failed to create feature search request of entities for " + detector.getDetectorId() + " for preview", e);
+            throw new IllegalStateException(e);
+        }
+    }
+
     private Optional<double[]> parseBucket(MultiBucketsAggregation.Bucket bucket, List<String> featureIds) {
         return parseAggregations(Optional.ofNullable(bucket).map(b -> b.getAggregations()), featureIds);
     }
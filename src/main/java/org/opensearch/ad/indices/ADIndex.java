@@ -64,6 +64,11 @@ public enum ADIndex {
         CommonName.DETECTION_STATE_INDEX,
         false,
         ThrowingSupplierWrapper.throwingSupplierWrapper(AnomalyDetectionIndices::getDetectionStateMappings)
+    ),
+    RESULT_ROLLUP(
+        CommonName.ANOMALY_RESULT_ROLLUP_INDEX,
+        false,
+        ThrowingSupplierWrapper.throwingSupplierWrapper(AnomalyDetectionIndices::getAnomalyResultRollupMappings)
     );
 
     private final String indexName;
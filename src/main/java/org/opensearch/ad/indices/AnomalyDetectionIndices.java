@@ -33,7 +33,11 @@ import static org.opensearch.ad.settings.AnomalyDetectorSettings.ANOMALY_DETECTI
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.ANOMALY_DETECTORS_INDEX_MAPPING_FILE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.ANOMALY_DETECTOR_JOBS_INDEX_MAPPING_FILE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.ANOMALY_RESULTS_INDEX_MAPPING_FILE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.ANOMALY_RESULT_ROLLUPS_INDEX_MAPPING_FILE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_INDEX_MAPPING_FILE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_INDEX_PARTITIONING;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_PARTITION_PERIOD;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHECKPOINT_TTL;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_PRIMARY_SHARDS;
 
 import java.io.IOException;
@@ -41,6 +45,7 @@ import java.net.URL;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
@@ -59,6 +64,7 @@ import org.opensearch.action.admin.indices.create.CreateIndexRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
 import org.opensearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.opensearch.action.admin.indices.mapping.put.PutMappingRequest;
+import org.opensearch.action.admin.indices.rollover.RolloverInfo;
 import org.opensearch.action.admin.indices.rollover.RolloverRequest;
 import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.action.support.IndicesOptions;
@@ -103,6 +109,15 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
     // The index name pattern to query all AD result, history and current AD result
     public static final String ALL_AD_RESULTS_INDEX_PATTERN = ".opendistro-anomaly-results*";
 
+    // The index name pattern to create time-partitioned checkpoint indices
+    public static final String CHECKPOINT_PARTITION_INDEX_PATTERN = "<.opendistro-anomaly-checkpoints-{now/d}-1>";
+
+    // The index name pattern to query all checkpoint indices, both partitions and the unpartitioned index
+    public static final String ALL_CHECKPOINT_INDEX_PATTERN = ".opendistro-anomaly-checkpoints*";
+
+    // how often the master checks whether to roll over checkpoint partitions
+    private static final TimeValue CHECKPOINT_ROLLOVER_CHECK_INTERVAL = TimeValue.timeValueHours(1);
+
     private static final String META = "_meta";
     private static final String SCHEMA_VERSION = "schema_version";
 
@@ -115,6 +130,8 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
     private volatile TimeValue historyRetentionPeriod;
 
     private Scheduler.Cancellable scheduledRollover = null;
+    private Scheduler.Cancellable scheduledCheckpointRollover = null;
+    private final boolean checkpointPartitioned;
 
     private DiscoveryNodeFilterer nodeFilter;
     private int maxPrimaryShards;
@@ -163,6 +180,7 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
         this.historyMaxDocs = AD_RESULT_HISTORY_MAX_DOCS.get(settings);
         this.historyRetentionPeriod = AD_RESULT_HISTORY_RETENTION_PERIOD.get(settings);
         this.maxPrimaryShards = MAX_PRIMARY_SHARDS.get(settings);
+        this.checkpointPartitioned = CHECKPOINT_INDEX_PARTITIONING.get(settings);
 
         this.nodeFilter = nodeFilter;
 
@@ -245,6 +263,17 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
         return Resources.toString(url, Charsets.UTF_8);
     }
 
+    /**
+     * Get anomaly result rollup index mapping json content.
+     *
+     * @return anomaly result rollup index mapping
+     * @throws IOException IOException if mapping file can't be read correctly
+     */
+    public static String getAnomalyResultRollupMappings() throws IOException {
+        URL url = AnomalyDetectionIndices.class.getClassLoader().getResource(ANOMALY_RESULT_ROLLUPS_INDEX_MAPPING_FILE);
+        return Resources.toString(url, Charsets.UTF_8);
+    }
+
     /**
      * Anomaly detector index exist or not.
      *
@@ -290,6 +319,53 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
         return clusterService.state().getRoutingTable().hasIndex(CommonName.CHECKPOINT_INDEX_NAME);
     }
 
+    /**
+     * @return whether checkpoints are written to time-partitioned indices
+     */
+    public boolean isCheckpointPartitioned() {
+        return checkpointPartitioned;
+    }
+
+    /**
+     * Checkpoint write alias exist or not.
+     *
+     * @return true if the alias of the checkpoint partition being written exists
+     */
+    public boolean doesCheckpointWriteAliasExist() {
+        return clusterService.state().metadata().hasAlias(CommonName.CHECKPOINT_WRITE_ALIAS);
+    }
+
+    /**
+     * Get the checkpoint indices, newest first.  The unpartitioned checkpoint index is
+     * included so that checkpoints written before partitioning can still be read.
+     *
+     * @return names of the checkpoint indices ordered by creation time, newest first
+     */
+    public List<String> getCheckpointIndices() {
+        List<IndexMetadata> checkpointIndices = new ArrayList<>();
+        for (ObjectCursor<IndexMetadata> cursor : clusterService.state().metadata().indices().values()) {
+            String indexName = cursor.value.getIndex().getName();
+            if (indexName.equals(CommonName.CHECKPOINT_INDEX_NAME) || indexName.startsWith(CommonName.CHECKPOINT_INDEX_NAME + "-")) {
+                checkpointIndices.add(cursor.value);
+            }
+        }
+        checkpointIndices.sort(Comparator.comparingLong(IndexMetadata::getCreationDate).reversed());
+        List<String> names = new ArrayList<>(checkpointIndices.size());
+        for (IndexMetadata indexMetadata : checkpointIndices) {
+            names.add(indexMetadata.getIndex().getName());
+        }
+        return names;
+    }
+
+    /**
+     * Anomaly result rollup index exist or not.
+     *
+     * @return true if anomaly result rollup index exists
+     */
+    public boolean doesAnomalyResultRollupIndexExist() {
+        return clusterService.state().getRoutingTable().hasIndex(CommonName.ANOMALY_RESULT_ROLLUP_INDEX);
+    }
+
     /**
      * Index exists or not
      * @param clusterServiceAccessor Cluster service
@@ -445,6 +521,41 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
         adminClient.indices().create(request, markMappingUpToDate(ADIndex.CHECKPOINT, actionListener));
     }
 
+    /**
+     * Create the first checkpoint partition and point the checkpoint write alias to it.
+     *
+     * @param actionListener action called after create index
+     */
+    public void initCheckpointPartition(ActionListener<CreateIndexResponse> actionListener) {
+        try {
+            CreateIndexRequest request = new CreateIndexRequest(CHECKPOINT_PARTITION_INDEX_PATTERN)
+                .mapping(CommonName.MAPPING_TYPE, getCheckpointMappings(), XContentType.JSON)
+                .alias(new Alias(CommonName.CHECKPOINT_WRITE_ALIAS).writeIndex(true));
+            choosePrimaryShards(request);
+            adminClient.indices().create(request, actionListener);
+        } catch (IOException e) {
+            logger.error("Fail to init checkpoint partition", e);
+            actionListener.onFailure(e);
+        }
+    }
+
+    /**
+     * Create the anomaly result rollup index.
+     *
+     * @param actionListener action called after create index
+     */
+    public void initAnomalyResultRollupIndex(ActionListener<CreateIndexResponse> actionListener) {
+        try {
+            CreateIndexRequest request = new CreateIndexRequest(CommonName.ANOMALY_RESULT_ROLLUP_INDEX)
+                .mapping(CommonName.MAPPING_TYPE, getAnomalyResultRollupMappings(), XContentType.JSON);
+            choosePrimaryShards(request);
+            adminClient.indices().create(request, markMappingUpToDate(ADIndex.RESULT_ROLLUP, actionListener));
+        } catch (IOException e) {
+            logger.error("Fail to init AD result rollup index", e);
+            actionListener.onFailure(e);
+        }
+    }
+
     @Override
     public void onMaster() {
         try {
@@ -454,6 +565,15 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
             // schedule the next rollover for approx MAX_AGE later
             scheduledRollover = threadPool
                 .scheduleWithFixedDelay(() -> rolloverAndDeleteHistoryIndex(), historyRolloverPeriod, executorName());
+
+            if (checkpointPartitioned) {
+                scheduledCheckpointRollover = threadPool
+                    .scheduleWithFixedDelay(
+                        () -> rolloverAndDeleteCheckpointPartitions(),
+                        CHECKPOINT_ROLLOVER_CHECK_INTERVAL,
+                        executorName()
+                    );
+            }
         } catch (Exception e) {
             // This should be run on cluster startup
             logger.error("Error rollover AD result indices. " + "Can't rollover AD result until master node is restarted.", e);
@@ -465,6 +585,10 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
         if (scheduledRollover != null) {
             scheduledRollover.cancel();
         }
+        if (scheduledCheckpointRollover != null) {
+            scheduledCheckpointRollover.cancel();
+            scheduledCheckpointRollover = null;
+        }
     }
 
     private String executorName() {
@@ -515,6 +639,73 @@ public class AnomalyDetectionIndices implements LocalNodeMasterListener {
         }, exception -> { logger.error("Fail to roll over result index", exception); }));
     }
 
+    /**
+     * Roll over the checkpoint partition once it is older than a partition period, and drop partitions
+     * that stopped being written more than the checkpoint TTL ago.  An active model's checkpoint is
+     * rewritten at least once per maintenance interval, so it is always in a recent partition.
+     */
+    void rolloverAndDeleteCheckpointPartitions() {
+        if (!doesCheckpointWriteAliasExist()) {
+            return;
+        }
+
+        RolloverRequest rollOverRequest = new RolloverRequest(CommonName.CHECKPOINT_WRITE_ALIAS, null);
+        String checkpointMapping = null;
+        try {
+            checkpointMapping = getCheckpointMappings();
+        } catch (IOException e) {
+            logger.error("Fail to roll over checkpoint partition, as can't get checkpoint index mapping");
+            return;
+        }
+        CreateIndexRequest createRequest = rollOverRequest.getCreateIndexRequest();
+        createRequest.index(CHECKPOINT_PARTITION_INDEX_PATTERN).mapping(CommonName.MAPPING_TYPE, checkpointMapping, XContentType.JSON);
+        choosePrimaryShards(createRequest);
+
+        rollOverRequest.addMaxIndexAgeCondition(CHECKPOINT_PARTITION_PERIOD);
+        adminClient.indices().rolloverIndex(rollOverRequest, ActionListener.wrap(response -> {
+            if (response.isRolledOver()) {
+                logger.info("{} rolled over. Conditions were: {}", CommonName.CHECKPOINT_WRITE_ALIAS, response.getConditionStatus());
+            }
+            deleteExpiredCheckpointPartitions();
+        }, exception -> { logger.error("Fail to roll over checkpoint partition", exception); }));
+    }
+
+    void deleteExpiredCheckpointPartitions() {
+        long expiry = Instant.now().toEpochMilli() - CHECKPOINT_TTL.toMillis();
+        List<String> expired = new ArrayList<>();
+        for (ObjectCursor<IndexMetadata> cursor : clusterService.state().metadata().indices().values()) {
+            IndexMetadata indexMetadata = cursor.value;
+            if (!indexMetadata.getIndex().getName().startsWith(CommonName.CHECKPOINT_INDEX_NAME + "-")) {
+                continue;
+            }
+            // the time a partition stopped being written, i.e., when it was rolled over
+            RolloverInfo rolloverInfo = indexMetadata.getRolloverInfos().get(CommonName.CHECKPOINT_WRITE_ALIAS);
+            if (rolloverInfo != null && rolloverInfo.getTime() < expiry) {
+                expired.add(indexMetadata.getIndex().getName());
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        String[] toDelete = expired.toArray(Strings.EMPTY_ARRAY);
+        adminClient.indices().delete(new DeleteIndexRequest(toDelete), ActionListener.wrap(deleteIndexResponse -> {
+            if (deleteIndexResponse.isAcknowledged()) {
+                logger.info("Succeeded in deleting expired checkpoint partitions: {}.", Arrays.toString(toDelete));
+            } else {
+                logger.error("Could not delete expired checkpoint partitions: {}.", Arrays.toString(toDelete));
+            }
+        },
+            exception -> {
+                // will retry in the next rollover check
+                logger
+                    .error(
+                        new ParameterizedMessage("Failed to delete expired checkpoint partitions: {}.", Arrays.toString(toDelete)),
+                        exception
+                    );
+            }
+        ));
+    }
+
     void deleteOldHistoryIndices() {
         Set<String> candidates = new HashSet<String>();
 
@@ -0,0 +1,490 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.indices;
+
+import static org.opensearch.ad.indices.AnomalyDetectionIndices.ALL_AD_RESULTS_INDEX_PATTERN;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.AD_RESULT_ROLLUP_AGE;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.search.join.ScoreMode;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.ResourceAlreadyExistsException;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.ad.common.exception.AnomalyDetectionException;
+import org.opensearch.ad.constant.CommonName;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.model.FeatureData;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.LocalNodeMasterListener;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.opensearch.search.aggregations.bucket.filter.Filter;
+import org.opensearch.search.aggregations.bucket.nested.Nested;
+import org.opensearch.search.aggregations.bucket.nested.ReverseNested;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.opensearch.search.aggregations.metrics.Max;
+import org.opensearch.search.aggregations.metrics.Min;
+import org.opensearch.search.aggregations.metrics.TopHits;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Condenses anomaly results older than {@link org.opensearch.ad.settings.AnomalyDetectorSettings#AD_RESULT_ROLLUP_AGE}
+ * into per-entity, per-hour rollups.  Rollups are searched through
+ * {@link org.opensearch.ad.transport.SearchAnomalyResultRollupAction}, never in place of raw results.
+ *
+ * A rollup keeps the result fields that searches filter on: detector_id, entity, data_start_time,
+ * data_end_time and user.  Its anomaly_grade and anomaly_score are the max of the hour,
+ * anomaly_count counts the results with a positive grade, result_count counts all results,
+ * and feature_data holds the min and max of each feature.  Historical analysis results are
+ * not rolled up, and neither are summary results of multi-entity detectors, as those carry the
+ * max score of all the entities they list.
+ *
+ * The elected master rolls up one hour at a time in time order.  Rollup ids are derived from
+ * the detector, entity and hour, so rolling up an hour again overwrites its rollups.  Each run
+ * starts over from the latest rolled up hour in case the previous run stopped in the middle of it,
+ * and skips ahead to the first result after it so that hours without results (e.g., while
+ * detectors were stopped) do not hold the rollup back.
+ */
+public class AnomalyResultRollup implements LocalNodeMasterListener {
+    private static final Logger LOG = LogManager.getLogger(AnomalyResultRollup.class);
+
+    public static final String ANOMALY_COUNT_FIELD = "anomaly_count";
+    public static final String RESULT_COUNT_FIELD = "result_count";
+    public static final String FEATURE_MIN_FIELD = "min";
+    public static final String FEATURE_MAX_FIELD = "max";
+
+    static final String ENTITY_AGG = "entity";
+    static final String ENTITY_KEYS_AGG = "entity_keys";
+    static final String RESULTS_AGG = "results";
+    static final String DETECTORS_AGG = "detectors";
+    static final String MAX_GRADE_AGG = "max_grade";
+    static final String MAX_SCORE_AGG = "max_score";
+    static final String ANOMALIES_AGG = "anomalies";
+    static final String USER_AGG = "user";
+    static final String FEATURES_AGG = "features";
+    static final String FEATURE_IDS_AGG = "feature_ids";
+    static final String WATERMARK_AGG = "watermark";
+
+    static final long HOUR_MILLIS = TimeValue.timeValueHours(1).millis();
+    // how often the master rolls up
+    static final TimeValue ROLLUP_INTERVAL = TimeValue.timeValueHours(1);
+    // hours rolled up per run, so that a backlog is caught up gradually
+    static final int MAX_HOURS_PER_RUN = 24;
+    // Composite page size. A page expands to entities x detectors sharing an entity x features
+    // buckets, which has to stay below the max number of buckets of a search.
+    static final int PAGE_SIZE = 100;
+    static final int MAX_DETECTORS_PER_ENTITY = 10;
+    static final int MAX_FEATURES = 10;
+
+    private final Client client;
+    private final ThreadPool threadPool;
+    private final AnomalyDetectionIndices indices;
+    private final Clock clock;
+    private final AtomicBoolean running;
+    private volatile TimeValue rollupAge;
+    private Scheduler.Cancellable scheduledRollup;
+
+    public AnomalyResultRollup(
+        Client client,
+        ClusterService clusterService,
+        ThreadPool threadPool,
+        AnomalyDetectionIndices indices,
+        Clock clock,
+        Settings settings
+    ) {
+        this.client = client;
+        this.threadPool = threadPool;
+        this.indices = indices;
+        this.clock = clock;
+        this.running = new AtomicBoolean(false);
+        this.rollupAge = AD_RESULT_ROLLUP_AGE.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(AD_RESULT_ROLLUP_AGE, it -> rollupAge = it);
+        clusterService.addLocalNodeMasterListener(this);
+    }
+
+    @Override
+    public void onMaster() {
+        if (scheduledRollup == null) {
+            scheduledRollup = threadPool.scheduleWithFixedDelay(this::rollup, ROLLUP_INTERVAL, ThreadPool.Names.MANAGEMENT);
+        }
+    }
+
+    @Override
+    public void offMaster() {
+        if (scheduledRollup != null) {
+            scheduledRollup.cancel();
+            scheduledRollup = null;
+        }
+    }
+
+    /**
+     * Roll up aged results that have not been rolled up yet.
+     */
+    void rollup() {
+        if (rollupAge.millis() <= 0 || !running.compareAndSet(false, true)) {
+            return;
+        }
+        ActionListener<Void> done = ActionListener.wrap(r -> running.set(false), exception -> {
+            running.set(false);
+            LOG.error("Fail to roll up anomaly results", exception);
+        });
+        if (indices.doesAnomalyResultRollupIndexExist()) {
+            rollupFromWatermark(done);
+            return;
+        }
+        indices.initAnomalyResultRollupIndex(ActionListener.wrap(response -> rollupFromWatermark(done), exception -> {
+            if (ExceptionsHelper.unwrapCause(exception) instanceof ResourceAlreadyExistsException) {
+                rollupFromWatermark(done);
+            } else {
+                done.onFailure(exception);
+            }
+        }));
+    }
+
+    private void rollupFromWatermark(ActionListener<Void> done) {
+        long cutoff = truncateToHour(clock.millis() - rollupAge.millis());
+        getWatermark(ActionListener.wrap(watermark -> {
+            // roll up the latest rolled up hour again as the previous run may have stopped in the middle of it
+            long from = watermark.map(end -> end - HOUR_MILLIS).orElse(0L);
+            getEarliestResultTime(from, ActionListener.wrap(earliest -> {
+                if (earliest.isPresent()) {
+                    rollupHours(truncateToHour(earliest.get()), cutoff, done);
+                } else {
+                    done.onResponse(null);
+                }
+            }, done::onFailure));
+        }, done::onFailure));
+    }
+
+    private void rollupHours(long start, long cutoff, ActionListener<Void> done) {
+        rollupHour(start, Math.min(cutoff, start + MAX_HOURS_PER_RUN * HOUR_MILLIS), done);
+    }
+
+    private void rollupHour(long hour, long end, ActionListener<Void> done) {
+        if (hour >= end) {
+            done.onResponse(null);
+            return;
+        }
+        ActionListener<Void> nextHour = ActionListener.wrap(r -> rollupHour(hour + HOUR_MILLIS, end, done), done::onFailure);
+        rollupEntityResults(hour, null, ActionListener.wrap(r -> rollupDetectorResults(hour, null, nextHour), done::onFailure));
+    }
+
+    /**
+     * Roll up an hour's results of multi-entity detectors, one page of entities at a time.
+     * The entity field is nested, so the results of an entity are grouped by detector
+     * after joining back to them.
+     */
+    private void rollupEntityResults(long hour, Map<String, Object> afterKey, ActionListener<Void> listener) {
+        List<CompositeValuesSourceBuilder<?>> sources = Arrays
+            .asList(
+                new TermsValuesSourceBuilder(Entity.ENTITY_NAME_FIELD).field(entityField(Entity.ENTITY_NAME_FIELD)),
+                new TermsValuesSourceBuilder(Entity.ENTITY_VALUE_FIELD).field(entityField(Entity.ENTITY_VALUE_FIELD))
+            );
+        TermsAggregationBuilder detectors = AggregationBuilders
+            .terms(DETECTORS_AGG)
+            .field(AnomalyResult.DETECTOR_ID_FIELD)
+            .size(MAX_DETECTORS_PER_ENTITY);
+        addRollupAggs(detectors);
+        CompositeAggregationBuilder entityKeys = AggregationBuilders
+            .composite(ENTITY_KEYS_AGG, sources)
+            .size(PAGE_SIZE)
+            .aggregateAfter(afterKey)
+            .subAggregation(AggregationBuilders.reverseNested(RESULTS_AGG).subAggregation(detectors));
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(hourQuery(hour).filter(hasEntity()))
+            .size(0)
+            .aggregation(AggregationBuilders.nested(ENTITY_AGG, AnomalyResult.ENTITY_FIELD).subAggregation(entityKeys));
+
+        client.search(new SearchRequest(ALL_AD_RESULTS_INDEX_PATTERN).source(source), ActionListener.wrap(response -> {
+            Nested entities = response.getAggregations() == null ? null : response.getAggregations().get(ENTITY_AGG);
+            if (entities == null) {
+                listener.onResponse(null);
+                return;
+            }
+            CompositeAggregation page = entities.getAggregations().get(ENTITY_KEYS_AGG);
+            BulkRequest bulkRequest = new BulkRequest();
+            for (CompositeAggregation.Bucket bucket : page.getBuckets()) {
+                Entity entity = new Entity(
+                    (String) bucket.getKey().get(Entity.ENTITY_NAME_FIELD),
+                    (String) bucket.getKey().get(Entity.ENTITY_VALUE_FIELD)
+                );
+                ReverseNested results = bucket.getAggregations().get(RESULTS_AGG);
+                Terms detectorBuckets = results.getAggregations().get(DETECTORS_AGG);
+                if (detectorBuckets.getSumOfOtherDocCounts() > 0) {
+                    LOG.warn("More than {} detectors share entity {}, some are not rolled up", MAX_DETECTORS_PER_ENTITY, entity);
+                }
+                for (Terms.Bucket detector : detectorBuckets.getBuckets()) {
+                    bulkRequest
+                        .add(rollupRequest(detector.getKeyAsString(), entity, hour, detector.getDocCount(), detector.getAggregations()));
+                }
+            }
+            save(bulkRequest, nextPage(page, nextAfterKey -> rollupEntityResults(hour, nextAfterKey, listener), listener));
+        }, exception -> onSearchFailure(exception, listener)));
+    }
+
+    /**
+     * Roll up an hour's results of single-entity detectors, one page of detectors at a time.
+     */
+    private void rollupDetectorResults(long hour, Map<String, Object> afterKey, ActionListener<Void> listener) {
+        List<CompositeValuesSourceBuilder<?>> sources = Collections
+            .singletonList(new TermsValuesSourceBuilder(DETECTORS_AGG).field(AnomalyResult.DETECTOR_ID_FIELD));
+        CompositeAggregationBuilder detectors = AggregationBuilders
+            .composite(DETECTORS_AGG, sources)
+            .size(PAGE_SIZE)
+            .aggregateAfter(afterKey);
+        addRollupAggs(detectors);
+        SearchSourceBuilder source = new SearchSourceBuilder().query(hourQuery(hour).mustNot(hasEntity())).size(0).aggregation(detectors);
+
+        client.search(new SearchRequest(ALL_AD_RESULTS_INDEX_PATTERN).source(source), ActionListener.wrap(response -> {
+            CompositeAggregation page = response.getAggregations() == null ? null : response.getAggregations().get(DETECTORS_AGG);
+            if (page == null) {
+                listener.onResponse(null);
+                return;
+            }
+            BulkRequest bulkRequest = new BulkRequest();
+            for (CompositeAggregation.Bucket bucket : page.getBuckets()) {
+                String detectorId = (String) bucket.getKey().get(DETECTORS_AGG);
+                bulkRequest.add(rollupRequest(detectorId, null, hour, bucket.getDocCount(), bucket.getAggregations()));
+            }
+            save(bulkRequest, nextPage(page, nextAfterKey -> rollupDetectorResults(hour, nextAfterKey, listener), listener));
+        }, exception -> onSearchFailure(exception, listener)));
+    }
+
+    private void addRollupAggs(AggregationBuilder detectorAgg) {
+        String featureDataField = AnomalyResult.FEATURE_DATA_FIELD + "." + FeatureData.DATA_FIELD;
+        detectorAgg
+            .subAggregation(AggregationBuilders.max(MAX_GRADE_AGG).field(AnomalyResult.ANOMALY_GRADE_FIELD))
+            .subAggregation(AggregationBuilders.max(MAX_SCORE_AGG).field(AnomalyResult.ANOMALY_SCORE_FIELD))
+            .subAggregation(AggregationBuilders.filter(ANOMALIES_AGG, QueryBuilders.rangeQuery(AnomalyResult.ANOMALY_GRADE_FIELD).gt(0)))
+            .subAggregation(AggregationBuilders.topHits(USER_AGG).size(1).fetchSource(new String[] { AnomalyResult.USER_FIELD }, null))
+            .subAggregation(
+                AggregationBuilders
+                    .nested(FEATURES_AGG, AnomalyResult.FEATURE_DATA_FIELD)
+                    .subAggregation(
+                        AggregationBuilders
+                            .terms(FEATURE_IDS_AGG)
+                            .field(AnomalyResult.FEATURE_DATA_FIELD + "." + FeatureData.FEATURE_ID_FIELD)
+                            .size(MAX_FEATURES)
+                            .subAggregation(AggregationBuilders.min(FEATURE_MIN_FIELD).field(featureDataField))
+                            .subAggregation(AggregationBuilders.max(FEATURE_MAX_FIELD).field(featureDataField))
+                    )
+            );
+    }
+
+    IndexRequest rollupRequest(String detectorId, Entity entity, long hour, long resultCount, Aggregations aggs) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject().field(AnomalyResult.DETECTOR_ID_FIELD, detectorId);
+        if (entity != null) {
+            builder.field(AnomalyResult.ENTITY_FIELD, Collections.singletonList(entity));
+        }
+        builder.field(AnomalyResult.DATA_START_TIME_FIELD, hour).field(AnomalyResult.DATA_END_TIME_FIELD, hour + HOUR_MILLIS);
+
+        Max maxGrade = aggs.get(MAX_GRADE_AGG);
+        if (Double.isFinite(maxGrade.getValue())) {
+            builder.field(AnomalyResult.ANOMALY_GRADE_FIELD, maxGrade.getValue());
+        }
+        Max maxScore = aggs.get(MAX_SCORE_AGG);
+        if (Double.isFinite(maxScore.getValue())) {
+            builder.field(AnomalyResult.ANOMALY_SCORE_FIELD, maxScore.getValue());
+        }
+        Filter anomalies = aggs.get(ANOMALIES_AGG);
+        builder.field(ANOMALY_COUNT_FIELD, anomalies.getDocCount()).field(RESULT_COUNT_FIELD, resultCount);
+
+        Nested features = aggs.get(FEATURES_AGG);
+        Terms featureIds = features.getAggregations().get(FEATURE_IDS_AGG);
+        builder.startArray(AnomalyResult.FEATURE_DATA_FIELD);
+        for (Terms.Bucket feature : featureIds.getBuckets()) {
+            builder.startObject().field(FeatureData.FEATURE_ID_FIELD, feature.getKeyAsString());
+            Min min = feature.getAggregations().get(FEATURE_MIN_FIELD);
+            if (Double.isFinite(min.getValue())) {
+                builder.field(FEATURE_MIN_FIELD, min.getValue());
+            }
+            Max max = feature.getAggregations().get(FEATURE_MAX_FIELD);
+            if (Double.isFinite(max.getValue())) {
+                builder.field(FEATURE_MAX_FIELD, max.getValue());
+            }
+            builder.endObject();
+        }
+        builder.endArray();
+
+        TopHits user = aggs.get(USER_AGG);
+        SearchHit[] hits = user.getHits().getHits();
+        if (hits.length > 0 && hits[0].getSourceAsMap() != null && hits[0].getSourceAsMap().get(AnomalyResult.USER_FIELD) != null) {
+            builder.field(AnomalyResult.USER_FIELD, hits[0].getSourceAsMap().get(AnomalyResult.USER_FIELD));
+        }
+        builder.endObject();
+
+        return new IndexRequest(CommonName.ANOMALY_RESULT_ROLLUP_INDEX).id(rollupId(detectorId, entity, hour)).source(builder);
+    }
+
+    static String rollupId(String detectorId, Entity entity, long hour) {
+        StringBuilder key = new StringBuilder(detectorId).append('_').append(hour);
+        if (entity != null) {
+            key.append('_').append(entity.getName()).append('_').append(entity.getValue());
+        }
+        return UUID.nameUUIDFromBytes(key.toString().getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private void save(BulkRequest bulkRequest, ActionListener<Void> listener) {
+        if (bulkRequest.numberOfActions() == 0) {
+            listener.onResponse(null);
+            return;
+        }
+        client.bulk(bulkRequest, ActionListener.wrap(response -> {
+            if (response.hasFailures()) {
+                listener.onFailure(new AnomalyDetectionException("Fail to save rollups: " + response.buildFailureMessage()));
+            } else {
+                listener.onResponse(null);
+            }
+        }, listener::onFailure));
+    }
+
+    private ActionListener<Void> nextPage(CompositeAggregation page, Consumer<Map<String, Object>> next, ActionListener<Void> listener) {
+        return ActionListener.wrap(r -> {
+            if (page.afterKey() == null || page.getBuckets().size() < PAGE_SIZE) {
+                listener.onResponse(null);
+            } else {
+                next.accept(page.afterKey());
+            }
+        }, listener::onFailure);
+    }
+
+    private void onSearchFailure(Exception exception, ActionListener<Void> listener) {
+        if (ExceptionsHelper.unwrapCause(exception) instanceof IndexNotFoundException) {
+            listener.onResponse(null);
+        } else {
+            listener.onFailure(exception);
+        }
+    }
+
+    /**
+     * Get the end of the latest rolled up hour.
+     */
+    private void getWatermark(ActionListener<Optional<Long>> listener) {
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .size(0)
+            .aggregation(AggregationBuilders.max(WATERMARK_AGG).field(AnomalyResult.DATA_END_TIME_FIELD));
+        client.search(new SearchRequest(CommonName.ANOMALY_RESULT_ROLLUP_INDEX).source(source), ActionListener.wrap(response -> {
+            Max max = response.getAggregations() == null ? null : response.getAggregations().get(WATERMARK_AGG);
+            if (max == null || !Double.isFinite(max.getValue())) {
+                listener.onResponse(Optional.empty());
+            } else {
+                listener.onResponse(Optional.of((long) max.getValue()));
+            }
+        }, listener::onFailure));
+    }
+
+    /**
+     * Get the start time of the earliest result to roll up at or after the given time.
+     */
+    private void getEarliestResultTime(long from, ActionListener<Optional<Long>> listener) {
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(
+                QueryBuilders
+                    .boolQuery()
+                    .filter(QueryBuilders.rangeQuery(AnomalyResult.DATA_START_TIME_FIELD).gte(from).format(CommonName.EPOCH_MILLIS_FORMAT))
+                    .mustNot(QueryBuilders.existsQuery(AnomalyResult.TASK_ID_FIELD))
+                    .mustNot(QueryBuilders.termQuery(AnomalyResult.RESULT_TYPE_FIELD, AnomalyResult.SUMMARY_RESULT_TYPE))
+            )
+            .size(0)
+            .aggregation(AggregationBuilders.min(WATERMARK_AGG).field(AnomalyResult.DATA_START_TIME_FIELD));
+        client.search(new SearchRequest(ALL_AD_RESULTS_INDEX_PATTERN).source(source), ActionListener.wrap(response -> {
+            Min min = response.getAggregations() == null ? null : response.getAggregations().get(WATERMARK_AGG);
+            if (min == null || !Double.isFinite(min.getValue())) {
+                listener.onResponse(Optional.empty());
+            } else {
+                listener.onResponse(Optional.of((long) min.getValue()));
+            }
+        }, exception -> {
+            if (ExceptionsHelper.unwrapCause(exception) instanceof IndexNotFoundException) {
+                listener.onResponse(Optional.empty());
+            } else {
+                listener.onFailure(exception);
+            }
+        }));
+    }
+
+    private BoolQueryBuilder hourQuery(long hour) {
+        return QueryBuilders
+            .boolQuery()
+            .filter(
+                QueryBuilders
+                    .rangeQuery(AnomalyResult.DATA_START_TIME_FIELD)
+                    .gte(hour)
+                    .lt(hour + HOUR_MILLIS)
+                    .format(CommonName.EPOCH_MILLIS_FORMAT)
+            )
+            .mustNot(QueryBuilders.existsQuery(AnomalyResult.TASK_ID_FIELD))
+            .mustNot(QueryBuilders.termQuery(AnomalyResult.RESULT_TYPE_FIELD, AnomalyResult.SUMMARY_RESULT_TYPE));
+    }
+
+    private QueryBuilder hasEntity() {
+        return QueryBuilders.nestedQuery(AnomalyResult.ENTITY_FIELD, QueryBuilders.matchAllQuery(), ScoreMode.None);
+    }
+
+    private static String entityField(String field) {
+        return AnomalyResult.ENTITY_FIELD + "." + field;
+    }
+
+    static long truncateToHour(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, HOUR_MILLIS);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.ml;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+
+import com.amazon.randomcutforest.RandomCutForest;
+
+/**
+ * Models and progress of a historical detector's batch task.  A task resumed
+ * from a checkpoint continues from the piece starting at {@link #getPieceStartTime()}
+ * with the models it had before running that piece.
+ */
+public class BatchTaskCheckpoint {
+    private final String taskId;
+    private final RandomCutForest rcf;
+    private final ThresholdingModel threshold;
+    private final boolean thresholdModelTrained;
+    // null once the threshold model is trained
+    private final double[] thresholdModelTrainingData;
+    private final Deque<Map.Entry<Long, Optional<double[]>>> shingle;
+    private final long pieceStartTime;
+
+    public BatchTaskCheckpoint(
+        String taskId,
+        RandomCutForest rcf,
+        ThresholdingModel threshold,
+        boolean thresholdModelTrained,
+        double[] thresholdModelTrainingData,
+        Deque<Map.Entry<Long, Optional<double[]>>> shingle,
+        long pieceStartTime
+    ) {
+        this.taskId = taskId;
+        this.rcf = rcf;
+        this.threshold = threshold;
+        this.thresholdModelTrained = thresholdModelTrained;
+        this.thresholdModelTrainingData = thresholdModelTrainingData;
+        this.shingle = shingle;
+        this.pieceStartTime = pieceStartTime;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public RandomCutForest getRcf() {
+        return rcf;
+    }
+
+    public ThresholdingModel getThreshold() {
+        return threshold;
+    }
+
+    public boolean isThresholdModelTrained() {
+        return thresholdModelTrained;
+    }
+
+    public double[] getThresholdModelTrainingData() {
+        return thresholdModelTrainingData;
+    }
+
+    public Deque<Map.Entry<Long, Optional<double[]>>> getShingle() {
+        return shingle;
+    }
+
+    public long getPieceStartTime() {
+        return pieceStartTime;
+    }
+}
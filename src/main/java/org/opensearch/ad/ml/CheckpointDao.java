@@ -33,16 +33,19 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.logging.log4j.LogManager;
@@ -52,6 +55,7 @@ import org.opensearch.ExceptionsHelper;
 import org.opensearch.ResourceAlreadyExistsException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.admin.indices.create.CreateIndexResponse;
 import org.opensearch.action.bulk.BulkAction;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkRequest;
@@ -60,12 +64,18 @@ import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.delete.DeleteResponse;
 import org.opensearch.action.get.GetRequest;
 import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.get.MultiGetRequest;
+import org.opensearch.action.get.MultiGetResponse;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.action.index.IndexResponse;
 import org.opensearch.action.support.IndicesOptions;
+import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.indices.ADIndex;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.ad.util.BulkUtil;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.client.Client;
@@ -78,8 +88,12 @@ import org.opensearch.index.reindex.ScrollableHitSource;
 
 import com.amazon.randomcutforest.RandomCutForest;
 import com.amazon.randomcutforest.serialize.RandomCutForestSerDe;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.RateLimiter;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -105,6 +119,13 @@ public class CheckpointDao {
     public static final String FIELD_MODEL = "model";
     public static final String TIMESTAMP = "timestamp";
     public static final String DETECTOR_ID = "detectorId";
+    // batch task checkpoint fields
+    public static final String BATCH_TASK_THRESHOLD_TRAINED = "th_trained";
+    public static final String BATCH_TASK_TRAINING_DATA = "th_data";
+    public static final String BATCH_TASK_SHINGLE = "shingle";
+    public static final String BATCH_TASK_PIECE = "piece";
+    private static final String SHINGLE_TIME = "t";
+    private static final String SHINGLE_VALUE = "v";
 
     // dependencies
     private final Client client;
@@ -125,6 +146,12 @@ public class CheckpointDao {
     private final RateLimiter bulkRateLimiter;
     private final int maxBulkRequestSize;
     private final JsonParser parser = new JsonParser();
+    // whether checkpoints are written to time-partitioned indices behind CommonName.CHECKPOINT_WRITE_ALIAS
+    private final boolean partitioned;
+    // model id -> the partition holding the model's latest checkpoint this node has read or written.
+    // Partitions older than that cannot hold a newer checkpoint and are not read.
+    private final Cache<String, String> checkpointPointers;
+    private final LatencySupplier flushLatency;
 
     /**
      * Constructor with dependencies and configuration.
@@ -170,6 +197,20 @@ public class CheckpointDao {
         this.maxBulkRequestSize = maxBulkRequestSize;
         // 1 bulk request per 1/bulkPerSecond seconds.
         this.bulkRateLimiter = RateLimiter.create(bulkPerSecond);
+        this.partitioned = indexUtil.isCheckpointPartitioned();
+        this.checkpointPointers = CacheBuilder
+            .newBuilder()
+            .maximumSize(AnomalyDetectorSettings.MAX_CHECKPOINT_POINTERS)
+            .expireAfterAccess(AnomalyDetectorSettings.CHECKPOINT_TTL.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        this.flushLatency = new LatencySupplier();
+    }
+
+    /**
+     * @return latency of bulk writing checkpoints
+     */
+    public LatencySupplier getFlushLatency() {
+        return flushLatency;
     }
 
     /**
@@ -186,7 +227,7 @@ public class CheckpointDao {
         source.put(FIELD_MODEL, modelCheckpoint);
         source.put(TIMESTAMP, ZonedDateTime.now(ZoneOffset.UTC));
 
-        if (indexUtil.doesCheckpointIndexExist()) {
+        if (doesCheckpointIndexExist()) {
             saveModelCheckpointSync(source, modelId);
         } else {
             onCheckpointNotExist(source, modelId, false, null);
@@ -194,7 +235,31 @@ public class CheckpointDao {
     }
 
     private void saveModelCheckpointSync(Map<String, Object> source, String modelId) {
-        clientUtil.<IndexRequest, IndexResponse>timedRequest(new IndexRequest(indexName).id(modelId).source(source), logger, client::index);
+        Optional<IndexResponse> response = clientUtil
+            .<IndexRequest, IndexResponse>timedRequest(new IndexRequest(writeIndex()).id(modelId).source(source), logger, client::index);
+        if (partitioned && response != null) {
+            response.ifPresent(r -> recordPointer(modelId, r.getIndex()));
+        }
+    }
+
+    private boolean doesCheckpointIndexExist() {
+        return partitioned ? indexUtil.doesCheckpointWriteAliasExist() : indexUtil.doesCheckpointIndexExist();
+    }
+
+    private void initCheckpointIndex(ActionListener<CreateIndexResponse> listener) {
+        if (partitioned) {
+            indexUtil.initCheckpointPartition(listener);
+        } else {
+            indexUtil.initCheckpointIndex(listener);
+        }
+    }
+
+    private String writeIndex() {
+        return partitioned ? CommonName.CHECKPOINT_WRITE_ALIAS : indexName;
+    }
+
+    private void recordPointer(String modelId, String index) {
+        checkpointPointers.put(modelId, index);
     }
 
     /**
@@ -208,7 +273,7 @@ public class CheckpointDao {
         Map<String, Object> source = new HashMap<>();
         source.put(FIELD_MODEL, modelCheckpoint);
         source.put(TIMESTAMP, ZonedDateTime.now(ZoneOffset.UTC));
-        if (indexUtil.doesCheckpointIndexExist()) {
+        if (doesCheckpointIndexExist()) {
             saveModelCheckpointAsync(source, modelId, listener);
         } else {
             onCheckpointNotExist(source, modelId, true, listener);
@@ -216,7 +281,7 @@ public class CheckpointDao {
     }
 
     private void onCheckpointNotExist(Map<String, Object> source, String modelId, boolean isAsync, ActionListener<Void> listener) {
-        indexUtil.initCheckpointIndex(ActionListener.wrap(initResponse -> {
+        initCheckpointIndex(ActionListener.wrap(initResponse -> {
             if (initResponse.isAcknowledged()) {
                 if (isAsync) {
                     saveModelCheckpointAsync(source, modelId, listener);
@@ -243,9 +308,14 @@ public class CheckpointDao {
     private void saveModelCheckpointAsync(Map<String, Object> source, String modelId, ActionListener<Void> listener) {
         clientUtil
             .<IndexRequest, IndexResponse>asyncRequest(
-                new IndexRequest(indexName).id(modelId).source(source),
+                new IndexRequest(writeIndex()).id(modelId).source(source),
                 client::index,
-                ActionListener.wrap(r -> listener.onResponse(null), listener::onFailure)
+                ActionListener.wrap(r -> {
+                    if (partitioned) {
+                        recordPointer(modelId, r.getIndex());
+                    }
+                    listener.onResponse(null);
+                }, listener::onFailure)
             );
     }
 
@@ -269,10 +339,10 @@ public class CheckpointDao {
 
                     bulkRequest.add(req);
                 }
-                if (indexUtil.doesCheckpointIndexExist()) {
+                if (doesCheckpointIndexExist()) {
                     flush(bulkRequest);
                 } else {
-                    indexUtil.initCheckpointIndex(ActionListener.wrap(initResponse -> {
+                    initCheckpointIndex(ActionListener.wrap(initResponse -> {
                         if (initResponse.isAcknowledged()) {
                             flush(bulkRequest);
                         } else {
@@ -296,7 +366,16 @@ public class CheckpointDao {
     }
 
     private void flush(BulkRequest bulkRequest) {
+        long startNanos = System.nanoTime();
         clientUtil.<BulkRequest, BulkResponse>execute(BulkAction.INSTANCE, bulkRequest, ActionListener.wrap(r -> {
+            flushLatency.recordSince(startNanos);
+            if (partitioned) {
+                for (BulkItemResponse item : r.getItems()) {
+                    if (!item.isFailed()) {
+                        recordPointer(item.getId(), item.getIndex());
+                    }
+                }
+            }
             if (r.hasFailures()) {
                 requests.addAll(BulkUtil.getIndexRequestToRetry(bulkRequest, r));
             } else if (requests.size() >= maxBulkRequestSize / 2) {
@@ -305,6 +384,7 @@ public class CheckpointDao {
                 flush();
             }
         }, e -> {
+            flushLatency.recordSince(startNanos);
             logger.error("Failed bulking checkpoints", e);
             // retry during next bulk.
             for (DocWriteRequest<?> req : bulkRequest.requests()) {
@@ -357,7 +437,7 @@ public class CheckpointDao {
                 source.put(FIELD_MODEL, serializedModel);
                 source.put(TIMESTAMP, ZonedDateTime.now(ZoneOffset.UTC));
                 source.put(CommonName.SCHEMA_VERSION_FIELD, indexUtil.getSchemaVersion(ADIndex.CHECKPOINT));
-                requests.add(new IndexRequest(indexName).id(modelId).source(source));
+                requests.add(new IndexRequest(writeIndex()).id(modelId).source(source));
                 modelState.setLastCheckpointTime(clock.instant());
                 if (requests.size() >= maxBulkRequestSize) {
                     flush();
@@ -378,6 +458,16 @@ public class CheckpointDao {
      */
     @Deprecated
     public Optional<String> getModelCheckpoint(String modelId) {
+        if (partitioned) {
+            MultiGetRequest request = partitionsGetRequest(modelId);
+            if (request.getItems().isEmpty()) {
+                return Optional.empty();
+            }
+            return clientUtil
+                .<MultiGetRequest, MultiGetResponse>timedRequest(request, logger, client::multiGet)
+                .flatMap(response -> processPartitionedCheckpoint(modelId, response))
+                .map(source -> (String) source.get(FIELD_MODEL));
+        }
         return clientUtil
             .<GetRequest, GetResponse>timedRequest(new GetRequest(indexName, modelId), logger, client::get)
             .filter(GetResponse::isExists)
@@ -408,6 +498,13 @@ public class CheckpointDao {
      */
     @Deprecated
     public void deleteModelCheckpoint(String modelId) {
+        if (partitioned) {
+            BulkRequest request = partitionsDeleteRequest(modelId);
+            if (request.numberOfActions() > 0) {
+                clientUtil.<BulkRequest, BulkResponse>timedRequest(request, logger, client::bulk);
+            }
+            return;
+        }
         clientUtil.<DeleteRequest, DeleteResponse>timedRequest(new DeleteRequest(indexName, modelId), logger, client::delete);
     }
 
@@ -418,6 +515,20 @@ public class CheckpointDao {
      * @param listener onReponse is called with null when the operation is completed
      */
     public void deleteModelCheckpoint(String modelId, ActionListener<Void> listener) {
+        if (partitioned) {
+            BulkRequest request = partitionsDeleteRequest(modelId);
+            if (request.numberOfActions() == 0) {
+                listener.onResponse(null);
+                return;
+            }
+            clientUtil
+                .<BulkRequest, BulkResponse>asyncRequest(
+                    request,
+                    client::bulk,
+                    ActionListener.wrap(r -> listener.onResponse(null), listener::onFailure)
+                );
+            return;
+        }
         clientUtil
             .<DeleteRequest, DeleteResponse>asyncRequest(
                 new DeleteRequest(indexName, modelId),
@@ -436,7 +547,9 @@ public class CheckpointDao {
         // with exponential back off. If the maximum retry limit is reached, processing
         // halts and all failed requests are returned in the response. Any delete
         // requests that completed successfully still stick, they are not rolled back.
-        DeleteByQueryRequest deleteRequest = new DeleteByQueryRequest(CommonName.CHECKPOINT_INDEX_NAME)
+        DeleteByQueryRequest deleteRequest = new DeleteByQueryRequest(
+            partitioned ? AnomalyDetectionIndices.ALL_CHECKPOINT_INDEX_PATTERN : CommonName.CHECKPOINT_INDEX_NAME
+        )
             .setQuery(new MatchQueryBuilder(DETECTOR_ID, detectorID))
             .setIndicesOptions(IndicesOptions.LENIENT_EXPAND_OPEN)
             .setAbortOnVersionConflict(false) // when current delete happens, previous might not finish.
@@ -508,8 +621,7 @@ public class CheckpointDao {
      * @param listener Listener to return the EntityModel object
      */
     public void restoreModelCheckpoint(String modelId, ActionListener<Optional<Entry<EntityModel, Instant>>> listener) {
-        clientUtil.<GetRequest, GetResponse>asyncRequest(new GetRequest(indexName, modelId), client::get, ActionListener.wrap(response -> {
-            Optional<Map<String, Object>> checkpointString = processRawCheckpoint(response);
+        getRawCheckpoint(modelId, ActionListener.wrap(checkpointString -> {
             if (checkpointString.isPresent()) {
                 listener.onResponse(Optional.of(fromEntityModelCheckpoint(checkpointString.get(), modelId)));
             } else {
@@ -518,6 +630,102 @@ public class CheckpointDao {
         }, listener::onFailure));
     }
 
+    /**
+     * Puts a batch task checkpoint in the storage under the task id.  The models
+     * are serialized before this method returns, so the caller can keep updating
+     * them while the checkpoint is being saved.
+     *
+     * @param detectorId detector Id
+     * @param checkpoint batch task checkpoint
+     * @param listener onResponse is called with null when the checkpoint is saved
+     */
+    public void putBatchTaskCheckpoint(String detectorId, BatchTaskCheckpoint checkpoint, ActionListener<Void> listener) {
+        Map<String, Object> source = new HashMap<>();
+        source.put(DETECTOR_ID, detectorId);
+        source.put(FIELD_MODEL, toCheckpoint(checkpoint));
+        source.put(TIMESTAMP, ZonedDateTime.now(ZoneOffset.UTC));
+        source.put(CommonName.SCHEMA_VERSION_FIELD, indexUtil.getSchemaVersion(ADIndex.CHECKPOINT));
+        if (doesCheckpointIndexExist()) {
+            saveModelCheckpointAsync(source, checkpoint.getTaskId(), listener);
+        } else {
+            onCheckpointNotExist(source, checkpoint.getTaskId(), true, listener);
+        }
+    }
+
+    /**
+     * Read a batch task checkpoint from the index
+     * @param taskId Task Id
+     * @param listener Listener to return the checkpoint, or empty if the task has none
+     */
+    public void restoreBatchTaskCheckpoint(String taskId, ActionListener<Optional<BatchTaskCheckpoint>> listener) {
+        getRawCheckpoint(
+            taskId,
+            ActionListener
+                .wrap(
+                    source -> listener.onResponse(source.map(checkpoint -> fromBatchTaskCheckpoint(checkpoint, taskId))),
+                    listener::onFailure
+                )
+        );
+    }
+
+    String toCheckpoint(BatchTaskCheckpoint checkpoint) {
+        return AccessController.doPrivileged((PrivilegedAction<String>) () -> {
+            JsonObject json = new JsonObject();
+            json.addProperty(ENTITY_RCF, rcfSerde.toJson(checkpoint.getRcf()));
+            json.addProperty(ENTITY_THRESHOLD, gson.toJson(checkpoint.getThreshold()));
+            json.addProperty(BATCH_TASK_THRESHOLD_TRAINED, checkpoint.isThresholdModelTrained());
+            if (checkpoint.getThresholdModelTrainingData() != null) {
+                json.add(BATCH_TASK_TRAINING_DATA, gson.toJsonTree(checkpoint.getThresholdModelTrainingData()));
+            }
+            JsonArray shingle = new JsonArray();
+            for (Entry<Long, Optional<double[]>> point : checkpoint.getShingle()) {
+                JsonObject shinglePoint = new JsonObject();
+                shinglePoint.addProperty(SHINGLE_TIME, point.getKey());
+                point.getValue().ifPresent(value -> shinglePoint.add(SHINGLE_VALUE, gson.toJsonTree(value)));
+                shingle.add(shinglePoint);
+            }
+            json.add(BATCH_TASK_SHINGLE, shingle);
+            json.addProperty(BATCH_TASK_PIECE, checkpoint.getPieceStartTime());
+            return gson.toJson(json);
+        });
+    }
+
+    BatchTaskCheckpoint fromBatchTaskCheckpoint(Map<String, Object> checkpoint, String taskId) {
+        try {
+            return AccessController.doPrivileged((PrivilegedAction<BatchTaskCheckpoint>) () -> {
+                JsonObject json = parser.parse((String) checkpoint.get(FIELD_MODEL)).getAsJsonObject();
+                RandomCutForest rcf = rcfSerde.fromJson(json.getAsJsonPrimitive(ENTITY_RCF).getAsString());
+                ThresholdingModel threshold = gson
+                    .fromJson(json.getAsJsonPrimitive(ENTITY_THRESHOLD).getAsString(), thresholdingModelClass);
+                double[] trainingData = null;
+                if (json.has(BATCH_TASK_TRAINING_DATA)) {
+                    trainingData = gson.fromJson(json.getAsJsonArray(BATCH_TASK_TRAINING_DATA), double[].class);
+                }
+                Deque<Entry<Long, Optional<double[]>>> shingle = new ArrayDeque<>();
+                for (JsonElement element : json.getAsJsonArray(BATCH_TASK_SHINGLE)) {
+                    JsonObject point = element.getAsJsonObject();
+                    Optional<double[]> value = Optional.empty();
+                    if (point.has(SHINGLE_VALUE)) {
+                        value = Optional.of(gson.fromJson(point.getAsJsonArray(SHINGLE_VALUE), double[].class));
+                    }
+                    shingle.add(new SimpleEntry<>(point.get(SHINGLE_TIME).getAsLong(), value));
+                }
+                return new BatchTaskCheckpoint(
+                    taskId,
+                    rcf,
+                    threshold,
+                    json.get(BATCH_TASK_THRESHOLD_TRAINED).getAsBoolean(),
+                    trainingData,
+                    shingle,
+                    json.get(BATCH_TASK_PIECE).getAsLong()
+                );
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Exception while deserializing batch task checkpoint", e);
+            throw e;
+        }
+    }
+
     /**
      * Returns to listener the checkpoint for the model.
      *
@@ -525,20 +733,78 @@ public class CheckpointDao {
      * @param listener onResponse is called with the model checkpoint, or empty for no such model
      */
     public void getModelCheckpoint(String modelId, ActionListener<Optional<String>> listener) {
+        getRawCheckpoint(
+            modelId,
+            ActionListener.wrap(source -> listener.onResponse(source.map(s -> (String) s.get(FIELD_MODEL))), listener::onFailure)
+        );
+    }
+
+    private void getRawCheckpoint(String modelId, ActionListener<Optional<Map<String, Object>>> listener) {
+        if (!partitioned) {
+            clientUtil
+                .<GetRequest, GetResponse>asyncRequest(
+                    new GetRequest(indexName, modelId),
+                    client::get,
+                    ActionListener.wrap(response -> listener.onResponse(processRawCheckpoint(response)), listener::onFailure)
+                );
+            return;
+        }
+        MultiGetRequest request = partitionsGetRequest(modelId);
+        if (request.getItems().isEmpty()) {
+            listener.onResponse(Optional.empty());
+            return;
+        }
         clientUtil
-            .<GetRequest, GetResponse>asyncRequest(
-                new GetRequest(indexName, modelId),
-                client::get,
-                ActionListener.wrap(response -> listener.onResponse(processModelCheckpoint(response)), listener::onFailure)
+            .<MultiGetRequest, MultiGetResponse>asyncRequest(
+                request,
+                client::multiGet,
+                ActionListener.wrap(response -> listener.onResponse(processPartitionedCheckpoint(modelId, response)), listener::onFailure)
             );
     }
 
-    private Optional<String> processModelCheckpoint(GetResponse response) {
-        return Optional
-            .ofNullable(response)
-            .filter(GetResponse::isExists)
-            .map(GetResponse::getSource)
-            .map(source -> (String) source.get(FIELD_MODEL));
+    /**
+     * Get a model's checkpoint from the checkpoint partitions, newest first, stopping at the
+     * partition holding the model's latest checkpoint known to this node.
+     */
+    private MultiGetRequest partitionsGetRequest(String modelId) {
+        String pointer = checkpointPointers.getIfPresent(modelId);
+        MultiGetRequest request = new MultiGetRequest();
+        for (String index : indexUtil.getCheckpointIndices()) {
+            request.add(index, modelId);
+            if (index.equals(pointer)) {
+                break;
+            }
+        }
+        return request;
+    }
+
+    private Optional<Map<String, Object>> processPartitionedCheckpoint(String modelId, MultiGetResponse response) {
+        Exception failure = null;
+        // items are ordered newest partition first
+        for (MultiGetItemResponse item : response.getResponses()) {
+            if (item.isFailed()) {
+                // a partition dropped by retention after we listed it
+                if (!(ExceptionsHelper.unwrapCause(item.getFailure().getFailure()) instanceof IndexNotFoundException)) {
+                    failure = item.getFailure().getFailure();
+                }
+            } else if (item.getResponse().isExists()) {
+                recordPointer(modelId, item.getIndex());
+                return Optional.of(item.getResponse().getSource());
+            }
+        }
+        if (failure != null) {
+            throw new AnomalyDetectionException("Fail to read checkpoint of " + modelId, failure);
+        }
+        return Optional.empty();
+    }
+
+    private BulkRequest partitionsDeleteRequest(String modelId) {
+        checkpointPointers.invalidate(modelId);
+        BulkRequest request = new BulkRequest();
+        for (String index : indexUtil.getCheckpointIndices()) {
+            request.add(new DeleteRequest(index, modelId));
+        }
+        return request;
     }
 
     private Optional<Map<String, Object>> processRawCheckpoint(GetResponse response) {
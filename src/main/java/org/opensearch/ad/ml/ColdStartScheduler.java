@@ -0,0 +1,497 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.ml;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.ad.AnomalyDetectorPlugin;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.unit.SizeValue;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.threadpool.ThreadPoolStats;
+
+/**
+ * A work queue for entity cold starts.
+ *
+ * Cold start requests used to be dropped whenever the detector already had a
+ * cold start running or the node was cooling down after a rejection, so which
+ * entities got trained depended on timing. The scheduler keeps pending requests
+ * instead and decides what runs next:
+ * <ul>
+ * <li>Within a detector, requests are ordered by the entity priority
+ * (time-decayed count maintained by PriorityTracker) so that hot entities are
+ * trained first.  A detector's queue is bounded; when it is full, the lowest
+ * priority request is evicted if the new one has a higher priority.</li>
+ * <li>Across detectors, we use start-time fair queuing: each detector has a
+ * virtual time that advances by 1/weight whenever one of its requests starts,
+ * and the detector with the smallest virtual time goes next.  All detectors
+ * have the same weight for now, so each gets an equal share of cold start
+ * slots regardless of how many requests it enqueues.</li>
+ * <li>At most one cold start runs per detector (same as before) and the number
+ * of concurrent cold starts on a node is bounded.  The bound is lowered when
+ * the search threadpool queue fills up since cold start issues searches and we
+ * don't want to compete with user queries.</li>
+ * </ul>
+ */
+public class ColdStartScheduler {
+    private static final Logger LOG = LogManager.getLogger(ColdStartScheduler.class);
+
+    // search queue usage ratio above which we only allow one cold start at a time
+    static final double SEARCH_QUEUE_HIGH_WATERMARK = 0.5;
+    // search queue usage ratio above which we stop dispatching cold starts
+    static final double SEARCH_QUEUE_FULL_WATERMARK = 0.8;
+    // how long to wait before re-checking search threadpool pressure
+    static final Duration PRESSURE_RETRY_DELAY = Duration.ofSeconds(10);
+
+    // A pending cold start request
+    static class ColdStartRequest {
+        private final String modelId;
+        private final String detectorId;
+        private final float priority;
+        private final long enqueueMillis;
+        // used to break ties between requests of equal priority: first come, first served
+        private final long sequence;
+        private final Consumer<Releasable> task;
+
+        ColdStartRequest(String modelId, String detectorId, float priority, long enqueueMillis, long sequence, Consumer<Releasable> task) {
+            this.modelId = modelId;
+            this.detectorId = detectorId;
+            this.priority = priority;
+            this.enqueueMillis = enqueueMillis;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        String getModelId() {
+            return modelId;
+        }
+
+        float getPriority() {
+            return priority;
+        }
+    }
+
+    // highest priority first; earlier requests first among equal priorities
+    static final Comparator<ColdStartRequest> REQUEST_COMPARATOR = (r1, r2) -> {
+        int cmp = Float.compare(r2.priority, r1.priority);
+        if (cmp == 0) {
+            cmp = Long.compare(r1.sequence, r2.sequence);
+        }
+        return cmp;
+    };
+
+    // pending requests of one detector
+    static class DetectorQueue {
+        private final TreeSet<ColdStartRequest> requests;
+        // model Id -> pending request
+        private final Map<String, ColdStartRequest> pending;
+        private double virtualTime;
+        private int running;
+
+        DetectorQueue(double virtualTime) {
+            this.requests = new TreeSet<>(REQUEST_COMPARATOR);
+            this.pending = new HashMap<>();
+            this.virtualTime = virtualTime;
+            this.running = 0;
+        }
+
+        boolean isIdle() {
+            return requests.isEmpty() && running == 0;
+        }
+    }
+
+    private final Clock clock;
+    private final ThreadPool threadPool;
+    private final int maxConcurrentColdStarts;
+    private final int maxQueuedPerDetector;
+    private final Duration requestTtl;
+
+    // detector Id -> pending requests. Guarded by this.
+    private final Map<String, DetectorQueue> queues;
+    // virtual time of the last dispatched request. New detectors start from here
+    // so that they neither starve nor get starved by detectors queued earlier.
+    private double globalVirtualTime;
+    private int running;
+    private int queued;
+    private long sequence;
+    // no cold start is dispatched before this time after we get rejected
+    private Instant pausedUntil;
+
+    private final AtomicBoolean retryScheduled;
+    private final LongAdder totalWaitMillis;
+    private final LongAdder dispatched;
+    private final AtomicLong maxWaitMillis;
+
+    /**
+     * Constructor
+     *
+     * @param clock UTC clock
+     * @param threadPool Accessor to different threadpools
+     * @param maxConcurrentColdStarts Max number of cold starts running on a node at the same time
+     * @param maxQueuedPerDetector Max number of pending cold starts per detector
+     * @param requestTtl Pending requests older than this are discarded
+     */
+    public ColdStartScheduler(
+        Clock clock,
+        ThreadPool threadPool,
+        int maxConcurrentColdStarts,
+        int maxQueuedPerDetector,
+        Duration requestTtl
+    ) {
+        this.clock = clock;
+        this.threadPool = threadPool;
+        this.maxConcurrentColdStarts = maxConcurrentColdStarts;
+        this.maxQueuedPerDetector = maxQueuedPerDetector;
+        this.requestTtl = requestTtl;
+        this.queues = new HashMap<>();
+        this.globalVirtualTime = 0;
+        this.running = 0;
+        this.queued = 0;
+        this.sequence = 0;
+        this.pausedUntil = Instant.MIN;
+        this.retryScheduled = new AtomicBoolean(false);
+        this.totalWaitMillis = new LongAdder();
+        this.dispatched = new LongAdder();
+        this.maxWaitMillis = new AtomicLong(0);
+    }
+
+    /**
+     * Queue a cold start and start it right away if a slot is free.
+     *
+     * If the entity already has a pending request, the request's priority is
+     * refreshed instead of adding a duplicate.
+     *
+     * @param modelId Entity model Id
+     * @param detectorId Detector Id
+     * @param priority Entity priority
+     * @param task The cold start to run. The task must close the given
+     *  releasable when it finishes so that the slot can be reused.
+     * @return whether the request is queued
+     */
+    public boolean offer(String modelId, String detectorId, float priority, Consumer<Releasable> task) {
+        boolean added = false;
+        synchronized (this) {
+            DetectorQueue queue = queues.computeIfAbsent(detectorId, id -> new DetectorQueue(globalVirtualTime));
+            long now = clock.instant().toEpochMilli();
+            ColdStartRequest existing = queue.pending.remove(modelId);
+            if (existing != null) {
+                queue.requests.remove(existing);
+                queued--;
+                // keep the original enqueue time so that wait time stats stay honest
+                now = existing.enqueueMillis;
+            }
+            ColdStartRequest request = new ColdStartRequest(modelId, detectorId, priority, now, sequence++, task);
+            if (queue.requests.size() >= maxQueuedPerDetector) {
+                ColdStartRequest lowest = queue.requests.last();
+                if (REQUEST_COMPARATOR.compare(request, lowest) < 0) {
+                    removeRequest(queue, lowest);
+                    LOG.debug("Evict cold start of {} in favor of {}", lowest.modelId, modelId);
+                } else {
+                    request = null;
+                }
+            }
+            if (request != null) {
+                queue.requests.add(request);
+                queue.pending.put(modelId, request);
+                queued++;
+                added = true;
+            } else if (queue.isIdle()) {
+                queues.remove(detectorId);
+            }
+        }
+        dispatch();
+        return added;
+    }
+
+    /**
+     * Stop dispatching cold starts for a while. Used when cold start gets
+     * rejected due to resource shortage.
+     *
+     * @param duration How long to pause
+     */
+    public void pause(Duration duration) {
+        synchronized (this) {
+            pausedUntil = clock.instant().plus(duration);
+        }
+        scheduleRetry(duration);
+    }
+
+    /**
+     * Remove all pending cold starts of a detector. Used when a detector is stopped or deleted.
+     * @param detectorId Detector Id
+     */
+    public synchronized void clear(String detectorId) {
+        DetectorQueue queue = queues.get(detectorId);
+        if (queue == null) {
+            return;
+        }
+        queued -= queue.requests.size();
+        queue.requests.clear();
+        queue.pending.clear();
+        if (queue.isIdle()) {
+            queues.remove(detectorId);
+        }
+    }
+
+    /**
+     * Start as many queued cold starts as allowed.
+     */
+    void dispatch() {
+        ColdStartRequest next = null;
+        while ((next = pollNext()) != null) {
+            final String detectorId = next.detectorId;
+            AtomicBoolean released = new AtomicBoolean(false);
+            Releasable onFinish = () -> {
+                if (released.compareAndSet(false, true)) {
+                    release(detectorId);
+                }
+            };
+            try {
+                next.task.accept(onFinish);
+            } catch (Exception e) {
+                LOG.error(new ParameterizedMessage("Fail to start cold start for {}", next.modelId), e);
+                onFinish.close();
+            }
+        }
+    }
+
+    /**
+     * Pick the next request to run and reserve a slot for it.
+     * @return the next request or null if nothing can run now
+     */
+    private ColdStartRequest pollNext() {
+        long delayMillis = -1;
+        synchronized (this) {
+            if (queued == 0) {
+                return null;
+            }
+            Instant now = clock.instant();
+            if (pausedUntil.isAfter(now)) {
+                delayMillis = Duration.between(now, pausedUntil).toMillis();
+            } else if (running >= allowedConcurrency()) {
+                if (running == 0) {
+                    // no slot will free up to trigger the next dispatch
+                    delayMillis = PRESSURE_RETRY_DELAY.toMillis();
+                }
+            } else {
+                ColdStartRequest request = pickRequest(now.toEpochMilli());
+                if (request != null) {
+                    return request;
+                }
+            }
+        }
+        if (delayMillis >= 0) {
+            scheduleRetry(Duration.ofMillis(delayMillis));
+        }
+        return null;
+    }
+
+    /**
+     * Pick the highest priority request of the detector with the smallest
+     * virtual time among detectors without a running cold start.
+     *
+     * @param nowMillis current epoch milliseconds
+     * @return the request to run or null if no detector is eligible
+     */
+    private ColdStartRequest pickRequest(long nowMillis) {
+        DetectorQueue selected = null;
+        Iterator<Map.Entry<String, DetectorQueue>> iterator = queues.entrySet().iterator();
+        while (iterator.hasNext()) {
+            DetectorQueue queue = iterator.next().getValue();
+            expire(queue, nowMillis);
+            if (queue.isIdle()) {
+                iterator.remove();
+                continue;
+            }
+            if (queue.running > 0 || queue.requests.isEmpty()) {
+                continue;
+            }
+            if (selected == null
+                || queue.virtualTime < selected.virtualTime
+                || (queue.virtualTime == selected.virtualTime
+                    && REQUEST_COMPARATOR.compare(queue.requests.first(), selected.requests.first()) < 0)) {
+                selected = queue;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+
+        ColdStartRequest request = selected.requests.first();
+        removeRequest(selected, request);
+        selected.running++;
+        running++;
+        // all detectors share the same weight
+        globalVirtualTime = Math.max(globalVirtualTime, selected.virtualTime);
+        selected.virtualTime += 1;
+
+        long waitMillis = Math.max(0, nowMillis - request.enqueueMillis);
+        totalWaitMillis.add(waitMillis);
+        dispatched.increment();
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        return request;
+    }
+
+    private void expire(DetectorQueue queue, long nowMillis) {
+        long expirationMillis = nowMillis - requestTtl.toMillis();
+        Iterator<ColdStartRequest> requestIterator = queue.requests.iterator();
+        while (requestIterator.hasNext()) {
+            ColdStartRequest request = requestIterator.next();
+            if (request.enqueueMillis < expirationMillis) {
+                requestIterator.remove();
+                queue.pending.remove(request.modelId);
+                queued--;
+            }
+        }
+    }
+
+    private void removeRequest(DetectorQueue queue, ColdStartRequest request) {
+        queue.requests.remove(request);
+        queue.pending.remove(request.modelId);
+        queued--;
+    }
+
+    private void release(String detectorId) {
+        synchronized (this) {
+            running--;
+            DetectorQueue queue = queues.get(detectorId);
+            if (queue != null) {
+                queue.running--;
+                if (queue.isIdle()) {
+                    queues.remove(detectorId);
+                }
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * The number of cold starts allowed to run concurrently given current search
+     * threadpool pressure.
+     *
+     * @return allowed concurrency
+     */
+    int allowedConcurrency() {
+        double usage = searchQueueUsage();
+        if (usage >= SEARCH_QUEUE_FULL_WATERMARK) {
+            return 0;
+        } else if (usage >= SEARCH_QUEUE_HIGH_WATERMARK) {
+            return Math.min(1, maxConcurrentColdStarts);
+        }
+        return maxConcurrentColdStarts;
+    }
+
+    /**
+     *
+     * @return the ratio between queued search tasks and search queue capacity.
+     *  0 if we cannot tell.
+     */
+    private double searchQueueUsage() {
+        try {
+            ThreadPool.Info info = threadPool.info(ThreadPool.Names.SEARCH);
+            ThreadPoolStats stats = threadPool.stats();
+            if (info == null || stats == null) {
+                return 0;
+            }
+            SizeValue capacity = info.getQueueSize();
+            if (capacity == null || capacity.singles() <= 0) {
+                return 0;
+            }
+            for (ThreadPoolStats.Stats stat : stats) {
+                if (ThreadPool.Names.SEARCH.equals(stat.getName())) {
+                    return stat.getQueue() / (double) capacity.singles();
+                }
+            }
+        } catch (Exception e) {
+            LOG.debug("Fail to get search threadpool stats", e);
+        }
+        return 0;
+    }
+
+    private void scheduleRetry(Duration delay) {
+        if (retryScheduled.compareAndSet(false, true)) {
+            try {
+                threadPool.schedule(() -> {
+                    retryScheduled.set(false);
+                    dispatch();
+                }, new TimeValue(Math.max(1, delay.toMillis()), TimeUnit.MILLISECONDS), AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+            } catch (Exception e) {
+                retryScheduled.set(false);
+                LOG.warn("Fail to schedule cold start dispatch", e);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the number of pending cold starts
+     */
+    public synchronized int getQueueSize() {
+        return queued;
+    }
+
+    /**
+     *
+     * @return the number of running cold starts
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    /**
+     *
+     * @return average time in milliseconds a cold start waits in the queue
+     */
+    public long getAverageWaitMillis() {
+        long count = dispatched.sum();
+        return count == 0 ? 0 : totalWaitMillis.sum() / count;
+    }
+
+    /**
+     *
+     * @return max time in milliseconds a cold start waited in the queue
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis.get();
+    }
+}
@@ -27,6 +27,8 @@
 package org.opensearch.ad.ml;
 
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.COOLDOWN_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_CONCURRENT_COLD_STARTS;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_QUEUED_COLD_STARTS_PER_DETECTOR;
 
 import java.time.Clock;
 import java.time.Duration;
@@ -92,11 +94,11 @@ public class EntityColdStarter {
     private final Interpolator interpolator;
     private final SearchFeatureDao searchFeatureDao;
     private final int shingleSize;
-    private Instant lastThrottledColdStartTime;
     private final FeatureManager featureManager;
     private final Cache<String, Instant> lastColdStartTime;
     private final CheckpointDao checkpointDao;
     private int coolDownMinutes;
+    private final ColdStartScheduler scheduler;
 
     /**
      * Constructor
@@ -152,7 +154,6 @@ public class EntityColdStarter {
         Settings settings
     ) {
         this.clock = clock;
-        this.lastThrottledColdStartTime = Instant.MIN;
         this.threadPool = threadPool;
         this.nodeStateManager = nodeStateManager;
         this.rcfSampleSize = rcfSampleSize;
@@ -180,6 +181,13 @@ public class EntityColdStarter {
             .build();
         this.checkpointDao = checkpointDao;
         this.coolDownMinutes = (int) (COOLDOWN_MINUTES.get(settings).getMinutes());
+        this.scheduler = new ColdStartScheduler(
+            clock,
+            threadPool,
+            MAX_CONCURRENT_COLD_STARTS.get(settings),
+            MAX_QUEUED_COLD_STARTS_PER_DETECTOR,
+            lastColdStartTimestampTtl
+        );
     }
 
     /**
@@ -190,50 +198,83 @@ public class EntityColdStarter {
      * @param modelState model state associated with the entity
      */
     private void coldStart(String modelId, String entityName, String detectorId, ModelState<EntityModel> modelState) {
-        // Rate limiting: if last cold start of the detector is not finished, we don't trigger another one.
-        if (nodeStateManager.isColdStartRunning(detectorId)) {
+        // Won't retry cold start within one hour for an entity. Instead of dropping the
+        // request when the detector's last cold start is not finished or the threadpool queue
+        // is full, queue it. The scheduler decides which entity goes first
+        // using the entity priority.
+        if (lastColdStartTime.getIfPresent(modelId) != null) {
             return;
         }
 
-        // Won't retry cold start within one hour for an entity; if threadpool queue is full, won't retry within 5 minutes
-        // 5 minutes is derived by 1000 (threadpool queue size) / 4 (1 cold start per 4 seconds according to the Http logs
-        // experiment) = 250 seconds.
-        if (lastColdStartTime.getIfPresent(modelId) == null
-            && lastThrottledColdStartTime.plus(Duration.ofMinutes(coolDownMinutes)).isBefore(clock.instant())) {
-
-            final Releasable coldStartFinishingCallback = nodeStateManager.markColdStartRunning(detectorId);
-
-            logger.debug("Trigger cold start for {}", modelId);
-
-            ActionListener<Optional<List<double[][]>>> nestedListener = ActionListener.wrap(trainingData -> {
-                if (trainingData.isPresent()) {
-                    List<double[][]> dataPoints = trainingData.get();
-                    // only train models if we have enough samples
-                    if (hasEnoughSample(dataPoints, modelState) == false) {
-                        combineTrainSamples(dataPoints, modelId, modelState);
-                    } else {
-                        trainModelFromDataSegments(dataPoints, modelId, modelState);
-                    }
-                    logger.info("Succeeded in training entity: {}", modelId);
-                } else {
-                    logger.info("Cannot get training data for {}", modelId);
-                }
-            }, exception -> {
-                Throwable cause = Throwables.getRootCause(exception);
-                if (cause instanceof RejectedExecutionException) {
-                    logger.error("too many requests");
-                    lastThrottledColdStartTime = Instant.now();
-                } else if (cause instanceof AnomalyDetectionException || exception instanceof AnomalyDetectionException) {
-                    // e.g., cannot find anomaly detector
-                    nodeStateManager.setLastColdStartException(detectorId, (AnomalyDetectionException) exception);
+        scheduler
+            .offer(
+                modelId,
+                detectorId,
+                modelState.getPriority(),
+                onFinish -> startColdStart(modelId, entityName, detectorId, modelState, onFinish)
+            );
+    }
+
+    /**
+     * Run cold start for an entity whose turn has come.
+     * @param modelId model Id corresponding to the entity
+     * @param entityName the entity's name
+     * @param detectorId the detector Id corresponding to the entity
+     * @param modelState model state associated with the entity
+     * @param schedulerCallback callback to release the scheduler slot
+     */
+    private void startColdStart(
+        String modelId,
+        String entityName,
+        String detectorId,
+        ModelState<EntityModel> modelState,
+        Releasable schedulerCallback
+    ) {
+        // the entity might have been trained by another request of the same entity queued earlier
+        if (lastColdStartTime.getIfPresent(modelId) != null) {
+            schedulerCallback.close();
+            return;
+        }
+
+        final Releasable coldStartFinishingCallback = nodeStateManager.markColdStartRunning(detectorId);
+
+        logger.debug("Trigger cold start for {}", modelId);
+
+        ActionListener<Optional<List<double[][]>>> nestedListener = ActionListener.wrap(trainingData -> {
+            if (trainingData.isPresent()) {
+                List<double[][]> dataPoints = trainingData.get();
+                // only train models if we have enough samples
+                if (hasEnoughSample(dataPoints, modelState) == false) {
+                    combineTrainSamples(dataPoints, modelId, modelState);
                 } else {
-                    logger.error(new ParameterizedMessage("Error while cold start {}", modelId), exception);
+                    trainModelFromDataSegments(dataPoints, modelId, modelState);
                 }
-            });
+                logger.info("Succeeded in training entity: {}", modelId);
+            } else {
+                logger.info("Cannot get training data for {}", modelId);
+            }
+        }, exception -> {
+            Throwable cause = Throwables.getRootCause(exception);
+            if (cause instanceof RejectedExecutionException) {
+                // if threadpool queue is full, won't retry within 5 minutes
+                // 5 minutes is derived by 1000 (threadpool queue size) / 4 (1 cold start per 4 seconds according to the Http logs
+                // experiment) = 250 seconds.
+                logger.error("too many requests");
+                scheduler.pause(Duration.ofMinutes(coolDownMinutes));
+            } else if (cause instanceof AnomalyDetectionException || exception instanceof AnomalyDetectionException) {
+                // e.g., cannot find anomaly detector
+                nodeStateManager.setLastColdStartException(detectorId, (AnomalyDetectionException) exception);
+            } else {
+                logger.error(new ParameterizedMessage("Error while cold start {}", modelId), exception);
+            }
+        });
 
-            final ActionListener<Optional<List<double[][]>>> listenerWithReleaseCallback = ActionListener
-                .runAfter(nestedListener, coldStartFinishingCallback::close);
+        final ActionListener<Optional<List<double[][]>>> listenerWithReleaseCallback = ActionListener.runAfter(nestedListener, () -> {
+            coldStartFinishingCallback.close();
+            schedulerCallback.close();
+        });
 
+        try {
             threadPool
                 .executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME)
                 .execute(
@@ -250,9 +291,16 @@ public class EntityColdStarter {
                         )
                     )
                 );
-
-            lastColdStartTime.put(modelId, Instant.now());
+        } catch (RejectedExecutionException e) {
+            // the entity is not marked as cold started so that it can be retried after the pause
+            logger.error(new ParameterizedMessage("Fail to submit cold start for {}", modelId), e);
+            coldStartFinishingCallback.close();
+            schedulerCallback.close();
+            scheduler.pause(Duration.ofMinutes(coolDownMinutes));
+            return;
         }
+
+        lastColdStartTime.put(modelId, clock.instant());
     }
 
     /**
@@ -558,4 +606,20 @@ public class EntityColdStarter {
         // save to checkpoint
         checkpointDao.write(entityState, modelId, true);
     }
+
+    /**
+     * Drop pending cold starts of a detector
+     * @param detectorId Detector Id
+     */
+    public void clear(String detectorId) {
+        scheduler.clear(detectorId);
+    }
+
+    /**
+     *
+     * @return the scheduler ordering pending cold starts
+     */
+    public ColdStartScheduler getScheduler() {
+        return scheduler;
+    }
 }
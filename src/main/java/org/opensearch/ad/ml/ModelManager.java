@@ -43,6 +43,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -53,6 +54,8 @@ import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.GroupedActionListener;
+import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.DetectorModelSize;
 import org.opensearch.ad.MemoryTracker;
 import org.opensearch.ad.common.exception.LimitExceededException;
@@ -61,6 +64,8 @@ import org.opensearch.ad.constant.CommonErrorMessages;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.ml.rcf.CombinedRcfResult;
 import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
+import org.opensearch.threadpool.ThreadPool;
 
 import com.amazon.randomcutforest.RandomCutForest;
 import com.amazon.randomcutforest.returntypes.DiVector;
@@ -94,6 +99,7 @@ public class ModelManager implements DetectorModelSize {
     }
 
     private static final double FULL_CONFIDENCE_EXPONENT = 18.43; // exponent over which confidence is 1
+    private static final int MIN_PREVIEW_PARTITION_TREES = 10; // min number of trees of a preview forest partition
 
     private static final Logger logger = LogManager.getLogger(ModelManager.class);
 
@@ -127,6 +133,10 @@ public class ModelManager implements DetectorModelSize {
     private EntityColdStarter entityColdStarter;
     private ModelPartitioner modelPartitioner;
     private MemoryTracker memoryTracker;
+    private final ThreadPool threadPool;
+
+    private final LatencySupplier rcfScoreLatency;
+    private final LatencySupplier thresholdGradeLatency;
 
     /**
      * Constructor.
@@ -153,6 +163,7 @@ public class ModelManager implements DetectorModelSize {
      * @param modelPartitioner Used to partition RCF models
      * @param featureManager Used to create features for models
      * @param memoryTracker AD memory usage tracker
+     * @param threadPool Accessor to different threadpools
      */
     public ModelManager(
         RandomCutForestSerDe rcfSerde,
@@ -176,7 +187,8 @@ public class ModelManager implements DetectorModelSize {
         EntityColdStarter entityColdStarter,
         ModelPartitioner modelPartitioner,
         FeatureManager featureManager,
-        MemoryTracker memoryTracker
+        MemoryTracker memoryTracker,
+        ThreadPool threadPool
     ) {
 
         this.rcfSerde = rcfSerde;
@@ -205,6 +217,23 @@ public class ModelManager implements DetectorModelSize {
         this.modelPartitioner = modelPartitioner;
         this.featureManager = featureManager;
         this.memoryTracker = memoryTracker;
+        this.threadPool = threadPool;
+        this.rcfScoreLatency = new LatencySupplier();
+        this.thresholdGradeLatency = new LatencySupplier();
+    }
+
+    /**
+     * @return latency of scoring and updating RCF models
+     */
+    public LatencySupplier getRcfScoreLatency() {
+        return rcfScoreLatency;
+    }
+
+    /**
+     * @return latency of grading scores with thresholding models
+     */
+    public LatencySupplier getThresholdGradeLatency() {
+        return thresholdGradeLatency;
     }
 
     /**
@@ -296,12 +325,14 @@ public class ModelManager implements DetectorModelSize {
     private void getRcfResult(ModelState<RandomCutForest> modelState, double[] point, ActionListener<RcfResult> listener) {
         modelState.setLastUsedTime(clock.instant());
 
+        long startNanos = System.nanoTime();
         RandomCutForest rcf = modelState.getModel();
         double score = rcf.getAnomalyScore(point);
         double confidence = computeRcfConfidence(rcf);
         int forestSize = rcf.getNumberOfTrees();
         double[] attribution = getAnomalyAttribution(rcf, point);
         rcf.update(point);
+        rcfScoreLatency.recordSince(startNanos);
         listener.onResponse(new RcfResult(score, confidence, forestSize, attribution));
     }
 
@@ -386,12 +417,14 @@ public class ModelManager implements DetectorModelSize {
         double score,
         ActionListener<ThresholdingResult> listener
     ) {
+        long startNanos = System.nanoTime();
         ThresholdingModel threshold = modelState.getModel();
         double grade = threshold.grade(score);
         double confidence = threshold.confidence();
         if (score > 0) {
             threshold.update(score);
         }
+        thresholdGradeLatency.recordSince(startNanos);
         modelState.setLastUsedTime(clock.instant());
         listener.onResponse(new ThresholdingResult(grade, confidence, score));
     }
@@ -515,6 +548,7 @@ public class ModelManager implements DetectorModelSize {
     public void clear(String detectorId) {
         clearModels(detectorId, forests);
         clearModels(detectorId, thresholds);
+        entityColdStarter.clear(detectorId);
     }
 
     /**
@@ -795,6 +829,7 @@ public class ModelManager implements DetectorModelSize {
      * @param listener onResponse is called with null when this operation is completed.
      */
     public void maintenance(ActionListener<Void> listener) {
+        measureModelSizes();
         maintenanceForIterator(
             forests,
             this::toCheckpoint,
@@ -807,6 +842,19 @@ public class ModelManager implements DetectorModelSize {
         );
     }
 
+    private void measureModelSizes() {
+        for (ModelState<RandomCutForest> modelState : forests.values()) {
+            // thresholds are hosted separately from forest partitions; the fixed threshold size is used
+            if (modelState.getModel() != null && memoryTracker.shouldMeasure()) {
+                try {
+                    memoryTracker.measureModelSize(modelState.getModel(), null);
+                } catch (Exception e) {
+                    logger.warn("Failed to measure size of model " + modelState.getModelId(), e);
+                }
+            }
+        }
+    }
+
     private <T> void maintenanceForIterator(
         Map<String, ModelState<T>> models,
         Function<T, String> toCheckpoint,
@@ -848,24 +896,106 @@ public class ModelManager implements DetectorModelSize {
         if (dataPoints.length < minPreviewSize) {
             throw new IllegalArgumentException("Insufficient data for preview results. Minimum required: " + minPreviewSize);
         }
-        // Train RCF models and collect non-zero scores
+        double[][] rcfScores = getPreviewRcfScores(dataPoints, rcfNumTrees, 0L);
+        return getPreviewResults(rcfScores[0], rcfScores[1]);
+    }
+
+    /**
+     * Returns computed anomaly results for preview data points to listener.
+     *
+     * The trees of the preview forest are split into partitions that score the data points
+     * in parallel on the AD thread pool.  Like the scores of model partitions in real time
+     * detection, partition scores are combined by their number of trees.
+     *
+     * @param dataPoints features of preview data points
+     * @param listener onResponse is called with thresholding results of preview data points
+     *                 onFailure is called with IllegalArgumentException when preview data points are not valid
+     */
+    public void getPreviewResults(double[][] dataPoints, ActionListener<List<ThresholdingResult>> listener) {
+        if (dataPoints.length < minPreviewSize) {
+            listener.onFailure(new IllegalArgumentException("Insufficient data for preview results. Minimum required: " + minPreviewSize));
+            return;
+        }
+        int partitions = getPreviewPartitions();
+        AtomicReferenceArray<double[][]> partitionScores = new AtomicReferenceArray<>(partitions);
+        GroupedActionListener<Void> groupListener = new GroupedActionListener<>(ActionListener.wrap(r -> {
+            double[] trainingScores = new double[dataPoints.length];
+            double[] scores = new double[dataPoints.length];
+            for (int p = 0; p < partitions; p++) {
+                double weight = (double) getPreviewPartitionTrees(p, partitions) / rcfNumTrees;
+                double[][] rcfScores = partitionScores.get(p);
+                for (int i = 0; i < dataPoints.length; i++) {
+                    trainingScores[i] += rcfScores[0][i] * weight;
+                    scores[i] += rcfScores[1][i] * weight;
+                }
+            }
+            listener.onResponse(getPreviewResults(trainingScores, scores));
+        }, listener::onFailure), partitions);
+
+        for (int p = 0; p < partitions; p++) {
+            int partition = p;
+            try {
+                threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME).execute(() -> {
+                    try {
+                        partitionScores
+                            .set(partition, getPreviewRcfScores(dataPoints, getPreviewPartitionTrees(partition, partitions), partition));
+                        groupListener.onResponse(null);
+                    } catch (Exception e) {
+                        groupListener.onFailure(e);
+                    }
+                });
+            } catch (Exception e) {
+                groupListener.onFailure(e);
+            }
+        }
+    }
+
+    /**
+     * The AD thread pool also runs real time detection, so a preview takes at most a
+     * quarter of its threads, like previews of entities in AnomalyDetectorRunner.
+     *
+     * @return number of partitions of the trees of a preview
+     */
+    int getPreviewPartitions() {
+        ThreadPool.Info info = threadPool.info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+        int poolSize = info == null ? 1 : info.getMax();
+        return Math.max(1, Math.min(poolSize / 4, rcfNumTrees / MIN_PREVIEW_PARTITION_TREES));
+    }
+
+    private int getPreviewPartitionTrees(int partition, int partitions) {
+        return rcfNumTrees / partitions + (partition < rcfNumTrees % partitions ? 1 : 0);
+    }
+
+    /**
+     * Trains a forest with the data points twice.
+     *
+     * @return RCF scores of the data points in the first pass, which train the thresholding model,
+     *  and RCF scores in the second pass, which are graded
+     */
+    private double[][] getPreviewRcfScores(double[][] dataPoints, int numTrees, long seed) {
         int rcfNumFeatures = dataPoints[0].length;
         RandomCutForest forest = RandomCutForest
             .builder()
-            .randomSeed(0L)
+            .randomSeed(seed)
             .dimensions(rcfNumFeatures)
             .sampleSize(rcfNumSamplesInTree)
-            .numberOfTrees(rcfNumTrees)
+            .numberOfTrees(numTrees)
             .lambda(rcfTimeDecay)
             .outputAfter(rcfNumSamplesInTree)
             .parallelExecutionEnabled(false)
             .build();
-        double[] rcfScores = Arrays.stream(dataPoints).mapToDouble(point -> {
-            double score = forest.getAnomalyScore(point);
-            forest.update(point);
-            return score;
-        }).filter(score -> score > 0.).toArray();
-        // Train thresholding model
+        double[][] rcfScores = new double[2][dataPoints.length];
+        for (double[] passScores : rcfScores) {
+            for (int i = 0; i < dataPoints.length; i++) {
+                passScores[i] = forest.getAnomalyScore(dataPoints[i]);
+                forest.update(dataPoints[i]);
+            }
+        }
+        return rcfScores;
+    }
+
+    private List<ThresholdingResult> getPreviewResults(double[] trainingScores, double[] scores) {
+        // Train thresholding model with non-zero scores
         ThresholdingModel threshold = new HybridThresholdingModel(
             thresholdMinPvalue,
             thresholdMaxRankError,
@@ -874,12 +1004,10 @@ public class ModelManager implements DetectorModelSize {
             thresholdDownsamples,
             thresholdMaxSamples
         );
-        threshold.train(rcfScores);
+        threshold.train(Arrays.stream(trainingScores).filter(score -> score > 0.).toArray());
 
         // Get results from trained models
-        return Arrays.stream(dataPoints).map(point -> {
-            double rcfScore = forest.getAnomalyScore(point);
-            forest.update(point);
+        return Arrays.stream(scores).mapToObj(rcfScore -> {
             ThresholdingResult result = new ThresholdingResult(threshold.grade(rcfScore), threshold.confidence(), rcfScore);
             threshold.update(rcfScore);
             return result;
@@ -982,15 +1110,22 @@ public class ModelManager implements DetectorModelSize {
         ThresholdingModel threshold = model.getThreshold();
 
         double lastRcfScore = 0;
+        long rcfNanos = 0;
+        long startNanos = System.nanoTime();
         while (samples.peek() != null) {
             double[] feature = samples.poll();
+            long scoreStartNanos = System.nanoTime();
             lastRcfScore = rcf.getAnomalyScore(feature);
             rcf.update(feature);
+            rcfNanos += System.nanoTime() - scoreStartNanos;
             threshold.update(lastRcfScore);
         }
 
         double anomalyGrade = threshold.grade(lastRcfScore);
         double anomalyConfidence = computeRcfConfidence(rcf) * threshold.confidence();
+        rcfScoreLatency.record(rcfNanos);
+        // threshold updates and grading
+        thresholdGradeLatency.record(System.nanoTime() - startNanos - rcfNanos);
         ThresholdingResult result = new ThresholdingResult(anomalyGrade, anomalyConfidence, lastRcfScore);
 
         modelState.setLastUsedTime(clock.instant());
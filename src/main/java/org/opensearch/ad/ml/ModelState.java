@@ -55,6 +55,10 @@ public class ModelState<T> implements ExpiringState {
     private Instant lastCheckpointTime;
     private Clock clock;
     private float priority;
+    // time when a full result of the model was saved last time. Null if never.
+    private Instant lastFullResultTime;
+    // whether the last saved full result was an anomaly
+    private boolean lastResultAnomalous;
 
     /**
      * Constructor.
@@ -188,6 +192,31 @@ public class ModelState<T> implements ExpiringState {
         this.priority = priority;
     }
 
+    /**
+     * Whether a full result should be saved for the current score when only changes are saved:
+     * anomalies, the first normal result after an anomaly, and a heartbeat of normal results.
+     *
+     * @param anomaly whether the current result is an anomaly
+     * @param heartbeatInterval how often a normal result is saved in full
+     * @return whether to save a full result
+     */
+    public boolean needsFullResult(boolean anomaly, Duration heartbeatInterval) {
+        return anomaly
+            || lastResultAnomalous
+            || lastFullResultTime == null
+            || !lastFullResultTime.plus(heartbeatInterval).isAfter(clock.instant());
+    }
+
+    /**
+     * Record that a full result has been saved.
+     *
+     * @param anomaly whether the saved result is an anomaly
+     */
+    public void setLastFullResult(boolean anomaly) {
+        this.lastResultAnomalous = anomaly;
+        this.lastFullResultTime = clock.instant();
+    }
+
     /**
      * Gets the Model State as a map
      *
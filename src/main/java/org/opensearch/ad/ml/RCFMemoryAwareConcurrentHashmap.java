@@ -26,6 +26,7 @@
 
 package org.opensearch.ad.ml;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.opensearch.ad.MemoryTracker;
@@ -39,19 +40,25 @@ import com.amazon.randomcutforest.RandomCutForest;
  * the map implementation.
  *
  * Note: this is mainly used for single-entity detectors.
+ *
+ * The bytes consumed by a model are remembered so that the same amount is released,
+ * as model size estimates change when MemoryTracker corrects them with measurements.
  */
 public class RCFMemoryAwareConcurrentHashmap<K> extends ConcurrentHashMap<K, ModelState<RandomCutForest>> {
     private final MemoryTracker memoryTracker;
+    private final Map<Object, Long> consumedBytes;
 
     public RCFMemoryAwareConcurrentHashmap(MemoryTracker memoryTracker) {
         this.memoryTracker = memoryTracker;
+        this.consumedBytes = new ConcurrentHashMap<>();
     }
 
     @Override
     public ModelState<RandomCutForest> remove(Object key) {
         ModelState<RandomCutForest> deletedModelState = super.remove(key);
+        Long consumed = consumedBytes.remove(key);
         if (deletedModelState != null && deletedModelState.getModel() != null) {
-            long memoryToRelease = memoryTracker.estimateModelSize(deletedModelState.getModel());
+            long memoryToRelease = consumed != null ? consumed : memoryTracker.estimateModelSize(deletedModelState.getModel());
             memoryTracker.releaseMemory(memoryToRelease, true, Origin.SINGLE_ENTITY_DETECTOR);
         }
         return deletedModelState;
@@ -62,6 +69,7 @@ public class RCFMemoryAwareConcurrentHashmap<K> extends ConcurrentHashMap<K, Mod
         ModelState<RandomCutForest> previousAssociatedState = super.put(key, value);
         if (value != null && value.getModel() != null) {
             long memoryToConsume = memoryTracker.estimateModelSize(value.getModel());
+            consumedBytes.put(key, memoryToConsume);
             memoryTracker.consumeMemory(memoryToConsume, true, Origin.SINGLE_ENTITY_DETECTOR);
         }
         return previousAssociatedState;
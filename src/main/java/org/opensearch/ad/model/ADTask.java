@@ -600,14 +600,26 @@ public class ADTask implements ToXContentObject, Writeable {
         return taskProgress;
     }
 
+    public void setTaskProgress(Float taskProgress) {
+        this.taskProgress = taskProgress;
+    }
+
     public Float getInitProgress() {
         return initProgress;
     }
 
+    public void setInitProgress(Float initProgress) {
+        this.initProgress = initProgress;
+    }
+
     public Instant getCurrentPiece() {
         return currentPiece;
     }
 
+    public void setCurrentPiece(Instant currentPiece) {
+        this.currentPiece = currentPiece;
+    }
+
     public Instant getExecutionStartTime() {
         return executionStartTime;
     }
@@ -636,6 +648,10 @@ public class ADTask implements ToXContentObject, Writeable {
         return coordinatingNode;
     }
 
+    public void setCoordinatingNode(String coordinatingNode) {
+        this.coordinatingNode = coordinatingNode;
+    }
+
     public String getWorkerNode() {
         return workerNode;
     }
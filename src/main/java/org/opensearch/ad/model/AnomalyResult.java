@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.opensearch.Version;
 import org.opensearch.ad.annotation.Generated;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.constant.CommonValue;
@@ -65,17 +66,27 @@ public class AnomalyResult implements ToXContentObject, Writeable {
 
     public static final String DETECTOR_ID_FIELD = "detector_id";
     public static final String ANOMALY_SCORE_FIELD = "anomaly_score";
-    private static final String ANOMALY_GRADE_FIELD = "anomaly_grade";
-    private static final String CONFIDENCE_FIELD = "confidence";
-    private static final String FEATURE_DATA_FIELD = "feature_data";
-    private static final String DATA_START_TIME_FIELD = "data_start_time";
+    public static final String ANOMALY_GRADE_FIELD = "anomaly_grade";
+    public static final String CONFIDENCE_FIELD = "confidence";
+    public static final String FEATURE_DATA_FIELD = "feature_data";
+    public static final String DATA_START_TIME_FIELD = "data_start_time";
     public static final String DATA_END_TIME_FIELD = "data_end_time";
-    private static final String EXECUTION_START_TIME_FIELD = "execution_start_time";
+    public static final String EXECUTION_START_TIME_FIELD = "execution_start_time";
     public static final String EXECUTION_END_TIME_FIELD = "execution_end_time";
     public static final String ERROR_FIELD = "error";
     public static final String ENTITY_FIELD = "entity";
     public static final String USER_FIELD = "user";
     public static final String TASK_ID_FIELD = "task_id";
+    public static final String RESULT_TYPE_FIELD = "result_type";
+    // summary results list their entities here rather than in the nested entity field,
+    // so they don't show up in queries and aggregations on entity
+    public static final String SUMMARIZED_ENTITY_FIELD = "summarized_entity";
+
+    // result_type of a result summarizing the scored entities of a multi-entity detector
+    // that need no full result. Queries about individual entities should exclude them.
+    public static final String SUMMARY_RESULT_TYPE = "summary";
+    // result_type is only exchanged with nodes on or after this version
+    static final Version RESULT_TYPE_MIN_NODE_VERSION = Version.V_1_0_0;
 
     private final String detectorId;
     private final String taskId;
@@ -91,6 +102,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
     private final List<Entity> entity;
     private User user;
     private final Integer schemaVersion;
+    // null for ordinary results
+    private final String resultType;
 
     public AnomalyResult(
         String detectorId,
@@ -171,6 +184,42 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         List<Entity> entity,
         User user,
         Integer schemaVersion
+    ) {
+        this(
+            detectorId,
+            taskId,
+            anomalyScore,
+            anomalyGrade,
+            confidence,
+            featureData,
+            dataStartTime,
+            dataEndTime,
+            executionStartTime,
+            executionEndTime,
+            error,
+            entity,
+            user,
+            schemaVersion,
+            null
+        );
+    }
+
+    public AnomalyResult(
+        String detectorId,
+        String taskId,
+        Double anomalyScore,
+        Double anomalyGrade,
+        Double confidence,
+        List<FeatureData> featureData,
+        Instant dataStartTime,
+        Instant dataEndTime,
+        Instant executionStartTime,
+        Instant executionEndTime,
+        String error,
+        List<Entity> entity,
+        User user,
+        Integer schemaVersion,
+        String resultType
     ) {
         this.detectorId = detectorId;
         this.taskId = taskId;
@@ -186,6 +235,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         this.entity = entity;
         this.user = user;
         this.schemaVersion = schemaVersion;
+        this.resultType = resultType;
     }
 
     public AnomalyResult(StreamInput input) throws IOException {
@@ -219,6 +269,11 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         }
         this.schemaVersion = input.readInt();
         this.taskId = input.readOptionalString();
+        if (input.getVersion().onOrAfter(RESULT_TYPE_MIN_NODE_VERSION)) {
+            this.resultType = input.readOptionalString();
+        } else {
+            this.resultType = null;
+        }
     }
 
     @Override
@@ -254,7 +309,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             xContentBuilder.field(ERROR_FIELD, error);
         }
         if (entity != null) {
-            xContentBuilder.field(ENTITY_FIELD, entity.toArray());
+            xContentBuilder.field(isSummary() ? SUMMARIZED_ENTITY_FIELD : ENTITY_FIELD, entity.toArray());
         }
         if (user != null) {
             xContentBuilder.field(USER_FIELD, user);
@@ -262,6 +317,9 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         if (taskId != null) {
             xContentBuilder.field(TASK_ID_FIELD, taskId);
         }
+        if (resultType != null) {
+            xContentBuilder.field(RESULT_TYPE_FIELD, resultType);
+        }
         return xContentBuilder.endObject();
     }
 
@@ -280,6 +338,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         User user = null;
         Integer schemaVersion = CommonValue.NO_SCHEMA_VERSION;
         String taskId = null;
+        String resultType = null;
 
         ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
         while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
@@ -321,6 +380,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
                     error = parser.text();
                     break;
                 case ENTITY_FIELD:
+                case SUMMARIZED_ENTITY_FIELD:
                     entityList = new ArrayList<>();
                     ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.currentToken(), parser);
                     while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
@@ -336,6 +396,9 @@ public class AnomalyResult implements ToXContentObject, Writeable {
                 case TASK_ID_FIELD:
                     taskId = parser.text();
                     break;
+                case RESULT_TYPE_FIELD:
+                    resultType = parser.text();
+                    break;
                 default:
                     parser.skipChildren();
                     break;
@@ -355,7 +418,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             error,
             entityList,
             user,
-            schemaVersion
+            schemaVersion,
+            resultType
         );
     }
 
@@ -378,7 +442,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             && Objects.equal(getExecutionStartTime(), that.getExecutionStartTime())
             && Objects.equal(getExecutionEndTime(), that.getExecutionEndTime())
             && Objects.equal(getError(), that.getError())
-            && Objects.equal(getEntity(), that.getEntity());
+            && Objects.equal(getEntity(), that.getEntity())
+            && Objects.equal(getResultType(), that.getResultType());
     }
 
     @Generated
@@ -397,7 +462,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
                 getExecutionStartTime(),
                 getExecutionEndTime(),
                 getError(),
-                getEntity()
+                getEntity(),
+                getResultType()
             );
     }
 
@@ -417,6 +483,7 @@ public class AnomalyResult implements ToXContentObject, Writeable {
             .append("executionEndTime", executionEndTime)
             .append("error", error)
             .append("entity", entity)
+            .append("resultType", resultType)
             .toString();
     }
 
@@ -468,6 +535,14 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         return entity;
     }
 
+    public String getResultType() {
+        return resultType;
+    }
+
+    public boolean isSummary() {
+        return SUMMARY_RESULT_TYPE.equals(resultType);
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeString(detectorId);
@@ -500,5 +575,8 @@ public class AnomalyResult implements ToXContentObject, Writeable {
         }
         out.writeInt(schemaVersion);
         out.writeOptionalString(taskId);
+        if (out.getVersion().onOrAfter(RESULT_TYPE_MIN_NODE_VERSION)) {
+            out.writeOptionalString(resultType);
+        }
     }
 }
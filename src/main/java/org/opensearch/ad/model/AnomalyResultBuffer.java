@@ -0,0 +1,271 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.model;
+
+import static org.opensearch.common.xcontent.XContentFactory.jsonBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opensearch.ad.constant.CommonName;
+import org.opensearch.common.bytes.BytesReference;
+import org.opensearch.common.xcontent.XContentBuilder;
+
+import com.amazon.opendistroforelasticsearch.commons.authuser.User;
+
+/**
+ * Anomaly results of one task and detection interval length in columnar form.
+ *
+ * Historical detection produces a result per interval.  Rather than building an
+ * {@link AnomalyResult} with its feature data list and instants per interval, the
+ * values of each result are appended to primitive arrays and serialized straight to
+ * the same JSON source {@link AnomalyResult#toXContent} produces.
+ */
+public class AnomalyResultBuffer {
+    private final String detectorId;
+    private final String taskId;
+    private final List<String> featureIds;
+    private final List<String> featureNames;
+    private final User user;
+    private final Integer schemaVersion;
+    private final long intervalMillis;
+    private final long executionStartTime;
+
+    private long[] dataStartTimes;
+    private long[] executionEndTimes;
+    private double[] scores;
+    private double[] grades;
+    private double[] confidences;
+    // feature values of the i-th result are at [i * featureCount, (i + 1) * featureCount)
+    private double[] featureValues;
+    private boolean[] hasFeatures;
+    private String[] errors;
+    private Entity[] entities;
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param detectorId detector id
+     * @param taskId task id
+     * @param featureIds enabled feature ids
+     * @param featureNames enabled feature names
+     * @param user user of the detector
+     * @param schemaVersion result index schema version
+     * @param intervalMillis detection interval length
+     * @param executionStartTime epoch millis of when the detection of the results started
+     * @param capacity initial capacity
+     */
+    public AnomalyResultBuffer(
+        String detectorId,
+        String taskId,
+        List<String> featureIds,
+        List<String> featureNames,
+        User user,
+        Integer schemaVersion,
+        long intervalMillis,
+        long executionStartTime,
+        int capacity
+    ) {
+        this.detectorId = detectorId;
+        this.taskId = taskId;
+        this.featureIds = featureIds;
+        this.featureNames = featureNames;
+        this.user = user;
+        this.schemaVersion = schemaVersion;
+        this.intervalMillis = intervalMillis;
+        this.executionStartTime = executionStartTime;
+        int initialCapacity = Math.max(capacity, 1);
+        this.dataStartTimes = new long[initialCapacity];
+        this.executionEndTimes = new long[initialCapacity];
+        this.scores = new double[initialCapacity];
+        this.grades = new double[initialCapacity];
+        this.confidences = new double[initialCapacity];
+        this.featureValues = new double[initialCapacity * featureIds.size()];
+        this.hasFeatures = new boolean[initialCapacity];
+        this.errors = new String[initialCapacity];
+        this.entities = new Entity[initialCapacity];
+        this.size = 0;
+    }
+
+    /**
+     * Append a result.
+     *
+     * @param dataStartTime epoch millis of the interval start
+     * @param features unprocessed features of the interval; null if no data
+     * @param score anomaly score; NaN if not scored
+     * @param grade anomaly grade; NaN if not scored
+     * @param confidence confidence; NaN if not scored
+     * @param error error message; null if no error
+     * @param executionEndTime epoch millis of when the result is produced
+     */
+    public void add(
+        long dataStartTime,
+        double[] features,
+        double score,
+        double grade,
+        double confidence,
+        String error,
+        long executionEndTime
+    ) {
+        add(dataStartTime, features, score, grade, confidence, error, executionEndTime, null);
+    }
+
+    /**
+     * Append a result of an entity.
+     *
+     * @param dataStartTime epoch millis of the interval start
+     * @param features unprocessed features of the interval; null if no data
+     * @param score anomaly score; NaN if not scored
+     * @param grade anomaly grade; NaN if not scored
+     * @param confidence confidence; NaN if not scored
+     * @param error error message; null if no error
+     * @param executionEndTime epoch millis of when the result is produced
+     * @param entity entity of the result; null if the detector has no category field
+     */
+    public void add(
+        long dataStartTime,
+        double[] features,
+        double score,
+        double grade,
+        double confidence,
+        String error,
+        long executionEndTime,
+        Entity entity
+    ) {
+        if (size == dataStartTimes.length) {
+            grow();
+        }
+        int featureCount = featureIds.size();
+        dataStartTimes[size] = dataStartTime;
+        executionEndTimes[size] = executionEndTime;
+        scores[size] = score;
+        grades[size] = grade;
+        confidences[size] = confidence;
+        hasFeatures[size] = features != null;
+        if (features != null) {
+            System.arraycopy(features, 0, featureValues, size * featureCount, featureCount);
+        }
+        errors[size] = error;
+        entities[size] = entity;
+        size++;
+    }
+
+    public String getDetectorId() {
+        return detectorId;
+    }
+
+    /**
+     * @return number of results
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Write the i-th result the way {@link AnomalyResult#toXContent} writes it.
+     *
+     * @param index result index
+     * @param builder builder to write to
+     * @return the builder
+     * @throws IOException when writing fails
+     */
+    public XContentBuilder toXContent(int index, XContentBuilder builder) throws IOException {
+        builder
+            .startObject()
+            .field(AnomalyResult.DETECTOR_ID_FIELD, detectorId)
+            .field(AnomalyResult.DATA_START_TIME_FIELD, dataStartTimes[index])
+            .field(AnomalyResult.DATA_END_TIME_FIELD, dataStartTimes[index] + intervalMillis)
+            .field(CommonName.SCHEMA_VERSION_FIELD, schemaVersion);
+        if (hasFeatures[index]) {
+            int featureCount = featureIds.size();
+            builder.startArray(AnomalyResult.FEATURE_DATA_FIELD);
+            for (int i = 0; i < featureCount; i++) {
+                builder
+                    .startObject()
+                    .field(FeatureData.FEATURE_ID_FIELD, featureIds.get(i))
+                    .field(FeatureData.FEATURE_NAME_FIELD, featureNames.get(i))
+                    .field(FeatureData.DATA_FIELD, featureValues[index * featureCount + i])
+                    .endObject();
+            }
+            builder.endArray();
+        }
+        builder.field(AnomalyResult.EXECUTION_START_TIME_FIELD, executionStartTime);
+        builder.field(AnomalyResult.EXECUTION_END_TIME_FIELD, executionEndTimes[index]);
+        if (!Double.isNaN(scores[index])) {
+            builder.field(AnomalyResult.ANOMALY_SCORE_FIELD, scores[index]);
+        }
+        if (!Double.isNaN(grades[index])) {
+            builder.field(AnomalyResult.ANOMALY_GRADE_FIELD, grades[index]);
+        }
+        if (!Double.isNaN(confidences[index])) {
+            builder.field(AnomalyResult.CONFIDENCE_FIELD, confidences[index]);
+        }
+        if (errors[index] != null) {
+            builder.field(AnomalyResult.ERROR_FIELD, errors[index]);
+        }
+        if (entities[index] != null) {
+            builder.field(AnomalyResult.ENTITY_FIELD, new Entity[] { entities[index] });
+        }
+        if (user != null) {
+            builder.field(AnomalyResult.USER_FIELD, user);
+        }
+        if (taskId != null) {
+            builder.field(AnomalyResult.TASK_ID_FIELD, taskId);
+        }
+        return builder.endObject();
+    }
+
+    /**
+     * @return JSON sources of the results in order
+     * @throws IOException when serialization fails
+     */
+    public List<BytesReference> toSources() throws IOException {
+        List<BytesReference> sources = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            try (XContentBuilder builder = jsonBuilder()) {
+                sources.add(BytesReference.bytes(toXContent(i, builder)));
+            }
+        }
+        return sources;
+    }
+
+    private void grow() {
+        int capacity = dataStartTimes.length * 2;
+        dataStartTimes = Arrays.copyOf(dataStartTimes, capacity);
+        executionEndTimes = Arrays.copyOf(executionEndTimes, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        grades = Arrays.copyOf(grades, capacity);
+        confidences = Arrays.copyOf(confidences, capacity);
+        featureValues = Arrays.copyOf(featureValues, capacity * featureIds.size());
+        hasFeatures = Arrays.copyOf(hasFeatures, capacity);
+        errors = Arrays.copyOf(errors, capacity);
+        entities = Arrays.copyOf(entities, capacity);
+    }
+}
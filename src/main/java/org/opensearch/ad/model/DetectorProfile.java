@@ -27,10 +27,13 @@
 package org.opensearch.ad.model;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.opensearch.Version;
+import org.opensearch.ad.caching.EntityCacheStats;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.common.io.stream.StreamInput;
 import org.opensearch.common.io.stream.StreamOutput;
@@ -40,6 +43,10 @@ import org.opensearch.common.xcontent.ToXContentObject;
 import org.opensearch.common.xcontent.XContentBuilder;
 
 public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
+    // entity cache counters are only exchanged with nodes on or after this version.
+    // Older nodes neither send nor expect them.
+    public static final Version ENTITY_CACHE_MIN_NODE_VERSION = Version.V_1_0_0;
+
     private DetectorState state;
     private String error;
     private ModelProfile[] modelProfile;
@@ -50,6 +57,8 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
     private Long totalEntities;
     private Long activeEntities;
     private ADTaskProfile adTaskProfile;
+    // cache event name to count over all nodes
+    private Map<String, Long> entityCache;
 
     public XContentBuilder toXContent(XContentBuilder builder) throws IOException {
         return toXContent(builder, ToXContent.EMPTY_PARAMS);
@@ -71,6 +80,9 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
         if (in.readBoolean()) {
             this.adTaskProfile = new ADTaskProfile(in);
         }
+        if (in.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION) && in.readBoolean()) {
+            this.entityCache = in.readMap(StreamInput::readString, StreamInput::readLong);
+        }
     }
 
     private DetectorProfile() {}
@@ -86,6 +98,7 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
         private Long totalEntities;
         private Long activeEntities;
         private ADTaskProfile adTaskProfile;
+        private Map<String, Long> entityCache;
 
         public Builder() {}
 
@@ -139,6 +152,11 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
             return this;
         }
 
+        public Builder entityCache(Map<String, Long> entityCache) {
+            this.entityCache = entityCache;
+            return this;
+        }
+
         public DetectorProfile build() {
             DetectorProfile profile = new DetectorProfile();
             profile.state = this.state;
@@ -151,6 +169,7 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
             profile.totalEntities = totalEntities;
             profile.activeEntities = activeEntities;
             profile.adTaskProfile = adTaskProfile;
+            profile.entityCache = entityCache;
 
             return profile;
         }
@@ -182,6 +201,14 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
             out.writeBoolean(true);
             adTaskProfile.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION)) {
+            if (entityCache == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                out.writeMap(entityCache, StreamOutput::writeString, StreamOutput::writeLong);
+            }
+        }
     }
 
     @Override
@@ -222,6 +249,9 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
         if (adTaskProfile != null) {
             xContentBuilder.field(CommonName.AD_TASK, adTaskProfile);
         }
+        if (entityCache != null) {
+            xContentBuilder.field(CommonName.ENTITY_CACHE, EntityCacheStats.withHitRate(entityCache));
+        }
         return xContentBuilder.endObject();
     }
 
@@ -305,6 +335,14 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
         this.adTaskProfile = adTaskProfile;
     }
 
+    public Map<String, Long> getEntityCache() {
+        return entityCache;
+    }
+
+    public void setEntityCache(Map<String, Long> entityCache) {
+        this.entityCache = entityCache;
+    }
+
     @Override
     public void merge(Mergeable other) {
         if (this == other || other == null || getClass() != other.getClass()) {
@@ -341,6 +379,9 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
         if (otherProfile.getAdTaskProfile() != null) {
             this.adTaskProfile = otherProfile.getAdTaskProfile();
         }
+        if (otherProfile.getEntityCache() != null) {
+            this.entityCache = otherProfile.getEntityCache();
+        }
     }
 
     @Override
@@ -385,6 +426,9 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
             if (adTaskProfile != null) {
                 equalsBuilder.append(adTaskProfile, other.adTaskProfile);
             }
+            if (entityCache != null) {
+                equalsBuilder.append(entityCache, other.entityCache);
+            }
             return equalsBuilder.isEquals();
         }
         return false;
@@ -403,6 +447,7 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
             .append(totalEntities)
             .append(activeEntities)
             .append(adTaskProfile)
+            .append(entityCache)
             .toHashCode();
     }
 
@@ -440,6 +485,9 @@ public class DetectorProfile implements Writeable, ToXContentObject, Mergeable {
         if (adTaskProfile != null) {
             toStringBuilder.append(CommonName.AD_TASK, adTaskProfile);
         }
+        if (entityCache != null) {
+            toStringBuilder.append(CommonName.ENTITY_CACHE, entityCache);
+        }
         return toStringBuilder.toString();
     }
 }
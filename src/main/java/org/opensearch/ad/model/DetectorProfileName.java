@@ -42,7 +42,8 @@ public enum DetectorProfileName implements Name {
     INIT_PROGRESS(CommonName.INIT_PROGRESS),
     TOTAL_ENTITIES(CommonName.TOTAL_ENTITIES),
     ACTIVE_ENTITIES(CommonName.ACTIVE_ENTITIES),
-    AD_TASK(CommonName.AD_TASK);
+    AD_TASK(CommonName.AD_TASK),
+    ENTITY_CACHE(CommonName.ENTITY_CACHE);
 
     private String name;
 
@@ -82,6 +83,8 @@ public enum DetectorProfileName implements Name {
                 return ACTIVE_ENTITIES;
             case CommonName.AD_TASK:
                 return AD_TASK;
+            case CommonName.ENTITY_CACHE:
+                return ENTITY_CACHE;
             default:
                 throw new IllegalArgumentException("Unsupported profile types");
         }
@@ -26,12 +26,16 @@
 
 package org.opensearch.ad.rest;
 
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST;
 import static org.opensearch.ad.util.RestHandlerUtils.DETECTOR_ID;
+import static org.opensearch.ad.util.RestHandlerUtils.ENTITIES;
 import static org.opensearch.ad.util.RestHandlerUtils.ENTITY;
 import static org.opensearch.ad.util.RestHandlerUtils.PROFILE;
 import static org.opensearch.ad.util.RestHandlerUtils.TYPE;
+import static org.opensearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -43,6 +47,7 @@ import org.opensearch.ad.settings.EnabledSetting;
 import org.opensearch.ad.transport.GetAnomalyDetectorAction;
 import org.opensearch.ad.transport.GetAnomalyDetectorRequest;
 import org.opensearch.client.node.NodeClient;
+import org.opensearch.common.xcontent.XContentParser;
 import org.opensearch.rest.BaseRestHandler;
 import org.opensearch.rest.RestRequest;
 import org.opensearch.rest.action.RestActions;
@@ -77,6 +82,7 @@ public class RestGetAnomalyDetectorAction extends BaseRestHandler {
         boolean returnJob = request.paramAsBoolean("job", false);
         boolean returnTask = request.paramAsBoolean("task", false);
         boolean all = request.paramAsBoolean("_all", false);
+        List<String> entityValues = request.hasContent() ? parseEntityValues(request) : null;
         GetAnomalyDetectorRequest getAnomalyDetectorRequest = new GetAnomalyDetectorRequest(
             detectorId,
             RestActions.parseVersion(request),
@@ -85,13 +91,48 @@ public class RestGetAnomalyDetectorAction extends BaseRestHandler {
             typesStr,
             rawPath,
             all,
-            entityValue
+            entityValue,
+            entityValues
         );
 
         return channel -> client
             .execute(GetAnomalyDetectorAction.INSTANCE, getAnomalyDetectorRequest, new RestToXContentListener<>(channel));
     }
 
+    /**
+     * Parse entity values to profile together, e.g. {"entities": ["app_0", "app_1"]}.
+     *
+     * @param request rest request with a body
+     * @return entity values, null if the body has none
+     * @throws IOException if the body cannot be parsed
+     * @throws IllegalArgumentException if the body lists too many entities
+     */
+    private List<String> parseEntityValues(RestRequest request) throws IOException {
+        List<String> entityValues = null;
+        try (XContentParser parser = request.contentParser()) {
+            ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
+            while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                if (ENTITIES.equals(fieldName)) {
+                    ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.currentToken(), parser);
+                    entityValues = new ArrayList<>();
+                    while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                        if (entityValues.size() == MAX_ENTITIES_PER_PROFILE_REQUEST) {
+                            throw new IllegalArgumentException(
+                                CommonErrorMessages.TOO_MANY_ENTITIES_TO_PROFILE + MAX_ENTITIES_PER_PROFILE_REQUEST
+                            );
+                        }
+                        entityValues.add(parser.text());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return entityValues;
+    }
+
     @Override
     public List<Route> routes() {
         return ImmutableList.of();
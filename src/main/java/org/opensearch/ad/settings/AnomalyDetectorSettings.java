@@ -27,9 +27,15 @@
 package org.opensearch.ad.settings;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 import org.opensearch.common.settings.Setting;
+import org.opensearch.common.unit.ByteSizeValue;
 import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.threadpool.ThreadPool;
 
 /**
  * AD plugin settings.
@@ -114,6 +120,16 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Results older than this are condensed into per-entity hourly rollups. 0 disables the rollup.
+    public static final Setting<TimeValue> AD_RESULT_ROLLUP_AGE = Setting
+        .timeSetting(
+            "opendistro.anomaly_detection.ad_result_rollup_age",
+            TimeValue.ZERO,
+            TimeValue.ZERO,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
     public static final Setting<Integer> MAX_RETRY_FOR_UNRESPONSIVE_NODE = Setting
         .intSetting(
             "opendistro.anomaly_detection.max_retry_for_unresponsive_node",
@@ -131,6 +147,24 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Whether multi-entity detectors save full results only for anomalies, the first normal
+    // result after an anomaly and heartbeats. Other scored entities of an interval are
+    // saved together in summary results.
+    public static final Setting<Boolean> CHANGE_ONLY_ENTITY_RESULTS = Setting
+        .boolSetting("opendistro.anomaly_detection.change_only_entity_results", false, Setting.Property.NodeScope);
+
+    // How often an entity's normal result is saved in full when only changes are saved.
+    public static final Setting<TimeValue> ENTITY_RESULT_HEARTBEAT_INTERVAL = Setting
+        .positiveTimeSetting(
+            "opendistro.anomaly_detection.entity_result_heartbeat_interval",
+            TimeValue.timeValueHours(1),
+            Setting.Property.NodeScope
+        );
+
+    // Max number of entities listed in one summary result, which keeps summary
+    // documents small. More entities are split across several summary results.
+    public static final int MAX_ENTITIES_PER_RESULT_SUMMARY = 1000;
+
     public static final Setting<TimeValue> BACKOFF_MINUTES = Setting
         .positiveTimeSetting(
             "opendistro.anomaly_detection.backoff_minutes",
@@ -167,11 +201,24 @@ public final class AnomalyDetectorSettings {
     public static final String ANOMALY_RESULTS_INDEX_MAPPING_FILE = "mappings/anomaly-results.json";
     public static final String ANOMALY_DETECTION_STATE_INDEX_MAPPING_FILE = "mappings/anomaly-detection-state.json";
     public static final String CHECKPOINT_INDEX_MAPPING_FILE = "mappings/checkpoint.json";
+    public static final String ANOMALY_RESULT_ROLLUPS_INDEX_MAPPING_FILE = "mappings/anomaly-result-rollups.json";
 
     public static final Duration HOURLY_MAINTENANCE = Duration.ofHours(1);
 
     public static final Duration CHECKPOINT_TTL = Duration.ofDays(3);
 
+    // Whether checkpoints are written to time-partitioned indices behind an alias, so that expired
+    // checkpoints are removed by dropping whole indices instead of by delete-by-query. Enable it
+    // only when all nodes run a version supporting it, as older nodes only read the unpartitioned index.
+    public static final Setting<Boolean> CHECKPOINT_INDEX_PARTITIONING = Setting
+        .boolSetting("opendistro.anomaly_detection.checkpoint_index_partitioning", false, Setting.Property.NodeScope);
+
+    // How long a checkpoint partition is written before rolling over to a new one
+    public static final TimeValue CHECKPOINT_PARTITION_PERIOD = TimeValue.timeValueDays(1);
+
+    // Max number of models whose checkpoint partition a node remembers
+    public static final int MAX_CHECKPOINT_POINTERS = 50_000;
+
     // ======================================
     // ML parameters
     // ======================================
@@ -198,6 +245,77 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Fraction of hosted models whose retained heap size is measured during maintenance
+    // to correct model size estimates. 0 disables measurement.
+    public static final Setting<Double> MODEL_MEMORY_MEASUREMENT_RATIO = Setting
+        .doubleSetting(
+            "opendistro.anomaly_detection.model_memory_measurement_ratio",
+            0.0,
+            0,
+            1,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Load shedding thresholds entering SKIP_COLD_START, NO_NEW_ENTITY, TOP_PRIORITY_ONLY,
+    // ANOMALY_ONLY, and OVERLOADED.
+    //
+    // Heap is the heap used percent right after GC, approximated by the lowest heap usage
+    // in the last 30 to 60 seconds, so that ordinary GC cycles don't trip it. OVERLOADED
+    // starts at 90%, below the 95% at which the OpenSearch parent breaker rejects requests.
+    public static final Setting<List<Double>> LOAD_SHEDDING_HEAP_THRESHOLDS = loadSheddingThresholds(
+        "opendistro.anomaly_detection.load_shedding.heap_used_percent_thresholds",
+        "65",
+        "70",
+        "75",
+        "80",
+        "90"
+    );
+
+    // Queue size of the AD thread pool, a scaling pool with an unbounded queue
+    public static final Setting<List<Double>> LOAD_SHEDDING_QUEUE_THRESHOLDS = loadSheddingThresholds(
+        "opendistro.anomaly_detection.load_shedding.queue_size_thresholds",
+        "100",
+        "200",
+        "500",
+        "1000",
+        "5000"
+    );
+
+    // Percent of time spent in GC in the last 10 seconds. 10, 25, and 50 are the GC overhead
+    // percents at which the OpenSearch JVM GC monitor logs at debug, info, and warn.
+    public static final Setting<List<Double>> LOAD_SHEDDING_GC_TIME_THRESHOLDS = loadSheddingThresholds(
+        "opendistro.anomaly_detection.load_shedding.gc_time_percent_thresholds",
+        "10",
+        "15",
+        "25",
+        "35",
+        "50"
+    );
+
+    private static Setting<List<Double>> loadSheddingThresholds(String key, String... defaultValues) {
+        return Setting.listSetting(key, Arrays.asList(defaultValues), Double::parseDouble, thresholds -> {
+            if (thresholds.size() != defaultValues.length) {
+                throw new IllegalArgumentException(
+                    String.format(Locale.ROOT, "Setting [%s] needs %d thresholds", key, defaultValues.length)
+                );
+            }
+            for (int i = 0; i < thresholds.size(); i++) {
+                if (thresholds.get(i) < 0 || (i > 0 && thresholds.get(i) < thresholds.get(i - 1))) {
+                    throw new IllegalArgumentException(
+                        String.format(Locale.ROOT, "Thresholds of setting [%s] must be non-negative and ascending", key)
+                    );
+                }
+            }
+        }, Setting.Property.NodeScope, Setting.Property.Dynamic);
+    }
+
+    // Fraction of cached entities in an entity result request scored when the node sheds load
+    public static final double LOAD_SHEDDING_SCORED_ENTITY_RATIO = 0.5;
+
+    // Weight of a new measurement in the moving average of the model size correction factor
+    public static final double MODEL_MEMORY_CORRECTION_WEIGHT = 0.1;
+
     // Thresholding
     public static final double THRESHOLD_MIN_PVALUE = 0.995;
 
@@ -269,6 +387,10 @@ public final class AnomalyDetectorSettings {
 
     public static final double DOOR_KEEPER_FAULSE_POSITIVE_RATE = 0.01;
 
+    // Max number of entities profiled in one request, the default of max_entities_per_query.
+    // Each entity fans out a profile request to the node hosting its model.
+    public static final int MAX_ENTITIES_PER_PROFILE_REQUEST = 1000;
+
     // Increase the value will adding pressure to indexing anomaly results and our feature query
     public static final Setting<Integer> MAX_ENTITIES_PER_QUERY = Setting
         .intSetting(
@@ -333,6 +455,78 @@ public final class AnomalyDetectorSettings {
             Setting.Property.Dynamic
         );
 
+    // Maximum number of entity cold starts running on one node at the same time.
+    // Each cold start issues a few searches to fetch training data, so by default cold
+    // starts may use a quarter of the search threads (at least 2) and the rest is left
+    // to other searches. The scheduler lowers the limit when the search threadpool queue
+    // is filling up.
+    public static final Setting<Integer> MAX_CONCURRENT_COLD_STARTS = new Setting<>(
+        "opendistro.anomaly_detection.max_concurrent_cold_starts",
+        settings -> Integer.toString(Math.max(2, ThreadPool.searchThreadPoolSize(OpenSearchExecutors.allocatedProcessors(settings)) / 4)),
+        value -> Setting.parseInt(value, 1, 100, "opendistro.anomaly_detection.max_concurrent_cold_starts"),
+        Setting.Property.NodeScope
+    );
+
+    // Max number of pending cold starts per multi-entity detector. When full,
+    // low priority entities are evicted in favor of hot entities.
+    public static final int MAX_QUEUED_COLD_STARTS_PER_DETECTOR = 1000;
+
+    // Max number of detectors whose parsed feature queries are cached on a node.
+    public static final int MAX_CACHED_QUERY_PLANS = 1000;
+
+    // Cached query plans not used for this long are evicted, e.g., after a detector is stopped.
+    public static final Duration QUERY_PLAN_TTL = Duration.ofHours(1);
+
+    // How long a real time feature query waits for queries of other detectors on the
+    // same indices so that they can be sent as one search. 0 disables merging.
+    public static final Setting<TimeValue> FEATURE_QUERY_COALESCE_WINDOW = Setting
+        .timeSetting(
+            "opendistro.anomaly_detection.feature_query_coalesce_window",
+            TimeValue.timeValueMillis(0),
+            TimeValue.timeValueMillis(0),
+            TimeValue.timeValueSeconds(5),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Max number of detectors' feature queries merged into one search.
+    public static final int MAX_COALESCED_FEATURE_QUERIES = 50;
+
+    // Max number of feature points cached on a node across all detectors and entities.
+    // Series not used recently are evicted first when the cache is full.
+    public static final int MAX_CACHED_FEATURE_POINTS = 100_000;
+
+    // Max number of feature points cached per detector or entity. The oldest points are dropped first.
+    public static final int MAX_CACHED_FEATURE_POINTS_PER_SERIES = 2_048;
+
+    // Whether the coordinating node scores single-entity RCF partitions and threshold
+    // models it hosts itself instead of sending transport requests to itself.
+    public static final Setting<Boolean> LOCAL_MODEL_SCORING = Setting
+        .boolSetting("opendistro.anomaly_detection.local_model_scoring", true, Setting.Property.NodeScope);
+
+    // How long anomaly results wait on a node so that results of different detectors
+    // are written in one bulk request. 0, the default, writes results as soon as they
+    // arrive, as before results were batched.
+    public static final Setting<TimeValue> RESULT_WRITE_LINGER = Setting
+        .timeSetting(
+            "opendistro.anomaly_detection.result_write_linger",
+            TimeValue.timeValueMillis(0),
+            TimeValue.timeValueMillis(0),
+            TimeValue.timeValueSeconds(10),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Number of buffered anomaly results that triggers a bulk write before the linger time.
+    public static final int RESULT_WRITE_BULK_SIZE = 1000;
+
+    // Max bytes of rejected multi-entity results kept on a node for retry.
+    public static final Setting<ByteSizeValue> RESULT_RETRY_BUFFER_SIZE = Setting
+        .memorySizeSetting("opendistro.anomaly_detection.result_retry_buffer_size", "10mb", Setting.Property.NodeScope);
+
+    // Cap of the delay before retrying rejected multi-entity results.
+    public static final TimeValue RESULT_RETRY_MAX_DELAY = TimeValue.timeValueMinutes(1);
+
     // Maximum number of batch tasks running on one node.
     // TODO: performance test and tune the setting.
     public static final Setting<Integer> MAX_BATCH_TASK_PER_NODE = Setting
@@ -347,6 +541,9 @@ public final class AnomalyDetectorSettings {
 
     public static int THRESHOLD_MODEL_TRAINING_SIZE = 1000;
 
+    // max number of feature query result pages a historical task fetches ahead of its pieces
+    public static final int BATCH_FEATURE_READER_MAX_PAGES = 2;
+
     public static final Setting<Integer> MAX_OLD_AD_TASK_DOCS_PER_DETECTOR = Setting
         .intSetting(
             "opendistro.anomaly_detection.max_old_ad_task_docs_per_detector",
@@ -379,4 +576,40 @@ public final class AnomalyDetectorSettings {
             Setting.Property.NodeScope,
             Setting.Property.Dynamic
         );
+
+    // Checkpoint batch task models every this many pieces so that a stopped or failed
+    // task can resume from the last checkpoint. 0 disables batch task checkpoints.
+    public static final Setting<Integer> BATCH_TASK_CHECKPOINT_PIECES = Setting
+        .intSetting(
+            "opendistro.anomaly_detection.batch_task_checkpoint_pieces",
+            10,
+            0,
+            10_000,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Min interval between persisting progress of a running batch task to the task index.
+    // Progress is served from memory in between; state changes are persisted right away.
+    public static final Setting<TimeValue> BATCH_TASK_PROGRESS_UPDATE_INTERVAL = Setting
+        .timeSetting(
+            "opendistro.anomaly_detection.batch_task_progress_update_interval",
+            TimeValue.timeValueSeconds(30),
+            TimeValue.timeValueSeconds(0),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+    // Max number of entities a historical detector with a category field runs models for.
+    // The entities with most documents in the detection date range are picked. All entity
+    // models of a task live on the node running it, so fewer are kept if memory is short.
+    public static final Setting<Integer> BATCH_TASK_MAX_ENTITIES = Setting
+        .intSetting(
+            "opendistro.anomaly_detection.batch_task_max_entities",
+            100,
+            1,
+            1000,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
 }
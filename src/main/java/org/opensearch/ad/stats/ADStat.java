@@ -29,6 +29,7 @@ package org.opensearch.ad.stats;
 import java.util.function.Supplier;
 
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.ad.stats.suppliers.SettableSupplier;
 
 /**
@@ -95,4 +96,15 @@ public class ADStat<T> {
             ((CounterSupplier) supplier).decrement();
         }
     }
+
+    /**
+     * Records the latency since a start time if the supplier is a latency histogram
+     *
+     * @param startNanos start time from System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        if (supplier instanceof LatencySupplier) {
+            ((LatencySupplier) supplier).recordSince(startNanos);
+        }
+    }
 }
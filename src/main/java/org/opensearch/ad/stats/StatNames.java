@@ -49,7 +49,20 @@ public enum StatNames {
     AD_EXECUTING_BATCH_TASK_COUNT("ad_executing_batch_task_count"),
     AD_CANCELED_BATCH_TASK_COUNT("ad_canceled_batch_task_count"),
     AD_TOTAL_BATCH_TASK_EXECUTION_COUNT("ad_total_batch_task_execution_count"),
-    AD_BATCH_TASK_FAILURE_COUNT("ad_batch_task_failure_count");
+    AD_BATCH_TASK_FAILURE_COUNT("ad_batch_task_failure_count"),
+    COLD_START_QUEUE_SIZE("cold_start_queue_size"),
+    COLD_START_AVG_WAIT_TIME("cold_start_avg_wait_time_ms"),
+    COLD_START_MAX_WAIT_TIME("cold_start_max_wait_time_ms"),
+    AD_FEATURE_SEARCH_LATENCY("ad_feature_search_latency"),
+    AD_HC_ENTITY_FANOUT_LATENCY("ad_hc_entity_fanout_latency"),
+    AD_ENTITY_CACHE_LOOKUP_LATENCY("ad_entity_cache_lookup_latency"),
+    AD_RCF_SCORE_LATENCY("ad_rcf_score_latency"),
+    AD_THRESHOLD_GRADE_LATENCY("ad_threshold_grade_latency"),
+    AD_RESULT_BULK_LATENCY("ad_result_bulk_latency"),
+    AD_CHECKPOINT_FLUSH_LATENCY("ad_checkpoint_flush_latency"),
+    ENTITY_CACHE("entity_cache"),
+    MODEL_MEMORY_DRIFT("model_memory_drift"),
+    AD_LOAD_LEVEL("ad_load_level");
 
     private String name;
 
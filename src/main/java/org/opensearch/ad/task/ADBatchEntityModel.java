@@ -0,0 +1,140 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.task;
+
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MULTI_ENTITY_NUM_TREES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.NUM_MIN_SAMPLES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.THRESHOLD_MODEL_TRAINING_SIZE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.TIME_DECAY;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+
+import org.opensearch.ad.ml.HybridThresholdingModel;
+import org.opensearch.ad.ml.ThresholdingModel;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+
+import com.amazon.randomcutforest.RandomCutForest;
+
+/**
+ * Models, shingle and threshold training data of one entity of a historical detector
+ * with a category field.  Like real time entity models, the RCF has
+ * {@link AnomalyDetectorSettings#MULTI_ENTITY_NUM_TREES} trees.
+ *
+ * An entity model is only accessed by one thread at a time: a piece hands each
+ * entity to one scoring thread and the next piece starts after all of them finish.
+ */
+public class ADBatchEntityModel {
+    private final Entity entity;
+    private final RandomCutForest rcfModel;
+    private final ThresholdingModel thresholdModel;
+    private final Deque<Map.Entry<Long, Optional<double[]>>> shingle;
+    private boolean thresholdModelTrained;
+    private double[] thresholdModelTrainingData;
+    private int thresholdModelTrainingDataSize;
+
+    protected ADBatchEntityModel(Entity entity, AnomalyDetector detector) {
+        this.entity = entity;
+        this.rcfModel = RandomCutForest
+            .builder()
+            .dimensions(detector.getShingleSize() * detector.getEnabledFeatureIds().size())
+            .numberOfTrees(MULTI_ENTITY_NUM_TREES)
+            .lambda(TIME_DECAY)
+            .sampleSize(NUM_SAMPLES_PER_TREE)
+            .outputAfter(NUM_MIN_SAMPLES)
+            .parallelExecutionEnabled(false)
+            .build();
+        this.thresholdModel = new HybridThresholdingModel(
+            AnomalyDetectorSettings.THRESHOLD_MIN_PVALUE,
+            AnomalyDetectorSettings.THRESHOLD_MAX_RANK_ERROR,
+            AnomalyDetectorSettings.THRESHOLD_MAX_SCORE,
+            AnomalyDetectorSettings.THRESHOLD_NUM_LOGNORMAL_QUANTILES,
+            AnomalyDetectorSettings.THRESHOLD_DOWNSAMPLES,
+            AnomalyDetectorSettings.THRESHOLD_MAX_SAMPLES
+        );
+        this.shingle = new ArrayDeque<>(detector.getShingleSize());
+        this.thresholdModelTrained = false;
+        this.thresholdModelTrainingData = new double[THRESHOLD_MODEL_TRAINING_SIZE];
+        this.thresholdModelTrainingDataSize = 0;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    protected RandomCutForest getRcfModel() {
+        return rcfModel;
+    }
+
+    protected ThresholdingModel getThresholdModel() {
+        return thresholdModel;
+    }
+
+    protected Deque<Map.Entry<Long, Optional<double[]>>> getShingle() {
+        return shingle;
+    }
+
+    protected boolean isThresholdModelTrained() {
+        return thresholdModelTrained;
+    }
+
+    protected int getThresholdModelTrainingDataSize() {
+        return thresholdModelTrainingDataSize;
+    }
+
+    /**
+     * Add a score to threshold model training data.
+     *
+     * @param score anomaly score
+     * @return training data size after adding the score
+     */
+    protected int addThresholdModelTrainingData(double score) {
+        if (thresholdModelTrainingDataSize < THRESHOLD_MODEL_TRAINING_SIZE) {
+            thresholdModelTrainingData[thresholdModelTrainingDataSize++] = score;
+        }
+        return thresholdModelTrainingDataSize;
+    }
+
+    /**
+     * Train threshold model with the training data and drop the training data.
+     *
+     * @return number of training data points dropped
+     */
+    protected int trainThresholdModel() {
+        thresholdModel.train(thresholdModelTrainingData);
+        thresholdModelTrained = true;
+        int size = thresholdModelTrainingDataSize;
+        thresholdModelTrainingData = null;
+        thresholdModelTrainingDataSize = 0;
+        return size;
+    }
+}
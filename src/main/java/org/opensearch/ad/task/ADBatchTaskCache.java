@@ -33,6 +33,7 @@ import static org.opensearch.ad.settings.AnomalyDetectorSettings.THRESHOLD_MODEL
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.TIME_DECAY;
 
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Map;
 import java.util.Optional;
@@ -40,6 +41,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.opensearch.ad.feature.BatchFeatureReader;
+import org.opensearch.ad.ml.BatchTaskCheckpoint;
 import org.opensearch.ad.ml.HybridThresholdingModel;
 import org.opensearch.ad.ml.ThresholdingModel;
 import org.opensearch.ad.model.ADTask;
@@ -49,11 +52,14 @@ import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import com.amazon.randomcutforest.RandomCutForest;
 
 /**
- * AD batch task cache which will hold RCF, threshold model, shingle and training data.
+ * AD batch task cache which will hold RCF, threshold model, shingle, training data and feature reader.
+ * For detectors with a category field, the cache holds one {@link ADBatchEntityModel} per
+ * entity instead of the task level models.
  */
 public class ADBatchTaskCache {
     private final String detectorId;
     private final String taskId;
+    private final boolean multiEntity;
     private RandomCutForest rcfModel;
     private ThresholdingModel thresholdModel;
     private boolean thresholdModelTrained;
@@ -62,14 +68,27 @@ public class ADBatchTaskCache {
     private double[] thresholdModelTrainingData;
     private AtomicBoolean cancelled = new AtomicBoolean(false);
     private AtomicLong cacheMemorySize = new AtomicLong(0);
+    // memory reserved for the piece being run, included in cacheMemorySize
+    private AtomicLong pieceMemorySize = new AtomicLong(0);
     private String cancelReason;
     private String cancelledBy;
+    private AtomicInteger piecesSinceCheckpoint = new AtomicInteger(0);
+    private volatile BatchFeatureReader featureReader;
+    private final ADBatchTaskProgress progress = new ADBatchTaskProgress();
+    // entity value to entity model, in descending order of entity document count
+    private volatile Map<String, ADBatchEntityModel> entityModels;
 
     protected ADBatchTaskCache(ADTask adTask) {
         this.detectorId = adTask.getDetectorId();
         this.taskId = adTask.getTaskId();
 
         AnomalyDetector detector = adTask.getDetector();
+        this.multiEntity = detector.isMultientityDetector();
+        if (multiEntity) {
+            // entity models are added once entities are known
+            this.entityModels = Collections.emptyMap();
+            return;
+        }
         rcfModel = RandomCutForest
             .builder()
             .dimensions(detector.getShingleSize() * detector.getEnabledFeatureIds().size())
@@ -93,6 +112,31 @@ public class ADBatchTaskCache {
         this.shingle = new ArrayDeque<>(detector.getShingleSize());
     }
 
+    /**
+     * Restore batch task cache from checkpoint.
+     *
+     * @param adTask AD task
+     * @param checkpoint batch task checkpoint of the task
+     */
+    protected ADBatchTaskCache(ADTask adTask, BatchTaskCheckpoint checkpoint) {
+        this.detectorId = adTask.getDetectorId();
+        this.taskId = adTask.getTaskId();
+        this.multiEntity = false;
+        this.rcfModel = checkpoint.getRcf();
+        this.thresholdModel = checkpoint.getThreshold();
+        this.thresholdModelTrained = checkpoint.isThresholdModelTrained();
+        if (thresholdModelTrained) {
+            this.thresholdModelTrainingData = null;
+        } else {
+            double[] trainingData = checkpoint.getThresholdModelTrainingData();
+            this.thresholdModelTrainingData = new double[THRESHOLD_MODEL_TRAINING_SIZE];
+            int size = Math.min(trainingData.length, THRESHOLD_MODEL_TRAINING_SIZE);
+            System.arraycopy(trainingData, 0, thresholdModelTrainingData, 0, size);
+            this.thresholdModelTrainingDataSize.set(size);
+        }
+        this.shingle = checkpoint.getShingle();
+    }
+
     protected String getDetectorId() {
         return detectorId;
     }
@@ -101,6 +145,18 @@ public class ADBatchTaskCache {
         return taskId;
     }
 
+    protected boolean isMultiEntity() {
+        return multiEntity;
+    }
+
+    protected Map<String, ADBatchEntityModel> getEntityModels() {
+        return entityModels;
+    }
+
+    protected void setEntityModels(Map<String, ADBatchEntityModel> entityModels) {
+        this.entityModels = entityModels;
+    }
+
     protected RandomCutForest getRcfModel() {
         return rcfModel;
     }
@@ -134,10 +190,30 @@ public class ADBatchTaskCache {
         return thresholdModelTrainingDataSize;
     }
 
+    protected AtomicInteger getPiecesSinceCheckpoint() {
+        return piecesSinceCheckpoint;
+    }
+
+    protected BatchFeatureReader getFeatureReader() {
+        return featureReader;
+    }
+
+    protected void setFeatureReader(BatchFeatureReader featureReader) {
+        this.featureReader = featureReader;
+    }
+
+    protected ADBatchTaskProgress getProgress() {
+        return progress;
+    }
+
     protected AtomicLong getCacheMemorySize() {
         return cacheMemorySize;
     }
 
+    protected AtomicLong getPieceMemorySize() {
+        return pieceMemorySize;
+    }
+
     protected boolean isCancelled() {
         return cancelled.get();
     }
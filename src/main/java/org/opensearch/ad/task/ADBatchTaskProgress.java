@@ -0,0 +1,142 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.task;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import org.opensearch.ad.model.ADTask;
+import org.opensearch.ad.rest.handler.AnomalyDetectorFunction;
+
+/**
+ * Progress of a running AD batch task kept in memory, and bookkeeping of persisting
+ * it to the task index.
+ *
+ * Progress changes every piece, but is only persisted when the task state changes or
+ * when the last persist is older than the persist interval.  At most one persist of a
+ * task is in flight, so that a slow persist can't land after a later one; a terminal
+ * task update should wait for the in-flight persist via {@link #afterPersisted}.
+ */
+public class ADBatchTaskProgress {
+    // Guarded by this
+    private String state;
+    // Guarded by this
+    private Instant currentPiece;
+    // Guarded by this
+    private Float taskProgress;
+    // Guarded by this
+    private Float initProgress;
+    // Guarded by this; state of the last persist
+    private String persistedState;
+    // Guarded by this; epoch millis of the last persist
+    private long persistedTime;
+    // Guarded by this
+    private boolean persisting;
+    // Guarded by this; function to run once the in-flight persist is done
+    private AnomalyDetectorFunction afterPersisted;
+
+    /**
+     * Record task progress of next piece.
+     *
+     * @param state task state
+     * @param currentPiece start time of the piece
+     * @param taskProgress task progress
+     * @param initProgress init progress
+     * @param now epoch millis of current time
+     * @param persistIntervalMillis min interval between persists of unchanged state
+     * @return true if the caller should persist the progress, in which case it must call
+     *  {@link #persisted()} once the persist is done
+     */
+    public synchronized boolean update(
+        String state,
+        Instant currentPiece,
+        float taskProgress,
+        float initProgress,
+        long now,
+        long persistIntervalMillis
+    ) {
+        this.state = state;
+        this.currentPiece = currentPiece;
+        this.taskProgress = taskProgress;
+        this.initProgress = initProgress;
+        if (persisting || (Objects.equals(state, persistedState) && now - persistedTime < persistIntervalMillis)) {
+            return false;
+        }
+        persisting = true;
+        persistedState = state;
+        persistedTime = now;
+        return true;
+    }
+
+    /**
+     * Mark the in-flight persist done, whether it succeeded or not.
+     */
+    public void persisted() {
+        AnomalyDetectorFunction function = null;
+        synchronized (this) {
+            persisting = false;
+            function = afterPersisted;
+            afterPersisted = null;
+        }
+        if (function != null) {
+            function.execute();
+        }
+    }
+
+    /**
+     * Run function once no persist is in flight.
+     *
+     * @param function function to run
+     */
+    public void afterPersisted(AnomalyDetectorFunction function) {
+        synchronized (this) {
+            if (persisting) {
+                afterPersisted = function;
+                return;
+            }
+        }
+        function.execute();
+    }
+
+    /**
+     * @param taskId AD task id
+     * @return AD task with the progress fields only, or null if no progress recorded yet
+     */
+    public synchronized ADTask toADTask(String taskId) {
+        if (state == null) {
+            return null;
+        }
+        return ADTask
+            .builder()
+            .taskId(taskId)
+            .state(state)
+            .currentPiece(currentPiece)
+            .taskProgress(taskProgress)
+            .initProgress(initProgress)
+            .build();
+    }
+}
@@ -36,8 +36,11 @@ import static org.opensearch.ad.model.ADTask.INIT_PROGRESS_FIELD;
 import static org.opensearch.ad.model.ADTask.STATE_FIELD;
 import static org.opensearch.ad.model.ADTask.TASK_PROGRESS_FIELD;
 import static org.opensearch.ad.model.ADTask.WORKER_NODE_FIELD;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_CHECKPOINT_PIECES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_MAX_ENTITIES;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_SIZE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PROGRESS_UPDATE_INTERVAL;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_BATCH_TASK_PER_NODE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.NUM_MIN_SAMPLES;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.THRESHOLD_MODEL_TRAINING_SIZE;
@@ -46,6 +49,8 @@ import static org.opensearch.ad.stats.StatNames.AD_EXECUTING_BATCH_TASK_COUNT;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
@@ -56,9 +61,13 @@ import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionListenerResponseHandler;
+import org.opensearch.action.bulk.BulkResponse;
 import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.support.GroupedActionListener;
+import org.opensearch.action.support.IndicesOptions;
 import org.opensearch.action.support.ThreadedActionListener;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
 import org.opensearch.ad.common.exception.ADTaskCancelledException;
@@ -67,17 +76,24 @@ import org.opensearch.ad.common.exception.EndRunException;
 import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.common.exception.ResourceNotFoundException;
 import org.opensearch.ad.constant.CommonErrorMessages;
+import org.opensearch.ad.feature.BatchFeatureReader;
+import org.opensearch.ad.feature.BatchFeatures;
 import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.feature.SinglePointFeatures;
 import org.opensearch.ad.indices.ADIndex;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.ml.BatchTaskCheckpoint;
+import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.ml.ThresholdingModel;
 import org.opensearch.ad.model.ADTask;
 import org.opensearch.ad.model.ADTaskState;
+import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.AnomalyResultBuffer;
 import org.opensearch.ad.model.DetectionDateRange;
-import org.opensearch.ad.model.FeatureData;
+import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
+import org.opensearch.ad.rest.handler.AnomalyDetectorFunction;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.settings.EnabledSetting;
 import org.opensearch.ad.stats.ADStats;
@@ -91,12 +107,18 @@ import org.opensearch.ad.transport.ADStatsRequest;
 import org.opensearch.ad.transport.handler.AnomalyResultBulkIndexHandler;
 import org.opensearch.ad.util.DiscoveryNodeFilterer;
 import org.opensearch.ad.util.ExceptionUtil;
-import org.opensearch.ad.util.ParseUtils;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
 import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.RangeQueryBuilder;
+import org.opensearch.index.query.TermQueryBuilder;
+import org.opensearch.index.reindex.DeleteByQueryAction;
+import org.opensearch.index.reindex.DeleteByQueryRequest;
 import org.opensearch.search.aggregations.AggregationBuilders;
 import org.opensearch.search.aggregations.metrics.InternalMax;
 import org.opensearch.search.aggregations.metrics.InternalMin;
@@ -126,6 +148,7 @@ public class ADBatchTaskRunner {
     private final AnomalyResultBulkIndexHandler anomalyResultBulkIndexHandler;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
     private AnomalyDetectionIndices anomalyDetectionIndices;
+    private final CheckpointDao checkpointDao;
 
     private final ADTaskCacheManager adTaskCacheManager;
     private final TransportRequestOptions option;
@@ -133,6 +156,9 @@ public class ADBatchTaskRunner {
     private volatile Integer maxAdBatchTaskPerNode;
     private volatile Integer pieceSize;
     private volatile Integer pieceIntervalSeconds;
+    private volatile TimeValue progressUpdateInterval;
+    private volatile Integer checkpointPieces;
+    private volatile Integer maxEntities;
 
     public ADBatchTaskRunner(
         Settings settings,
@@ -147,7 +173,8 @@ public class ADBatchTaskRunner {
         AnomalyDetectionIndices anomalyDetectionIndices,
         ADStats adStats,
         AnomalyResultBulkIndexHandler anomalyResultBulkIndexHandler,
-        ADTaskCacheManager adTaskCacheManager
+        ADTaskCacheManager adTaskCacheManager,
+        CheckpointDao checkpointDao
     ) {
         this.threadPool = threadPool;
         this.clusterService = clusterService;
@@ -168,6 +195,7 @@ public class ADBatchTaskRunner {
             .build();
 
         this.adTaskCacheManager = adTaskCacheManager;
+        this.checkpointDao = checkpointDao;
 
         this.maxAdBatchTaskPerNode = MAX_BATCH_TASK_PER_NODE.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(MAX_BATCH_TASK_PER_NODE, it -> maxAdBatchTaskPerNode = it);
@@ -177,6 +205,17 @@ public class ADBatchTaskRunner {
 
         this.pieceIntervalSeconds = BATCH_TASK_PIECE_INTERVAL_SECONDS.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_PIECE_INTERVAL_SECONDS, it -> pieceIntervalSeconds = it);
+
+        this.checkpointPieces = BATCH_TASK_CHECKPOINT_PIECES.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_CHECKPOINT_PIECES, it -> checkpointPieces = it);
+
+        this.progressUpdateInterval = BATCH_TASK_PROGRESS_UPDATE_INTERVAL.get(settings);
+        clusterService
+            .getClusterSettings()
+            .addSettingsUpdateConsumer(BATCH_TASK_PROGRESS_UPDATE_INTERVAL, it -> progressUpdateInterval = it);
+
+        this.maxEntities = BATCH_TASK_MAX_ENTITIES.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_MAX_ENTITIES, it -> maxEntities = it);
     }
 
     /**
@@ -319,7 +358,8 @@ public class ADBatchTaskRunner {
 
     private ActionListener<String> internalBatchTaskListener(ADTask adTask, TransportService transportService) {
         String taskId = adTask.getTaskId();
-        ActionListener<String> listener = ActionListener.wrap(response -> {
+        // Terminal task updates wait for the in-flight progress persist, so that the persist can't overwrite them.
+        ActionListener<String> listener = ActionListener.wrap(response -> afterProgressPersisted(taskId, () -> {
             // If batch task finished normally, remove task from cache and decrease executing task count by 1.
             adTaskCacheManager.remove(taskId);
             adStats.getStat(AD_EXECUTING_BATCH_TASK_COUNT.getName()).decrement();
@@ -330,15 +370,23 @@ public class ADBatchTaskRunner {
                     transportService,
                     () -> adTaskManager.updateADTask(taskId, ImmutableMap.of(STATE_FIELD, ADTaskState.FINISHED.name()))
                 );
-        }, e -> {
+        }), e -> afterProgressPersisted(taskId, () -> {
             // If batch task failed, remove task from cache and decrease executing task count by 1.
             adTaskCacheManager.remove(taskId);
             adStats.getStat(AD_EXECUTING_BATCH_TASK_COUNT.getName()).decrement();
             adTaskManager.cleanDetectorCache(adTask, transportService, () -> handleException(adTask, e));
-        });
+        }));
         return listener;
     }
 
+    private void afterProgressPersisted(String taskId, AnomalyDetectorFunction function) {
+        if (adTaskCacheManager.contains(taskId)) {
+            adTaskCacheManager.getProgress(taskId).afterPersisted(function);
+        } else {
+            function.execute();
+        }
+    }
+
     private void handleException(ADTask adTask, Exception e) {
         // Check if batch task was cancelled or not by exception type.
         // If it's cancelled, then increase cancelled task count by 1, otherwise increase failure count by 1.
@@ -351,18 +399,63 @@ public class ADBatchTaskRunner {
         adTaskManager.handleADTaskException(adTask, e);
     }
 
-    private void executeADBatchTask(ADTask adTask, ActionListener<String> internalListener) {
+    void executeADBatchTask(ADTask adTask, ActionListener<String> internalListener) {
         // track AD executing batch task and total batch task execution count
         adStats.getStat(AD_EXECUTING_BATCH_TASK_COUNT.getName()).increment();
         adStats.getStat(StatNames.AD_TOTAL_BATCH_TASK_EXECUTION_COUNT.getName()).increment();
 
-        // put AD task into cache
-        adTaskCacheManager.add(adTask);
+        if (adTask.getCurrentPiece() == null) {
+            // put AD task into cache
+            adTaskCacheManager.add(adTask);
+
+            // start to run first piece
+            Instant executeStartTime = Instant.now();
+            // TODO: refactor to make the workflow more clear
+            runFirstPiece(adTask, executeStartTime, null, internalListener);
+            return;
+        }
+
+        // The task ran before and is resumed: restore its models from the last checkpoint.
+        // If the task has no checkpoint, rerun it from the start of the detection date range.
+        // A checkpoint that cannot be restored is deleted and the task reruns from the start
+        // too, as failing the task would leave it to resume from the same checkpoint again.
+        ActionListener<Optional<BatchTaskCheckpoint>> restoreListener = ActionListener
+            .wrap(checkpoint -> resumeADBatchTask(adTask, checkpoint, internalListener), exception -> {
+                if (ExceptionsHelper.unwrapCause(exception) instanceof IndexNotFoundException) {
+                    resumeADBatchTask(adTask, Optional.empty(), internalListener);
+                    return;
+                }
+                String taskId = adTask.getTaskId();
+                logger.warn("Fail to restore checkpoint of AD task " + taskId + ", rerun it from the start", exception);
+                ActionListener<Void> deleteListener = ActionListener
+                    .wrap(r -> resumeADBatchTask(adTask, Optional.empty(), internalListener), e -> {
+                        logger.warn("Fail to delete checkpoint of AD task " + taskId, e);
+                        resumeADBatchTask(adTask, Optional.empty(), internalListener);
+                    });
+                checkpointDao
+                    .deleteModelCheckpoint(
+                        taskId,
+                        new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, deleteListener, false)
+                    );
+            });
+        checkpointDao
+            .restoreBatchTaskCheckpoint(
+                adTask.getTaskId(),
+                new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, restoreListener, false)
+            );
+    }
 
-        // start to run first piece
-        Instant executeStartTime = Instant.now();
-        // TODO: refactor to make the workflow more clear
-        runFirstPiece(adTask, executeStartTime, internalListener);
+    private void resumeADBatchTask(ADTask adTask, Optional<BatchTaskCheckpoint> checkpoint, ActionListener<String> internalListener) {
+        try {
+            adTaskCacheManager.add(adTask, checkpoint.orElse(null));
+            long pieceStartTime = checkpoint
+                .map(BatchTaskCheckpoint::getPieceStartTime)
+                .orElse(adTask.getDetector().getDetectionDateRange().getStartTime().toEpochMilli());
+            logger.info("Resume AD task {} of detector {} from {}", adTask.getTaskId(), adTask.getDetectorId(), pieceStartTime);
+            runFirstPiece(adTask, Instant.now(), pieceStartTime, internalListener);
+        } catch (Exception e) {
+            internalListener.onFailure(e);
+        }
     }
 
     private void checkClusterState(ADTask adTask) {
@@ -388,98 +481,192 @@ public class ADBatchTaskRunner {
         }
     }
 
-    private void runFirstPiece(ADTask adTask, Instant executeStartTime, ActionListener<String> internalListener) {
+    /**
+     * Run first piece of AD task.
+     *
+     * @param adTask AD task
+     * @param executeStartTime execution start time
+     * @param resumePieceStartTime start time of the piece to resume from; null if the task is not resumed
+     * @param internalListener internal listener
+     */
+    private void runFirstPiece(
+        ADTask adTask,
+        Instant executeStartTime,
+        Long resumePieceStartTime,
+        ActionListener<String> internalListener
+    ) {
         try {
-            adTaskManager
-                .updateADTask(
-                    adTask.getTaskId(),
-                    ImmutableMap
-                        .of(
-                            STATE_FIELD,
-                            ADTaskState.INIT.name(),
-                            CURRENT_PIECE_FIELD,
-                            adTask.getDetector().getDetectionDateRange().getStartTime().toEpochMilli(),
-                            TASK_PROGRESS_FIELD,
-                            0.0f,
-                            INIT_PROGRESS_FIELD,
-                            0.0f,
-                            WORKER_NODE_FIELD,
-                            clusterService.localNode().getId()
-                        ),
-                    ActionListener.wrap(r -> {
-                        try {
-                            checkIfADTaskCancelled(adTask.getTaskId());
-                            getDateRangeOfSourceData(adTask, (minDate, maxDate) -> {
-                                long interval = ((IntervalTimeConfiguration) adTask.getDetector().getDetectionInterval())
-                                    .toDuration()
-                                    .toMillis();
-
-                                DetectionDateRange detectionDateRange = adTask.getDetector().getDetectionDateRange();
-                                long dataStartTime = detectionDateRange.getStartTime().toEpochMilli();
-                                long dataEndTime = detectionDateRange.getEndTime().toEpochMilli();
-
-                                if (minDate >= dataEndTime || maxDate <= dataStartTime) {
-                                    internalListener
-                                        .onFailure(
-                                            new ResourceNotFoundException(
-                                                adTask.getDetectorId(),
-                                                "There is no data in the detection date range"
-                                            )
-                                        );
-                                    return;
-                                }
-                                if (minDate > dataStartTime) {
-                                    dataStartTime = minDate;
-                                }
-                                if (maxDate < dataEndTime) {
-                                    dataEndTime = maxDate;
-                                }
-
-                                // normalize start/end time to make it consistent with feature data agg result
-                                dataStartTime = dataStartTime - dataStartTime % interval;
-                                dataEndTime = dataEndTime - dataEndTime % interval;
-                                if ((dataEndTime - dataStartTime) < THRESHOLD_MODEL_TRAINING_SIZE * interval) {
-                                    internalListener
-                                        .onFailure(
-                                            new AnomalyDetectionException("There is no enough data to train model").countedInStats(false)
-                                        );
-                                    return;
-                                }
-                                long expectedPieceEndTime = dataStartTime + pieceSize * interval;
-                                long firstPieceEndTime = Math.min(expectedPieceEndTime, dataEndTime);
-                                logger
-                                    .debug(
-                                        "start first piece from {} to {}, interval {}, dataStartTime {}, dataEndTime {},"
-                                            + " detectorId {}, taskId {}",
-                                        dataStartTime,
-                                        firstPieceEndTime,
-                                        interval,
-                                        dataStartTime,
-                                        dataEndTime,
-                                        adTask.getDetectorId(),
-                                        adTask.getTaskId()
-                                    );
-                                getFeatureData(
-                                    adTask,
-                                    dataStartTime, // first piece start time
-                                    firstPieceEndTime, // first piece end time
-                                    dataStartTime,
-                                    dataEndTime,
-                                    interval,
-                                    executeStartTime,
-                                    internalListener
+            Map<String, Object> updatedFields = new HashMap<>();
+            updatedFields.put(STATE_FIELD, ADTaskState.INIT.name());
+            updatedFields.put(WORKER_NODE_FIELD, clusterService.localNode().getId());
+            if (resumePieceStartTime == null) {
+                updatedFields.put(CURRENT_PIECE_FIELD, adTask.getDetector().getDetectionDateRange().getStartTime().toEpochMilli());
+                updatedFields.put(TASK_PROGRESS_FIELD, 0.0f);
+                updatedFields.put(INIT_PROGRESS_FIELD, 0.0f);
+            } else {
+                // keep progress of resumed task
+                updatedFields.put(CURRENT_PIECE_FIELD, resumePieceStartTime);
+            }
+            adTaskManager.updateADTask(adTask.getTaskId(), updatedFields, ActionListener.wrap(r -> {
+                try {
+                    checkIfADTaskCancelled(adTask.getTaskId());
+                    getDateRangeOfSourceData(adTask, (minDate, maxDate) -> {
+                        long interval = ((IntervalTimeConfiguration) adTask.getDetector().getDetectionInterval()).toDuration().toMillis();
+
+                        DetectionDateRange detectionDateRange = adTask.getDetector().getDetectionDateRange();
+                        long dataStartTime = detectionDateRange.getStartTime().toEpochMilli();
+                        long dataEndTime = detectionDateRange.getEndTime().toEpochMilli();
+
+                        if (minDate >= dataEndTime || maxDate <= dataStartTime) {
+                            internalListener
+                                .onFailure(
+                                    new ResourceNotFoundException(adTask.getDetectorId(), "There is no data in the detection date range")
                                 );
-                            }, internalListener);
-                        } catch (Exception e) {
-                            internalListener.onFailure(e);
+                            return;
                         }
-                    }, internalListener::onFailure)
-                );
+                        if (minDate > dataStartTime) {
+                            dataStartTime = minDate;
+                        }
+                        if (maxDate < dataEndTime) {
+                            dataEndTime = maxDate;
+                        }
+
+                        // normalize start/end time to make it consistent with feature data agg result
+                        dataStartTime = dataStartTime - dataStartTime % interval;
+                        dataEndTime = dataEndTime - dataEndTime % interval;
+                        if ((dataEndTime - dataStartTime) < THRESHOLD_MODEL_TRAINING_SIZE * interval) {
+                            internalListener
+                                .onFailure(new AnomalyDetectionException("There is no enough data to train model").countedInStats(false));
+                            return;
+                        }
+                        if (resumePieceStartTime != null) {
+                            resumeFromPiece(
+                                adTask,
+                                Math.max(resumePieceStartTime, dataStartTime),
+                                dataStartTime,
+                                dataEndTime,
+                                interval,
+                                internalListener
+                            );
+                            return;
+                        }
+                        long expectedPieceEndTime = dataStartTime + pieceSize * interval;
+                        long firstPieceEndTime = Math.min(expectedPieceEndTime, dataEndTime);
+                        logger
+                            .debug(
+                                "start first piece from {} to {}, interval {}, dataStartTime {}, dataEndTime {},"
+                                    + " detectorId {}, taskId {}",
+                                dataStartTime,
+                                firstPieceEndTime,
+                                interval,
+                                dataStartTime,
+                                dataEndTime,
+                                adTask.getDetectorId(),
+                                adTask.getTaskId()
+                            );
+                        long rangeStartTime = dataStartTime;
+                        long rangeEndTime = dataEndTime;
+                        AnomalyDetectorFunction runFirstPiece = () -> getFeatureData(
+                            adTask,
+                            rangeStartTime, // first piece start time
+                            firstPieceEndTime, // first piece end time
+                            rangeStartTime,
+                            rangeEndTime,
+                            interval,
+                            executeStartTime,
+                            internalListener
+                        );
+                        if (adTask.getDetector().isMultientityDetector()) {
+                            initEntities(adTask, rangeStartTime, rangeEndTime, runFirstPiece, internalListener);
+                        } else {
+                            runFirstPiece.execute();
+                        }
+                    }, internalListener);
+                } catch (Exception e) {
+                    internalListener.onFailure(e);
+                }
+            }, internalListener::onFailure));
         } catch (Exception exception) {
             internalListener.onFailure(exception);
         }
     }
 
+    /**
+     * Find the entities with most data in the detection date range and create their
+     * models, then run the function.
+     */
+    private void initEntities(
+        ADTask adTask,
+        long dataStartTime,
+        long dataEndTime,
+        AnomalyDetectorFunction function,
+        ActionListener<String> internalListener
+    ) {
+        ActionListener<List<Entity>> entitiesListener = ActionListener.wrap(entities -> {
+            try {
+                if (entities.isEmpty()) {
+                    internalListener
+                        .onFailure(new ResourceNotFoundException(adTask.getDetectorId(), "There is no entity in the detection date range"));
+                    return;
+                }
+                List<Entity> taskEntities = adTaskCacheManager.addEntities(adTask.getTaskId(), adTask.getDetector(), entities);
+                logger.info("AD task {} of detector {} runs {} entities", adTask.getTaskId(), adTask.getDetectorId(), taskEntities.size());
+                function.execute();
+            } catch (Exception e) {
+                internalListener.onFailure(e);
+            }
+        }, internalListener::onFailure);
+        featureManager
+            .getHistoricalEntities(
+                adTask.getDetector(),
+                dataStartTime,
+                dataEndTime,
+                maxEntities,
+                new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, entitiesListener, false)
+            );
+    }
+
+    /**
+     * Resume AD task from a piece. Results the task saved from that piece on before it
+     * stopped are deleted first, as they will be generated again.
+     */
+    void resumeFromPiece(
+        ADTask adTask,
+        long pieceStartTime,
+        long dataStartTime,
+        long dataEndTime,
+        long interval,
+        ActionListener<String> internalListener
+    ) {
+        BoolQueryBuilder query = new BoolQueryBuilder()
+            .filter(new TermQueryBuilder(AnomalyResult.TASK_ID_FIELD, adTask.getTaskId()))
+            .filter(new RangeQueryBuilder(AnomalyResult.DATA_START_TIME_FIELD).gte(pieceStartTime).format("epoch_millis"));
+        DeleteByQueryRequest deleteRequest = new DeleteByQueryRequest(AnomalyDetectionIndices.ALL_AD_RESULTS_INDEX_PATTERN)
+            .setQuery(query)
+            .setIndicesOptions(IndicesOptions.LENIENT_EXPAND_OPEN)
+            .setAbortOnVersionConflict(false);
+        AnomalyDetectorFunction runPiece = () -> {
+            try {
+                runNextPiece(adTask, pieceStartTime, dataStartTime, dataEndTime, interval, internalListener);
+            } catch (Exception e) {
+                internalListener.onFailure(e);
+            }
+        };
+        client
+            .execute(
+                DeleteByQueryAction.INSTANCE,
+                deleteRequest,
+                new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, ActionListener.wrap(r -> {
+                    logger.debug("Deleted {} results of AD task {} from {}", r.getDeleted(), adTask.getTaskId(), pieceStartTime);
+                    runPiece.execute();
+                }, e -> {
+                    // duplicate results are better than losing the task's progress
+                    logger.warn("Fail to delete results of AD task " + adTask.getTaskId() + " from " + pieceStartTime, e);
+                    runPiece.execute();
+                }), false)
+            );
+    }
+
     private void getDateRangeOfSourceData(ADTask adTask, BiConsumer<Long, Long> consumer, ActionListener listener) {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
             .aggregation(AggregationBuilders.min(AGG_NAME_MIN_TIME).field(adTask.getDetector().getTimeField()))
@@ -513,10 +700,11 @@ public class ADBatchTaskRunner {
         Instant executeStartTime,
         ActionListener<String> internalListener
     ) {
-        ActionListener<Map<Long, Optional<double[]>>> actionListener = ActionListener.wrap(dataPoints -> {
+        ActionListener<BatchFeatures> actionListener = ActionListener.wrap(dataPoints -> {
             try {
                 if (dataPoints.size() == 0) {
                     logger.debug("No data in current piece with end time: " + pieceEndTime);
+                    adTaskCacheManager.releasePieceMemory(adTask.getTaskId());
                     runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, internalListener);
                 } else {
                     detectAnomaly(
@@ -540,7 +728,7 @@ public class ADBatchTaskRunner {
             // and skip current piece if error caused by bad data.
             internalListener.onFailure(exception);
         });
-        ThreadedActionListener<Map<Long, Optional<double[]>>> threadedActionListener = new ThreadedActionListener<>(
+        ThreadedActionListener<BatchFeatures> threadedActionListener = new ThreadedActionListener<>(
             logger,
             threadPool,
             AD_BATCH_TASK_THREAD_POOL_NAME,
@@ -548,12 +736,34 @@ public class ADBatchTaskRunner {
             false
         );
 
-        featureManager.getFeatureDataPointsByBatch(adTask.getDetector(), pieceStartTime, pieceEndTime, threadedActionListener);
+        try {
+            if (adTaskCacheManager.isMultiEntityTask(adTask.getTaskId())) {
+                // a piece holds up to one data point per entity and interval; memory is
+                // released once its results are indexed, or with the task if it fails
+                adTaskCacheManager.reservePieceMemory(adTask.getTaskId(), adTask.getDetector(), pieceSize);
+            }
+            // one reader serves the task's pieces from this one to the end of the range
+            BatchFeatureReader featureReader = adTaskCacheManager.getFeatureReader(adTask.getTaskId());
+            if (featureReader == null) {
+                featureReader = featureManager
+                    .newBatchFeatureReader(
+                        adTask.getDetector(),
+                        adTaskCacheManager.getEntities(adTask.getTaskId()),
+                        pieceStartTime,
+                        dataEndTime
+                    );
+                adTaskCacheManager.setFeatureReader(adTask.getTaskId(), featureReader);
+            }
+            featureReader.read(pieceEndTime, threadedActionListener);
+        } catch (Exception e) {
+            logger.error("Failed to get features for detector: " + adTask.getDetectorId());
+            internalListener.onFailure(e);
+        }
     }
 
     private void detectAnomaly(
         ADTask adTask,
-        Map<Long, Optional<double[]>> dataPoints,
+        BatchFeatures dataPoints,
         long pieceStartTime,
         long pieceEndTime,
         long dataStartTime,
@@ -563,43 +773,57 @@ public class ADBatchTaskRunner {
         ActionListener<String> internalListener
     ) {
         String taskId = adTask.getTaskId();
+        if (adTaskCacheManager.isMultiEntityTask(taskId)) {
+            detectEntityAnomalies(
+                adTask,
+                dataPoints,
+                pieceStartTime,
+                pieceEndTime,
+                dataStartTime,
+                dataEndTime,
+                interval,
+                executeStartTime,
+                internalListener
+            );
+            return;
+        }
         RandomCutForest rcf = adTaskCacheManager.getRcfModel(taskId);
         ThresholdingModel threshold = adTaskCacheManager.getThresholdModel(taskId);
         Deque<Map.Entry<Long, Optional<double[]>>> shingle = adTaskCacheManager.getShingle(taskId);
 
-        List<AnomalyResult> anomalyResults = new ArrayList<>();
+        AnomalyDetector detector = adTask.getDetector();
+        AnomalyResultBuffer anomalyResults = new AnomalyResultBuffer(
+            adTask.getDetectorId(),
+            taskId,
+            detector.getEnabledFeatureIds(),
+            detector.getEnabledFeatureNames(),
+            detector.getUser(),
+            anomalyDetectionIndices.getSchemaVersion(ADIndex.RESULT),
+            interval,
+            executeStartTime.toEpochMilli(),
+            pieceSize
+        );
 
         long intervalEndTime = pieceStartTime;
+        // data points are in time order, so walk them along with the intervals
+        int next = 0;
         for (int i = 0; i < pieceSize && intervalEndTime < dataEndTime; i++) {
-            Optional<double[]> dataPoint = dataPoints.containsKey(intervalEndTime) ? dataPoints.get(intervalEndTime) : Optional.empty();
+            while (next < dataPoints.size() && dataPoints.getTime(next) < intervalEndTime) {
+                next++;
+            }
+            Optional<double[]> dataPoint = next < dataPoints.size() && dataPoints.getTime(next) == intervalEndTime
+                ? dataPoints.getFeatures(next)
+                : Optional.empty();
             intervalEndTime = intervalEndTime + interval;
             SinglePointFeatures feature = featureManager
-                .getShingledFeatureForHistoricalDetector(adTask.getDetector(), shingle, dataPoint, intervalEndTime);
-            List<FeatureData> featureData = null;
-            if (feature.getUnprocessedFeatures().isPresent()) {
-                featureData = ParseUtils.getFeatureData(feature.getUnprocessedFeatures().get(), adTask.getDetector());
-            }
+                .getShingledFeatureForHistoricalDetector(detector, shingle, dataPoint, intervalEndTime);
+            double[] featureData = feature.getUnprocessedFeatures().orElse(null);
             if (!feature.getProcessedFeatures().isPresent()) {
                 String error = feature.getUnprocessedFeatures().isPresent()
                     ? "No full shingle in current detection window"
                     : "No data in current detection window";
-                AnomalyResult anomalyResult = new AnomalyResult(
-                    adTask.getDetectorId(),
-                    taskId,
-                    Double.NaN,
-                    Double.NaN,
-                    Double.NaN,
-                    featureData,
-                    Instant.ofEpochMilli(intervalEndTime - interval),
-                    Instant.ofEpochMilli(intervalEndTime),
-                    executeStartTime,
-                    Instant.now(),
-                    error,
-                    null,
-                    adTask.getDetector().getUser(),
-                    anomalyDetectionIndices.getSchemaVersion(ADIndex.RESULT)
-                );
-                anomalyResults.add(anomalyResult);
+                anomalyResults
+                    .add(intervalEndTime - interval, featureData, Double.NaN, Double.NaN, Double.NaN, error, System.currentTimeMillis());
             } else {
                 double[] point = feature.getProcessedFeatures().get();
                 double score = rcf.getAnomalyScore(point);
@@ -624,28 +848,12 @@ public class ADBatchTaskRunner {
                     }
                 }
 
-                AnomalyResult anomalyResult = new AnomalyResult(
-                    adTask.getDetectorId(),
-                    taskId,
-                    score,
-                    grade,
-                    confidence,
-                    featureData,
-                    Instant.ofEpochMilli(intervalEndTime - interval),
-                    Instant.ofEpochMilli(intervalEndTime),
-                    executeStartTime,
-                    Instant.now(),
-                    null,
-                    null,
-                    adTask.getDetector().getUser(),
-                    anomalyDetectionIndices.getSchemaVersion(ADIndex.RESULT)
-                );
-                anomalyResults.add(anomalyResult);
+                anomalyResults.add(intervalEndTime - interval, featureData, score, grade, confidence, null, System.currentTimeMillis());
             }
         }
 
         anomalyResultBulkIndexHandler
-            .bulkIndexAnomalyResult(
+            .bulkIndexAnomalyResultBuffer(
                 anomalyResults,
                 new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, ActionListener.wrap(r -> {
                     try {
@@ -660,6 +868,198 @@ public class ADBatchTaskRunner {
             );
     }
 
+    /**
+     * Score a piece of data points of entities.  Entity models are split into groups
+     * which are scored in parallel on the batch task thread pool, each group indexing
+     * its own results; the next piece runs once all groups finish.  Like real time
+     * detection of entities, results are only saved for intervals an entity has data in.
+     */
+    private void detectEntityAnomalies(
+        ADTask adTask,
+        BatchFeatures dataPoints,
+        long pieceStartTime,
+        long pieceEndTime,
+        long dataStartTime,
+        long dataEndTime,
+        long interval,
+        Instant executeStartTime,
+        ActionListener<String> internalListener
+    ) {
+        String taskId = adTask.getTaskId();
+        List<ADBatchEntityModel> entityModels = new ArrayList<>(adTaskCacheManager.getEntityModels(taskId).values());
+        Map<String, Integer> entityIndex = new HashMap<>();
+        for (int i = 0; i < entityModels.size(); i++) {
+            entityIndex.put(entityModels.get(i).getEntity().getValue(), i);
+        }
+
+        // group rows by entity, keeping time order within an entity: rows of the i-th
+        // entity are rows[offsets[i]] to rows[offsets[i + 1] - 1]
+        int[] rowEntities = new int[dataPoints.size()];
+        int[] offsets = new int[entityModels.size() + 1];
+        for (int row = 0; row < dataPoints.size(); row++) {
+            Integer index = entityIndex.get(dataPoints.getEntity(row));
+            rowEntities[row] = index == null ? -1 : index;
+            if (index != null) {
+                offsets[index + 1]++;
+            }
+        }
+        for (int i = 0; i < entityModels.size(); i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] rows = new int[offsets[entityModels.size()]];
+        int[] next = Arrays.copyOf(offsets, entityModels.size());
+        for (int row = 0; row < dataPoints.size(); row++) {
+            if (rowEntities[row] >= 0) {
+                rows[next[rowEntities[row]]++] = row;
+            }
+        }
+
+        int groups = Math.max(1, Math.min(entityModels.size(), getEntityGroups()));
+        int intervals = pieceSize;
+        ActionListener<Collection<BulkResponse>> indexedListener = ActionListener.wrap(r -> {
+            try {
+                adTaskCacheManager.releasePieceMemory(taskId);
+                runNextPiece(adTask, pieceEndTime, dataStartTime, dataEndTime, interval, internalListener);
+            } catch (Exception e) {
+                internalListener.onFailure(e);
+            }
+        }, e -> {
+            logger.error("Fail to bulk index anomaly result", e);
+            internalListener.onFailure(e);
+        });
+        GroupedActionListener<BulkResponse> groupListener = new GroupedActionListener<>(
+            new ThreadedActionListener<>(logger, threadPool, AD_BATCH_TASK_THREAD_POOL_NAME, indexedListener, false),
+            groups
+        );
+        for (int g = 0; g < groups; g++) {
+            int group = g;
+            threadPool.executor(AD_BATCH_TASK_THREAD_POOL_NAME).execute(() -> {
+                try {
+                    int groupRows = 0;
+                    for (int i = group; i < entityModels.size(); i += groups) {
+                        groupRows += offsets[i + 1] - offsets[i];
+                    }
+                    AnomalyDetector detector = adTask.getDetector();
+                    AnomalyResultBuffer anomalyResults = new AnomalyResultBuffer(
+                        adTask.getDetectorId(),
+                        taskId,
+                        detector.getEnabledFeatureIds(),
+                        detector.getEnabledFeatureNames(),
+                        detector.getUser(),
+                        anomalyDetectionIndices.getSchemaVersion(ADIndex.RESULT),
+                        interval,
+                        executeStartTime.toEpochMilli(),
+                        groupRows
+                    );
+                    for (int i = group; i < entityModels.size(); i += groups) {
+                        detectEntityAnomaly(
+                            taskId,
+                            detector,
+                            entityModels.get(i),
+                            dataPoints,
+                            rows,
+                            offsets[i],
+                            offsets[i + 1],
+                            pieceStartTime,
+                            dataEndTime,
+                            interval,
+                            intervals,
+                            anomalyResults
+                        );
+                    }
+                    anomalyResultBulkIndexHandler.bulkIndexAnomalyResultBuffer(anomalyResults, groupListener);
+                } catch (Exception e) {
+                    groupListener.onFailure(e);
+                }
+            });
+        }
+    }
+
+    private void detectEntityAnomaly(
+        String taskId,
+        AnomalyDetector detector,
+        ADBatchEntityModel entityModel,
+        BatchFeatures dataPoints,
+        int[] rows,
+        int from,
+        int to,
+        long pieceStartTime,
+        long dataEndTime,
+        long interval,
+        int intervals,
+        AnomalyResultBuffer anomalyResults
+    ) {
+        Entity entity = entityModel.getEntity();
+        long intervalEndTime = pieceStartTime;
+        int next = from;
+        for (int i = 0; i < intervals && intervalEndTime < dataEndTime; i++) {
+            while (next < to && dataPoints.getTime(rows[next]) < intervalEndTime) {
+                next++;
+            }
+            Optional<double[]> dataPoint = next < to && dataPoints.getTime(rows[next]) == intervalEndTime
+                ? dataPoints.getFeatures(rows[next])
+                : Optional.empty();
+            intervalEndTime = intervalEndTime + interval;
+            // missing intervals still go into the shingle
+            SinglePointFeatures feature = featureManager
+                .getShingledFeatureForHistoricalDetector(detector, entityModel.getShingle(), dataPoint, intervalEndTime);
+            if (!feature.getUnprocessedFeatures().isPresent()) {
+                continue;
+            }
+            double[] featureData = feature.getUnprocessedFeatures().get();
+            if (!feature.getProcessedFeatures().isPresent()) {
+                anomalyResults
+                    .add(
+                        intervalEndTime - interval,
+                        featureData,
+                        Double.NaN,
+                        Double.NaN,
+                        Double.NaN,
+                        "No full shingle in current detection window",
+                        System.currentTimeMillis(),
+                        entity
+                    );
+                continue;
+            }
+            double[] point = feature.getProcessedFeatures().get();
+            RandomCutForest rcf = entityModel.getRcfModel();
+            double score = rcf.getAnomalyScore(point);
+            rcf.update(point);
+            double grade = 0d;
+            double confidence = 0d;
+            if (!entityModel.isThresholdModelTrained()) {
+                if (entityModel.getThresholdModelTrainingDataSize() < THRESHOLD_MODEL_TRAINING_SIZE) {
+                    if (score > 0) {
+                        entityModel.addThresholdModelTrainingData(score);
+                    }
+                } else {
+                    adTaskCacheManager.trainEntityThresholdModel(taskId, entityModel);
+                }
+            } else {
+                ThresholdingModel threshold = entityModel.getThresholdModel();
+                grade = threshold.grade(score);
+                confidence = threshold.confidence();
+                if (score > 0) {
+                    threshold.update(score);
+                }
+            }
+            anomalyResults.add(intervalEndTime - interval, featureData, score, grade, confidence, null, System.currentTimeMillis(), entity);
+        }
+    }
+
+    /**
+     * Get max number of entity groups of a piece scored at once.  One thread of the batch
+     * task thread pool is left for the other work on it, and the rest is shared by the
+     * batch tasks the node can run, so a task with many entities can't take the whole pool.
+     *
+     * @return max number of entity groups
+     */
+    int getEntityGroups() {
+        ThreadPool.Info info = threadPool.info(AD_BATCH_TASK_THREAD_POOL_NAME);
+        int poolSize = info == null ? 1 : info.getMax();
+        return Math.max(1, (poolSize - 1) / maxAdBatchTaskPerNode);
+    }
+
     private void runNextPiece(
         ADTask adTask,
         long pieceStartTime,
@@ -676,6 +1076,7 @@ public class ADBatchTaskRunner {
             checkClusterState(adTask);
             long expectedPieceEndTime = pieceStartTime + pieceSize * interval;
             long pieceEndTime = expectedPieceEndTime > dataEndTime ? dataEndTime : expectedPieceEndTime;
+            checkpointIfNeeded(adTask, pieceStartTime);
             int i = 0;
             while (i < pieceIntervalSeconds) {
                 // check if task cancelled every second, so frontend can get STOPPED state
@@ -686,58 +1087,127 @@ public class ADBatchTaskRunner {
             }
             logger.debug("start next piece start from {} to {}, interval {}", pieceStartTime, pieceEndTime, interval);
             float taskProgress = (float) (pieceStartTime - dataStartTime) / (dataEndTime - dataStartTime);
-            adTaskManager
-                .updateADTask(
-                    taskId,
-                    ImmutableMap
-                        .of(
-                            STATE_FIELD,
-                            taskState,
-                            CURRENT_PIECE_FIELD,
-                            pieceStartTime,
-                            TASK_PROGRESS_FIELD,
-                            taskProgress,
-                            INIT_PROGRESS_FIELD,
-                            initProgress
-                        ),
-                    ActionListener
-                        .wrap(
-                            r -> getFeatureData(
-                                adTask,
-                                pieceStartTime,
-                                pieceEndTime,
-                                dataStartTime,
+            reportProgress(taskId, taskState, pieceStartTime, taskProgress, initProgress);
+            getFeatureData(adTask, pieceStartTime, pieceEndTime, dataStartTime, dataEndTime, interval, Instant.now(), internalListener);
+        } else {
+            logger.info("AD task finished for detector {}, task id: {}", adTask.getDetectorId(), taskId);
+            afterProgressPersisted(taskId, () -> {
+                adTaskCacheManager.remove(taskId);
+                deleteCheckpoint(taskId);
+                adTaskManager
+                    .updateADTask(
+                        taskId,
+                        ImmutableMap
+                            .of(
+                                CURRENT_PIECE_FIELD,
                                 dataEndTime,
-                                interval,
-                                Instant.now(),
-                                internalListener
+                                TASK_PROGRESS_FIELD,
+                                1.0f,
+                                EXECUTION_END_TIME_FIELD,
+                                Instant.now().toEpochMilli(),
+                                INIT_PROGRESS_FIELD,
+                                initProgress
                             ),
-                            e -> internalListener.onFailure(e)
+                        ActionListener.wrap(r -> internalListener.onResponse("task execution done"), e -> internalListener.onFailure(e))
+                    );
+            });
+        }
+    }
+
+    /**
+     * Keep progress of the piece in memory, where task profile reads it from, and persist
+     * it to the task index if the task state changed or the last persist is old enough.
+     * The piece does not wait for the persist.
+     */
+    private void reportProgress(String taskId, String taskState, long pieceStartTime, float taskProgress, float initProgress) {
+        ADBatchTaskProgress progress = adTaskCacheManager.getProgress(taskId);
+        boolean persist = progress
+            .update(
+                taskState,
+                Instant.ofEpochMilli(pieceStartTime),
+                taskProgress,
+                initProgress,
+                Instant.now().toEpochMilli(),
+                progressUpdateInterval.millis()
+            );
+        if (!persist) {
+            return;
+        }
+        adTaskManager
+            .updateADTask(
+                taskId,
+                ImmutableMap
+                    .of(
+                        STATE_FIELD,
+                        taskState,
+                        CURRENT_PIECE_FIELD,
+                        pieceStartTime,
+                        TASK_PROGRESS_FIELD,
+                        taskProgress,
+                        INIT_PROGRESS_FIELD,
+                        initProgress
+                    ),
+                ActionListener.wrap(r -> progress.persisted(), e -> {
+                    logger.warn("Fail to persist progress of AD task " + taskId, e);
+                    progress.persisted();
+                })
+            );
+    }
+
+    /**
+     * Save checkpoint of task's models every {@code checkpointPieces} pieces, so that the
+     * task can resume from the piece if it stops.  The models are serialized before this
+     * method returns; saving them goes on while the task waits to run the piece.
+     *
+     * @param adTask AD task
+     * @param pieceStartTime start time of the next piece to run
+     */
+    private void checkpointIfNeeded(ADTask adTask, long pieceStartTime) {
+        String taskId = adTask.getTaskId();
+        int pieces = checkpointPieces;
+        // checkpoints hold models of a single entity
+        if (pieces <= 0 || adTaskCacheManager.isMultiEntityTask(taskId) || !adTaskCacheManager.shouldCheckpoint(taskId, pieces)) {
+            return;
+        }
+        try {
+            checkpointDao
+                .putBatchTaskCheckpoint(
+                    adTask.getDetectorId(),
+                    adTaskCacheManager.getCheckpoint(taskId, pieceStartTime),
+                    ActionListener
+                        .wrap(
+                            r -> logger.debug("Saved checkpoint of AD task {} at {}", taskId, pieceStartTime),
+                            e -> logger.warn("Fail to save checkpoint of AD task " + taskId, e)
                         )
                 );
-        } else {
-            logger.info("AD task finished for detector {}, task id: {}", adTask.getDetectorId(), taskId);
-            adTaskCacheManager.remove(taskId);
-            adTaskManager
-                .updateADTask(
-                    taskId,
-                    ImmutableMap
-                        .of(
-                            CURRENT_PIECE_FIELD,
-                            dataEndTime,
-                            TASK_PROGRESS_FIELD,
-                            1.0f,
-                            EXECUTION_END_TIME_FIELD,
-                            Instant.now().toEpochMilli(),
-                            INIT_PROGRESS_FIELD,
-                            initProgress
-                        ),
-                    ActionListener.wrap(r -> internalListener.onResponse("task execution done"), e -> internalListener.onFailure(e))
-                );
+        } catch (Exception e) {
+            // the task can still resume from its previous checkpoint
+            logger.warn("Fail to checkpoint AD task " + taskId, e);
         }
     }
 
+    private void deleteCheckpoint(String taskId) {
+        checkpointDao
+            .deleteModelCheckpoint(taskId, ActionListener.wrap(r -> logger.debug("Deleted checkpoint of AD task {}", taskId), e -> {
+                if (!(ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException)) {
+                    logger.warn("Fail to delete checkpoint of AD task " + taskId, e);
+                }
+            }));
+    }
+
     private float calculateInitProgress(String taskId) {
+        if (adTaskCacheManager.isMultiEntityTask(taskId)) {
+            // average init progress of entity models
+            Collection<ADBatchEntityModel> entityModels = adTaskCacheManager.getEntityModels(taskId).values();
+            if (entityModels.isEmpty()) {
+                return 0.0f;
+            }
+            double initProgress = 0;
+            for (ADBatchEntityModel entityModel : entityModels) {
+                initProgress += Math.min(1.0, (double) entityModel.getRcfModel().getTotalUpdates() / NUM_MIN_SAMPLES);
+            }
+            return (float) (initProgress / entityModels.size());
+        }
         RandomCutForest rcf = adTaskCacheManager.getRcfModel(taskId);
         if (rcf == null) {
             return 0.0f;
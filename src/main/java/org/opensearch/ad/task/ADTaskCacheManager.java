@@ -26,15 +26,21 @@
 
 package org.opensearch.ad.task;
 
+import static org.opensearch.ad.MemoryTracker.Origin.HISTORICAL_MULTI_ENTITY_DETECTOR;
 import static org.opensearch.ad.MemoryTracker.Origin.HISTORICAL_SINGLE_ENTITY_DETECTOR;
 import static org.opensearch.ad.constant.CommonErrorMessages.DETECTOR_IS_RUNNING;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_BATCH_TASK_PER_NODE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MULTI_ENTITY_NUM_TREES;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.NUM_SAMPLES_PER_TREE;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.NUM_TREES;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.THRESHOLD_MODEL_TRAINING_SIZE;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -48,9 +54,12 @@ import org.apache.logging.log4j.Logger;
 import org.opensearch.ad.MemoryTracker;
 import org.opensearch.ad.common.exception.DuplicateTaskException;
 import org.opensearch.ad.common.exception.LimitExceededException;
+import org.opensearch.ad.feature.BatchFeatureReader;
+import org.opensearch.ad.ml.BatchTaskCheckpoint;
 import org.opensearch.ad.ml.ThresholdingModel;
 import org.opensearch.ad.model.ADTask;
 import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.util.set.Sets;
@@ -63,6 +72,9 @@ public class ADTaskCacheManager {
     private volatile Integer maxAdBatchTaskPerNode;
     private final MemoryTracker memoryTracker;
     private final int numberSize = 8;
+    // Share of free AD model memory the entity models of a historical task may take.
+    // The rest is left to real time detectors.
+    private static final double HISTORICAL_ENTITY_MEMORY_RATIO = 0.5;
 
     // We use this field to record all detectors which running on the
     // coordinating node to resolve race condition. We will check if
@@ -96,7 +108,18 @@ public class ADTaskCacheManager {
      *
      * @param adTask AD task
      */
-    public synchronized void add(ADTask adTask) {
+    public void add(ADTask adTask) {
+        add(adTask, null);
+    }
+
+    /**
+     * Put AD task into cache with models restored from checkpoint.
+     * Throws the same exceptions as {@link #add(ADTask)}.
+     *
+     * @param adTask AD task
+     * @param checkpoint batch task checkpoint to resume from; null to start with new models
+     */
+    public synchronized void add(ADTask adTask, BatchTaskCheckpoint checkpoint) {
         String taskId = adTask.getTaskId();
         if (contains(taskId)) {
             throw new DuplicateTaskException(DETECTOR_IS_RUNNING);
@@ -106,11 +129,15 @@ public class ADTaskCacheManager {
         }
         checkRunningTaskLimit();
         long neededCacheSize = calculateADTaskCacheSize(adTask);
+        if (checkpoint != null && checkpoint.isThresholdModelTrained()) {
+            // no training data is kept once threshold model is trained
+            neededCacheSize -= trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE);
+        }
         if (!memoryTracker.canAllocateReserved(adTask.getDetectorId(), neededCacheSize)) {
             throw new LimitExceededException("No enough memory to run detector");
         }
-        memoryTracker.consumeMemory(neededCacheSize, true, HISTORICAL_SINGLE_ENTITY_DETECTOR);
-        ADBatchTaskCache taskCache = new ADBatchTaskCache(adTask);
+        ADBatchTaskCache taskCache = checkpoint == null ? new ADBatchTaskCache(adTask) : new ADBatchTaskCache(adTask, checkpoint);
+        memoryTracker.consumeMemory(neededCacheSize, true, memoryOrigin(taskCache));
         taskCache.getCacheMemorySize().set(neededCacheSize);
         taskCaches.put(taskId, taskCache);
     }
@@ -241,6 +268,218 @@ public class ADTaskCacheManager {
         return getBatchTaskCache(taskId).getShingle();
     }
 
+    /**
+     * Check if task runs models per entity, which is the case for detectors with a category field.
+     *
+     * @param taskId AD task id
+     * @return true if task runs models per entity
+     */
+    public boolean isMultiEntityTask(String taskId) {
+        return getBatchTaskCache(taskId).isMultiEntity();
+    }
+
+    /**
+     * Create models of entities for a task of detector with a category field.
+     * A task may take at most half of the free AD model memory so that real time
+     * detectors can still host models. If the free memory can't hold all entities,
+     * only the entities with most documents are kept; if it can't hold a single
+     * entity, will throw {@link LimitExceededException}.
+     *
+     * @param taskId AD task id
+     * @param detector anomaly detector
+     * @param entities entities of the task in descending order of document count
+     * @return entities the task runs models for
+     */
+    public List<Entity> addEntities(String taskId, AnomalyDetector detector, List<Entity> entities) {
+        ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
+        String detectorId = detector.getDetectorId();
+        long entityModelSize = calculateEntityModelSize(detector);
+        long freeMemory = Math.max(0, memoryTracker.getHeapLimit() - memoryTracker.getTotalMemoryBytes());
+        long availableMemory = (long) (freeMemory * HISTORICAL_ENTITY_MEMORY_RATIO);
+        int maxEntities = entityModelSize > 0 ? (int) Math.min(entities.size(), availableMemory / entityModelSize) : entities.size();
+        if (maxEntities == 0) {
+            throw new LimitExceededException(
+                detectorId,
+                String
+                    .format(
+                        Locale.ROOT,
+                        "No enough memory to run historical detector. An entity needs %d bytes, but only %d bytes are available",
+                        entityModelSize,
+                        availableMemory
+                    )
+            );
+        }
+        List<Entity> taskEntities = entities;
+        if (maxEntities < entities.size()) {
+            logger
+                .warn(
+                    "AD task {} of detector {} runs top {} of {} entities due to memory limit",
+                    taskId,
+                    detectorId,
+                    maxEntities,
+                    entities.size()
+                );
+            taskEntities = entities.subList(0, maxEntities);
+        }
+        long neededCacheSize = entityModelSize * taskEntities.size();
+        memoryTracker.reserveMemory(detectorId, neededCacheSize, HISTORICAL_MULTI_ENTITY_DETECTOR);
+        taskCache.getCacheMemorySize().addAndGet(neededCacheSize);
+        Map<String, ADBatchEntityModel> entityModels = new LinkedHashMap<>();
+        for (Entity entity : taskEntities) {
+            entityModels.put(entity.getValue(), new ADBatchEntityModel(entity, detector));
+        }
+        taskCache.setEntityModels(Collections.unmodifiableMap(entityModels));
+        return taskEntities;
+    }
+
+    /**
+     * Get entity models of task.
+     *
+     * @param taskId AD task id
+     * @return entity value to entity model, in descending order of entity document count;
+     *  empty if entities are not added yet
+     */
+    public Map<String, ADBatchEntityModel> getEntityModels(String taskId) {
+        return getBatchTaskCache(taskId).getEntityModels();
+    }
+
+    /**
+     * Get entities of task.
+     *
+     * @param taskId AD task id
+     * @return entities of task, or null if the task does not run models per entity
+     */
+    public List<Entity> getEntities(String taskId) {
+        ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
+        if (!taskCache.isMultiEntity()) {
+            return null;
+        }
+        return taskCache.getEntityModels().values().stream().map(ADBatchEntityModel::getEntity).collect(Collectors.toList());
+    }
+
+    /**
+     * Train threshold model of entity and release memory of its training data.
+     *
+     * @param taskId AD task id
+     * @param entityModel entity model of task
+     */
+    public void trainEntityThresholdModel(String taskId, ADBatchEntityModel entityModel) {
+        ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
+        // the whole training data array is dropped
+        entityModel.trainThresholdModel();
+        long cacheSize = trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE);
+        taskCache.getCacheMemorySize().getAndAdd(-cacheSize);
+        memoryTracker.releaseMemory(cacheSize, true, HISTORICAL_MULTI_ENTITY_DETECTOR);
+    }
+
+    /**
+     * Reserve memory for the feature data and results of a piece of a task running models
+     * per entity.  Memory still reserved for the previous piece is released first.
+     * If there is no enough memory, will throw {@link LimitExceededException}
+     *
+     * @param taskId AD task id
+     * @param detector anomaly detector
+     * @param pieceSize number of intervals of the piece
+     */
+    public void reservePieceMemory(String taskId, AnomalyDetector detector, int pieceSize) {
+        releasePieceMemory(taskId);
+        ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
+        long neededCacheSize = pieceMemorySize(taskCache.getEntityModels().size(), pieceSize, detector.getEnabledFeatureIds().size());
+        memoryTracker.reserveMemory(detector.getDetectorId(), neededCacheSize, HISTORICAL_MULTI_ENTITY_DETECTOR);
+        taskCache.getCacheMemorySize().addAndGet(neededCacheSize);
+        taskCache.getPieceMemorySize().set(neededCacheSize);
+    }
+
+    /**
+     * Release memory reserved for the piece of task.  Does nothing if the task is not in
+     * cache or has no memory reserved for a piece.
+     *
+     * @param taskId AD task id
+     */
+    public void releasePieceMemory(String taskId) {
+        if (!contains(taskId)) {
+            return;
+        }
+        ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
+        long cacheSize = taskCache.getPieceMemorySize().getAndSet(0);
+        if (cacheSize > 0) {
+            taskCache.getCacheMemorySize().getAndAdd(-cacheSize);
+            memoryTracker.releaseMemory(cacheSize, true, HISTORICAL_MULTI_ENTITY_DETECTOR);
+        }
+    }
+
+    /**
+     * Get feature reader of task.
+     *
+     * @param taskId AD task id
+     * @return feature reader, or null if the task has not started reading features
+     */
+    public BatchFeatureReader getFeatureReader(String taskId) {
+        return getBatchTaskCache(taskId).getFeatureReader();
+    }
+
+    /**
+     * Set feature reader of task. The reader is closed when the task is removed from cache.
+     *
+     * @param taskId AD task id
+     * @param featureReader feature reader
+     */
+    public void setFeatureReader(String taskId, BatchFeatureReader featureReader) {
+        getBatchTaskCache(taskId).setFeatureReader(featureReader);
+    }
+
+    /**
+     * Get in-memory progress of task.
+     *
+     * @param taskId AD task id
+     * @return task progress
+     */
+    public ADBatchTaskProgress getProgress(String taskId) {
+        return getBatchTaskCache(taskId).getProgress();
+    }
+
+    /**
+     * Count a finished piece of the task and check if the task should checkpoint its
+     * models. Resets the count when returning true.
+     *
+     * @param taskId AD task id
+     * @param checkpointPieces checkpoint every this many pieces
+     * @return true if the task has run checkpointPieces pieces since last checkpoint
+     */
+    public boolean shouldCheckpoint(String taskId, int checkpointPieces) {
+        AtomicInteger pieces = getBatchTaskCache(taskId).getPiecesSinceCheckpoint();
+        if (pieces.incrementAndGet() < checkpointPieces) {
+            return false;
+        }
+        pieces.set(0);
+        return true;
+    }
+
+    /**
+     * Get checkpoint of task's models and shingle. The checkpoint shares models
+     * with the cache, so it should be serialized before the task runs next piece.
+     *
+     * @param taskId AD task id
+     * @param pieceStartTime start time of the next piece to run
+     * @return batch task checkpoint
+     */
+    public BatchTaskCheckpoint getCheckpoint(String taskId, long pieceStartTime) {
+        ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
+        double[] trainingData = null;
+        if (!taskCache.isThresholdModelTrained()) {
+            trainingData = Arrays.copyOf(taskCache.getThresholdModelTrainingData(), taskCache.getThresholdModelTrainingDataSize().get());
+        }
+        return new BatchTaskCheckpoint(
+            taskId,
+            taskCache.getRcfModel(),
+            taskCache.getThresholdModel(),
+            taskCache.isThresholdModelTrained(),
+            trainingData,
+            taskCache.getShingle(),
+            pieceStartTime
+        );
+    }
+
     /**
      * Check if task exists in cache.
      *
@@ -305,23 +544,60 @@ public class ADTaskCacheManager {
      */
     private long calculateADTaskCacheSize(ADTask adTask) {
         AnomalyDetector detector = adTask.getDetector();
+        if (detector.isMultientityDetector()) {
+            // entity models are counted when entities are added
+            return 0;
+        }
         return memoryTracker.estimateModelSize(detector, NUM_TREES) + trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE)
             + shingleMemorySize(detector.getShingleSize(), detector.getEnabledFeatureIds().size());
     }
 
+    private long calculateEntityModelSize(AnomalyDetector detector) {
+        return memoryTracker.estimateModelSize(detector, MULTI_ENTITY_NUM_TREES) + trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE)
+            + shingleMemorySize(detector.getShingleSize(), detector.getEnabledFeatureIds().size());
+    }
+
+    private MemoryTracker.Origin memoryOrigin(ADBatchTaskCache taskCache) {
+        return taskCache.isMultiEntity() ? HISTORICAL_MULTI_ENTITY_DETECTOR : HISTORICAL_SINGLE_ENTITY_DETECTOR;
+    }
+
     /**
-     * Get RCF model size in bytes.
+     * Get RCF model size in bytes. For a task running models per entity, it is the
+     * total size of entity models.
      *
      * @param taskId task id
      * @return model size in bytes
      */
     public long getModelSize(String taskId) {
         ADBatchTaskCache batchTaskCache = getBatchTaskCache(taskId);
+        if (batchTaskCache.isMultiEntity()) {
+            return batchTaskCache
+                .getEntityModels()
+                .values()
+                .stream()
+                .mapToLong(model -> memoryTracker.estimateModelSize(model.getRcfModel()))
+                .sum();
+        }
         int dimensions = batchTaskCache.getRcfModel().getDimensions();
         int numberOfTrees = batchTaskCache.getRcfModel().getNumberOfTrees();
         return memoryTracker.estimateModelSize(dimensions, numberOfTrees, NUM_SAMPLES_PER_TREE);
     }
 
+    /**
+     * Get number of RCF model updates. For a task running models per entity, it is the
+     * total updates of entity models.
+     *
+     * @param taskId task id
+     * @return RCF model total updates
+     */
+    public long getRcfTotalUpdates(String taskId) {
+        ADBatchTaskCache batchTaskCache = getBatchTaskCache(taskId);
+        if (batchTaskCache.isMultiEntity()) {
+            return batchTaskCache.getEntityModels().values().stream().mapToLong(model -> model.getRcfModel().getTotalUpdates()).sum();
+        }
+        return batchTaskCache.getRcfModel().getTotalUpdates();
+    }
+
     /**
      * Remove task from cache.
      *
@@ -330,7 +606,10 @@ public class ADTaskCacheManager {
     public void remove(String taskId) {
         if (contains(taskId)) {
             ADBatchTaskCache taskCache = getBatchTaskCache(taskId);
-            memoryTracker.releaseMemory(taskCache.getCacheMemorySize().get(), true, HISTORICAL_SINGLE_ENTITY_DETECTOR);
+            memoryTracker.releaseMemory(taskCache.getCacheMemorySize().get(), true, memoryOrigin(taskCache));
+            if (taskCache.getFeatureReader() != null) {
+                taskCache.getFeatureReader().close();
+            }
             taskCaches.remove(taskId);
             // can't remove detector id from cache here as it's possible that some task running on
             // other worker nodes
@@ -471,4 +750,26 @@ public class ADTaskCacheManager {
         return (80 + numberSize * enabledFeatureSize) * shingleSize;
     }
 
+    /**
+     * Estimate max memory usage of a piece of a task running models per entity.
+     * The piece holds at most one data point per entity and interval, and one result
+     * per data point. A data point consumes 8 bytes each for its time, entity reference
+     * and feature values, plus about 64 bytes for the entity value parsed from the
+     * search response. A result consumes 8 bytes each for its feature values and 7 other
+     * fields, plus 1 byte for whether it has features.
+     *
+     * Check {@link org.opensearch.ad.feature.BatchFeatures} and
+     * {@link org.opensearch.ad.model.AnomalyResultBuffer}
+     *
+     * @param entityCount number of entities
+     * @param pieceSize number of intervals of the piece
+     * @param enabledFeatureSize enabled feature count
+     * @return how many bytes will consume
+     */
+    public long pieceMemorySize(int entityCount, int pieceSize, int enabledFeatureSize) {
+        long dataPointSize = 64 + numberSize * (2 + enabledFeatureSize);
+        long resultSize = 1 + numberSize * (7 + enabledFeatureSize);
+        return (dataPointSize + resultSize) * entityCount * pieceSize;
+    }
+
 }
@@ -28,6 +28,7 @@ package org.opensearch.ad.task;
 
 import static org.opensearch.action.DocWriteResponse.Result.CREATED;
 import static org.opensearch.ad.constant.CommonErrorMessages.DETECTOR_IS_RUNNING;
+import static org.opensearch.ad.model.ADTask.COORDINATING_NODE_FIELD;
 import static org.opensearch.ad.model.ADTask.DETECTOR_ID_FIELD;
 import static org.opensearch.ad.model.ADTask.ERROR_FIELD;
 import static org.opensearch.ad.model.ADTask.EXECUTION_END_TIME_FIELD;
@@ -37,6 +38,7 @@ import static org.opensearch.ad.model.ADTask.LAST_UPDATE_TIME_FIELD;
 import static org.opensearch.ad.model.ADTask.STATE_FIELD;
 import static org.opensearch.ad.model.ADTask.STOPPED_BY_FIELD;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PROGRESS_UPDATE_INTERVAL;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_OLD_AD_TASK_DOCS_PER_DETECTOR;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.REQUEST_TIMEOUT;
 import static org.opensearch.ad.util.ExceptionUtil.getErrorMessage;
@@ -49,6 +51,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -61,6 +64,7 @@ import org.opensearch.OpenSearchStatusException;
 import org.opensearch.ResourceAlreadyExistsException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionListenerResponseHandler;
+import org.opensearch.action.DocWriteResponse;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.delete.DeleteResponse;
@@ -79,6 +83,7 @@ import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.common.exception.ResourceNotFoundException;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.model.ADTask;
 import org.opensearch.ad.model.ADTaskAction;
 import org.opensearch.ad.model.ADTaskProfile;
@@ -139,10 +144,12 @@ public class ADTaskManager {
     private final AnomalyDetectionIndices detectionIndices;
     private final DiscoveryNodeFilterer nodeFilter;
     private final ADTaskCacheManager adTaskCacheManager;
+    private final CheckpointDao checkpointDao;
 
     private final HashRing hashRing;
     private volatile Integer maxAdTaskDocsPerDetector;
     private volatile Integer pieceIntervalSeconds;
+    private volatile TimeValue progressUpdateInterval;
     private volatile TimeValue requestTimeout;
 
     public ADTaskManager(
@@ -153,7 +160,8 @@ public class ADTaskManager {
         AnomalyDetectionIndices detectionIndices,
         DiscoveryNodeFilterer nodeFilter,
         HashRing hashRing,
-        ADTaskCacheManager adTaskCacheManager
+        ADTaskCacheManager adTaskCacheManager,
+        CheckpointDao checkpointDao
     ) {
         this.client = client;
         this.xContentRegistry = xContentRegistry;
@@ -162,6 +170,7 @@ public class ADTaskManager {
         this.clusterService = clusterService;
         this.adTaskCacheManager = adTaskCacheManager;
         this.hashRing = hashRing;
+        this.checkpointDao = checkpointDao;
 
         this.maxAdTaskDocsPerDetector = MAX_OLD_AD_TASK_DOCS_PER_DETECTOR.get(settings);
         clusterService
@@ -170,6 +179,10 @@ public class ADTaskManager {
 
         this.pieceIntervalSeconds = BATCH_TASK_PIECE_INTERVAL_SECONDS.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCH_TASK_PIECE_INTERVAL_SECONDS, it -> pieceIntervalSeconds = it);
+        this.progressUpdateInterval = BATCH_TASK_PROGRESS_UPDATE_INTERVAL.get(settings);
+        clusterService
+            .getClusterSettings()
+            .addSettingsUpdateConsumer(BATCH_TASK_PROGRESS_UPDATE_INTERVAL, it -> progressUpdateInterval = it);
 
         this.requestTimeout = REQUEST_TIMEOUT.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(REQUEST_TIMEOUT, it -> requestTimeout = it);
@@ -428,7 +441,9 @@ public class ADTaskManager {
     }
 
     private boolean lastUpdateTimeExpired(ADTask adTask) {
-        return adTask.getLastUpdateTime().plus(2 * pieceIntervalSeconds, ChronoUnit.SECONDS).isBefore(Instant.now());
+        // running tasks refresh last update time at least every progress update interval
+        long expiration = Math.max(2 * pieceIntervalSeconds * 1000L, 2 * progressUpdateInterval.millis());
+        return adTask.getLastUpdateTime().plus(expiration, ChronoUnit.MILLIS).isBefore(Instant.now());
     }
 
     public boolean isADTaskEnded(ADTask adTask) {
@@ -555,6 +570,7 @@ public class ADTaskManager {
                 listener.onResponse(adTaskProfile);
             } else {
                 ADTaskProfile nodeResponse = nodeResponses.get(0);
+                mergeProgress(adTask, nodeResponse.getAdTask());
                 ADTaskProfile adTaskProfile = new ADTaskProfile(
                     adTask,
                     nodeResponse.getShingleSize(),
@@ -572,6 +588,20 @@ public class ADTaskManager {
         }));
     }
 
+    /**
+     * Worker nodes persist task progress at a bounded rate, so the progress they keep in
+     * memory is newer than the one in the task index.
+     */
+    private void mergeProgress(ADTask adTask, ADTask progress) {
+        if (progress == null || !Objects.equals(adTask.getTaskId(), progress.getTaskId()) || isADTaskEnded(adTask)) {
+            return;
+        }
+        adTask.setState(progress.getState());
+        adTask.setCurrentPiece(progress.getCurrentPiece());
+        adTask.setTaskProgress(progress.getTaskProgress());
+        adTask.setInitProgress(progress.getInitProgress());
+    }
+
     /**
      * Get task profile for detector.
      *
@@ -589,7 +619,20 @@ public class ADTaskManager {
         }
         if (tasksOfDetector.size() == 1) {
             String taskId = tasksOfDetector.get(0);
+            if (adTaskCacheManager.isMultiEntityTask(taskId)) {
+                // models are per entity, so only the totals are reported
+                return new ADTaskProfile(
+                    adTaskCacheManager.getProgress(taskId).toADTask(taskId),
+                    null,
+                    adTaskCacheManager.getRcfTotalUpdates(taskId),
+                    null,
+                    null,
+                    adTaskCacheManager.getModelSize(taskId),
+                    clusterService.localNode().getId()
+                );
+            }
             adTaskProfile = new ADTaskProfile(
+                adTaskCacheManager.getProgress(taskId).toADTask(taskId),
                 adTaskCacheManager.getShingle(taskId).size(),
                 adTaskCacheManager.getRcfModel(taskId).getTotalUpdates(),
                 adTaskCacheManager.isThresholdModelTrained(taskId),
@@ -621,6 +664,8 @@ public class ADTaskManager {
      * exists, will check if there is task running. If no running task, reset old task
      * as not latest and clean old tasks which exceeds limitation. Then find out node
      * with least load and dispatch task to that node(worker node).
+     * If the latest task stopped or failed and the detector has not changed since, the
+     * task is resumed from its last checkpoint instead of creating a new task.
      *
      * @param detector anomaly detector
      * @param user user
@@ -637,10 +682,15 @@ public class ADTaskManager {
             if (detectionIndices.doesDetectorStateIndexExist()) {
                 // If detection index exist, check if latest AD task is running
                 getLatestADTask(detector.getDetectorId(), (adTask) -> {
-                    if (!adTask.isPresent() || isADTaskEnded(adTask.get())) {
+                    if (!adTask.isPresent()) {
                         executeHistoricalDetector(detector, user, listener);
-                    } else {
+                    } else if (!isADTaskEnded(adTask.get())) {
                         listener.onFailure(new OpenSearchStatusException(DETECTOR_IS_RUNNING, RestStatus.BAD_REQUEST));
+                    } else if (isResumable(adTask.get(), detector)) {
+                        resumeHistoricalDetector(adTask.get(), listener);
+                    } else {
+                        deleteCheckpoint(adTask.get().getTaskId());
+                        executeHistoricalDetector(detector, user, listener);
                     }
                 }, transportService, listener);
             } else {
@@ -669,6 +719,71 @@ public class ADTaskManager {
         }
     }
 
+    /**
+     * A stopped or failed task which has started running pieces can resume if the
+     * detector has not changed since the task was created.  Tasks of detectors with a
+     * category field have no checkpoint to resume from.
+     *
+     * @param adTask latest AD task of detector
+     * @param detector current detector
+     * @return true if the task can resume
+     */
+    boolean isResumable(ADTask adTask, AnomalyDetector detector) {
+        return !ADTaskState.FINISHED.name().equals(adTask.getState())
+            && !detector.isMultientityDetector()
+            && adTask.getCurrentPiece() != null
+            && adTask.getDetector() != null
+            && Objects.equals(adTask.getDetector().getLastUpdateTime(), detector.getLastUpdateTime());
+    }
+
+    /**
+     * Resume AD task on node with least load. The task keeps its task id, so results
+     * saved before it stopped still belong to it. The worker node restores the task's
+     * models from the last checkpoint and continues from the checkpointed piece.
+     *
+     * @param adTask AD task to resume
+     * @param listener action listener
+     */
+    void resumeHistoricalDetector(ADTask adTask, ActionListener<AnomalyDetectorJobResponse> listener) {
+        String detectorId = adTask.getDetectorId();
+        try {
+            adTaskCacheManager.add(detectorId);
+        } catch (DuplicateTaskException e) {
+            listener.onFailure(new OpenSearchStatusException(DETECTOR_IS_RUNNING, RestStatus.BAD_REQUEST));
+            return;
+        }
+        String coordinatingNode = clusterService.localNode().getId();
+        adTask.setState(ADTaskState.CREATED.name());
+        adTask.setCoordinatingNode(coordinatingNode);
+        Map<String, Object> updatedFields = new HashMap<>();
+        updatedFields.put(STATE_FIELD, ADTaskState.CREATED.name());
+        updatedFields.put(COORDINATING_NODE_FIELD, coordinatingNode);
+        updatedFields.put(ERROR_FIELD, null);
+        updatedFields.put(STOPPED_BY_FIELD, null);
+        updatedFields.put(EXECUTION_END_TIME_FIELD, null);
+
+        ActionListener<AnomalyDetectorJobResponse> delegatedListener = ActionListener.wrap(listener::onResponse, e -> {
+            handleADTaskException(adTask, e);
+            adTaskCacheManager.removeDetector(detectorId);
+            listener.onFailure(e);
+        });
+        logger.info("Resume AD task {} of detector {}", adTask.getTaskId(), detectorId);
+        updateADTask(
+            adTask.getTaskId(),
+            updatedFields,
+            ActionListener.wrap(r -> runBatchResultAction(r, adTask, delegatedListener), delegatedListener::onFailure)
+        );
+    }
+
+    private void deleteCheckpoint(String taskId) {
+        checkpointDao
+            .deleteModelCheckpoint(taskId, ActionListener.wrap(r -> logger.debug("Deleted checkpoint of AD task {}", taskId), e -> {
+                if (!(ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException)) {
+                    logger.warn("Failed to delete checkpoint of AD task " + taskId, e);
+                }
+            }));
+    }
+
     private void executeHistoricalDetector(AnomalyDetector detector, User user, ActionListener<AnomalyDetectorJobResponse> listener) {
         UpdateByQueryRequest updateByQueryRequest = new UpdateByQueryRequest();
         updateByQueryRequest.indices(CommonName.DETECTION_STATE_INDEX);
@@ -837,7 +952,7 @@ public class ADTaskManager {
         }));
     }
 
-    private void runBatchResultAction(IndexResponse response, ADTask adTask, ActionListener<AnomalyDetectorJobResponse> listener) {
+    private void runBatchResultAction(DocWriteResponse response, ADTask adTask, ActionListener<AnomalyDetectorJobResponse> listener) {
         client.execute(ADBatchAnomalyResultAction.INSTANCE, new ADBatchAnomalyResultRequest(adTask), ActionListener.wrap(r -> {
             String remoteOrLocal = r.isRunTaskRemotely() ? "remote" : "local";
             logger
@@ -964,13 +1079,15 @@ public class ADTaskManager {
     }
 
     /**
-     * Delete AD tasks docs.
+     * Delete AD tasks docs and checkpoints.
      *
      * @param detectorId detector id
      * @param function AD function
      * @param listener action listener
      */
     public void deleteADTasks(String detectorId, AnomalyDetectorFunction function, ActionListener<DeleteResponse> listener) {
+        // delete checkpoints of the detector's tasks
+        checkpointDao.deleteModelCheckpointByDetectorId(detectorId);
         DeleteByQueryRequest request = new DeleteByQueryRequest(CommonName.DETECTION_STATE_INDEX);
 
         BoolQueryBuilder query = new BoolQueryBuilder();
@@ -31,11 +31,15 @@ import static org.opensearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.opensearch.index.IndexingPressure.MAX_INDEXING_BYTES;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.bulk.BulkAction;
 import org.opensearch.action.bulk.BulkRequest;
@@ -45,6 +49,7 @@ import org.opensearch.action.support.ActionFilters;
 import org.opensearch.action.support.HandledTransportAction;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.transport.handler.ResultBulkRetryBuffer;
 import org.opensearch.ad.util.RestHandlerUtils;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
@@ -64,6 +69,7 @@ public class ADResultBulkTransportAction extends HandledTransportAction<ADResult
     private float softLimit;
     private String indexName;
     private Client client;
+    private ResultBulkRetryBuffer retryBuffer;
 
     @Inject
     public ADResultBulkTransportAction(
@@ -72,7 +78,8 @@ public class ADResultBulkTransportAction extends HandledTransportAction<ADResult
         IndexingPressure indexingPressure,
         Settings settings,
         ClusterService clusterService,
-        Client client
+        Client client,
+        ResultBulkRetryBuffer retryBuffer
     ) {
         super(ADResultBulkAction.NAME, transportService, actionFilters, ADResultBulkRequest::new, ThreadPool.Names.SAME);
         this.indexingPressure = indexingPressure;
@@ -80,6 +87,7 @@ public class ADResultBulkTransportAction extends HandledTransportAction<ADResult
         this.softLimit = INDEX_PRESSURE_SOFT_LIMIT.get(settings);
         this.indexName = CommonName.ANOMALY_RESULT_INDEX_ALIAS;
         this.client = client;
+        this.retryBuffer = retryBuffer;
         clusterService.getClusterSettings().addSettingsUpdateConsumer(INDEX_PRESSURE_SOFT_LIMIT, it -> softLimit = it);
     }
 
@@ -93,10 +101,12 @@ public class ADResultBulkTransportAction extends HandledTransportAction<ADResult
         float indexingPressurePercent = (float) totalBytes / primaryAndCoordinatingLimits;
 
         BulkRequest bulkRequest = new BulkRequest();
+        // whether each index request in bulkRequest saves a non-zero grade result
+        List<Boolean> anomalies = new ArrayList<>();
 
         if (indexingPressurePercent <= softLimit) {
             for (AnomalyResult result : request.getAnomalyResults()) {
-                addResult(bulkRequest, result);
+                addResult(bulkRequest, anomalies, result);
             }
         } else if (Float.compare(indexingPressurePercent, 1.0f) < 0) {
             // exceed soft limit (80%) but smaller than hard limit (100%)
@@ -105,32 +115,36 @@ public class ADResultBulkTransportAction extends HandledTransportAction<ADResult
             float acceptProbability = 1 - indexingPressurePercent;
             for (AnomalyResult result : request.getAnomalyResults()) {
                 if (result.getAnomalyGrade() > 0 || random.nextFloat() < acceptProbability) {
-                    addResult(bulkRequest, result);
+                    addResult(bulkRequest, anomalies, result);
                 }
             }
         } else {
             // if exceeding 100% of hard limit, try our luck and only index non-zero grade result
             for (AnomalyResult result : request.getAnomalyResults()) {
                 if (result.getAnomalyGrade() > 0) {
-                    addResult(bulkRequest, result);
+                    addResult(bulkRequest, anomalies, result);
                 }
             }
         }
 
         if (bulkRequest.numberOfActions() > 0) {
-            client
-                .execute(
-                    BulkAction.INSTANCE,
-                    bulkRequest,
-                    ActionListener.<BulkResponse>wrap(response -> listener.onResponse(response), listener::onFailure)
-                );
+            client.execute(BulkAction.INSTANCE, bulkRequest, ActionListener.<BulkResponse>wrap(response -> {
+                retryBuffer.offerRejected(bulkRequest, anomalies, response);
+                listener.onResponse(response);
+            }, exception -> {
+                if (ExceptionsHelper.unwrapCause(exception) instanceof RejectedExecutionException) {
+                    retryBuffer.offerAll(bulkRequest, anomalies);
+                }
+                listener.onFailure(exception);
+            }));
         }
     }
 
-    private void addResult(BulkRequest bulkRequest, AnomalyResult result) {
+    private void addResult(BulkRequest bulkRequest, List<Boolean> anomalies, AnomalyResult result) {
         try (XContentBuilder builder = jsonBuilder()) {
             IndexRequest indexRequest = new IndexRequest(indexName).source(result.toXContent(builder, RestHandlerUtils.XCONTENT_WITH_TYPE));
             bulkRequest.add(indexRequest);
+            anomalies.add(result.getAnomalyGrade() != null && result.getAnomalyGrade() > 0);
         } catch (IOException e) {
             LOG.error(String.format(Locale.ROOT, "Failed to prepare bulk %s", indexName), e);
         }
@@ -60,6 +60,7 @@ import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
+import org.opensearch.ad.breaker.LoadLevel;
 import org.opensearch.ad.cluster.HashRing;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.common.exception.ClientException;
@@ -143,6 +144,8 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
 
     // cache HC detector id
     private final Set<String> hcDetectors;
+    // whether to score locally hosted models without going through the transport layer
+    private final boolean localScoringEnabled;
 
     @Inject
     public AnomalyResultTransportAction(
@@ -182,6 +185,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
         this.threadPool = threadPool;
         this.searchFeatureDao = searchFeatureDao;
         this.hcDetectors = new HashSet<>();
+        this.localScoringEnabled = AnomalyDetectorSettings.LOCAL_MODEL_SCORING.get(settings);
     }
 
     /**
@@ -263,10 +267,6 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
 
             adStats.getStat(StatNames.AD_EXECUTE_REQUEST_COUNT.getName()).increment();
 
-            if (adCircuitBreakerService.isOpen()) {
-                listener.onFailure(new LimitExceededException(adID, CommonErrorMessages.MEMORY_CIRCUIT_BROKEN_ERR_MSG, false));
-                return;
-            }
             try {
                 stateManager.getAnomalyDetector(adID, onGetDetector(listener, adID, request));
             } catch (Exception ex) {
@@ -295,6 +295,15 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                 adStats.getStat(StatNames.AD_HC_EXECUTE_REQUEST_COUNT.getName()).increment();
             }
 
+            // multi-entity detection sheds work by load level on entity nodes and only fails when overloaded
+            boolean circuitBroken = anomalyDetector.isMultientityDetector()
+                ? adCircuitBreakerService.getLoadLevel() == LoadLevel.OVERLOADED
+                : adCircuitBreakerService.isOpen();
+            if (circuitBroken) {
+                listener.onFailure(new LimitExceededException(adID, CommonErrorMessages.MEMORY_CIRCUIT_BROKEN_ERR_MSG, false));
+                return;
+            }
+
             long delayMillis = Optional
                 .ofNullable((IntervalTimeConfiguration) anomalyDetector.getWindowDelay())
                 .map(t -> t.toDuration().toMillis())
@@ -348,6 +357,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
 
                         int nodeCount = node2Entities.size();
                         AtomicInteger responseCount = new AtomicInteger();
+                        long fanoutStartNanos = System.nanoTime();
 
                         final AtomicReference<AnomalyDetectionException> failure = new AtomicReference<>();
                         node2Entities.stream().forEach(nodeEntity -> {
@@ -356,10 +366,24 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                                 .sendRequest(
                                     node,
                                     EntityResultAction.NAME,
-                                    new EntityResultRequest(adID, nodeEntity.getValue(), dataStartTime, dataEndTime),
+                                    new EntityResultRequest(
+                                        adID,
+                                        nodeEntity.getValue(),
+                                        dataStartTime,
+                                        dataEndTime,
+                                        anomalyDetector.getVersion()
+                                    ),
                                     this.option,
                                     new ActionListenerResponseHandler<>(
-                                        new EntityResultListener(node.getId(), adID, responseCount, nodeCount, failure, listener),
+                                        new EntityResultListener(
+                                            node.getId(),
+                                            adID,
+                                            responseCount,
+                                            nodeCount,
+                                            failure,
+                                            listener,
+                                            fanoutStartNanos
+                                        ),
                                         AcknowledgedResponse::new,
                                         ThreadPool.Names.SAME
                                     )
@@ -369,6 +393,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
 
                 }, exception -> handleFailure(exception, listener, adID));
 
+                long featureStartNanos = System.nanoTime();
                 threadPool
                     .executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME)
                     .execute(
@@ -381,7 +406,11 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                                     LOG,
                                     threadPool,
                                     AnomalyDetectorPlugin.AD_THREAD_POOL_NAME,
-                                    getEntityFeatureslistener,
+                                    ActionListener
+                                        .runBefore(
+                                            getEntityFeatureslistener,
+                                            () -> recordLatency(StatNames.AD_FEATURE_SEARCH_LATENCY, featureStartNanos)
+                                        ),
                                     false
                                 )
                             )
@@ -402,17 +431,26 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                 return;
             }
 
+            long featureStartNanos = System.nanoTime();
             featureManager
                 .getCurrentFeatures(
                     anomalyDetector,
                     dataStartTime,
                     dataEndTime,
-                    onFeatureResponse(adID, anomalyDetector, listener, thresholdModelID, thresholdNode, dataStartTime, dataEndTime)
+                    ActionListener
+                        .runBefore(
+                            onFeatureResponse(adID, anomalyDetector, listener, thresholdModelID, thresholdNode, dataStartTime, dataEndTime),
+                            () -> recordLatency(StatNames.AD_FEATURE_SEARCH_LATENCY, featureStartNanos)
+                        )
                 );
         }, exception -> handleExecuteException(exception, listener, adID));
 
     }
 
+    private void recordLatency(StatNames stat, long startNanos) {
+        adStats.getStat(stat.getName()).recordSince(startNanos);
+    }
+
     private ActionListener<SinglePointFeatures> onFeatureResponse(
         String adID,
         AnomalyDetector detector,
@@ -508,18 +546,112 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                     detector.getEnabledFeatureIds().size()
                 );
 
-                transportService
-                    .sendRequest(
-                        rcfNode.get(),
-                        RCFResultAction.NAME,
-                        new RCFResultRequest(adID, rcfModelID, featureOptional.getProcessedFeatures().get()),
-                        option,
-                        new ActionListenerResponseHandler<>(rcfListener, RCFResultResponse::new)
-                    );
+                getRcfResult(
+                    rcfNode.get(),
+                    new RCFResultRequest(adID, rcfModelID, featureOptional.getProcessedFeatures().get()),
+                    rcfListener
+                );
             }
         }, exception -> { handleFailure(exception, listener, adID); });
     }
 
+    private boolean isLocalNode(DiscoveryNode node) {
+        return localScoringEnabled && clusterService.localNode().getId().equals(node.getId());
+    }
+
+    /**
+     * Get the RCF result of a model partition. A partition hosted by this node is
+     * scored in place: no transport request is built or dispatched, and when the
+     * threshold model is local as well the RCF and threshold steps run back to back.
+     *
+     * @param rcfNode node hosting the partition
+     * @param request RCF request
+     * @param rcfListener listener handling the result
+     */
+    private void getRcfResult(DiscoveryNode rcfNode, RCFResultRequest request, ActionListener<RCFResultResponse> rcfListener) {
+        if (!isLocalNode(rcfNode)) {
+            transportService
+                .sendRequest(
+                    rcfNode,
+                    RCFResultAction.NAME,
+                    request,
+                    option,
+                    new ActionListenerResponseHandler<>(rcfListener, RCFResultResponse::new)
+                );
+            return;
+        }
+
+        // same check as RCFResultTransportAction
+        if (adCircuitBreakerService.isOpen()) {
+            rcfListener.onFailure(new LimitExceededException(request.getAdID(), CommonErrorMessages.MEMORY_CIRCUIT_BROKEN_ERR_MSG));
+            return;
+        }
+        try {
+            modelManager
+                .getRcfResult(
+                    request.getAdID(),
+                    request.getModelID(),
+                    request.getFeatures(),
+                    ActionListener
+                        .wrap(
+                            result -> rcfListener
+                                .onResponse(
+                                    new RCFResultResponse(
+                                        result.getScore(),
+                                        result.getConfidence(),
+                                        result.getForestSize(),
+                                        result.getAttribution()
+                                    )
+                                ),
+                            rcfListener::onFailure
+                        )
+                );
+        } catch (Exception e) {
+            rcfListener.onFailure(e);
+        }
+    }
+
+    /**
+     * Get the threshold result of the combined RCF score, in place if the threshold model is hosted by this node.
+     *
+     * @param thresholdNode node hosting the threshold model
+     * @param request threshold request
+     * @param thresholdListener listener handling the result
+     */
+    private void getThresholdResult(
+        DiscoveryNode thresholdNode,
+        ThresholdResultRequest request,
+        ActionListener<ThresholdResultResponse> thresholdListener
+    ) {
+        if (!isLocalNode(thresholdNode)) {
+            transportService
+                .sendRequest(
+                    thresholdNode,
+                    ThresholdResultAction.NAME,
+                    request,
+                    option,
+                    new ActionListenerResponseHandler<>(thresholdListener, ThresholdResultResponse::new)
+                );
+            return;
+        }
+
+        try {
+            modelManager
+                .getThresholdingResult(
+                    request.getAdID(),
+                    request.getModelID(),
+                    request.getRCFScore(),
+                    ActionListener
+                        .wrap(
+                            result -> thresholdListener.onResponse(new ThresholdResultResponse(result.getGrade(), result.getConfidence())),
+                            thresholdListener::onFailure
+                        )
+                );
+        } catch (Exception e) {
+            thresholdListener.onFailure(e);
+        }
+    }
+
     private void handleFailure(Exception exception, ActionListener<AnomalyResultResponse> listener, String adID) {
         if (exception instanceof IndexNotFoundException) {
             listener.onFailure(new EndRunException(adID, TROUBLE_QUERYING_ERR_MSG + exception.getMessage(), true).countedInStats(false));
@@ -753,14 +885,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
                     listener,
                     adID
                 );
-                transportService
-                    .sendRequest(
-                        thresholdNode,
-                        ThresholdResultAction.NAME,
-                        new ThresholdResultRequest(adID, thresholdModelID, combinedScore),
-                        option,
-                        new ActionListenerResponseHandler<>(thresholdListener, ThresholdResultResponse::new)
-                    );
+                getThresholdResult(thresholdNode, new ThresholdResultRequest(adID, thresholdModelID, combinedScore), thresholdListener);
             } catch (Exception ex) {
                 handleExecuteException(ex, listener, adID);
             }
@@ -1086,6 +1211,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
         private ActionListener<AnomalyResultResponse> listener;
         private List<AcknowledgedResponse> ackResponses;
         private AtomicReference<AnomalyDetectionException> failure;
+        private final long fanoutStartNanos;
 
         EntityResultListener(
             String nodeId,
@@ -1093,7 +1219,8 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
             AtomicInteger responseCount,
             int nodeCount,
             AtomicReference<AnomalyDetectionException> failure,
-            ActionListener<AnomalyResultResponse> listener
+            ActionListener<AnomalyResultResponse> listener,
+            long fanoutStartNanos
         ) {
             this.nodeId = nodeId;
             this.adID = adID;
@@ -1102,6 +1229,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
             this.failure = failure;
             this.listener = listener;
             this.ackResponses = new ArrayList<>();
+            this.fanoutStartNanos = fanoutStartNanos;
         }
 
         @Override
@@ -1143,6 +1271,7 @@ public class AnomalyResultTransportAction extends HandledTransportAction<ActionR
         }
 
         private void handleEntityResponses() {
+            recordLatency(StatNames.AD_HC_ENTITY_FANOUT_LATENCY, fanoutStartNanos);
             if (failure.get() != null) {
                 listener.onFailure(failure.get());
             } else if (ackResponses.isEmpty()) {
@@ -36,6 +36,7 @@ import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.DocWriteResponse;
@@ -187,7 +188,7 @@ public class DeleteAnomalyDetectorTransportAction extends HandledTransportAction
         client.delete(deleteRequest, new ActionListener<DeleteResponse>() {
             @Override
             public void onResponse(DeleteResponse deleteResponse) {
-                listener.onResponse(deleteResponse);
+                clearDetectorCache(detectorId, deleteResponse, listener);
             }
 
             @Override
@@ -197,6 +198,22 @@ public class DeleteAnomalyDetectorTransportAction extends HandledTransportAction
         });
     }
 
+    /**
+     * Drops in-memory state of the deleted detector on all data nodes, e.g. feature points cached by preview.
+     * Failures are only logged as the detector itself is already gone.
+     */
+    private void clearDetectorCache(String detectorId, DeleteResponse deleteResponse, ActionListener<DeleteResponse> listener) {
+        client.execute(StopDetectorAction.INSTANCE, new StopDetectorRequest(detectorId), ActionListener.wrap(response -> {
+            if (!response.success()) {
+                LOG.warn("Fail to clear cache of deleted detector {}", detectorId);
+            }
+            listener.onResponse(deleteResponse);
+        }, exception -> {
+            LOG.warn(new ParameterizedMessage("Fail to clear cache of deleted detector [{}]", detectorId), exception);
+            listener.onResponse(deleteResponse);
+        }));
+    }
+
     private void getDetectorJob(String detectorId, ActionListener<DeleteResponse> listener, AnomalyDetectorFunction function) {
         if (clusterService.state().metadata().indices().containsKey(ANOMALY_DETECTOR_JOB_INDEX)) {
             GetRequest request = new GetRequest(ANOMALY_DETECTOR_JOB_INDEX).id(detectorId);
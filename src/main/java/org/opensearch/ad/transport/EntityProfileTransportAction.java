@@ -110,23 +110,7 @@ public class EntityProfileTransportAction extends HandledTransportAction<EntityP
         String nodeId = node.get().getId();
         DiscoveryNode localNode = clusterService.localNode();
         if (localNode.getId().equals(nodeId)) {
-            EntityCache cache = cacheProvider.get();
-            Set<EntityProfileName> profilesToCollect = request.getProfilesToCollect();
-            EntityProfileResponse.Builder builder = new EntityProfileResponse.Builder();
-            if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
-                builder.setActive(cache.isActive(adID, modelId));
-                builder.setLastActiveMs(cache.getLastActiveMs(adID, modelId));
-            }
-            if (profilesToCollect.contains(EntityProfileName.INIT_PROGRESS) || profilesToCollect.contains(EntityProfileName.STATE)) {
-                builder.setTotalUpdates(cache.getTotalUpdates(adID, modelId));
-            }
-            if (profilesToCollect.contains(EntityProfileName.MODELS)) {
-                long modelSize = cache.getModelSize(adID, modelId);
-                if (modelSize > 0) {
-                    builder.setModelProfile(new ModelProfile(modelId, modelSize, localNode.getId()));
-                }
-            }
-            listener.onResponse(builder.build());
+            listener.onResponse(getLocalProfile(cacheProvider.get(), adID, modelId, request.getProfilesToCollect(), localNode));
         } else {
             // redirect
             LOG.debug("Sending entity profile request to {} for detector {}, entity {}", nodeId, adID, entityValue);
@@ -169,4 +153,38 @@ public class EntityProfileTransportAction extends HandledTransportAction<EntityP
 
         }
     }
+
+    /**
+     * Get the profile of an entity whose model is hosted on the local node.
+     *
+     * @param cache Entity cache of the local node
+     * @param adID Detector Id
+     * @param modelId Entity model Id
+     * @param profilesToCollect profiles to collect
+     * @param localNode local node
+     * @return the entity profile
+     */
+    static EntityProfileResponse getLocalProfile(
+        EntityCache cache,
+        String adID,
+        String modelId,
+        Set<EntityProfileName> profilesToCollect,
+        DiscoveryNode localNode
+    ) {
+        EntityProfileResponse.Builder builder = new EntityProfileResponse.Builder();
+        if (profilesToCollect.contains(EntityProfileName.ENTITY_INFO)) {
+            builder.setActive(cache.isActive(adID, modelId));
+            builder.setLastActiveMs(cache.getLastActiveMs(adID, modelId));
+        }
+        if (profilesToCollect.contains(EntityProfileName.INIT_PROGRESS) || profilesToCollect.contains(EntityProfileName.STATE)) {
+            builder.setTotalUpdates(cache.getTotalUpdates(adID, modelId));
+        }
+        if (profilesToCollect.contains(EntityProfileName.MODELS)) {
+            long modelSize = cache.getModelSize(adID, modelId);
+            if (modelSize > 0) {
+                builder.setModelProfile(new ModelProfile(modelId, modelSize, localNode.getId()));
+            }
+        }
+        return builder.build();
+    }
 }
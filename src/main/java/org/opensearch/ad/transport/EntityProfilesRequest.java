@@ -0,0 +1,127 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport;
+
+import static org.opensearch.action.ValidateActions.addValidationError;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.opensearch.action.ActionRequest;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.ad.constant.CommonErrorMessages;
+import org.opensearch.ad.constant.CommonMessageAttributes;
+import org.opensearch.ad.model.EntityProfileName;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.common.Strings;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.common.xcontent.ToXContentObject;
+import org.opensearch.common.xcontent.XContentBuilder;
+
+/**
+ * Request to get profiles of many entities of a detector at once.
+ */
+public class EntityProfilesRequest extends ActionRequest implements ToXContentObject {
+    public static final String ENTITIES = "entities";
+    private String adID;
+    private List<String> entityValues;
+    private Set<EntityProfileName> profilesToCollect;
+
+    public EntityProfilesRequest(StreamInput in) throws IOException {
+        super(in);
+        adID = in.readString();
+        entityValues = in.readStringList();
+        int size = in.readVInt();
+        profilesToCollect = new HashSet<EntityProfileName>();
+        for (int i = 0; i < size; i++) {
+            profilesToCollect.add(in.readEnum(EntityProfileName.class));
+        }
+    }
+
+    public EntityProfilesRequest(String adID, List<String> entityValues, Set<EntityProfileName> profilesToCollect) {
+        super();
+        this.adID = adID;
+        this.entityValues = entityValues;
+        this.profilesToCollect = profilesToCollect;
+    }
+
+    public String getAdID() {
+        return adID;
+    }
+
+    public List<String> getEntityValues() {
+        return entityValues;
+    }
+
+    public Set<EntityProfileName> getProfilesToCollect() {
+        return profilesToCollect;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(adID);
+        out.writeStringCollection(entityValues);
+        out.writeVInt(profilesToCollect.size());
+        for (EntityProfileName profile : profilesToCollect) {
+            out.writeEnum(profile);
+        }
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+        if (Strings.isEmpty(adID)) {
+            validationException = addValidationError(CommonErrorMessages.AD_ID_MISSING_MSG, validationException);
+        }
+        if (entityValues == null || entityValues.isEmpty()) {
+            validationException = addValidationError("Entity values are missing", validationException);
+        } else if (entityValues.size() > AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST) {
+            validationException = addValidationError(
+                CommonErrorMessages.TOO_MANY_ENTITIES_TO_PROFILE + AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST,
+                validationException
+            );
+        }
+        if (profilesToCollect == null || profilesToCollect.isEmpty()) {
+            validationException = addValidationError(CommonErrorMessages.EMPTY_PROFILES_COLLECT, validationException);
+        }
+        return validationException;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field(CommonMessageAttributes.ID_JSON_KEY, adID);
+        builder.field(ENTITIES, entityValues);
+        builder.field(EntityProfileRequest.PROFILES, profilesToCollect);
+        builder.endObject();
+        return builder;
+    }
+}
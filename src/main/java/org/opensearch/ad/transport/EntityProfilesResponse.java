@@ -0,0 +1,83 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.opensearch.action.ActionResponse;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.common.xcontent.ToXContentObject;
+import org.opensearch.common.xcontent.XContentBuilder;
+
+/**
+ * Profiles of many entities of a detector keyed by entity value. Entities
+ * whose hosting node cannot be found or reached are left out.
+ */
+public class EntityProfilesResponse extends ActionResponse implements ToXContentObject {
+    private final Map<String, EntityProfileResponse> profiles;
+
+    public EntityProfilesResponse(Map<String, EntityProfileResponse> profiles) {
+        this.profiles = profiles;
+    }
+
+    public EntityProfilesResponse(StreamInput in) throws IOException {
+        super(in);
+        int size = in.readVInt();
+        Map<String, EntityProfileResponse> profiles = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            profiles.put(in.readString(), new EntityProfileResponse(in));
+        }
+        this.profiles = profiles;
+    }
+
+    public Map<String, EntityProfileResponse> getProfiles() {
+        return Collections.unmodifiableMap(profiles);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(profiles.size());
+        for (Map.Entry<String, EntityProfileResponse> entry : profiles.entrySet()) {
+            out.writeString(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        for (Map.Entry<String, EntityProfileResponse> entry : profiles.entrySet()) {
+            builder.field(entry.getKey(), entry.getValue());
+        }
+        builder.endObject();
+        return builder;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.GroupedActionListener;
+import org.opensearch.action.support.HandledTransportAction;
+import org.opensearch.ad.caching.CacheProvider;
+import org.opensearch.ad.caching.EntityCache;
+import org.opensearch.ad.cluster.HashRing;
+import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.model.EntityProfileName;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.tasks.Task;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportException;
+import org.opensearch.transport.TransportRequestOptions;
+import org.opensearch.transport.TransportResponseHandler;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Transport action to get profiles of many entities of a detector.
+ *
+ * Entities are grouped by the node hosting their models and each node gets
+ * one request, instead of one {@link EntityProfileAction} request per entity.
+ * Entities on a node that cannot be found or reached are left out of the
+ * response so that one unavailable node does not fail the whole page.
+ */
+public class EntityProfilesTransportAction extends HandledTransportAction<EntityProfilesRequest, EntityProfilesResponse> {
+
+    private static final Logger LOG = LogManager.getLogger(EntityProfilesTransportAction.class);
+
+    private final TransportService transportService;
+    private final ModelManager modelManager;
+    private final HashRing hashRing;
+    private final TransportRequestOptions option;
+    private final ClusterService clusterService;
+    private final CacheProvider cacheProvider;
+
+    @Inject
+    public EntityProfilesTransportAction(
+        ActionFilters actionFilters,
+        TransportService transportService,
+        Settings settings,
+        ModelManager modelManager,
+        HashRing hashRing,
+        ClusterService clusterService,
+        CacheProvider cacheProvider
+    ) {
+        super(EntityProfilesAction.NAME, transportService, actionFilters, EntityProfilesRequest::new);
+        this.transportService = transportService;
+        this.modelManager = modelManager;
+        this.hashRing = hashRing;
+        this.option = TransportRequestOptions
+            .builder()
+            .withType(TransportRequestOptions.Type.REG)
+            .withTimeout(AnomalyDetectorSettings.REQUEST_TIMEOUT.get(settings))
+            .build();
+        this.clusterService = clusterService;
+        this.cacheProvider = cacheProvider;
+    }
+
+    @Override
+    protected void doExecute(Task task, EntityProfilesRequest request, ActionListener<EntityProfilesResponse> listener) {
+        String adID = request.getAdID();
+        Set<EntityProfileName> profilesToCollect = request.getProfilesToCollect();
+
+        // hosting node -> entity values whose models are on the node
+        Map<DiscoveryNode, List<String>> nodeToEntities = new HashMap<>();
+        for (String entityValue : request.getEntityValues()) {
+            Optional<DiscoveryNode> node = hashRing.getOwningNode(modelManager.getEntityModelId(adID, entityValue));
+            if (!node.isPresent()) {
+                LOG.debug("Cannot find model hosting node for detector {}, entity {}", adID, entityValue);
+                continue;
+            }
+            nodeToEntities.computeIfAbsent(node.get(), k -> new ArrayList<>()).add(entityValue);
+        }
+        if (nodeToEntities.isEmpty()) {
+            listener.onResponse(new EntityProfilesResponse(Collections.emptyMap()));
+            return;
+        }
+
+        GroupedActionListener<Map<String, EntityProfileResponse>> groupListener = new GroupedActionListener<>(
+            ActionListener.wrap(nodeProfiles -> listener.onResponse(new EntityProfilesResponse(merge(nodeProfiles))), listener::onFailure),
+            nodeToEntities.size()
+        );
+
+        DiscoveryNode localNode = clusterService.localNode();
+        for (Map.Entry<DiscoveryNode, List<String>> entry : nodeToEntities.entrySet()) {
+            DiscoveryNode node = entry.getKey();
+            List<String> entityValues = entry.getValue();
+            if (localNode.getId().equals(node.getId())) {
+                EntityCache cache = cacheProvider.get();
+                Map<String, EntityProfileResponse> profiles = new HashMap<>();
+                for (String entityValue : entityValues) {
+                    String modelId = modelManager.getEntityModelId(adID, entityValue);
+                    profiles
+                        .put(entityValue, EntityProfileTransportAction.getLocalProfile(cache, adID, modelId, profilesToCollect, localNode));
+                }
+                groupListener.onResponse(profiles);
+            } else {
+                sendToNode(node, new EntityProfilesRequest(adID, entityValues, profilesToCollect), groupListener);
+            }
+        }
+    }
+
+    private void sendToNode(
+        DiscoveryNode node,
+        EntityProfilesRequest request,
+        ActionListener<Map<String, EntityProfileResponse>> listener
+    ) {
+        LOG
+            .debug(
+                "Sending profile request of {} entities to {} for detector {}",
+                request.getEntityValues().size(),
+                node.getId(),
+                request.getAdID()
+            );
+        ActionListener<Map<String, EntityProfileResponse>> partialListener = ActionListener.wrap(listener::onResponse, e -> {
+            LOG.warn(new ParameterizedMessage("Fail to get entity profiles from {} for detector {}", node.getId(), request.getAdID()), e);
+            listener.onResponse(Collections.emptyMap());
+        });
+        try {
+            transportService
+                .sendRequest(node, EntityProfilesAction.NAME, request, option, new TransportResponseHandler<EntityProfilesResponse>() {
+
+                    @Override
+                    public EntityProfilesResponse read(StreamInput in) throws IOException {
+                        return new EntityProfilesResponse(in);
+                    }
+
+                    @Override
+                    public void handleResponse(EntityProfilesResponse response) {
+                        partialListener.onResponse(response.getProfiles());
+                    }
+
+                    @Override
+                    public void handleException(TransportException exp) {
+                        partialListener.onFailure(exp);
+                    }
+
+                    @Override
+                    public String executor() {
+                        return ThreadPool.Names.SAME;
+                    }
+
+                });
+        } catch (Exception e) {
+            partialListener.onFailure(e);
+        }
+    }
+
+    private Map<String, EntityProfileResponse> merge(Collection<Map<String, EntityProfileResponse>> nodeProfiles) {
+        Map<String, EntityProfileResponse> profiles = new HashMap<>();
+        for (Map<String, EntityProfileResponse> nodeProfile : nodeProfiles) {
+            profiles.putAll(nodeProfile);
+        }
+        return profiles;
+    }
+}
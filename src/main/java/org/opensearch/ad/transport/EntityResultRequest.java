@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.util.Locale;
 import java.util.Map;
 
+import org.opensearch.Version;
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.ad.constant.CommonErrorMessages;
@@ -48,6 +49,13 @@ public class EntityResultRequest extends ActionRequest implements ToXContentObje
     private Map<String, double[]> entities;
     private long start;
     private long end;
+    // version of the detector config used by the coordinating node
+    private Long detectorVersion;
+    // detectorVersion is only exchanged with nodes on or after this version. Nodes
+    // on older versions neither send nor expect it, so during a rolling upgrade a
+    // request from or to such a node carries no version and the receiving node
+    // keeps using its cached detector config.
+    static final Version DETECTOR_VERSION_MIN_NODE_VERSION = Version.V_1_0_0;
 
     public EntityResultRequest(StreamInput in) throws IOException {
         super(in);
@@ -55,14 +63,22 @@ public class EntityResultRequest extends ActionRequest implements ToXContentObje
         this.entities = in.readMap(StreamInput::readString, StreamInput::readDoubleArray);
         this.start = in.readLong();
         this.end = in.readLong();
+        if (in.getVersion().onOrAfter(DETECTOR_VERSION_MIN_NODE_VERSION)) {
+            this.detectorVersion = in.readOptionalLong();
+        }
     }
 
     public EntityResultRequest(String detectorId, Map<String, double[]> entities, long start, long end) {
+        this(detectorId, entities, start, end, null);
+    }
+
+    public EntityResultRequest(String detectorId, Map<String, double[]> entities, long start, long end, Long detectorVersion) {
         super();
         this.detectorId = detectorId;
         this.entities = entities;
         this.start = start;
         this.end = end;
+        this.detectorVersion = detectorVersion;
     }
 
     public String getDetectorId() {
@@ -81,6 +97,10 @@ public class EntityResultRequest extends ActionRequest implements ToXContentObje
         return this.end;
     }
 
+    public Long getDetectorVersion() {
+        return this.detectorVersion;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
@@ -88,6 +108,9 @@ public class EntityResultRequest extends ActionRequest implements ToXContentObje
         out.writeMap(this.entities, StreamOutput::writeString, StreamOutput::writeDoubleArray);
         out.writeLong(this.start);
         out.writeLong(this.end);
+        if (out.getVersion().onOrAfter(DETECTOR_VERSION_MIN_NODE_VERSION)) {
+            out.writeOptionalLong(this.detectorVersion);
+        }
     }
 
     @Override
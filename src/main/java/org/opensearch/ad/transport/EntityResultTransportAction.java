@@ -26,14 +26,20 @@
 
 package org.opensearch.ad.transport;
 
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.CHANGE_ONLY_ENTITY_RESULTS;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.COOLDOWN_MINUTES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.ENTITY_RESULT_HEARTBEAT_INTERVAL;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Queue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -44,6 +50,7 @@ import org.opensearch.action.support.HandledTransportAction;
 import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
+import org.opensearch.ad.breaker.LoadLevel;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.common.exception.EndRunException;
 import org.opensearch.ad.common.exception.LimitExceededException;
@@ -69,6 +76,22 @@ import org.opensearch.transport.TransportService;
 public class EntityResultTransportAction extends HandledTransportAction<EntityResultRequest, AcknowledgedResponse> {
 
     private static final Logger LOG = LogManager.getLogger(EntityResultTransportAction.class);
+
+    // an entity whose model is in the cache
+    private static class CachedEntity {
+        private final String entityName;
+        private final double[] datapoint;
+        private final String modelId;
+        private final ModelState<EntityModel> state;
+
+        CachedEntity(String entityName, double[] datapoint, String modelId, ModelState<EntityModel> state) {
+            this.entityName = entityName;
+            this.datapoint = datapoint;
+            this.modelId = modelId;
+            this.state = state;
+        }
+    }
+
     private ModelManager manager;
     private ADCircuitBreakerService adCircuitBreakerService;
     private MultiEntityResultHandler anomalyResultHandler;
@@ -76,6 +99,9 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
     private CacheProvider cache;
     private final NodeStateManager stateManager;
     private final int coolDownMinutes;
+    // whether to save full results only for anomalies, grade transitions and heartbeats
+    private final boolean changeOnlyResults;
+    private final Duration heartbeatInterval;
     private final Clock clock;
     private AnomalyDetectionIndices indexUtil;
 
@@ -128,13 +154,17 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
         this.cache = entityCache;
         this.stateManager = stateManager;
         this.coolDownMinutes = (int) (COOLDOWN_MINUTES.get(settings).getMinutes());
+        this.changeOnlyResults = CHANGE_ONLY_ENTITY_RESULTS.get(settings);
+        this.heartbeatInterval = Duration.ofMillis(ENTITY_RESULT_HEARTBEAT_INTERVAL.get(settings).getMillis());
         this.clock = clock;
         this.indexUtil = indexUtil;
     }
 
     @Override
     protected void doExecute(Task task, EntityResultRequest request, ActionListener<AcknowledgedResponse> listener) {
-        if (adCircuitBreakerService.isOpen()) {
+        // shed work gradually instead of failing the whole request
+        LoadLevel loadLevel = adCircuitBreakerService.getLoadLevel();
+        if (loadLevel == LoadLevel.OVERLOADED) {
             listener
                 .onFailure(new LimitExceededException(request.getDetectorId(), CommonErrorMessages.MEMORY_CIRCUIT_BROKEN_ERR_MSG, false));
             return;
@@ -142,7 +172,8 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
 
         try {
             String detectorId = request.getDetectorId();
-            stateManager.getAnomalyDetector(detectorId, onGetDetector(listener, detectorId, request));
+            stateManager
+                .getAnomalyDetector(detectorId, request.getDetectorVersion(), onGetDetector(listener, detectorId, request, loadLevel));
         } catch (Exception exception) {
             LOG.error("fail to get entity's anomaly grade", exception);
             listener.onFailure(exception);
@@ -153,7 +184,8 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
     private ActionListener<Optional<AnomalyDetector>> onGetDetector(
         ActionListener<AcknowledgedResponse> listener,
         String detectorId,
-        EntityResultRequest request
+        EntityResultRequest request,
+        LoadLevel loadLevel
     ) {
         return ActionListener.wrap(detectorOptional -> {
             if (!detectorOptional.isPresent()) {
@@ -166,34 +198,33 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
             String categoricalField = detector.getCategoryField().get(0);
 
             ADResultBulkRequest currentBulkRequest = new ADResultBulkRequest();
-            // index pressure is high. Only save anomalies
-            boolean onlySaveAnomalies = stateManager
-                .getLastIndexThrottledTime()
-                .plus(Duration.ofMinutes(coolDownMinutes))
-                .isAfter(clock.instant());
+            // index pressure or node load is high. Only save anomalies
+            boolean onlySaveAnomalies = loadLevel.atLeast(LoadLevel.ANOMALY_ONLY)
+                || stateManager.getLastIndexThrottledTime().plus(Duration.ofMinutes(coolDownMinutes)).isAfter(clock.instant());
 
             Instant executionStartTime = Instant.now();
-            for (Entry<String, double[]> entity : request.getEntities().entrySet()) {
-                String entityName = entity.getKey();
-                // For ES, the limit of the document ID is 512 bytes.
-                // skip an entity if the entity's name is more than 256 characters
-                // since we are using it as part of document id.
-                if (entityName.length() > AnomalyDetectorSettings.MAX_ENTITY_LENGTH) {
-                    continue;
-                }
-
-                double[] datapoint = entity.getValue();
-                String modelId = manager.getEntityModelId(detectorId, entityName);
-                ModelState<EntityModel> entityModel = cache.get().get(modelId, detector, datapoint, entityName);
-                if (entityModel == null) {
-                    // cache miss
-                    continue;
-                }
-                ThresholdingResult result = manager.getAnomalyResultForEntity(detectorId, datapoint, entityName, entityModel, modelId);
+            // scored entities whose results are saved in summary results
+            List<Entity> summarizedEntities = new ArrayList<>();
+            double summarizedMaxScore = 0;
+            double summarizedMinConfidence = 1;
+            for (CachedEntity cachedEntity : getEntitiesToScore(detector, request, loadLevel)) {
+                String entityName = cachedEntity.entityName;
+                double[] datapoint = cachedEntity.datapoint;
+                ModelState<EntityModel> entityModel = cachedEntity.state;
+                ThresholdingResult result = manager
+                    .getAnomalyResultForEntity(detectorId, datapoint, entityName, entityModel, cachedEntity.modelId);
                 // result.getRcfScore() = 0 means the model is not initialized
                 // result.getGrade() = 0 means it is not an anomaly
                 // So many OpenSearchRejectedExecutionException if we write no matter what
-                if (result.getRcfScore() > 0 && (!onlySaveAnomalies || result.getGrade() > 0)) {
+                if (result.getRcfScore() <= 0) {
+                    continue;
+                }
+                boolean anomaly = result.getGrade() > 0;
+                boolean saveFullResult = !changeOnlyResults || entityModel.needsFullResult(anomaly, heartbeatInterval);
+                if (saveFullResult && (!onlySaveAnomalies || anomaly)) {
+                    if (changeOnlyResults) {
+                        entityModel.setLastFullResult(anomaly);
+                    }
                     currentBulkRequest
                         .add(
                             new AnomalyResult(
@@ -212,8 +243,22 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
                                 indexUtil.getSchemaVersion(ADIndex.RESULT)
                             )
                         );
+                } else if (changeOnlyResults && !onlySaveAnomalies) {
+                    // under index pressure or high load, skip summaries as well
+                    summarizedEntities.add(new Entity(categoricalField, entityName));
+                    summarizedMaxScore = Math.max(summarizedMaxScore, result.getRcfScore());
+                    summarizedMinConfidence = Math.min(summarizedMinConfidence, result.getConfidence());
                 }
             }
+            addSummaryResults(
+                currentBulkRequest,
+                detector,
+                request,
+                executionStartTime,
+                summarizedEntities,
+                summarizedMaxScore,
+                summarizedMinConfidence
+            );
             if (currentBulkRequest.numberOfActions() > 0) {
                 this.anomalyResultHandler.flush(currentBulkRequest, detectorId);
             }
@@ -235,4 +280,95 @@ public class EntityResultTransportAction extends HandledTransportAction<EntityRe
             listener.onFailure(exception);
         });
     }
+
+    /**
+     * Look up the request's entities in the cache and pick the ones to score given the load level.
+     * From {@link LoadLevel#SKIP_COLD_START} on, entities without trained models only collect
+     * samples, as scoring them would train their models.  From {@link LoadLevel#TOP_PRIORITY_ONLY}
+     * on, only the higher priority part of the entities are scored.
+     */
+    private List<CachedEntity> getEntitiesToScore(AnomalyDetector detector, EntityResultRequest request, LoadLevel loadLevel) {
+        String detectorId = request.getDetectorId();
+        List<CachedEntity> entities = new ArrayList<>();
+        for (Entry<String, double[]> entity : request.getEntities().entrySet()) {
+            String entityName = entity.getKey();
+            // For ES, the limit of the document ID is 512 bytes.
+            // skip an entity if the entity's name is more than 256 characters
+            // since we are using it as part of document id.
+            if (entityName.length() > AnomalyDetectorSettings.MAX_ENTITY_LENGTH) {
+                continue;
+            }
+
+            double[] datapoint = entity.getValue();
+            String modelId = manager.getEntityModelId(detectorId, entityName);
+            ModelState<EntityModel> entityModel = cache.get().get(modelId, detector, datapoint, entityName, loadLevel);
+            if (entityModel == null) {
+                // cache miss
+                continue;
+            }
+            EntityModel model = entityModel.getModel();
+            if (loadLevel.atLeast(LoadLevel.SKIP_COLD_START) && (model.getRcf() == null || model.getThreshold() == null)) {
+                // keep recent samples for training once load goes down
+                Queue<double[]> samples = model.getSamples();
+                samples.add(datapoint);
+                while (samples.size() > AnomalyDetectorSettings.NUM_MIN_SAMPLES) {
+                    samples.remove();
+                }
+                continue;
+            }
+            entities.add(new CachedEntity(entityName, datapoint, modelId, entityModel));
+        }
+
+        if (loadLevel.atLeast(LoadLevel.TOP_PRIORITY_ONLY) && !entities.isEmpty()) {
+            entities.sort(Comparator.comparingDouble((CachedEntity entity) -> entity.state.getPriority()).reversed());
+            int scored = (int) Math.ceil(entities.size() * AnomalyDetectorSettings.LOAD_SHEDDING_SCORED_ENTITY_RATIO);
+            return entities.subList(0, scored);
+        }
+        return entities;
+    }
+
+    /**
+     * Save entities that were scored but need no full result in summary results.  A summary
+     * result lists the entities in its {@link AnomalyResult#SUMMARIZED_ENTITY_FIELD} field
+     * instead of the nested entity field and has result_type
+     * {@link AnomalyResult#SUMMARY_RESULT_TYPE}.  Queries about individual entities exclude
+     * summary results, as their score is the max score and their confidence is the min
+     * confidence of all the summarized entities.  Feature data is left out.  Each node
+     * summarizes the entities it hosts, so a detector gets one summary result per model
+     * hosting node and interval (more if a node hosts more entities than fit in one summary).
+     */
+    private void addSummaryResults(
+        ADResultBulkRequest bulkRequest,
+        AnomalyDetector detector,
+        EntityResultRequest request,
+        Instant executionStartTime,
+        List<Entity> entities,
+        double maxScore,
+        double minConfidence
+    ) {
+        for (int i = 0; i < entities.size(); i += AnomalyDetectorSettings.MAX_ENTITIES_PER_RESULT_SUMMARY) {
+            List<Entity> chunk = entities
+                .subList(i, Math.min(entities.size(), i + AnomalyDetectorSettings.MAX_ENTITIES_PER_RESULT_SUMMARY));
+            bulkRequest
+                .add(
+                    new AnomalyResult(
+                        detector.getDetectorId(),
+                        null,
+                        maxScore,
+                        0d,
+                        minConfidence,
+                        new ArrayList<>(),
+                        Instant.ofEpochMilli(request.getStart()),
+                        Instant.ofEpochMilli(request.getEnd()),
+                        executionStartTime,
+                        Instant.now(),
+                        null,
+                        new ArrayList<>(chunk),
+                        detector.getUser(),
+                        indexUtil.getSchemaVersion(ADIndex.RESULT),
+                        AnomalyResult.SUMMARY_RESULT_TYPE
+                    )
+                );
+        }
+    }
 }
@@ -26,10 +26,15 @@
 
 package org.opensearch.ad.transport;
 
+import static org.opensearch.action.ValidateActions.addValidationError;
+
 import java.io.IOException;
+import java.util.List;
 
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.ad.constant.CommonErrorMessages;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.common.io.stream.StreamInput;
 import org.opensearch.common.io.stream.StreamOutput;
 
@@ -43,6 +48,8 @@ public class GetAnomalyDetectorRequest extends ActionRequest {
     private String rawPath;
     private boolean all;
     private String entityValue;
+    // entities to profile at once, null if not a batch entity profile request
+    private List<String> entityValues;
 
     public GetAnomalyDetectorRequest(StreamInput in) throws IOException {
         super(in);
@@ -56,6 +63,9 @@ public class GetAnomalyDetectorRequest extends ActionRequest {
         if (in.readBoolean()) {
             entityValue = in.readString();
         }
+        if (in.readBoolean()) {
+            entityValues = in.readStringList();
+        }
     }
 
     public GetAnomalyDetectorRequest(
@@ -67,6 +77,20 @@ public class GetAnomalyDetectorRequest extends ActionRequest {
         String rawPath,
         boolean all,
         String entityValue
+    ) {
+        this(detectorID, version, returnJob, returnTask, typeStr, rawPath, all, entityValue, null);
+    }
+
+    public GetAnomalyDetectorRequest(
+        String detectorID,
+        long version,
+        boolean returnJob,
+        boolean returnTask,
+        String typeStr,
+        String rawPath,
+        boolean all,
+        String entityValue,
+        List<String> entityValues
     ) {
         super();
         this.detectorID = detectorID;
@@ -77,6 +101,7 @@ public class GetAnomalyDetectorRequest extends ActionRequest {
         this.rawPath = rawPath;
         this.all = all;
         this.entityValue = entityValue;
+        this.entityValues = entityValues;
     }
 
     public String getDetectorID() {
@@ -111,6 +136,10 @@ public class GetAnomalyDetectorRequest extends ActionRequest {
         return entityValue;
     }
 
+    public List<String> getEntityValues() {
+        return entityValues;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
@@ -127,10 +156,23 @@ public class GetAnomalyDetectorRequest extends ActionRequest {
         } else {
             out.writeBoolean(false);
         }
+        if (this.entityValues != null) {
+            out.writeBoolean(true);
+            out.writeStringCollection(entityValues);
+        } else {
+            out.writeBoolean(false);
+        }
     }
 
     @Override
     public ActionRequestValidationException validate() {
-        return null;
+        ActionRequestValidationException validationException = null;
+        if (entityValues != null && entityValues.size() > AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST) {
+            validationException = addValidationError(
+                CommonErrorMessages.TOO_MANY_ENTITIES_TO_PROFILE + AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST,
+                validationException
+            );
+        }
+        return validationException;
     }
 }
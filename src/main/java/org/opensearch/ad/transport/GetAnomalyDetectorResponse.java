@@ -27,6 +27,7 @@
 package org.opensearch.ad.transport;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.opensearch.action.ActionResponse;
 import org.opensearch.ad.model.ADTask;
@@ -44,6 +45,7 @@ import org.opensearch.rest.RestStatus;
 public class GetAnomalyDetectorResponse extends ActionResponse implements ToXContentObject {
     public static final String DETECTOR_PROFILE = "detectorProfile";
     public static final String ENTITY_PROFILE = "entityProfile";
+    public static final String ENTITY_PROFILES = "entityProfiles";
     private long version;
     private String id;
     private long primaryTerm;
@@ -54,6 +56,7 @@ public class GetAnomalyDetectorResponse extends ActionResponse implements ToXCon
     private RestStatus restStatus;
     private DetectorProfile detectorProfile;
     private EntityProfile entityProfile;
+    private List<EntityProfile> entityProfiles;
     private boolean profileResponse;
     private boolean returnJob;
     private boolean returnTask;
@@ -65,6 +68,8 @@ public class GetAnomalyDetectorResponse extends ActionResponse implements ToXCon
             String profileType = in.readString();
             if (DETECTOR_PROFILE.equals(profileType)) {
                 detectorProfile = new DetectorProfile(in);
+            } else if (ENTITY_PROFILES.equals(profileType)) {
+                entityProfiles = in.readList(EntityProfile::new);
             } else {
                 entityProfile = new EntityProfile(in);
             }
@@ -131,6 +136,16 @@ public class GetAnomalyDetectorResponse extends ActionResponse implements ToXCon
         this.profileResponse = profileResponse;
     }
 
+    /**
+     * Profile response of many entities.
+     *
+     * @param entityProfiles entity profiles in the order of the requested entities
+     */
+    public GetAnomalyDetectorResponse(List<EntityProfile> entityProfiles) {
+        this.entityProfiles = entityProfiles;
+        this.profileResponse = true;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         if (profileResponse) {
@@ -141,6 +156,9 @@ public class GetAnomalyDetectorResponse extends ActionResponse implements ToXCon
             } else if (entityProfile != null) {
                 out.writeString(ENTITY_PROFILE);
                 entityProfile.writeTo(out);
+            } else if (entityProfiles != null) {
+                out.writeString(ENTITY_PROFILES);
+                out.writeList(entityProfiles);
             }
         } else {
             out.writeBoolean(false); // profileResponse is false
@@ -170,6 +188,14 @@ public class GetAnomalyDetectorResponse extends ActionResponse implements ToXCon
         if (profileResponse) {
             if (detectorProfile != null) {
                 detectorProfile.toXContent(builder, params);
+            } else if (entityProfiles != null) {
+                builder.startObject();
+                builder.startArray(RestHandlerUtils.ENTITIES);
+                for (EntityProfile profile : entityProfiles) {
+                    profile.toXContent(builder, params);
+                }
+                builder.endArray();
+                builder.endObject();
             } else {
                 entityProfile.toXContent(builder, params);
             }
@@ -194,4 +220,8 @@ public class GetAnomalyDetectorResponse extends ActionResponse implements ToXCon
     public DetectorProfile getDetectorProfile() {
         return detectorProfile;
     }
+
+    public List<EntityProfile> getEntityProfiles() {
+        return entityProfiles;
+    }
 }
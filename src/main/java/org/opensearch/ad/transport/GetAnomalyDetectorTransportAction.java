@@ -34,6 +34,7 @@ import static org.opensearch.ad.util.ParseUtils.resolveUserAndExecute;
 import static org.opensearch.ad.util.RestHandlerUtils.PROFILE;
 import static org.opensearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -160,13 +161,32 @@ public class GetAnomalyDetectorTransportAction extends HandledTransportAction<Ge
         String typesStr = request.getTypeStr();
         String rawPath = request.getRawPath();
         String entityValue = request.getEntityValue();
+        List<String> entityValues = request.getEntityValues();
         boolean all = request.isAll();
         boolean returnJob = request.isReturnJob();
         boolean returnTask = request.isReturnTask();
 
         try {
             if (!Strings.isEmpty(typesStr) || rawPath.endsWith(PROFILE) || rawPath.endsWith(PROFILE + "/")) {
-                if (entityValue != null) {
+                if (entityValues != null) {
+                    Set<EntityProfileName> entityProfilesToCollect = getEntityProfilesToCollect(typesStr, all);
+                    EntityProfileRunner profileRunner = new EntityProfileRunner(
+                        client,
+                        xContentRegistry,
+                        AnomalyDetectorSettings.NUM_MIN_SAMPLES
+                    );
+                    profileRunner
+                        .profile(
+                            detectorID,
+                            entityValues,
+                            entityProfilesToCollect,
+                            ActionListener
+                                .wrap(
+                                    profiles -> listener.onResponse(new GetAnomalyDetectorResponse(new ArrayList<>(profiles.values()))),
+                                    e -> listener.onFailure(e)
+                                )
+                        );
+                } else if (entityValue != null) {
                     Set<EntityProfileName> entityProfilesToCollect = getEntityProfilesToCollect(typesStr, all);
                     EntityProfileRunner profileRunner = new EntityProfileRunner(
                         client,
@@ -26,6 +26,8 @@
 
 package org.opensearch.ad.transport;
 
+import static org.opensearch.ad.model.DetectorProfile.ENTITY_CACHE_MIN_NODE_VERSION;
+
 import java.io.IOException;
 import java.util.Map;
 
@@ -48,6 +50,7 @@ public class ProfileNodeResponse extends BaseNodeResponse implements ToXContentF
     private int shingleSize;
     private long activeEntities;
     private long totalUpdates;
+    private Map<String, Long> entityCache;
 
     /**
      * Constructor
@@ -63,6 +66,9 @@ public class ProfileNodeResponse extends BaseNodeResponse implements ToXContentF
         shingleSize = in.readInt();
         activeEntities = in.readVLong();
         totalUpdates = in.readVLong();
+        if (in.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION) && in.readBoolean()) {
+            entityCache = in.readMap(StreamInput::readString, StreamInput::readLong);
+        }
     }
 
     /**
@@ -75,11 +81,33 @@ public class ProfileNodeResponse extends BaseNodeResponse implements ToXContentF
      * @param totalUpdates RCF model total updates
      */
     public ProfileNodeResponse(DiscoveryNode node, Map<String, Long> modelSize, int shingleSize, long activeEntity, long totalUpdates) {
+        this(node, modelSize, shingleSize, activeEntity, totalUpdates, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param node DiscoveryNode object
+     * @param modelSize Mapping of model id to its memory consumption in bytes
+     * @param shingleSize shingle size
+     * @param activeEntity active entity count
+     * @param totalUpdates RCF model total updates
+     * @param entityCache Mapping of entity cache event name to its count
+     */
+    public ProfileNodeResponse(
+        DiscoveryNode node,
+        Map<String, Long> modelSize,
+        int shingleSize,
+        long activeEntity,
+        long totalUpdates,
+        Map<String, Long> entityCache
+    ) {
         super(node);
         this.modelSize = modelSize;
         this.shingleSize = shingleSize;
         this.activeEntities = activeEntity;
         this.totalUpdates = totalUpdates;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -106,6 +134,14 @@ public class ProfileNodeResponse extends BaseNodeResponse implements ToXContentF
         out.writeInt(shingleSize);
         out.writeVLong(activeEntities);
         out.writeVLong(totalUpdates);
+        if (out.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION)) {
+            if (entityCache != null) {
+                out.writeBoolean(true);
+                out.writeMap(entityCache, StreamOutput::writeString, StreamOutput::writeLong);
+            } else {
+                out.writeBoolean(false);
+            }
+        }
     }
 
     /**
@@ -127,6 +163,9 @@ public class ProfileNodeResponse extends BaseNodeResponse implements ToXContentF
         builder.field(CommonName.SHINGLE_SIZE, shingleSize);
         builder.field(CommonName.ACTIVE_ENTITIES, activeEntities);
         builder.field(CommonName.TOTAL_UPDATES, totalUpdates);
+        if (entityCache != null) {
+            builder.field(CommonName.ENTITY_CACHE, entityCache);
+        }
 
         return builder;
     }
@@ -146,4 +185,8 @@ public class ProfileNodeResponse extends BaseNodeResponse implements ToXContentF
     public long getTotalUpdates() {
         return totalUpdates;
     }
+
+    public Map<String, Long> getEntityCache() {
+        return entityCache;
+    }
 }
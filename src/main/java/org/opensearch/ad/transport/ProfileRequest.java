@@ -26,6 +26,8 @@
 
 package org.opensearch.ad.transport;
 
+import static org.opensearch.ad.model.DetectorProfile.ENTITY_CACHE_MIN_NODE_VERSION;
+
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
@@ -81,8 +83,14 @@ public class ProfileRequest extends BaseNodesRequest<ProfileRequest> {
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeVInt(profilesToBeRetrieved.size());
-        for (DetectorProfileName profile : profilesToBeRetrieved) {
+        // older nodes do not know the entity cache profile
+        Set<DetectorProfileName> profiles = profilesToBeRetrieved;
+        if (!out.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION) && profiles.contains(DetectorProfileName.ENTITY_CACHE)) {
+            profiles = new HashSet<>(profiles);
+            profiles.remove(DetectorProfileName.ENTITY_CACHE);
+        }
+        out.writeVInt(profiles.size());
+        for (DetectorProfileName profile : profiles) {
             out.writeEnum(profile);
         }
         out.writeString(detectorId);
@@ -26,13 +26,17 @@
 
 package org.opensearch.ad.transport;
 
+import static org.opensearch.ad.model.DetectorProfile.ENTITY_CACHE_MIN_NODE_VERSION;
+
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.opensearch.action.FailedNodeException;
 import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.ad.caching.EntityCacheStats;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.model.ModelProfile;
 import org.opensearch.cluster.ClusterName;
@@ -52,6 +56,7 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
     static final String ACTIVE_ENTITY = CommonName.ACTIVE_ENTITIES;
     static final String MODELS = CommonName.MODELS;
     static final String TOTAL_UPDATES = CommonName.TOTAL_UPDATES;
+    static final String ENTITY_CACHE = CommonName.ENTITY_CACHE;
 
     private ModelProfile[] modelProfile;
     private int shingleSize;
@@ -59,6 +64,7 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
     private long totalSizeInBytes;
     private long activeEntities;
     private long totalUpdates;
+    private Map<String, Long> entityCache;
 
     /**
      * Constructor
@@ -78,6 +84,9 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
         totalSizeInBytes = in.readVLong();
         activeEntities = in.readVLong();
         totalUpdates = in.readVLong();
+        if (in.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION) && in.readBoolean()) {
+            entityCache = in.readMap(StreamInput::readString, StreamInput::readLong);
+        }
     }
 
     /**
@@ -113,6 +122,12 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
             if (response.getTotalUpdates() > totalUpdates) {
                 totalUpdates = response.getTotalUpdates();
             }
+            if (response.getEntityCache() != null) {
+                if (entityCache == null) {
+                    entityCache = new HashMap<>();
+                }
+                EntityCacheStats.add(entityCache, response.getEntityCache());
+            }
         }
         if (coordinatingNode == null) {
             coordinatingNode = "";
@@ -132,6 +147,14 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
         out.writeVLong(totalSizeInBytes);
         out.writeVLong(activeEntities);
         out.writeVLong(totalUpdates);
+        if (out.getVersion().onOrAfter(ENTITY_CACHE_MIN_NODE_VERSION)) {
+            if (entityCache != null) {
+                out.writeBoolean(true);
+                out.writeMap(entityCache, StreamOutput::writeString, StreamOutput::writeLong);
+            } else {
+                out.writeBoolean(false);
+            }
+        }
     }
 
     @Override
@@ -151,6 +174,9 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
         builder.field(TOTAL_SIZE, totalSizeInBytes);
         builder.field(ACTIVE_ENTITY, activeEntities);
         builder.field(TOTAL_UPDATES, totalUpdates);
+        if (entityCache != null) {
+            builder.field(ENTITY_CACHE, EntityCacheStats.withHitRate(entityCache));
+        }
         builder.startArray(MODELS);
         for (ModelProfile profile : modelProfile) {
             profile.toXContent(builder, params);
@@ -175,6 +201,10 @@ public class ProfileResponse extends BaseNodesResponse<ProfileNodeResponse> impl
         return totalUpdates;
     }
 
+    public Map<String, Long> getEntityCache() {
+        return entityCache;
+    }
+
     public String getCoordinatingNode() {
         return coordinatingNode;
     }
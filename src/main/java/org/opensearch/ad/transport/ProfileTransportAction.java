@@ -113,6 +113,7 @@ public class ProfileTransportAction extends TransportNodesAction<ProfileRequest,
         long activeEntity = 0;
         long totalUpdates = 0;
         Map<String, Long> modelSize = null;
+        Map<String, Long> entityCache = null;
         if (request.isForMultiEntityDetector()) {
             if (profiles.contains(DetectorProfileName.ACTIVE_ENTITIES)) {
                 activeEntity = cacheProvider.get().getActiveEntities(detectorId);
@@ -123,6 +124,9 @@ public class ProfileTransportAction extends TransportNodesAction<ProfileRequest,
             if (profiles.contains(DetectorProfileName.TOTAL_SIZE_IN_BYTES) || profiles.contains(DetectorProfileName.MODELS)) {
                 modelSize = cacheProvider.get().getModelSize(detectorId);
             }
+            if (profiles.contains(DetectorProfileName.ENTITY_CACHE)) {
+                entityCache = cacheProvider.get().getCacheStats(detectorId);
+            }
         } else {
             if (profiles.contains(DetectorProfileName.COORDINATING_NODE) || profiles.contains(DetectorProfileName.SHINGLE_SIZE)) {
                 shingleSize = featureManager.getShingleSize(detectorId);
@@ -133,6 +137,6 @@ public class ProfileTransportAction extends TransportNodesAction<ProfileRequest,
             }
         }
 
-        return new ProfileNodeResponse(clusterService.localNode(), modelSize, shingleSize, activeEntity, totalUpdates);
+        return new ProfileNodeResponse(clusterService.localNode(), modelSize, shingleSize, activeEntity, totalUpdates, entityCache);
     }
 }
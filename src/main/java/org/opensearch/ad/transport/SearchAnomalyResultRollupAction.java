@@ -24,30 +24,18 @@
  * permissions and limitations under the License.
  */
 
-package org.opensearch.ad.model;
+package org.opensearch.ad.transport;
 
-import java.util.List;
+import org.opensearch.action.ActionType;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.ad.constant.CommonValue;
 
-public class EntityAnomalyResult implements Mergeable {
+public class SearchAnomalyResultRollupAction extends ActionType<SearchResponse> {
+    // External Action which used for public facing RestAPIs.
+    public static final String NAME = CommonValue.EXTERNAL_ACTION_PREFIX + "result/rollup/search";
+    public static final SearchAnomalyResultRollupAction INSTANCE = new SearchAnomalyResultRollupAction();
 
-    private List<AnomalyResult> anomalyResults;
-
-    public EntityAnomalyResult(List<AnomalyResult> anomalyResults) {
-        this.anomalyResults = anomalyResults;
-    }
-
-    public List<AnomalyResult> getAnomalyResults() {
-        return anomalyResults;
-    }
-
-    @Override
-    public void merge(Mergeable other) {
-        if (this == other || other == null || getClass() != other.getClass()) {
-            return;
-        }
-        EntityAnomalyResult otherEntityAnomalyResult = (EntityAnomalyResult) other;
-        if (otherEntityAnomalyResult.getAnomalyResults() != null) {
-            this.anomalyResults.addAll(otherEntityAnomalyResult.getAnomalyResults());
-        }
+    private SearchAnomalyResultRollupAction() {
+        super(NAME, SearchResponse::new);
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.HandledTransportAction;
+import org.opensearch.ad.constant.CommonName;
+import org.opensearch.ad.transport.handler.ADSearchHandler;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.tasks.Task;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Search the hourly rollups of aged anomaly results.  Rollups have their own schema, so they
+ * are only searched through this action and never in place of raw results.
+ */
+public class SearchAnomalyResultRollupTransportAction extends HandledTransportAction<SearchRequest, SearchResponse> {
+    private ADSearchHandler searchHandler;
+
+    @Inject
+    public SearchAnomalyResultRollupTransportAction(
+        TransportService transportService,
+        ActionFilters actionFilters,
+        ADSearchHandler searchHandler
+    ) {
+        super(SearchAnomalyResultRollupAction.NAME, transportService, actionFilters, SearchRequest::new);
+        this.searchHandler = searchHandler;
+    }
+
+    @Override
+    protected void doExecute(Task task, SearchRequest request, ActionListener<SearchResponse> listener) {
+        searchHandler.search(request.indices(CommonName.ANOMALY_RESULT_ROLLUP_INDEX), listener);
+    }
+}
@@ -76,6 +76,8 @@ public class AnomalyIndexHandler<T extends ToXContentObject> {
     protected final ClientUtil clientUtil;
     protected final IndexUtils indexUtils;
     protected final ClusterService clusterService;
+    // node-wide write buffer. Null to write each document on its own.
+    protected AnomalyResultSink resultSink;
 
     /**
      * Abstract class for index operation.
@@ -127,6 +129,14 @@ public class AnomalyIndexHandler<T extends ToXContentObject> {
         this.fixedDoc = fixedDoc;
     }
 
+    /**
+     * Write documents through the node-wide buffer instead of one index request per document.
+     * @param resultSink node-wide write buffer
+     */
+    public void setResultSink(AnomalyResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
     public void index(T toSave, String detectorId) {
         if (indexUtils.checkIndicesBlocked(clusterService.state(), ClusterBlockLevel.WRITE, this.indexName)) {
             LOG.warn(String.format(Locale.ROOT, CANNOT_SAVE_ERR_MSG, detectorId));
@@ -172,6 +182,22 @@ public class AnomalyIndexHandler<T extends ToXContentObject> {
     }
 
     protected void save(T toSave, String detectorId) {
+        if (resultSink != null) {
+            resultSink
+                .add(
+                    detectorId,
+                    indexName,
+                    fixedDoc ? detectorId : null,
+                    toSave,
+                    ActionListener
+                        .wrap(
+                            r -> LOG.debug(String.format(Locale.ROOT, SUCCESS_SAVING_MSG, detectorId)),
+                            // the sink logs failures at error level for the whole batch
+                            e -> LOG.debug(String.format(Locale.ROOT, FAIL_TO_SAVE_ERR_MSG, detectorId), e)
+                        )
+                );
+            return;
+        }
         try (XContentBuilder builder = jsonBuilder()) {
             IndexRequest indexRequest = new IndexRequest(indexName).source(toSave.toXContent(builder, RestHandlerUtils.XCONTENT_WITH_TYPE));
             if (fixedDoc) {
@@ -29,6 +29,8 @@ package org.opensearch.ad.transport.handler;
 import static org.opensearch.ad.constant.CommonName.ANOMALY_RESULT_INDEX_ALIAS;
 import static org.opensearch.common.xcontent.XContentFactory.jsonBuilder;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
@@ -45,13 +47,17 @@ import org.opensearch.action.index.IndexRequest;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
 import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.AnomalyResultBuffer;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.ad.util.IndexUtils;
 import org.opensearch.ad.util.RestHandlerUtils;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.CheckedSupplier;
+import org.opensearch.common.bytes.BytesReference;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.threadpool.ThreadPool;
 
 public class AnomalyResultBulkIndexHandler extends AnomalyIndexHandler<AnomalyResult> {
@@ -85,11 +91,41 @@ public class AnomalyResultBulkIndexHandler extends AnomalyIndexHandler<AnomalyRe
             listener.onResponse(null);
             return;
         }
+        bulkIndex(anomalyResults.get(0).getDetectorId(), () -> {
+            List<BytesReference> sources = new ArrayList<>(anomalyResults.size());
+            for (AnomalyResult anomalyResult : anomalyResults) {
+                try (XContentBuilder builder = jsonBuilder()) {
+                    sources.add(BytesReference.bytes(anomalyResult.toXContent(builder, RestHandlerUtils.XCONTENT_WITH_TYPE)));
+                }
+            }
+            return sources;
+        }, listener);
+    }
+
+    /**
+     * Bulk index anomaly results in columnar form. Create anomaly result index first if it doesn't exist.
+     *
+     * @param anomalyResults anomaly results
+     * @param listener action listener
+     */
+    public void bulkIndexAnomalyResultBuffer(AnomalyResultBuffer anomalyResults, ActionListener<BulkResponse> listener) {
+        if (anomalyResults == null || anomalyResults.size() == 0) {
+            listener.onResponse(null);
+            return;
+        }
+        bulkIndex(anomalyResults.getDetectorId(), anomalyResults::toSources, listener);
+    }
+
+    private void bulkIndex(
+        String detectorId,
+        CheckedSupplier<List<BytesReference>, IOException> sources,
+        ActionListener<BulkResponse> listener
+    ) {
         try {
             if (!anomalyDetectionIndices.doesAnomalyResultIndexExist()) {
                 anomalyDetectionIndices.initAnomalyResultIndexDirectly(ActionListener.wrap(response -> {
                     if (response.isAcknowledged()) {
-                        bulkSaveDetectorResult(anomalyResults, listener);
+                        bulkSaveDetectorResult(detectorId, sources, listener);
                     } else {
                         String error = "Creating anomaly result index with mappings call not acknowledged";
                         LOG.error(error);
@@ -98,13 +134,13 @@ public class AnomalyResultBulkIndexHandler extends AnomalyIndexHandler<AnomalyRe
                 }, exception -> {
                     if (ExceptionsHelper.unwrapCause(exception) instanceof ResourceAlreadyExistsException) {
                         // It is possible the index has been created while we sending the create request
-                        bulkSaveDetectorResult(anomalyResults, listener);
+                        bulkSaveDetectorResult(detectorId, sources, listener);
                     } else {
                         listener.onFailure(exception);
                     }
                 }));
             } else {
-                bulkSaveDetectorResult(anomalyResults, listener);
+                bulkSaveDetectorResult(detectorId, sources, listener);
             }
         } catch (AnomalyDetectionException e) {
             listener.onFailure(e);
@@ -115,20 +151,34 @@ public class AnomalyResultBulkIndexHandler extends AnomalyIndexHandler<AnomalyRe
         }
     }
 
-    private void bulkSaveDetectorResult(List<AnomalyResult> anomalyResults, ActionListener<BulkResponse> listener) {
-        LOG.debug("Start to bulk save {} anomaly results", anomalyResults.size());
+    private void bulkSaveDetectorResult(
+        String detectorId,
+        CheckedSupplier<List<BytesReference>, IOException> sources,
+        ActionListener<BulkResponse> listener
+    ) {
+        List<BytesReference> documents = null;
+        try {
+            documents = sources.get();
+        } catch (Exception e) {
+            String error = "Failed to prepare request to bulk index anomaly results";
+            LOG.error(error, e);
+            throw new AnomalyDetectionException(error);
+        }
+        LOG.debug("Start to bulk save {} anomaly results", documents.size());
+        if (resultSink != null) {
+            resultSink
+                .addAllSources(
+                    detectorId,
+                    ANOMALY_RESULT_INDEX_ALIAS,
+                    documents,
+                    ActionListener.wrap(r -> listener.onResponse(null), listener::onFailure)
+                );
+            return;
+        }
         BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
-        anomalyResults.forEach(anomalyResult -> {
-            try (XContentBuilder builder = jsonBuilder()) {
-                IndexRequest indexRequest = new IndexRequest(ANOMALY_RESULT_INDEX_ALIAS)
-                    .source(anomalyResult.toXContent(builder, RestHandlerUtils.XCONTENT_WITH_TYPE));
-                bulkRequestBuilder.add(indexRequest);
-            } catch (Exception e) {
-                String error = "Failed to prepare request to bulk index anomaly results";
-                LOG.error(error, e);
-                throw new AnomalyDetectionException(error);
-            }
-        });
+        for (BytesReference document : documents) {
+            bulkRequestBuilder.add(new IndexRequest(ANOMALY_RESULT_INDEX_ALIAS).source(document, XContentType.JSON));
+        }
         client.bulk(bulkRequestBuilder.request(), ActionListener.wrap(r -> {
             LOG.debug("bulk index AD result successfully, took: {}", r.getTook().duration());
             listener.onResponse(r);
@@ -0,0 +1,412 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport.handler;
+
+import static org.opensearch.common.xcontent.XContentFactory.jsonBuilder;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.bulk.BackoffPolicy;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.ad.AnomalyDetectorPlugin;
+import org.opensearch.ad.NodeStateManager;
+import org.opensearch.ad.common.exception.AnomalyDetectionException;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
+import org.opensearch.ad.transport.ADResultBulkAction;
+import org.opensearch.ad.transport.ADResultBulkRequest;
+import org.opensearch.ad.util.RestHandlerUtils;
+import org.opensearch.client.Client;
+import org.opensearch.common.bytes.BytesReference;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.common.xcontent.ToXContentObject;
+import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.rest.RestStatus;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Node-wide buffer of anomaly result writes.
+ *
+ * Detectors on a node tend to fire at the same time (e.g., at the top of each
+ * minute).  Writing each detector's results with its own index or bulk request
+ * produces a burst of tiny requests that fills the write queue.  Results handed
+ * to the sink are instead buffered and written together once the buffer reaches
+ * the bulk size or the linger time has passed since the first buffered result.
+ *
+ * Results that must be written (single-entity and historical results) are sent
+ * as one bulk request.  Rejected items are retried with a shared exponential
+ * backoff policy.  Multi-entity results are merged into one {@link ADResultBulkRequest}
+ * so that they still go through the indexing pressure based sampling and the
+ * retry buffer of {@link ADResultBulkAction}.
+ *
+ * Writes are sent in the plugin's own security context, as the callers of the
+ * sink belong to different detectors and users.
+ */
+public class AnomalyResultSink {
+    private static final Logger LOG = LogManager.getLogger(AnomalyResultSink.class);
+    static final String FAIL_TO_SAVE_ERR_MSG = "Fail to save results of %d detector(s): ";
+    static final String RETRY_SAVING_ERR_MSG = "Retry in saving %d result(s): ";
+
+    private static class PendingWrite {
+        private final String detectorId;
+        private final String index;
+        private final String docId;
+        private final BytesReference source;
+        private final ActionListener<Void> listener;
+
+        PendingWrite(String detectorId, String index, String docId, BytesReference source, ActionListener<Void> listener) {
+            this.detectorId = detectorId;
+            this.index = index;
+            this.docId = docId;
+            this.source = source;
+            this.listener = listener;
+        }
+
+        // a new request is needed for each try: a request that has been sent already
+        // carries an auto generated timestamp that cannot be combined with a retry.
+        IndexRequest toRequest() {
+            IndexRequest request = new IndexRequest(index).source(source, XContentType.JSON);
+            if (docId != null) {
+                request.id(docId);
+            }
+            return request;
+        }
+    }
+
+    private final Client client;
+    private final ThreadPool threadPool;
+    private final NodeStateManager nodeStateManager;
+    private final Clock clock;
+    private final BackoffPolicy backoffPolicy;
+    private final int bulkSize;
+    private volatile TimeValue linger;
+    private final LatencySupplier bulkLatency;
+    // Guarded by this
+    private List<PendingWrite> pendingWrites;
+    // Guarded by this
+    private ADResultBulkRequest pendingEntityResults;
+    // Guarded by this
+    private boolean flushScheduled;
+
+    /**
+     * Constructor
+     *
+     * @param client ES client for bulk requests
+     * @param threadPool Accessor to different threadpools
+     * @param nodeStateManager Storing node state; told about write rejections
+     * @param clock Used to record when writes are rejected
+     * @param backoffPolicy Retry policy for rejected writes
+     * @param linger How long the first buffered result waits for others. Zero writes immediately.
+     * @param bulkSize Number of buffered results that triggers a write
+     */
+    public AnomalyResultSink(
+        Client client,
+        ThreadPool threadPool,
+        NodeStateManager nodeStateManager,
+        Clock clock,
+        BackoffPolicy backoffPolicy,
+        TimeValue linger,
+        int bulkSize
+    ) {
+        this.client = client;
+        this.threadPool = threadPool;
+        this.nodeStateManager = nodeStateManager;
+        this.clock = clock;
+        this.backoffPolicy = backoffPolicy;
+        this.linger = linger;
+        this.bulkSize = bulkSize;
+        this.pendingWrites = new ArrayList<>();
+        this.pendingEntityResults = new ADResultBulkRequest();
+        this.flushScheduled = false;
+        this.bulkLatency = new LatencySupplier();
+    }
+
+    public void setLinger(TimeValue linger) {
+        this.linger = linger;
+    }
+
+    /**
+     * @return latency of each result bulk request
+     */
+    public LatencySupplier getBulkLatency() {
+        return bulkLatency;
+    }
+
+    /**
+     * Buffer a document to write.
+     *
+     * @param detectorId Detector Id
+     * @param index Index to write to
+     * @param docId Document id; null to let OpenSearch generate one
+     * @param toSave Document to write
+     * @param listener Notified after the document is written or given up
+     */
+    public void add(String detectorId, String index, String docId, ToXContentObject toSave, ActionListener<Void> listener) {
+        PendingWrite write = new PendingWrite(detectorId, index, docId, toBytes(detectorId, toSave), listener);
+        boolean full = false;
+        synchronized (this) {
+            pendingWrites.add(write);
+            full = size() >= bulkSize;
+        }
+        onAdded(full);
+    }
+
+    /**
+     * Buffer anomaly results to write and write the buffer without waiting for
+     * the linger time, as the caller is waiting for the results to be saved.
+     *
+     * @param detectorId Detector Id
+     * @param index Index to write to
+     * @param results Results to write
+     * @param listener Notified after all results are written or given up.
+     *  Fails with the last error if any result cannot be written.
+     */
+    public void addAll(String detectorId, String index, List<AnomalyResult> results, ActionListener<Void> listener) {
+        if (results == null || results.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        List<BytesReference> sources = new ArrayList<>(results.size());
+        for (AnomalyResult result : results) {
+            sources.add(toBytes(detectorId, result));
+        }
+        addAllSources(detectorId, index, sources, listener);
+    }
+
+    /**
+     * Buffer serialized anomaly results to write and write the buffer without waiting
+     * for the linger time, as the caller is waiting for the results to be saved.
+     *
+     * @param detectorId Detector Id
+     * @param index Index to write to
+     * @param sources JSON sources of the results to write
+     * @param listener Notified after all results are written or given up.
+     *  Fails with the last error if any result cannot be written.
+     */
+    public void addAllSources(String detectorId, String index, List<BytesReference> sources, ActionListener<Void> listener) {
+        if (sources == null || sources.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        List<PendingWrite> writes = new ArrayList<>(sources.size());
+        AtomicInteger remaining = new AtomicInteger(sources.size());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ActionListener<Void> countDown = ActionListener.wrap(r -> onOneDone(remaining, failure, listener), e -> {
+            failure.set(e);
+            onOneDone(remaining, failure, listener);
+        });
+        for (BytesReference source : sources) {
+            writes.add(new PendingWrite(detectorId, index, null, source, countDown));
+        }
+        synchronized (this) {
+            pendingWrites.addAll(writes);
+        }
+        onAdded(true);
+    }
+
+    /**
+     * Buffer multi-entity results to write.
+     *
+     * @param request Results of one detector
+     * @param detectorId Detector Id
+     */
+    public void addEntityResults(ADResultBulkRequest request, String detectorId) {
+        if (request.numberOfActions() <= 0) {
+            return;
+        }
+        boolean full = false;
+        synchronized (this) {
+            for (AnomalyResult result : request.getAnomalyResults()) {
+                pendingEntityResults.add(result);
+            }
+            full = size() >= bulkSize;
+        }
+        onAdded(full);
+    }
+
+    /**
+     * @return number of buffered results
+     */
+    public synchronized int size() {
+        return pendingWrites.size() + pendingEntityResults.numberOfActions();
+    }
+
+    /**
+     * Write all buffered results now.
+     */
+    public void flush() {
+        List<PendingWrite> writes = null;
+        ADResultBulkRequest entityResults = null;
+        synchronized (this) {
+            flushScheduled = false;
+            if (!pendingWrites.isEmpty()) {
+                writes = pendingWrites;
+                pendingWrites = new ArrayList<>();
+            }
+            if (pendingEntityResults.numberOfActions() > 0) {
+                entityResults = pendingEntityResults;
+                pendingEntityResults = new ADResultBulkRequest();
+            }
+        }
+        if (writes != null) {
+            bulk(writes, backoffPolicy.iterator());
+        }
+        if (entityResults != null) {
+            bulkEntityResults(entityResults);
+        }
+    }
+
+    private void onAdded(boolean flushNow) {
+        TimeValue currentLinger = linger;
+        if (flushNow || currentLinger.millis() <= 0) {
+            flush();
+            return;
+        }
+        synchronized (this) {
+            if (flushScheduled || size() == 0) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        threadPool.schedule(this::flush, currentLinger, AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+    }
+
+    private void onOneDone(AtomicInteger remaining, AtomicReference<Exception> failure, ActionListener<Void> listener) {
+        if (remaining.decrementAndGet() == 0) {
+            Exception e = failure.get();
+            if (e == null) {
+                listener.onResponse(null);
+            } else {
+                listener.onFailure(e);
+            }
+        }
+    }
+
+    private BytesReference toBytes(String detectorId, ToXContentObject toSave) {
+        try (XContentBuilder builder = jsonBuilder()) {
+            return BytesReference.bytes(toSave.toXContent(builder, RestHandlerUtils.XCONTENT_WITH_TYPE));
+        } catch (Exception e) {
+            LOG.error("Failed to prepare result write", e);
+            throw new AnomalyDetectionException(detectorId, "Failed to prepare request to bulk index anomaly results");
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void bulk(List<PendingWrite> writes, Iterator<TimeValue> backoff) {
+        BulkRequest bulkRequest = new BulkRequest();
+        for (PendingWrite write : writes) {
+            bulkRequest.add(write.toRequest());
+        }
+        long startNanos = System.nanoTime();
+        try (ThreadContext.StoredContext context = threadPool.getThreadContext().stashContext()) {
+            client.bulk(bulkRequest, ActionListener.wrap(response -> {
+                bulkLatency.recordSince(startNanos);
+                List<PendingWrite> rejected = new ArrayList<>();
+                Exception rejectedCause = null;
+                for (BulkItemResponse item : response.getItems()) {
+                    PendingWrite write = writes.get(item.getItemId());
+                    if (!item.isFailed()) {
+                        write.listener.onResponse(null);
+                    } else if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                        rejected.add(write);
+                        rejectedCause = item.getFailure().getCause();
+                    } else {
+                        LOG
+                            .error(
+                                String.format(Locale.ROOT, "Fail to save result of detector %s", write.detectorId),
+                                item.getFailure().getCause()
+                            );
+                        write.listener.onFailure(item.getFailure().getCause());
+                    }
+                }
+                if (!rejected.isEmpty()) {
+                    retry(rejected, backoff, rejectedCause);
+                }
+            }, exception -> {
+                bulkLatency.recordSince(startNanos);
+                if (ExceptionsHelper.unwrapCause(exception) instanceof RejectedExecutionException) {
+                    retry(writes, backoff, exception);
+                } else {
+                    fail(writes, exception);
+                }
+            }));
+        }
+    }
+
+    private void retry(List<PendingWrite> writes, Iterator<TimeValue> backoff, Exception cause) {
+        // too much indexing pressure
+        nodeStateManager.setLastIndexThrottledTime(clock.instant());
+        if (!backoff.hasNext()) {
+            fail(writes, cause);
+            return;
+        }
+        TimeValue nextDelay = backoff.next();
+        LOG.warn(String.format(Locale.ROOT, RETRY_SAVING_ERR_MSG, writes.size()), cause);
+        threadPool.schedule(() -> bulk(writes, backoff), nextDelay, AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+    }
+
+    private void fail(List<PendingWrite> writes, Exception cause) {
+        LOG.error(String.format(Locale.ROOT, FAIL_TO_SAVE_ERR_MSG, writes.stream().map(w -> w.detectorId).distinct().count()), cause);
+        for (PendingWrite write : writes) {
+            write.listener.onFailure(cause);
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void bulkEntityResults(ADResultBulkRequest request) {
+        long startNanos = System.nanoTime();
+        try (ThreadContext.StoredContext context = threadPool.getThreadContext().stashContext()) {
+            client.execute(ADResultBulkAction.INSTANCE, request, ActionListener.<BulkResponse>wrap(response -> {
+                bulkLatency.recordSince(startNanos);
+                LOG.debug("Saved {} entity results", request.numberOfActions());
+            }, exception -> {
+                bulkLatency.recordSince(startNanos);
+                // ADResultBulkAction retries rejected results itself
+                LOG.error("Fail to save entity results", exception);
+                if (ExceptionsHelper.unwrapCause(exception) instanceof RejectedExecutionException) {
+                    nodeStateManager.setLastIndexThrottledTime(clock.instant());
+                }
+            }));
+        }
+    }
+}
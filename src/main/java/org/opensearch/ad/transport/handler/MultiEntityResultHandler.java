@@ -172,6 +172,10 @@ public class MultiEntityResultHandler extends AnomalyIndexHandler<AnomalyResult>
         if (currentBulkRequest.numberOfActions() <= 0) {
             return;
         }
+        if (resultSink != null) {
+            resultSink.addEntityResults(currentBulkRequest, detectorId);
+            return;
+        }
         client
             .execute(
                 ADResultBulkAction.INSTANCE,
@@ -180,8 +184,7 @@ public class MultiEntityResultHandler extends AnomalyIndexHandler<AnomalyResult>
                     .<BulkResponse>wrap(response -> LOG.debug(String.format(Locale.ROOT, SUCCESS_SAVING_MSG, detectorId)), exception -> {
                         LOG.error(String.format(Locale.ROOT, FAIL_TO_SAVE_ERR_MSG, detectorId), exception);
                         Throwable cause = Throwables.getRootCause(exception);
-                        // too much indexing pressure
-                        // TODO: pause indexing a bit before trying again, ideally with randomized exponential backoff.
+                        // too much indexing pressure. ADResultBulkAction retries rejected results.
                         if (cause instanceof RejectedExecutionException) {
                             nodeStateManager.setLastIndexThrottledTime(clock.instant());
                         }
@@ -0,0 +1,314 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport.handler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkAction;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.ad.AnomalyDetectorPlugin;
+import org.opensearch.ad.util.BulkUtil;
+import org.opensearch.client.Client;
+import org.opensearch.common.Randomness;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Holds multi-entity result writes rejected by an overloaded write thread pool and
+ * retries them with jittered exponential backoff.
+ *
+ * The buffer is bounded by the bytes of the buffered documents.  When it is full,
+ * results with a non-zero anomaly grade are kept at the expense of zero-grade
+ * results, as anomalies are what users look for.  The delay before the n-th
+ * consecutive retry round is picked uniformly from [0, min(maxDelay, initialDelay * 2^n)]
+ * so that nodes rejected at the same time do not retry in lockstep.
+ */
+public class ResultBulkRetryBuffer {
+    private static final Logger LOG = LogManager.getLogger(ResultBulkRetryBuffer.class);
+
+    private static class RetryEntry {
+        private final IndexRequest request;
+        private final boolean anomaly;
+        private final long bytes;
+        private final int attempts;
+
+        RetryEntry(IndexRequest request, boolean anomaly, int attempts) {
+            this.request = request;
+            this.anomaly = anomaly;
+            this.bytes = request.source().length();
+            this.attempts = attempts;
+        }
+
+        RetryEntry retried() {
+            return new RetryEntry(copy(request), anomaly, attempts + 1);
+        }
+    }
+
+    private final Client client;
+    private final ThreadPool threadPool;
+    private final Random random;
+    private final long maxBytes;
+    private final TimeValue initialDelay;
+    private final TimeValue maxDelay;
+    private final int maxRetries;
+    // Guarded by this
+    private final Deque<RetryEntry> anomalies;
+    // Guarded by this
+    private final Deque<RetryEntry> others;
+    // Guarded by this
+    private long bytes;
+    // Guarded by this
+    private boolean retryScheduled;
+    // Guarded by this; number of consecutive retry rounds with rejections
+    private int rejectedRounds;
+
+    /**
+     * Constructor
+     *
+     * @param client ES client for bulk requests
+     * @param threadPool Accessor to different threadpools
+     * @param maxBytes Max bytes of buffered documents
+     * @param initialDelay Upper bound of the delay before the first retry
+     * @param maxDelay Cap of the delay before a retry
+     * @param maxRetries Max number of retries of a document
+     */
+    public ResultBulkRetryBuffer(
+        Client client,
+        ThreadPool threadPool,
+        long maxBytes,
+        TimeValue initialDelay,
+        TimeValue maxDelay,
+        int maxRetries
+    ) {
+        this(client, threadPool, Randomness.get(), maxBytes, initialDelay, maxDelay, maxRetries);
+    }
+
+    protected ResultBulkRetryBuffer(
+        Client client,
+        ThreadPool threadPool,
+        Random random,
+        long maxBytes,
+        TimeValue initialDelay,
+        TimeValue maxDelay,
+        int maxRetries
+    ) {
+        this.client = client;
+        this.threadPool = threadPool;
+        this.random = random;
+        this.maxBytes = maxBytes;
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetries = maxRetries;
+        this.anomalies = new ArrayDeque<>();
+        this.others = new ArrayDeque<>();
+        this.bytes = 0;
+        this.retryScheduled = false;
+        this.rejectedRounds = 0;
+    }
+
+    /**
+     * Buffer the rejected items of a result bulk for retry.
+     *
+     * @param bulkRequest The bulk request sent
+     * @param anomalies Whether each request of the bulk is a non-zero grade result, in request order
+     * @param bulkResponse The response
+     */
+    public void offerRejected(BulkRequest bulkRequest, List<Boolean> anomalies, BulkResponse bulkResponse) {
+        if (bulkResponse == null || !bulkResponse.hasFailures()) {
+            return;
+        }
+        offerRejected(bulkRequest, anomalies, BulkUtil.getRetryableItemIds(bulkResponse));
+    }
+
+    /**
+     * Buffer all requests of a rejected result bulk for retry.
+     *
+     * @param bulkRequest The bulk request sent
+     * @param anomalies Whether each request of the bulk is a non-zero grade result, in request order
+     */
+    public void offerAll(BulkRequest bulkRequest, List<Boolean> anomalies) {
+        List<Integer> all = new ArrayList<>(bulkRequest.numberOfActions());
+        for (int i = 0; i < bulkRequest.numberOfActions(); i++) {
+            all.add(i);
+        }
+        offerRejected(bulkRequest, anomalies, all);
+    }
+
+    /**
+     * @return buffered bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return number of buffered documents
+     */
+    public synchronized int size() {
+        return anomalies.size() + others.size();
+    }
+
+    private void offerRejected(BulkRequest bulkRequest, List<Boolean> isAnomaly, List<Integer> itemIds) {
+        List<DocWriteRequest<?>> requests = bulkRequest.requests();
+        List<RetryEntry> entries = new ArrayList<>(itemIds.size());
+        for (int itemId : itemIds) {
+            DocWriteRequest<?> request = requests.get(itemId);
+            if (request instanceof IndexRequest) {
+                entries.add(new RetryEntry(copy((IndexRequest) request), isAnomaly.get(itemId), 0));
+            }
+        }
+        offer(entries);
+    }
+
+    private void offer(List<RetryEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        int dropped = 0;
+        int exhausted = 0;
+        synchronized (this) {
+            for (RetryEntry entry : entries) {
+                if (entry.attempts >= maxRetries) {
+                    exhausted++;
+                } else if (!add(entry)) {
+                    dropped++;
+                }
+            }
+        }
+        if (exhausted > 0) {
+            LOG.error("Give up saving {} results after {} retries", exhausted, maxRetries);
+        }
+        if (dropped > 0) {
+            LOG.warn("Result retry buffer is full. Dropped {} results", dropped);
+        }
+        scheduleRetry();
+    }
+
+    // Guarded by this
+    private boolean add(RetryEntry entry) {
+        while (bytes + entry.bytes > maxBytes) {
+            // make room by dropping the oldest zero grade result; a zero grade result never evicts anything
+            if (!entry.anomaly || others.isEmpty()) {
+                return false;
+            }
+            bytes -= others.pollFirst().bytes;
+        }
+        if (entry.anomaly) {
+            anomalies.addLast(entry);
+        } else {
+            others.addLast(entry);
+        }
+        bytes += entry.bytes;
+        return true;
+    }
+
+    private void scheduleRetry() {
+        TimeValue delay = null;
+        synchronized (this) {
+            if (retryScheduled || size() == 0) {
+                return;
+            }
+            retryScheduled = true;
+            delay = nextDelay(rejectedRounds);
+        }
+        threadPool.schedule(this::retry, delay, AnomalyDetectorPlugin.AD_THREAD_POOL_NAME);
+    }
+
+    TimeValue nextDelay(int rounds) {
+        // cap the shift so that the bound does not overflow
+        long bound = Math.min(maxDelay.millis(), initialDelay.millis() << Math.min(rounds, 20));
+        return TimeValue.timeValueMillis((long) (random.nextDouble() * (bound + 1)));
+    }
+
+    @SuppressWarnings("try")
+    void retry() {
+        List<RetryEntry> entries = new ArrayList<>();
+        synchronized (this) {
+            retryScheduled = false;
+            entries.addAll(anomalies);
+            entries.addAll(others);
+            anomalies.clear();
+            others.clear();
+            bytes = 0;
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        BulkRequest bulkRequest = new BulkRequest();
+        for (RetryEntry entry : entries) {
+            bulkRequest.add(entry.request);
+        }
+        try (ThreadContext.StoredContext context = threadPool.getThreadContext().stashContext()) {
+            client.execute(BulkAction.INSTANCE, bulkRequest, ActionListener.wrap(response -> {
+                List<Integer> rejected = BulkUtil.getRetryableItemIds(response);
+                onRetryDone(!rejected.isEmpty());
+                List<RetryEntry> toRetry = new ArrayList<>(rejected.size());
+                for (int itemId : rejected) {
+                    toRetry.add(entries.get(itemId).retried());
+                }
+                offer(toRetry);
+            }, exception -> {
+                boolean rejected = ExceptionsHelper.unwrapCause(exception) instanceof RejectedExecutionException;
+                onRetryDone(rejected);
+                if (rejected) {
+                    List<RetryEntry> toRetry = new ArrayList<>(entries.size());
+                    for (RetryEntry entry : entries) {
+                        toRetry.add(entry.retried());
+                    }
+                    offer(toRetry);
+                } else {
+                    LOG.error("Fail to retry saving results", exception);
+                }
+            }));
+        }
+    }
+
+    private synchronized void onRetryDone(boolean rejected) {
+        rejectedRounds = rejected ? rejectedRounds + 1 : 0;
+    }
+
+    // copy the source only: a request that has been sent carries an auto generated
+    // timestamp that cannot be combined with a retry.
+    private static IndexRequest copy(IndexRequest request) {
+        IndexRequest newRequest = new IndexRequest(request.index());
+        newRequest.source(request.source(), request.getContentType());
+        return newRequest;
+    }
+}
@@ -37,6 +37,7 @@ import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.rest.RestStatus;
 
 public class BulkUtil {
     private static final Logger logger = LogManager.getLogger(BulkUtil.class);
@@ -58,4 +59,22 @@ public class BulkUtil {
         }
         return res;
     }
+
+    /**
+     * Find the items of a bulk request that were rejected because the cluster is overloaded.
+     * Unlike {@link #getIndexRequestToRetry}, items are identified by their position in the bulk
+     * request, so it also works for requests without a document id.
+     *
+     * @param bulkResponse The bulk response
+     * @return positions of the rejected items in the bulk request
+     */
+    public static List<Integer> getRetryableItemIds(BulkResponse bulkResponse) {
+        List<Integer> res = new ArrayList<>();
+        for (BulkItemResponse response : bulkResponse.getItems()) {
+            if (response.isFailed() && response.status() == RestStatus.TOO_MANY_REQUESTS) {
+                res.add(response.getItemId());
+            }
+        }
+        return res;
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * Measures the retained heap size of an object graph by walking its references
+ * reflectively.
+ *
+ * Shallow sizes come from Lucene's RamUsageEstimator, so they follow the JVM's
+ * object layout (compressed oops, header size, alignment).  The walk does not
+ * follow classes, class loaders, threads, and executors, as those are shared by
+ * the whole JVM rather than owned by the measured object.  Fields that cannot be
+ * made accessible (e.g., internals of JDK modules) are skipped, so the result
+ * is a lower bound.
+ *
+ * Walking is proportional to the number of reachable objects and is meant to be
+ * run on a small sample of objects during maintenance, not on the hot path.
+ */
+public class ObjectSizeCalculator {
+    private static final Map<Class<?>, List<Field>> REFERENCE_FIELDS = new ConcurrentHashMap<>();
+
+    private ObjectSizeCalculator() {}
+
+    /**
+     * @param root root of the object graph
+     * @return retained size of the object graph in bytes
+     */
+    public static long sizeOf(Object root) {
+        if (root == null) {
+            return 0;
+        }
+        return AccessController.doPrivileged((PrivilegedAction<Long>) () -> walk(root));
+    }
+
+    private static long walk(Object root) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        long size = 0;
+        while (!stack.isEmpty()) {
+            Object current = stack.pop();
+            if (isShared(current) || !visited.add(current)) {
+                continue;
+            }
+            size += RamUsageEstimator.shallowSizeOf(current);
+            Class<?> clazz = current.getClass();
+            if (clazz.isArray()) {
+                if (!clazz.getComponentType().isPrimitive()) {
+                    for (Object element : (Object[]) current) {
+                        if (element != null) {
+                            stack.push(element);
+                        }
+                    }
+                }
+                continue;
+            }
+            for (Field field : REFERENCE_FIELDS.computeIfAbsent(clazz, ObjectSizeCalculator::referenceFields)) {
+                try {
+                    Object value = field.get(current);
+                    if (value != null) {
+                        stack.push(value);
+                    }
+                } catch (IllegalAccessException e) {
+                    // cannot happen as only accessible fields are cached
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean isShared(Object object) {
+        return object instanceof Class
+            || object instanceof ClassLoader
+            || object instanceof Thread
+            || object instanceof Executor
+            || object instanceof Enum;
+    }
+
+    private static List<Field> referenceFields(Class<?> clazz) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    fields.add(field);
+                } catch (RuntimeException e) {
+                    // InaccessibleObjectException on Java 9+ for fields of closed modules
+                }
+            }
+        }
+        return fields;
+    }
+}
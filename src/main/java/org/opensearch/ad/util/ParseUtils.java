@@ -27,6 +27,7 @@
 package org.opensearch.ad.util;
 
 import static org.opensearch.ad.constant.CommonName.DATE_HISTOGRAM;
+import static org.opensearch.ad.constant.CommonName.ENTITY_TERMS;
 import static org.opensearch.ad.constant.CommonName.EPOCH_MILLIS_FORMAT;
 import static org.opensearch.ad.constant.CommonName.FEATURE_AGGS;
 import static org.opensearch.ad.model.AnomalyDetector.QUERY_PARAM_PERIOD_END;
@@ -43,6 +44,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -56,6 +58,7 @@ import org.opensearch.action.search.SearchResponse;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.Feature;
 import org.opensearch.ad.model.FeatureData;
 import org.opensearch.ad.model.IntervalTimeConfiguration;
@@ -76,14 +79,17 @@ import org.opensearch.index.query.RangeQueryBuilder;
 import org.opensearch.index.query.TermQueryBuilder;
 import org.opensearch.index.query.TermsQueryBuilder;
 import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.search.aggregations.AggregationBuilders;
 import org.opensearch.search.aggregations.AggregatorFactories;
 import org.opensearch.search.aggregations.BaseAggregationBuilder;
 import org.opensearch.search.aggregations.PipelineAggregationBuilder;
 import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
 import org.opensearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
 import org.opensearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.opensearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.opensearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.opensearch.search.aggregations.metrics.Max;
 import org.opensearch.search.builder.SearchSourceBuilder;
 
@@ -311,12 +317,62 @@ public final class ParseUtils {
         return factories;
     }
 
+    /**
+     * Parse each feature's aggregation and name it after the feature id.
+     *
+     * @param detector anomaly detector
+     * @param enabledOnly whether to skip disabled features
+     * @param xContentRegistry content registry
+     * @return parsed aggregations in feature order
+     * @throws IOException throw IO exception if fail to parse feature aggregation
+     */
+    public static List<AggregationBuilder> parseFeatureAggregations(
+        AnomalyDetector detector,
+        boolean enabledOnly,
+        NamedXContentRegistry xContentRegistry
+    ) throws IOException {
+        List<AggregationBuilder> featureAggs = new ArrayList<>();
+        if (detector.getFeatureAttributes() == null) {
+            return featureAggs;
+        }
+        for (Feature feature : detector.getFeatureAttributes()) {
+            if (enabledOnly && !feature.getEnabled()) {
+                continue;
+            }
+            AggregatorFactories.Builder internalAgg = parseAggregators(
+                feature.getAggregation().toString(),
+                xContentRegistry,
+                feature.getId()
+            );
+            featureAggs.add(internalAgg.getAggregatorFactories().iterator().next());
+        }
+        return featureAggs;
+    }
+
     public static SearchSourceBuilder generateInternalFeatureQuery(
         AnomalyDetector detector,
         long startTime,
         long endTime,
         NamedXContentRegistry xContentRegistry
     ) throws IOException {
+        return generateInternalFeatureQuery(detector, startTime, endTime, parseFeatureAggregations(detector, false, xContentRegistry));
+    }
+
+    /**
+     * Generate feature query on given date range using feature aggregations parsed beforehand.
+     *
+     * @param detector anomaly detector
+     * @param startTime start time
+     * @param endTime end time
+     * @param featureAggs parsed aggregations of all features
+     * @return search source builder
+     */
+    public static SearchSourceBuilder generateInternalFeatureQuery(
+        AnomalyDetector detector,
+        long startTime,
+        long endTime,
+        List<AggregationBuilder> featureAggs
+    ) {
         RangeQueryBuilder rangeQuery = new RangeQueryBuilder(detector.getTimeField())
             .from(startTime)
             .to(endTime)
@@ -327,15 +383,8 @@ public final class ParseUtils {
         BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().must(rangeQuery).must(detector.getFilterQuery());
 
         SearchSourceBuilder internalSearchSourceBuilder = new SearchSourceBuilder().query(internalFilterQuery);
-        if (detector.getFeatureAttributes() != null) {
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                internalSearchSourceBuilder.aggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
+        for (AggregationBuilder featureAgg : featureAggs) {
+            internalSearchSourceBuilder.aggregation(featureAgg);
         }
 
         return internalSearchSourceBuilder;
@@ -346,21 +395,30 @@ public final class ParseUtils {
         List<Entry<Long, Long>> ranges,
         NamedXContentRegistry xContentRegistry
     ) throws IOException {
+        return generatePreviewQuery(detector, ranges, parseFeatureAggregations(detector, false, xContentRegistry));
+    }
+
+    /**
+     * Generate preview query on given date ranges using feature aggregations parsed beforehand.
+     *
+     * @param detector anomaly detector
+     * @param ranges date ranges
+     * @param featureAggs parsed aggregations of all features
+     * @return search source builder
+     */
+    public static SearchSourceBuilder generatePreviewQuery(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        List<AggregationBuilder> featureAggs
+    ) {
 
         DateRangeAggregationBuilder dateRangeBuilder = dateRange("date_range").field(detector.getTimeField()).format("epoch_millis");
         for (Entry<Long, Long> range : ranges) {
             dateRangeBuilder.addRange(range.getKey(), range.getValue());
         }
 
-        if (detector.getFeatureAttributes() != null) {
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                dateRangeBuilder.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
+        for (AggregationBuilder featureAgg : featureAggs) {
+            dateRangeBuilder.subAggregation(featureAgg);
         }
 
         return new SearchSourceBuilder().query(detector.getFilterQuery()).size(0).aggregation(dateRangeBuilder);
@@ -395,6 +453,24 @@ public final class ParseUtils {
         String entityName,
         NamedXContentRegistry xContentRegistry
     ) throws IOException {
+        return generateEntityColdStartQuery(detector, ranges, entityName, parseFeatureAggregations(detector, false, xContentRegistry));
+    }
+
+    /**
+     * Generate entity cold start query on given date ranges using feature aggregations parsed beforehand.
+     *
+     * @param detector anomaly detector
+     * @param ranges date ranges
+     * @param entityName entity value
+     * @param featureAggs parsed aggregations of all features
+     * @return search source builder
+     */
+    public static SearchSourceBuilder generateEntityColdStartQuery(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        String entityName,
+        List<AggregationBuilder> featureAggs
+    ) {
 
         TermQueryBuilder term = new TermQueryBuilder(detector.getCategoryField().get(0), entityName);
         BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().filter(detector.getFilterQuery()).filter(term);
@@ -404,20 +480,55 @@ public final class ParseUtils {
             dateRangeBuilder.addRange(range.getKey(), range.getValue());
         }
 
-        if (detector.getFeatureAttributes() != null) {
-            for (Feature feature : detector.getFeatureAttributes()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                dateRangeBuilder.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
+        for (AggregationBuilder featureAgg : featureAggs) {
+            dateRangeBuilder.subAggregation(featureAgg);
         }
 
         return new SearchSourceBuilder().query(internalFilterQuery).size(0).aggregation(dateRangeBuilder);
     }
 
+    /**
+     * Generate preview query of entities on given date ranges using feature aggregations parsed beforehand.
+     * Buckets are keyed by entity first and then by date range, so one search returns the samples of all
+     * entities.
+     *
+     * @param detector anomaly detector
+     * @param ranges date ranges
+     * @param entities entities to preview
+     * @param featureAggs parsed aggregations of all features
+     * @return search source builder
+     */
+    public static SearchSourceBuilder generateEntitiesPreviewQuery(
+        AnomalyDetector detector,
+        List<Entry<Long, Long>> ranges,
+        List<Entity> entities,
+        List<AggregationBuilder> featureAggs
+    ) {
+        String categoryField = detector.getCategoryField().get(0);
+        TermsQueryBuilder terms = new TermsQueryBuilder(
+            categoryField,
+            entities.stream().map(Entity::getValue).collect(Collectors.toList())
+        );
+        BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().filter(detector.getFilterQuery()).filter(terms);
+
+        DateRangeAggregationBuilder dateRangeBuilder = dateRange("date_range").field(detector.getTimeField()).format("epoch_millis");
+        for (Entry<Long, Long> range : ranges) {
+            dateRangeBuilder.addRange(range.getKey(), range.getValue());
+        }
+
+        for (AggregationBuilder featureAgg : featureAggs) {
+            dateRangeBuilder.subAggregation(featureAgg);
+        }
+
+        TermsAggregationBuilder entityTerms = AggregationBuilders
+            .terms(ENTITY_TERMS)
+            .field(categoryField)
+            .size(entities.size())
+            .subAggregation(dateRangeBuilder);
+
+        return new SearchSourceBuilder().query(internalFilterQuery).size(0).aggregation(entityTerms);
+    }
+
     /**
      * Map feature data to its Id and name
      * @param currentFeature Feature data
@@ -621,6 +732,49 @@ public final class ParseUtils {
         long endTime,
         NamedXContentRegistry xContentRegistry
     ) throws IOException {
+        return batchFeatureQuery(detector, startTime, endTime, parseFeatureAggregations(detector, true, xContentRegistry));
+    }
+
+    /**
+     * Generate batch query request for feature aggregation on given date range
+     * using feature aggregations parsed beforehand.
+     *
+     * @param detector anomaly detector
+     * @param startTime start time
+     * @param endTime end time
+     * @param enabledFeatureAggs parsed aggregations of enabled features
+     * @return search source builder
+     * @throws AnomalyDetectionException throw AD exception if no enabled feature
+     */
+    public static SearchSourceBuilder batchFeatureQuery(
+        AnomalyDetector detector,
+        long startTime,
+        long endTime,
+        List<AggregationBuilder> enabledFeatureAggs
+    ) {
+        return batchFeatureQuery(detector, null, startTime, endTime, enabledFeatureAggs);
+    }
+
+    /**
+     * Generate batch query request for feature aggregation of entities on given date range
+     * using feature aggregations parsed beforehand.  Buckets are keyed by both time and
+     * entity, ordered by time first.
+     *
+     * @param detector anomaly detector
+     * @param entities entities to query; null to query the detector as a single entity
+     * @param startTime start time
+     * @param endTime end time
+     * @param enabledFeatureAggs parsed aggregations of enabled features
+     * @return search source builder
+     * @throws AnomalyDetectionException throw AD exception if no enabled feature
+     */
+    public static SearchSourceBuilder batchFeatureQuery(
+        AnomalyDetector detector,
+        List<Entity> entities,
+        long startTime,
+        long endTime,
+        List<AggregationBuilder> enabledFeatureAggs
+    ) {
         RangeQueryBuilder rangeQuery = new RangeQueryBuilder(detector.getTimeField())
             .from(startTime)
             .to(endTime)
@@ -629,6 +783,11 @@ public final class ParseUtils {
             .includeUpper(false);
 
         BoolQueryBuilder internalFilterQuery = QueryBuilders.boolQuery().must(rangeQuery).must(detector.getFilterQuery());
+        if (entities != null) {
+            String categoryField = detector.getCategoryField().get(0);
+            internalFilterQuery
+                .filter(new TermsQueryBuilder(categoryField, entities.stream().map(Entity::getValue).collect(Collectors.toList())));
+        }
 
         long intervalSeconds = ((IntervalTimeConfiguration) detector.getDetectionInterval()).toDuration().getSeconds();
 
@@ -639,6 +798,9 @@ public final class ParseUtils {
                     .field(detector.getTimeField())
                     .fixedInterval(DateHistogramInterval.seconds((int) intervalSeconds))
             );
+        if (entities != null) {
+            sources.add(new TermsValuesSourceBuilder(ENTITY_TERMS).field(detector.getCategoryField().get(0)));
+        }
 
         CompositeAggregationBuilder aggregationBuilder = new CompositeAggregationBuilder(FEATURE_AGGS, sources).size(1000);
 
@@ -646,15 +808,8 @@ public final class ParseUtils {
             throw new AnomalyDetectionException("No enabled feature configured").countedInStats(false);
         }
 
-        for (Feature feature : detector.getFeatureAttributes()) {
-            if (feature.getEnabled()) {
-                AggregatorFactories.Builder internalAgg = parseAggregators(
-                    feature.getAggregation().toString(),
-                    xContentRegistry,
-                    feature.getId()
-                );
-                aggregationBuilder.subAggregation(internalAgg.getAggregatorFactories().iterator().next());
-            }
+        for (AggregationBuilder featureAgg : enabledFeatureAggs) {
+            aggregationBuilder.subAggregation(featureAgg);
         }
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
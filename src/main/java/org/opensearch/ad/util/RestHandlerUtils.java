@@ -70,6 +70,7 @@ public final class RestHandlerUtils {
     public static final String PROFILE = "_profile";
     public static final String TYPE = "type";
     public static final String ENTITY = "entity";
+    public static final String ENTITIES = "entities";
     public static final String COUNT = "count";
     public static final String MATCH = "match";
     public static final ToXContent.MapParams XCONTENT_WITH_TYPE = new ToXContent.MapParams(ImmutableMap.of("with_type", "true"));
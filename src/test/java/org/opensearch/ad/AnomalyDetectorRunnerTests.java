@@ -0,0 +1,205 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.opensearch.ad.AnomalyDetectorPlugin.AD_THREAD_POOL_NAME;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import org.mockito.ArgumentCaptor;
+import org.opensearch.action.ActionListener;
+import org.opensearch.ad.feature.FeatureManager;
+import org.opensearch.ad.feature.Features;
+import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.ml.ThresholdingResult;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.threadpool.ThreadPool;
+
+import com.google.common.collect.ImmutableList;
+
+public class AnomalyDetectorRunnerTests extends ADUnitTestCase {
+
+    private ModelManager modelManager;
+    private FeatureManager featureManager;
+    private ThreadPool threadPool;
+    // tasks submitted to the AD thread pool, run by the test
+    private List<Runnable> tasks;
+    private AnomalyDetectorRunner runner;
+    private AnomalyDetector detector;
+    private Instant endTime;
+    private Instant startTime;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        modelManager = mock(ModelManager.class);
+        featureManager = mock(FeatureManager.class);
+        threadPool = mock(ThreadPool.class);
+        tasks = new ArrayList<>();
+        ExecutorService executorService = mock(ExecutorService.class);
+        when(threadPool.executor(AD_THREAD_POOL_NAME)).thenReturn(executorService);
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0))).when(executorService).execute(any(Runnable.class));
+        runner = new AnomalyDetectorRunner(modelManager, featureManager, 100, threadPool);
+        detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        endTime = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        startTime = endTime.minus(7, ChronoUnit.DAYS);
+    }
+
+    public void testPreviewParallelism() {
+        assertEquals(1, runner.getPreviewParallelism());
+        mockThreadPoolSize(3);
+        assertEquals(1, runner.getPreviewParallelism());
+        mockThreadPoolSize(8);
+        assertEquals(2, runner.getPreviewParallelism());
+        mockThreadPoolSize(40);
+        assertEquals(10, runner.getPreviewParallelism());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testPreviewEntitiesInGroups() throws IOException {
+        mockThreadPoolSize(8);
+        Map<Entity, Features> entityFeatures = mockEntityFeatures(5);
+        ActionListener<List<AnomalyResult>> listener = mock(ActionListener.class);
+
+        runner.executeDetector(detector, startTime, endTime, listener);
+
+        // 5 entities previewed in 2 groups, a quarter of the 8 threads
+        assertEquals(2, tasks.size());
+        // results are in entity order however groups finish
+        Collections.reverse(tasks);
+        tasks.forEach(Runnable::run);
+        List<AnomalyResult> results = captureResults(listener);
+        assertEquals(expectedEntityValues(entityFeatures.keySet()), entityValues(results));
+        verify(modelManager, times(5)).getPreviewResults(any(double[][].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testPreviewSkipsFailedEntity() throws IOException {
+        mockThreadPoolSize(8);
+        Map<Entity, Features> entityFeatures = mockEntityFeatures(3);
+        List<Entity> entities = new ArrayList<>(entityFeatures.keySet());
+        when(modelManager.getPreviewResults(same(entityFeatures.get(entities.get(1)).getProcessedFeatures())))
+            .thenThrow(new IllegalArgumentException("Insufficient data for preview results"));
+        ActionListener<List<AnomalyResult>> listener = mock(ActionListener.class);
+
+        runner.executeDetector(detector, startTime, endTime, listener);
+        tasks.forEach(Runnable::run);
+
+        List<AnomalyResult> results = captureResults(listener);
+        assertEquals(expectedEntityValues(Arrays.asList(entities.get(0), entities.get(2))), entityValues(results));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testPreviewWithoutEntities() throws IOException {
+        doAnswer(invocation -> {
+            ActionListener<List<Entity>> listener = invocation.getArgument(3);
+            listener.onResponse(Collections.emptyList());
+            return null;
+        }).when(featureManager).getPreviewEntities(eq(detector), anyLong(), anyLong(), any());
+        ActionListener<List<AnomalyResult>> listener = mock(ActionListener.class);
+
+        runner.executeDetector(detector, startTime, endTime, listener);
+
+        assertTrue(tasks.isEmpty());
+        assertTrue(captureResults(listener).isEmpty());
+    }
+
+    private void mockThreadPoolSize(int max) {
+        when(threadPool.info(AD_THREAD_POOL_NAME))
+            .thenReturn(new ThreadPool.Info(AD_THREAD_POOL_NAME, ThreadPool.ThreadPoolType.FIXED, max, max, null, null));
+    }
+
+    /**
+     * Mock preview features of entities, two data points each, and the preview results of them.
+     */
+    private Map<Entity, Features> mockEntityFeatures(int entityCount) {
+        Map<Entity, Features> entityFeatures = new LinkedHashMap<>();
+        for (int i = 0; i < entityCount; i++) {
+            List<Entry<Long, Long>> timeRanges = Arrays.asList(new SimpleEntry<>(0L, 60_000L), new SimpleEntry<>(60_000L, 120_000L));
+            double[][] features = new double[][] { { i }, { i + 1 } };
+            entityFeatures.put(new Entity("host", "server_" + i), new Features(timeRanges, features, features));
+        }
+        List<Entity> entities = new ArrayList<>(entityFeatures.keySet());
+        doAnswer(invocation -> {
+            ActionListener<List<Entity>> listener = invocation.getArgument(3);
+            listener.onResponse(entities);
+            return null;
+        }).when(featureManager).getPreviewEntities(eq(detector), anyLong(), anyLong(), any());
+        doAnswer(invocation -> {
+            ActionListener<Map<Entity, Features>> listener = invocation.getArgument(4);
+            listener.onResponse(entityFeatures);
+            return null;
+        }).when(featureManager).getPreviewFeaturesForEntities(eq(detector), eq(entities), anyLong(), anyLong(), any());
+        when(modelManager.getPreviewResults(any(double[][].class)))
+            .thenReturn(Arrays.asList(new ThresholdingResult(0, 1, 0.5), new ThresholdingResult(1, 1, 2)));
+        return entityFeatures;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AnomalyResult> captureResults(ActionListener<List<AnomalyResult>> listener) {
+        ArgumentCaptor<List<AnomalyResult>> results = ArgumentCaptor.forClass(List.class);
+        verify(listener, times(1)).onResponse(results.capture());
+        return results.getValue();
+    }
+
+    private List<String> entityValues(List<AnomalyResult> results) {
+        return results.stream().map(result -> result.getEntity().get(0).getValue()).collect(Collectors.toList());
+    }
+
+    private List<String> expectedEntityValues(Iterable<Entity> entities) {
+        List<String> values = new ArrayList<>();
+        for (Entity entity : entities) {
+            // two results per entity
+            values.add(entity.getValue());
+            values.add(entity.getValue());
+        }
+        return values;
+    }
+}
@@ -29,19 +29,29 @@ package org.opensearch.ad;
 import static java.util.Collections.emptyMap;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.opensearch.ad.model.AnomalyDetector.ANOMALY_DETECTORS_INDEX;
 import static org.opensearch.ad.model.AnomalyDetectorJob.ANOMALY_DETECTOR_JOB_INDEX;
 
 import java.io.IOException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.get.GetRequest;
 import org.opensearch.action.get.GetResponse;
@@ -53,6 +63,7 @@ import org.opensearch.ad.constant.CommonErrorMessages;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyDetectorJob;
+import org.opensearch.ad.model.AnomalyResult;
 import org.opensearch.ad.model.EntityProfile;
 import org.opensearch.ad.model.EntityProfileName;
 import org.opensearch.ad.model.EntityState;
@@ -61,13 +72,23 @@ import org.opensearch.ad.model.IntervalTimeConfiguration;
 import org.opensearch.ad.model.ModelProfile;
 import org.opensearch.ad.transport.EntityProfileAction;
 import org.opensearch.ad.transport.EntityProfileResponse;
+import org.opensearch.ad.transport.EntityProfilesAction;
+import org.opensearch.ad.transport.EntityProfilesResponse;
 import org.opensearch.client.Client;
 import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.search.DocValueFormat;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
+import org.opensearch.search.aggregations.Aggregation;
+import org.opensearch.search.aggregations.Aggregations;
 import org.opensearch.search.aggregations.InternalAggregations;
+import org.opensearch.search.aggregations.bucket.nested.Nested;
+import org.opensearch.search.aggregations.bucket.nested.ReverseNested;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
 import org.opensearch.search.aggregations.metrics.InternalMax;
+import org.opensearch.search.aggregations.metrics.Max;
 
 public class EntityProfileRunnerTests extends AbstractADTest {
     private AnomalyDetector detector;
@@ -362,4 +383,144 @@ public class EntityProfileRunnerTests extends AbstractADTest {
         }));
         assertTrue(inProgressLatch.await(100, TimeUnit.SECONDS));
     }
+
+    @SuppressWarnings("unchecked")
+    private void setUpExecuteEntityProfilesAction(String... entityValues) {
+        setUpExecuteEntityProfileAction(InittedEverResultStatus.NOT_INITTED);
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            ActionListener<EntityProfilesResponse> listener = (ActionListener<EntityProfilesResponse>) args[2];
+
+            Map<String, EntityProfileResponse> profiles = new HashMap<>();
+            for (String value : entityValues) {
+                profiles
+                    .put(
+                        value,
+                        new EntityProfileResponse.Builder()
+                            .setTotalUpdates(smallUpdates)
+                            .setLastActiveMs(latestActiveTimestamp)
+                            .setActive(isActive)
+                            .build()
+                    );
+            }
+            listener.onResponse(new EntityProfilesResponse(profiles));
+            return null;
+        }).when(client).execute(any(EntityProfilesAction.class), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setUpSearchLastSampleTimes(Map<String, Long> lastSampleTimes) {
+        List<Terms.Bucket> buckets = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : lastSampleTimes.entrySet()) {
+            Max max = namedAgg(mock(Max.class), CommonName.AGG_NAME_MAX_TIME);
+            when(max.getValue()).thenReturn(entry.getValue().doubleValue());
+            ReverseNested results = namedAgg(mock(ReverseNested.class), EntityProfileRunner.RESULT_AGG);
+            when(results.getAggregations()).thenReturn(new Aggregations(Collections.singletonList(max)));
+            Terms.Bucket bucket = mock(Terms.Bucket.class);
+            when(bucket.getKeyAsString()).thenReturn(entry.getKey());
+            when(bucket.getAggregations()).thenReturn(new Aggregations(Collections.singletonList(results)));
+            buckets.add(bucket);
+        }
+        Terms terms = namedAgg(mock(Terms.class), EntityProfileRunner.ENTITY_VALUE_AGG);
+        doReturn(buckets).when(terms).getBuckets();
+        Nested nested = namedAgg(mock(Nested.class), EntityProfileRunner.ENTITY_AGG);
+        when(nested.getAggregations()).thenReturn(new Aggregations(Collections.singletonList(terms)));
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.getAggregations()).thenReturn(new Aggregations(Collections.singletonList(nested)));
+
+        doAnswer(invocation -> {
+            ActionListener<SearchResponse> listener = (ActionListener<SearchResponse>) invocation.getArguments()[1];
+            listener.onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(), any());
+    }
+
+    private <T extends Aggregation> T namedAgg(T agg, String name) {
+        when(agg.getName()).thenReturn(name);
+        return agg;
+    }
+
+    public void testBatchInitNInfo() throws InterruptedException {
+        String otherEntityValue = "app-1";
+        setUpExecuteEntityProfilesAction(entityValue, otherEntityValue);
+        latestSampleTimestamp = 1_603_989_830_158L;
+        setUpSearchLastSampleTimes(Collections.singletonMap(entityValue, latestSampleTimestamp));
+
+        int neededSamples = requiredSamples - smallUpdates;
+        InitProgressProfile profile = new InitProgressProfile(
+            "1%",
+            neededSamples * detector.getDetectorIntervalInSeconds() / 60,
+            neededSamples
+        );
+        EntityProfile.Builder expectedProfile = new EntityProfile.Builder(categoryField, entityValue)
+            .initProgress(profile)
+            .isActive(isActive)
+            .lastActiveTimestampMs(latestActiveTimestamp)
+            .lastSampleTimestampMs(latestSampleTimestamp);
+        // no result of the other entity since the job was enabled
+        EntityProfile.Builder expectedOtherProfile = new EntityProfile.Builder(categoryField, otherEntityValue)
+            .initProgress(profile)
+            .isActive(isActive)
+            .lastActiveTimestampMs(latestActiveTimestamp);
+
+        final CountDownLatch inProgressLatch = new CountDownLatch(1);
+
+        runner.profile(detectorId, Arrays.asList(otherEntityValue, entityValue), initNInfo, ActionListener.wrap(response -> {
+            assertEquals(Arrays.asList(otherEntityValue, entityValue), new ArrayList<>(response.keySet()));
+            assertEquals(expectedProfile.build(), response.get(entityValue));
+            assertEquals(expectedOtherProfile.build(), response.get(otherEntityValue));
+            inProgressLatch.countDown();
+        }, exception -> {
+            LOG.error("Unexpected error", exception);
+            assertTrue("Should not reach here", false);
+            inProgressLatch.countDown();
+        }));
+        assertTrue(inProgressLatch.await(100, TimeUnit.SECONDS));
+
+        // one node request and one search for all entities
+        verify(client, times(1)).execute(any(EntityProfilesAction.class), any(), any());
+        verify(client, never()).execute(any(EntityProfileAction.class), any(), any());
+        ArgumentCaptor<SearchRequest> searchRequest = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, times(1)).search(searchRequest.capture(), any());
+        // summary results do not count as samples of the entities they list
+        BoolQueryBuilder query = (BoolQueryBuilder) searchRequest.getValue().source().query();
+        assertEquals(
+            Collections.singletonList(QueryBuilders.termQuery(AnomalyResult.RESULT_TYPE_FIELD, AnomalyResult.SUMMARY_RESULT_TYPE)),
+            query.mustNot()
+        );
+    }
+
+    public void testBatchEntityWithoutNode() throws InterruptedException {
+        String otherEntityValue = "app-1";
+        // the node hosting the other entity is not found
+        setUpExecuteEntityProfilesAction(entityValue);
+
+        final CountDownLatch inProgressLatch = new CountDownLatch(1);
+
+        runner.profile(detectorId, Arrays.asList(entityValue, otherEntityValue), state, ActionListener.wrap(response -> {
+            assertEquals(EntityState.INIT, response.get(entityValue).getState());
+            assertEquals(EntityState.UNKNOWN, response.get(otherEntityValue).getState());
+            inProgressLatch.countDown();
+        }, exception -> {
+            LOG.error("Unexpected error", exception);
+            assertTrue("Should not reach here", false);
+            inProgressLatch.countDown();
+        }));
+        assertTrue(inProgressLatch.await(100, TimeUnit.SECONDS));
+        verify(client, never()).search(any(), any());
+    }
+
+    public void testBatchEmptyEntities() throws InterruptedException {
+        final CountDownLatch inProgressLatch = new CountDownLatch(1);
+
+        runner.profile(detectorId, Collections.emptyList(), state, ActionListener.wrap(response -> {
+            assertTrue(response.isEmpty());
+            inProgressLatch.countDown();
+        }, exception -> {
+            assertTrue("Should not reach here", false);
+            inProgressLatch.countDown();
+        }));
+        assertTrue(inProgressLatch.await(100, TimeUnit.SECONDS));
+        verify(client, never()).get(any(), any());
+    }
 }
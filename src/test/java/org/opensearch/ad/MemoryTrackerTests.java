@@ -29,9 +29,14 @@ package org.opensearch.ad;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.model.AnomalyDetector;
@@ -95,7 +100,16 @@ public class MemoryTrackerTests extends OpenSearchTestCase {
         Settings settings = Settings.builder().put(AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE.getKey(), modelMaxPercen).build();
         ClusterSettings clusterSettings = new ClusterSettings(
             settings,
-            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE)))
+            Collections
+                .unmodifiableSet(
+                    new HashSet<>(
+                        Arrays
+                            .asList(
+                                AnomalyDetectorSettings.MODEL_MAX_SIZE_PERCENTAGE,
+                                AnomalyDetectorSettings.MODEL_MEMORY_MEASUREMENT_RATIO
+                            )
+                    )
+                )
         );
         when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
 
@@ -169,4 +183,113 @@ public class MemoryTrackerTests extends OpenSearchTestCase {
         assertEquals(bytesToUse, tracker.memoryToShed());
         assertTrue(!tracker.syncMemoryState(MemoryTracker.Origin.MULTI_ENTITY_DETECTOR, 2 * bytesToUse, bytesToUse));
     }
+
+    public void testCorrectionFactor() {
+        setUpBigHeap();
+        assertFalse(tracker.shouldMeasure());
+
+        // the first measurement is taken as is
+        tracker.recordMeasurement(expectedModelSize, 2 * expectedModelSize);
+        assertEquals(2.0, tracker.getCorrectionFactor(), 0.0001);
+        assertEquals(2 * expectedModelSize, tracker.estimateModelSize(rcf));
+
+        // later measurements are averaged in
+        tracker.recordMeasurement(expectedModelSize, expectedModelSize);
+        assertEquals(1.9, tracker.getCorrectionFactor(), 0.0001);
+
+        // under-measurement cannot drive the factor below the formula's estimate
+        for (int i = 0; i < 100; i++) {
+            tracker.recordMeasurement(expectedModelSize, 0);
+        }
+        assertEquals(1.0, tracker.getCorrectionFactor(), 0.0001);
+        assertEquals(expectedModelSize, tracker.estimateModelSize(rcf));
+
+        Map<String, Object> stats = tracker.getMeasurementStats();
+        assertEquals(102L, stats.get(MemoryTracker.MEASURED_MODELS));
+        assertEquals(expectedModelSize, stats.get(MemoryTracker.LAST_ESTIMATED_BYTES));
+        assertEquals(0L, stats.get(MemoryTracker.LAST_MEASURED_BYTES));
+    }
+
+    public void testUnderMeasurement() {
+        setUpBigHeap();
+        // a walk that misses part of the model does not shrink the estimate
+        tracker.recordMeasurement(expectedModelSize, expectedModelSize / 2);
+        assertEquals(1.0, tracker.getCorrectionFactor(), 0.0001);
+        assertEquals(expectedModelSize, tracker.estimateModelSize(rcf));
+    }
+
+    public void testMeasureModelSize() {
+        ByteSizeValue value = new ByteSizeValue(largeHeapSize);
+        when(mem.getHeapMax()).thenReturn(value);
+        tracker = new MemoryTracker(jvmService, modelMaxSizePercentage, modelDesiredSizePercentage, clusterService, rcfSampleSize, 1);
+        assertTrue(tracker.shouldMeasure());
+
+        for (int i = 0; i < numMinSamples; i++) {
+            rcf.update(new double[] { i });
+        }
+        tracker.measureModelSize(rcf, null);
+        Map<String, Object> stats = tracker.getMeasurementStats();
+        assertEquals(1L, stats.get(MemoryTracker.MEASURED_MODELS));
+        assertEquals(expectedModelSize, stats.get(MemoryTracker.LAST_ESTIMATED_BYTES));
+        assertTrue((long) stats.get(MemoryTracker.LAST_MEASURED_BYTES) > tracker.getThresholdModelBytes());
+        assertTrue(tracker.getCorrectionFactor() >= 1.0);
+    }
+
+    public void testReserveMemory() {
+        setUpSmallHeap();
+        long limit = tracker.getHeapLimit();
+        tracker.reserveMemory(detectorId, limit / 2, MemoryTracker.Origin.MULTI_ENTITY_DETECTOR);
+        assertEquals(limit / 2, tracker.getTotalMemoryBytes());
+        expectThrows(
+            LimitExceededException.class,
+            () -> tracker.reserveMemory(detectorId, limit, MemoryTracker.Origin.MULTI_ENTITY_DETECTOR)
+        );
+        assertEquals(limit / 2, tracker.getTotalMemoryBytes());
+        assertFalse(tracker.syncMemoryState(MemoryTracker.Origin.MULTI_ENTITY_DETECTOR, limit / 2, limit / 2));
+    }
+
+    public void testConcurrentReserveMemory() throws InterruptedException {
+        setUpSmallHeap();
+        long limit = tracker.getHeapLimit();
+        long bytes = limit / 10;
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 10; j++) {
+                        try {
+                            tracker.reserveMemory(detectorId, bytes, MemoryTracker.Origin.MULTI_ENTITY_DETECTOR);
+                            reserved.incrementAndGet();
+                        } catch (LimitExceededException e) {
+                            // expected once the limit is reached
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // never over-committed
+        assertEquals(10, reserved.get());
+        assertEquals(10 * bytes, tracker.getTotalMemoryBytes());
+    }
+
+    public void testSyncMemoryState() {
+        setUpBigHeap();
+        tracker.consumeMemory(100, true, MemoryTracker.Origin.MULTI_ENTITY_DETECTOR);
+        tracker.consumeMemory(50, false, MemoryTracker.Origin.SINGLE_ENTITY_DETECTOR);
+        assertTrue(tracker.syncMemoryState(MemoryTracker.Origin.MULTI_ENTITY_DETECTOR, 300, 200));
+        assertEquals(350, tracker.getTotalMemoryBytes());
+        tracker.releaseMemory(300, false, MemoryTracker.Origin.MULTI_ENTITY_DETECTOR);
+        assertEquals(50, tracker.getTotalMemoryBytes());
+    }
 }
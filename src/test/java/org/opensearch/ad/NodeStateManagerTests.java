@@ -41,6 +41,7 @@ import java.time.Instant;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
@@ -280,6 +281,33 @@ public class NodeStateManagerTests extends OpenSearchTestCase {
         verify(client, times(1)).get(any(), any(ActionListener.class));
     }
 
+    /**
+     * Test that we re-fetch anomaly detector definition when the caller has seen a newer version
+     * @throws IOException if client throws exception
+     * @throws InterruptedException  if the current thread is interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    public void testGetAnomalyDetectorNewerVersion() throws IOException, InterruptedException {
+        String detectorId = setupDetector();
+        final CountDownLatch inProgressLatch = new CountDownLatch(3);
+        ActionListener<Optional<AnomalyDetector>> listener = ActionListener.wrap(asDetector -> {
+            assertEquals(detectorToCheck, asDetector.get());
+            inProgressLatch.countDown();
+        }, exception -> {
+            assertTrue(false);
+            inProgressLatch.countDown();
+        });
+
+        stateManager.getAnomalyDetector(detectorId, listener);
+        // the cached version is the one in the get response, -1
+        stateManager.getAnomalyDetector(detectorId, -1L, listener);
+        stateManager.getAnomalyDetector(detectorId, 1L, listener);
+
+        assertTrue(inProgressLatch.await(100, TimeUnit.SECONDS));
+
+        verify(client, times(2)).get(any(), any(ActionListener.class));
+    }
+
     public void getCheckpointTestTemplate(boolean exists) throws IOException {
         setupCheckpoint(exists);
         when(clock.instant()).thenReturn(Instant.MIN);
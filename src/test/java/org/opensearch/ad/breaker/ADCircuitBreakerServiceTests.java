@@ -35,7 +35,6 @@ import static org.mockito.Mockito.when;
 
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opensearch.monitor.jvm.JvmService;
@@ -43,7 +42,6 @@ import org.opensearch.monitor.jvm.JvmStats;
 
 public class ADCircuitBreakerServiceTests {
 
-    @InjectMocks
     private ADCircuitBreakerService adCircuitBreakerService;
 
     @Mock
@@ -58,6 +56,7 @@ public class ADCircuitBreakerServiceTests {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        adCircuitBreakerService = new ADCircuitBreakerService(jvmService);
     }
 
     @Test
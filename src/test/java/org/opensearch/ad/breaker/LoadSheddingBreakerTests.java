@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.breaker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.monitor.jvm.JvmService;
+import org.opensearch.monitor.jvm.JvmStats;
+
+public class LoadSheddingBreakerTests {
+
+    @Mock
+    JvmService jvmService;
+
+    @Mock
+    JvmStats jvmStats;
+
+    @Mock
+    JvmStats.Mem mem;
+
+    @Mock
+    JvmStats.GarbageCollectors gc;
+
+    @Mock
+    Clock clock;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(jvmService.stats()).thenReturn(jvmStats);
+        when(jvmStats.getMem()).thenReturn(mem);
+        when(jvmStats.getGc()).thenReturn(gc);
+        when(gc.getCollectors()).thenReturn(new JvmStats.GarbageCollector[0]);
+        when(mem.getHeapUsedPercent()).thenReturn((short) 50);
+        when(clock.millis()).thenReturn(0L);
+    }
+
+    @Test
+    public void testNextLevelGoesUp() {
+        assertThat(nextLevel(LoadLevel.NORMAL, 50, 0, 0), equalTo(LoadLevel.NORMAL));
+        assertThat(nextLevel(LoadLevel.NORMAL, 70, 0, 0), equalTo(LoadLevel.NO_NEW_ENTITY));
+        // the worst signal decides
+        assertThat(nextLevel(LoadLevel.NORMAL, 65, 1000, 0), equalTo(LoadLevel.ANOMALY_ONLY));
+        assertThat(nextLevel(LoadLevel.NORMAL, 50, 0, 60), equalTo(LoadLevel.OVERLOADED));
+    }
+
+    @Test
+    public void testNextLevelHysteresis() {
+        // 67% is below the enter threshold of NO_NEW_ENTITY but above its exit threshold
+        assertThat(nextLevel(LoadLevel.NO_NEW_ENTITY, 67, 0, 0), equalTo(LoadLevel.NO_NEW_ENTITY));
+        assertThat(nextLevel(LoadLevel.NORMAL, 67, 0, 0), equalTo(LoadLevel.SKIP_COLD_START));
+        // 60% only holds SKIP_COLD_START
+        assertThat(nextLevel(LoadLevel.NO_NEW_ENTITY, 60, 0, 0), equalTo(LoadLevel.SKIP_COLD_START));
+        assertThat(nextLevel(LoadLevel.OVERLOADED, 50, 0, 0), equalTo(LoadLevel.NORMAL));
+    }
+
+    @Test
+    public void testGetLevel() {
+        LoadSheddingBreaker breaker = new LoadSheddingBreaker(jvmService, null, clock);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        assertThat(breaker.isOpen(), equalTo(false));
+
+        when(mem.getHeapUsedPercent()).thenReturn((short) 96);
+        // not sampled again within the sample interval
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        verify(jvmService, times(1)).stats();
+
+        // heap used after GC is the lowest usage of the current and the previous window
+        when(clock.millis()).thenReturn(LoadSheddingBreaker.SAMPLE_INTERVAL_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        when(clock.millis()).thenReturn(LoadSheddingBreaker.HEAP_WINDOW_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        when(clock.millis()).thenReturn(2 * LoadSheddingBreaker.HEAP_WINDOW_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.OVERLOADED));
+        assertThat(breaker.isOpen(), equalTo(true));
+    }
+
+    @Test
+    public void testHeapSpikeDoesNotChangeLevel() {
+        LoadSheddingBreaker breaker = new LoadSheddingBreaker(jvmService, null, clock);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+
+        // heap usage climbs until the next GC collects it
+        when(mem.getHeapUsedPercent()).thenReturn((short) 85);
+        when(clock.millis()).thenReturn(LoadSheddingBreaker.SAMPLE_INTERVAL_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        when(mem.getHeapUsedPercent()).thenReturn((short) 40);
+        when(clock.millis()).thenReturn(2 * LoadSheddingBreaker.SAMPLE_INTERVAL_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+    }
+
+    @Test
+    public void testGcTimeIsAveragedOverWindow() {
+        JvmStats.GarbageCollector collector = mock(JvmStats.GarbageCollector.class);
+        when(gc.getCollectors()).thenReturn(new JvmStats.GarbageCollector[] { collector });
+        when(collector.getCollectionTime()).thenReturn(TimeValue.timeValueMillis(0));
+        LoadSheddingBreaker breaker = new LoadSheddingBreaker(jvmService, null, clock);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+
+        // a 500ms pause within the first second is 5% of the GC window
+        when(collector.getCollectionTime()).thenReturn(TimeValue.timeValueMillis(500));
+        when(clock.millis()).thenReturn(LoadSheddingBreaker.SAMPLE_INTERVAL_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        when(clock.millis()).thenReturn(LoadSheddingBreaker.GC_WINDOW_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+
+        // 5 seconds in GC within the next window is 50%
+        when(collector.getCollectionTime()).thenReturn(TimeValue.timeValueMillis(5500));
+        when(clock.millis()).thenReturn(2 * LoadSheddingBreaker.GC_WINDOW_MILLIS);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.OVERLOADED));
+    }
+
+    @Test
+    public void testUpdateThresholds() {
+        LoadSheddingBreaker breaker = new LoadSheddingBreaker(jvmService, null, clock);
+        breaker.setHeapThresholds(Arrays.asList(10d, 20d, 30d, 40d, 50d));
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.OVERLOADED));
+    }
+
+    @Test
+    public void testThresholdSettings() {
+        Settings settings = Settings
+            .builder()
+            .putList(AnomalyDetectorSettings.LOAD_SHEDDING_QUEUE_THRESHOLDS.getKey(), "1", "2", "3", "4", "5")
+            .build();
+        LoadSheddingBreaker breaker = new LoadSheddingBreaker(jvmService, null, clock, settings);
+        assertThat(breaker.getLevel(), equalTo(LoadLevel.NORMAL));
+        assertThat(AnomalyDetectorSettings.LOAD_SHEDDING_QUEUE_THRESHOLDS.get(settings), equalTo(Arrays.asList(1d, 2d, 3d, 4d, 5d)));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewThresholds() {
+        Settings settings = Settings.builder().putList(AnomalyDetectorSettings.LOAD_SHEDDING_HEAP_THRESHOLDS.getKey(), "70", "80").build();
+        AnomalyDetectorSettings.LOAD_SHEDDING_HEAP_THRESHOLDS.get(settings);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDescendingThresholds() {
+        Settings settings = Settings
+            .builder()
+            .putList(AnomalyDetectorSettings.LOAD_SHEDDING_GC_TIME_THRESHOLDS.getKey(), "50", "40", "30", "20", "10")
+            .build();
+        AnomalyDetectorSettings.LOAD_SHEDDING_GC_TIME_THRESHOLDS.get(settings);
+    }
+
+    private static LoadLevel nextLevel(LoadLevel current, double heap, double queue, double gc) {
+        double[][] thresholds = {
+            toArray(AnomalyDetectorSettings.LOAD_SHEDDING_HEAP_THRESHOLDS.get(Settings.EMPTY)),
+            toArray(AnomalyDetectorSettings.LOAD_SHEDDING_QUEUE_THRESHOLDS.get(Settings.EMPTY)),
+            toArray(AnomalyDetectorSettings.LOAD_SHEDDING_GC_TIME_THRESHOLDS.get(Settings.EMPTY)) };
+        return LoadSheddingBreaker.nextLevel(current, new double[] { heap, queue, gc }, thresholds);
+    }
+
+    private static double[] toArray(List<Double> thresholds) {
+        return thresholds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
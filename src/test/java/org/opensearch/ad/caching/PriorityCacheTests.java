@@ -34,7 +34,9 @@ import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,6 +47,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
@@ -58,6 +61,7 @@ import org.mockito.ArgumentCaptor;
 import org.opensearch.OpenSearchException;
 import org.opensearch.action.ActionListener;
 import org.opensearch.ad.MemoryTracker;
+import org.opensearch.ad.breaker.LoadLevel;
 import org.opensearch.ad.common.exception.LimitExceededException;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.ml.CheckpointDao;
@@ -159,7 +163,6 @@ public class PriorityCacheTests extends OpenSearchTestCase {
 
         memoryPerEntity = 81920L;
         when(memoryTracker.estimateModelSize(any(AnomalyDetector.class), anyInt())).thenReturn(memoryPerEntity);
-        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
 
         detector = mock(AnomalyDetector.class);
         detectorId = "123";
@@ -205,12 +208,11 @@ public class PriorityCacheTests extends OpenSearchTestCase {
         assertTrue(Arrays.equals(point, model.getSamples().peek()));
 
         ArgumentCaptor<Long> memoryConsumed = ArgumentCaptor.forClass(Long.class);
-        ArgumentCaptor<Boolean> reserved = ArgumentCaptor.forClass(Boolean.class);
         ArgumentCaptor<MemoryTracker.Origin> origin = ArgumentCaptor.forClass(MemoryTracker.Origin.class);
 
-        verify(memoryTracker, times(1)).consumeMemory(memoryConsumed.capture(), reserved.capture(), origin.capture());
+        verify(memoryTracker, times(1)).reserveMemory(eq(detectorId), memoryConsumed.capture(), origin.capture());
+        verify(memoryTracker, never()).consumeMemory(anyLong(), anyBoolean(), any(MemoryTracker.Origin.class));
         assertEquals(dedicatedCacheSize * memoryPerEntity, memoryConsumed.getValue().intValue());
-        assertEquals(true, reserved.getValue().booleanValue());
         assertEquals(MemoryTracker.Origin.MULTI_ENTITY_DETECTOR, origin.getValue());
 
         for (int i = 0; i < 2; i++) {
@@ -286,7 +288,9 @@ public class PriorityCacheTests extends OpenSearchTestCase {
     }
 
     public void testCannotAllocateBuffer() {
-        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(false);
+        doThrow(new LimitExceededException(detectorId, "Exceeded memory limit"))
+            .when(memoryTracker)
+            .reserveMemory(anyString(), anyLong(), any(MemoryTracker.Origin.class));
         expectThrows(LimitExceededException.class, () -> cacheProvider.get(modelId1, detector, point, entityName));
     }
 
@@ -339,6 +343,58 @@ public class PriorityCacheTests extends OpenSearchTestCase {
         assertEquals(1, state.getModel().getSamples().size());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testCacheStats() {
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            ActionListener<Optional<Entry<EntityModel, Instant>>> listener =
+                (ActionListener<Optional<Entry<EntityModel, Instant>>>) args[1];
+            listener.onFailure(new IndexNotFoundException("", CommonName.CHECKPOINT_INDEX_NAME));
+            return null;
+        }).when(checkpoint).restoreModelCheckpoint(anyString(), any(ActionListener.class));
+        // door keeper rejection, admission, hit
+        for (int i = 0; i < 3; i++) {
+            cacheProvider.get(modelId1, detector, point, entityName);
+        }
+
+        Map<String, Long> stats = cacheProvider.getCacheStats(detectorId);
+        assertEquals(1L, (long) stats.get(EntityCacheStats.Event.HIT.getName()));
+        assertEquals(2L, (long) stats.get(EntityCacheStats.Event.MISS.getName()));
+        assertEquals(1L, (long) stats.get(EntityCacheStats.Event.DOOR_KEEPER_REJECTION.getName()));
+        assertEquals(1L, (long) stats.get(EntityCacheStats.Event.ADMISSION.getName()));
+        assertEquals(1L, (long) stats.get(EntityCacheStats.Event.COLD_START.getName()));
+        assertEquals(0L, (long) stats.get(EntityCacheStats.Event.RESTORE_FAILURE.getName()));
+        assertTrue(cacheProvider.getCacheStats(detectorId2).isEmpty());
+
+        Map<String, Object> withHitRate = EntityCacheStats.withHitRate(stats);
+        assertEquals(1.0 / 3, (double) withHitRate.get(EntityCacheStats.HIT_RATE), 0.001);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testLoadShedding() {
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            ActionListener<Optional<Entry<EntityModel, Instant>>> listener =
+                (ActionListener<Optional<Entry<EntityModel, Instant>>>) args[1];
+            listener.onFailure(new IndexNotFoundException("", CommonName.CHECKPOINT_INDEX_NAME));
+            return null;
+        }).when(checkpoint).restoreModelCheckpoint(anyString(), any(ActionListener.class));
+        // door keeper rejection, then no new entity is hosted
+        for (int i = 0; i < 3; i++) {
+            assertEquals(null, cacheProvider.get(modelId1, detector, point, entityName, LoadLevel.NO_NEW_ENTITY));
+        }
+        assertEquals(0, cacheProvider.getTotalActiveEntities());
+
+        // hosted, but not trained
+        assertEquals(null, cacheProvider.get(modelId1, detector, point, entityName, LoadLevel.SKIP_COLD_START));
+        assertEquals(1, cacheProvider.getTotalActiveEntities());
+
+        Map<String, Long> stats = cacheProvider.getCacheStats(detectorId);
+        assertEquals(2L, (long) stats.get(EntityCacheStats.Event.LOAD_SHED.getName()));
+        assertEquals(1L, (long) stats.get(EntityCacheStats.Event.SKIPPED_COLD_START.getName()));
+        assertEquals(0L, (long) stats.get(EntityCacheStats.Event.COLD_START.getName()));
+    }
+
     @SuppressWarnings("unchecked")
     public void testThrottledRestore() {
         doAnswer(invocation -> {
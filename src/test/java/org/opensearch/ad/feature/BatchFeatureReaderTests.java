@@ -0,0 +1,232 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import static java.util.Collections.emptyMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.opensearch.ad.constant.CommonName.DATE_HISTOGRAM;
+import static org.opensearch.ad.constant.CommonName.ENTITY_TERMS;
+import static org.opensearch.ad.constant.CommonName.FEATURE_AGGS;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.search.DocValueFormat;
+import org.opensearch.search.aggregations.InternalAggregations;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
+import org.opensearch.search.aggregations.bucket.composite.InternalComposite;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.opensearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.opensearch.search.aggregations.metrics.InternalMax;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class BatchFeatureReaderTests extends OpenSearchTestCase {
+    private static final String FEATURE_ID = "feature";
+
+    Client client;
+    Deque<Object> responses;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(Client.class);
+        responses = new ArrayDeque<>();
+        doAnswer(invocation -> {
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            Object response = responses.poll();
+            if (response instanceof Exception) {
+                listener.onFailure((Exception) response);
+            } else {
+                listener.onResponse((SearchResponse) response);
+            }
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+    }
+
+    private BatchFeatureReader createReader(int pageSize, int maxPages) {
+        CompositeAggregationBuilder compositeAgg = new CompositeAggregationBuilder(
+            FEATURE_AGGS,
+            Collections
+                .singletonList(
+                    new DateHistogramValuesSourceBuilder(DATE_HISTOGRAM).field("timestamp").fixedInterval(DateHistogramInterval.seconds(1))
+                )
+        ).size(pageSize);
+        SearchRequest request = new SearchRequest("index").source(new SearchSourceBuilder().aggregation(compositeAgg).size(0));
+        return new BatchFeatureReader(client, request, compositeAgg, Collections.singletonList(FEATURE_ID), maxPages);
+    }
+
+    private SearchResponse page(long... times) {
+        List<InternalComposite.InternalBucket> buckets = new ArrayList<>();
+        for (long time : times) {
+            InternalComposite.InternalBucket bucket = mock(InternalComposite.InternalBucket.class);
+            when(bucket.getKey()).thenReturn(Collections.singletonMap(DATE_HISTOGRAM, time));
+            when(bucket.getAggregations())
+                .thenReturn(
+                    InternalAggregations.from(Collections.singletonList(new InternalMax(FEATURE_ID, time, DocValueFormat.RAW, emptyMap())))
+                );
+            buckets.add(bucket);
+        }
+        InternalComposite composite = mock(InternalComposite.class);
+        when(composite.getBuckets()).thenReturn(buckets);
+        when(composite.afterKey()).thenReturn(times.length == 0 ? null : Collections.singletonMap(DATE_HISTOGRAM, times[times.length - 1]));
+        when(composite.getName()).thenReturn(FEATURE_AGGS);
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getAggregations()).thenReturn(InternalAggregations.from(Collections.singletonList(composite)));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BatchFeatures read(BatchFeatureReader reader, long endTime) {
+        ActionListener<BatchFeatures> listener = mock(ActionListener.class);
+        reader.read(endTime, listener);
+        ArgumentCaptor<BatchFeatures> captor = ArgumentCaptor.forClass(BatchFeatures.class);
+        verify(listener).onResponse(captor.capture());
+        return captor.getValue();
+    }
+
+    private long[] timesOf(BatchFeatures features) {
+        long[] times = new long[features.size()];
+        for (int i = 0; i < features.size(); i++) {
+            times[i] = features.getTime(i);
+        }
+        return times;
+    }
+
+    public void testReadAcrossPages() {
+        responses.addAll(Arrays.asList(page(0, 1), page(2, 3), page(4)));
+        BatchFeatureReader reader = createReader(2, 2);
+
+        BatchFeatures features = read(reader, 2);
+        assertArrayEquals(new long[] { 0, 1 }, timesOf(features));
+        assertEquals(Optional.of(1.0), features.getFeatures(1).map(values -> values[0]));
+
+        assertArrayEquals(new long[] { 2, 3, 4 }, timesOf(read(reader, 10)));
+        assertEquals(0, read(reader, 20).size());
+        verify(client, times(3)).search(any(), any());
+    }
+
+    public void testPrefetchBounded() {
+        for (long i = 0; i < 10; i++) {
+            responses.add(page(i));
+        }
+        BatchFeatureReader reader = createReader(1, 1);
+
+        assertArrayEquals(new long[] { 0 }, timesOf(read(reader, 1)));
+        // the page of the next read is fetched ahead, and nothing more
+        assertEquals(1, reader.getBufferedPages());
+        verify(client, times(2)).search(any(), any());
+
+        assertArrayEquals(new long[] { 1, 2, 3 }, timesOf(read(reader, 4)));
+        assertEquals(1, reader.getBufferedPages());
+        verify(client, times(5)).search(any(), any());
+
+        reader.close();
+        assertEquals(0, reader.getBufferedPages());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFailure() {
+        responses.add(new RuntimeException("search failed"));
+        BatchFeatureReader reader = createReader(2, 2);
+        ActionListener<BatchFeatures> listener = mock(ActionListener.class);
+        reader.read(2, listener);
+        verify(listener).onFailure(any(RuntimeException.class));
+    }
+
+    public void testReadEntities() {
+        // buckets are ordered by time, then entity
+        List<InternalComposite.InternalBucket> buckets = new ArrayList<>();
+        String[] entities = { "server_1", "server_2", "server_1" };
+        long[] times = { 0, 0, 1 };
+        for (int i = 0; i < times.length; i++) {
+            Map<String, Object> key = new HashMap<>();
+            key.put(DATE_HISTOGRAM, times[i]);
+            key.put(ENTITY_TERMS, entities[i]);
+            InternalComposite.InternalBucket bucket = mock(InternalComposite.InternalBucket.class);
+            when(bucket.getKey()).thenReturn(key);
+            when(bucket.getAggregations())
+                .thenReturn(
+                    InternalAggregations.from(Collections.singletonList(new InternalMax(FEATURE_ID, i, DocValueFormat.RAW, emptyMap())))
+                );
+            buckets.add(bucket);
+        }
+        InternalComposite composite = mock(InternalComposite.class);
+        when(composite.getBuckets()).thenReturn(buckets);
+        when(composite.getName()).thenReturn(FEATURE_AGGS);
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getAggregations()).thenReturn(InternalAggregations.from(Collections.singletonList(composite)));
+        responses.add(response);
+
+        CompositeAggregationBuilder compositeAgg = new CompositeAggregationBuilder(
+            FEATURE_AGGS,
+            Arrays
+                .asList(
+                    new DateHistogramValuesSourceBuilder(DATE_HISTOGRAM).field("timestamp").fixedInterval(DateHistogramInterval.seconds(1)),
+                    new TermsValuesSourceBuilder(ENTITY_TERMS).field("host")
+                )
+        ).size(10);
+        SearchRequest request = new SearchRequest("index").source(new SearchSourceBuilder().aggregation(compositeAgg).size(0));
+        BatchFeatureReader reader = new BatchFeatureReader(client, request, compositeAgg, Collections.singletonList(FEATURE_ID), 2, true);
+
+        BatchFeatures features = read(reader, 1);
+        assertArrayEquals(new long[] { 0, 0 }, timesOf(features));
+        assertEquals("server_1", features.getEntity(0));
+        assertEquals("server_2", features.getEntity(1));
+        assertEquals(Optional.of(1.0), features.getFeatures(1).map(values -> values[0]));
+
+        features = read(reader, 2);
+        assertEquals(1, features.size());
+        assertEquals("server_1", features.getEntity(0));
+    }
+
+    public void testInvalidFeatures() {
+        BatchFeatures features = new BatchFeatures(new long[] { 0, 1 }, new double[] { 1, Double.NaN, 2, 3 }, 2, 2);
+        assertFalse(features.getFeatures(0).isPresent());
+        assertArrayEquals(new double[] { 2, 3 }, features.getFeatures(1).get(), 0.0001);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Feature;
+import org.opensearch.ad.model.IntervalTimeConfiguration;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.test.OpenSearchTestCase;
+
+import com.google.common.collect.ImmutableList;
+
+public class FeatureCacheTests extends OpenSearchTestCase {
+    private static final long MINUTE = 60_000L;
+
+    private Clock clock;
+    private FeatureCache cache;
+    private List<Feature> features;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(100 * MINUTE);
+        cache = new FeatureCache(clock, 10, 4);
+        features = ImmutableList.of(feature(true));
+    }
+
+    private Feature feature(boolean enabled) {
+        return new Feature("a", "a", enabled, AggregationBuilders.max("a").field("value"));
+    }
+
+    private AnomalyDetector mockDetector(String detectorId, Instant lastUpdateTime, List<Feature> features) {
+        AnomalyDetector detector = mock(AnomalyDetector.class);
+        when(detector.getDetectorId()).thenReturn(detectorId);
+        when(detector.getLastUpdateTime()).thenReturn(lastUpdateTime);
+        when(detector.getFeatureAttributes()).thenReturn(features);
+        when(detector.getEnabledFeatureIds()).thenReturn(ImmutableList.of("a"));
+        when(detector.getDetectionInterval()).thenReturn(new IntervalTimeConfiguration(1, ChronoUnit.MINUTES));
+        when(detector.getDetectorIntervalInMilliseconds()).thenReturn(MINUTE);
+        when(detector.getWindowDelay()).thenReturn(new IntervalTimeConfiguration(10, ChronoUnit.MINUTES));
+        return detector;
+    }
+
+    private Entry<Long, Long> range(long endMinute) {
+        return new SimpleImmutableEntry<>((endMinute - 1) * MINUTE, endMinute * MINUTE);
+    }
+
+    private void put(AnomalyDetector detector, String entity, long... endMinutes) {
+        for (long endMinute : endMinutes) {
+            cache.put(detector, entity, (endMinute - 1) * MINUTE, endMinute * MINUTE, new double[] { endMinute });
+        }
+    }
+
+    public void testReadThroughRanges() {
+        AnomalyDetector detector = mockDetector("foo", Instant.now(), features);
+        cache
+            .put(
+                detector,
+                null,
+                Arrays.asList(range(2), range(3), range(4)),
+                Arrays.asList(Optional.of(new double[] { 2 }), Optional.empty(), Optional.of(new double[] { 4 }))
+            );
+        assertEquals(2, cache.size());
+
+        double[][] cached = cache.get(detector, null, Arrays.asList(range(1), range(2), range(3), range(4)));
+        assertNull(cached[0]);
+        assertArrayEquals(new double[] { 2 }, cached[1], 0);
+        assertNull(cached[2]);
+        assertArrayEquals(new double[] { 4 }, cached[3], 0);
+
+        // entities of a detector are cached separately
+        assertNull(cache.get(detector, "server_1", Arrays.asList(range(2)))[0]);
+    }
+
+    public void testIncompleteIntervalNotCached() {
+        AnomalyDetector detector = mockDetector("foo", Instant.now(), features);
+        // the clock is at minute 100 and the window delay is 10 minutes
+        put(detector, null, 90, 91);
+        assertEquals(1, cache.size());
+        assertNull(cache.get(detector, null, Arrays.asList(range(91)))[0]);
+    }
+
+    public void testOnlyOneIntervalRangesCached() {
+        AnomalyDetector detector = mockDetector("foo", Instant.now(), features);
+        cache.put(detector, null, 0, 2 * MINUTE, new double[] { 1 });
+        assertEquals(0, cache.size());
+    }
+
+    public void testDetectorChangeInvalidates() {
+        Instant lastUpdateTime = Instant.now();
+        AnomalyDetector detector = mockDetector("foo", lastUpdateTime, features);
+        put(detector, null, 1);
+
+        AnomalyDetector updated = mockDetector("foo", lastUpdateTime.plusSeconds(1), features);
+        assertNull(cache.get(updated, null, Arrays.asList(range(1)))[0]);
+
+        // preview may change features without bumping the last update time
+        AnomalyDetector edited = mockDetector("foo", lastUpdateTime, ImmutableList.of(feature(true)));
+        assertNotNull(cache.get(edited, null, Arrays.asList(range(1)))[0]);
+        AnomalyDetector disabled = mockDetector("foo", lastUpdateTime, ImmutableList.of(feature(false)));
+        assertNull(cache.get(disabled, null, Arrays.asList(range(1)))[0]);
+
+        put(updated, null, 2);
+        assertEquals(1, cache.size());
+    }
+
+    public void testUnsavedDetectorNotCached() {
+        put(mockDetector(null, Instant.now(), features), null, 1);
+        put(mockDetector("foo", null, features), null, 1);
+        assertEquals(0, cache.size());
+    }
+
+    public void testOldestPointsDroppedFromFullSeries() {
+        AnomalyDetector detector = mockDetector("foo", Instant.now(), features);
+        put(detector, null, 5, 3, 4, 2);
+        put(detector, null, 1);
+        put(detector, null, 6);
+        assertEquals(4, cache.size());
+
+        double[][] cached = cache.get(detector, null, Arrays.asList(range(1), range(2), range(3), range(4), range(5), range(6)));
+        assertNull(cached[0]);
+        assertNull(cached[1]);
+        for (int i = 2; i < 6; i++) {
+            assertArrayEquals(new double[] { i + 1 }, cached[i], 0);
+        }
+    }
+
+    public void testLeastRecentlyUsedSeriesEvicted() {
+        AnomalyDetector detector = mockDetector("foo", Instant.now(), features);
+        put(detector, "server_1", 1, 2, 3, 4);
+        put(detector, "server_2", 1, 2, 3, 4);
+        // use server_1 so that server_2 is the least recently used
+        cache.get(detector, "server_1", Arrays.asList(range(1)));
+        put(detector, "server_3", 1, 2, 3);
+
+        assertEquals(7, cache.size());
+        assertNotNull(cache.get(detector, "server_1", Arrays.asList(range(1)))[0]);
+        assertNull(cache.get(detector, "server_2", Arrays.asList(range(1)))[0]);
+        assertNotNull(cache.get(detector, "server_3", Arrays.asList(range(1)))[0]);
+
+        cache.invalidate("foo");
+        assertEquals(0, cache.size());
+    }
+}
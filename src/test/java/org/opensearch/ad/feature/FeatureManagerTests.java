@@ -33,7 +33,6 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
@@ -57,8 +56,11 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -370,6 +372,7 @@ public class FeatureManagerTests {
         assertTrue(beforeMaintenance.getProcessedFeatures().isPresent());
 
         featureManager.clear(detector.getDetectorId());
+        verify(searchFeatureDao).clearFeatureCache(detector.getDetectorId());
 
         SinglePointFeatures afterMaintenance = getCurrentFeatures(detector, start, end);
         assertTrue(afterMaintenance.getUnprocessedFeatures().isPresent());
@@ -521,48 +524,47 @@ public class FeatureManagerTests {
     }
 
     @Test
-    public void getPreviewFeatureForEntity() throws IOException {
+    public void getPreviewFeaturesForEntities() {
         long start = 0L;
         long end = 240_000L;
-        Entity entity = new Entity("fieldName", "value");
+        Entity entity1 = new Entity("fieldName", "value1");
+        Entity entity2 = new Entity("fieldName", "value2");
+        Entity entity3 = new Entity("fieldName", "value3");
 
-        List<Optional<double[]>> coldStartSamples = new ArrayList<>();
-        coldStartSamples.add(Optional.of(new double[] { 10.0 }));
-        coldStartSamples.add(Optional.of(new double[] { 30.0 }));
+        Map<String, List<Optional<double[]>>> entitySamples = new HashMap<>();
+        entitySamples.put("value1", asList(Optional.of(new double[] { 10.0 }), Optional.of(new double[] { 30.0 })));
+        entitySamples.put("value2", asList(Optional.empty(), Optional.empty()));
 
         doAnswer(invocation -> {
-            ActionListener<List<Optional<double[]>>> listener = invocation.getArgument(4);
-            listener.onResponse(coldStartSamples);
+            ActionListener<Map<String, List<Optional<double[]>>>> listener = invocation.getArgument(3);
+            listener.onResponse(entitySamples);
             return null;
-        }).when(searchFeatureDao).getColdStartSamplesForPeriods(any(), any(), any(), anyBoolean(), any());
+        }).when(searchFeatureDao).getFeatureSamplesForEntities(any(), any(), any(), any());
 
-        ActionListener<Features> listener = mock(ActionListener.class);
+        ActionListener<Map<Entity, Features>> listener = mock(ActionListener.class);
 
-        featureManager.getPreviewFeaturesForEntity(detector, entity, start, end, listener);
+        featureManager.getPreviewFeaturesForEntities(detector, asList(entity1, entity2, entity3), start, end, listener);
 
         Features expected = new Features(
             asList(new SimpleEntry<>(120_000L, 180_000L)),
             new double[][] { { 30 } },
             new double[][] { { 10, 20, 30 } }
         );
-        verify(listener).onResponse(expected);
+        // entities without data are left out
+        verify(listener).onResponse(Collections.singletonMap(entity1, expected));
     }
 
     @Test
-    public void getPreviewFeatureForEntity_noDataToPreview() throws IOException {
-        long start = 0L;
-        long end = 240_000L;
-        Entity entity = new Entity("fieldName", "value");
-
+    public void getPreviewFeaturesForEntities_noDataToPreview() {
         doAnswer(invocation -> {
-            ActionListener<List<Optional<double[]>>> listener = invocation.getArgument(4);
-            listener.onResponse(new ArrayList<>());
+            ActionListener<Map<String, List<Optional<double[]>>>> listener = invocation.getArgument(3);
+            listener.onResponse(Collections.emptyMap());
             return null;
-        }).when(searchFeatureDao).getColdStartSamplesForPeriods(any(), any(), any(), anyBoolean(), any());
+        }).when(searchFeatureDao).getFeatureSamplesForEntities(any(), any(), any(), any());
 
-        ActionListener<Features> listener = mock(ActionListener.class);
+        ActionListener<Map<Entity, Features>> listener = mock(ActionListener.class);
 
-        featureManager.getPreviewFeaturesForEntity(detector, entity, start, end, listener);
+        featureManager.getPreviewFeaturesForEntities(detector, asList(new Entity("fieldName", "value")), 0L, 240_000L, listener);
 
         verify(listener).onFailure(any(IllegalArgumentException.class));
     }
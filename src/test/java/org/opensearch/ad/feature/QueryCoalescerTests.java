@@ -0,0 +1,211 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.filter.Filter;
+import org.opensearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+public class QueryCoalescerTests extends OpenSearchTestCase {
+    private static final String[] INDICES = new String[] { "logs-*" };
+
+    private Client client;
+    private ThreadPool threadPool;
+    private List<Runnable> scheduled;
+    private List<SearchRequest> requests;
+    private List<ActionListener<SearchResponse>> searchListeners;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(Client.class);
+        threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        scheduled = new ArrayList<>();
+        doAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            return null;
+        }).when(threadPool).schedule(any(Runnable.class), any(TimeValue.class), anyString());
+
+        requests = new ArrayList<>();
+        searchListeners = new ArrayList<>();
+        doAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            searchListeners.add(invocation.getArgument(1));
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+    }
+
+    private SearchSourceBuilder source(String field) {
+        return new SearchSourceBuilder()
+            .query(QueryBuilders.termQuery("service", field))
+            .size(0)
+            .aggregation(AggregationBuilders.max(field).field(field));
+    }
+
+    private SearchResponse response(Aggregations aggs) {
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getAggregations()).thenReturn(aggs);
+        return response;
+    }
+
+    private Filter namespace(String name, Aggregations subAggs) {
+        Filter filter = mock(Filter.class);
+        when(filter.getName()).thenReturn(name);
+        when(filter.getAggregations()).thenReturn(subAggs);
+        return filter;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testDisabled() {
+        QueryCoalescer coalescer = new QueryCoalescer(client, threadPool, TimeValue.ZERO, 10);
+        SearchSourceBuilder source = source("a");
+        ActionListener<Aggregations> listener = mock(ActionListener.class);
+        coalescer.search("d1", INDICES, source, listener);
+
+        assertEquals(1, requests.size());
+        assertEquals(source, requests.get(0).source());
+        assertTrue(scheduled.isEmpty());
+
+        Aggregations aggs = new Aggregations(Collections.emptyList());
+        searchListeners.get(0).onResponse(response(aggs));
+        verify(listener).onResponse(aggs);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMergeAndSplit() {
+        QueryCoalescer coalescer = new QueryCoalescer(client, threadPool, TimeValue.timeValueMillis(100), 10);
+        ActionListener<Aggregations> listener1 = mock(ActionListener.class);
+        ActionListener<Aggregations> listener2 = mock(ActionListener.class);
+        coalescer.search("d1", INDICES, source("a"), listener1);
+        coalescer.search("d2", INDICES, source("b"), listener2);
+
+        assertEquals(0, requests.size());
+        assertEquals(1, scheduled.size());
+        scheduled.get(0).run();
+
+        assertEquals(1, requests.size());
+        List<AggregationBuilder> namespaces = new ArrayList<>(requests.get(0).source().aggregations().getAggregatorFactories());
+        assertEquals(2, namespaces.size());
+        for (AggregationBuilder namespace : namespaces) {
+            assertTrue(namespace instanceof FilterAggregationBuilder);
+            assertEquals(1, namespace.getSubAggregations().size());
+        }
+
+        Aggregations aggs1 = new Aggregations(Collections.emptyList());
+        Aggregations aggs2 = new Aggregations(Collections.emptyList());
+        searchListeners
+            .get(0)
+            .onResponse(
+                response(
+                    new Aggregations(
+                        Arrays
+                            .asList(
+                                namespace(QueryCoalescer.NAMESPACE_PREFIX + 0, aggs1),
+                                namespace(QueryCoalescer.NAMESPACE_PREFIX + 1, aggs2)
+                            )
+                    )
+                )
+            );
+        verify(listener1).onResponse(aggs1);
+        verify(listener2).onResponse(aggs2);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testRetrySeparatelyOnFailure() {
+        QueryCoalescer coalescer = new QueryCoalescer(client, threadPool, TimeValue.timeValueMillis(100), 10);
+        ActionListener<Aggregations> listener1 = mock(ActionListener.class);
+        ActionListener<Aggregations> listener2 = mock(ActionListener.class);
+        SearchSourceBuilder source1 = source("a");
+        SearchSourceBuilder source2 = source("b");
+        coalescer.search("d1", INDICES, source1, listener1);
+        coalescer.search("d2", INDICES, source2, listener2);
+        scheduled.get(0).run();
+
+        searchListeners.get(0).onFailure(new RuntimeException());
+        assertEquals(3, requests.size());
+        assertEquals(source1, requests.get(1).source());
+        assertEquals(source2, requests.get(2).source());
+        verify(listener1, never()).onFailure(any());
+        verify(listener2, never()).onFailure(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testDifferentIndicesNotMerged() {
+        QueryCoalescer coalescer = new QueryCoalescer(client, threadPool, TimeValue.timeValueMillis(100), 10);
+        coalescer.search("d1", INDICES, source("a"), mock(ActionListener.class));
+        coalescer.search("d2", new String[] { "metrics-*" }, source("b"), mock(ActionListener.class));
+
+        assertEquals(2, scheduled.size());
+        scheduled.forEach(Runnable::run);
+        assertEquals(2, requests.size());
+        // a single query is sent as is
+        assertEquals(source("a"), requests.get(0).source());
+        assertEquals(source("b"), requests.get(1).source());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFullBatchSentImmediately() {
+        QueryCoalescer coalescer = new QueryCoalescer(client, threadPool, TimeValue.timeValueMillis(100), 2);
+        coalescer.search("d1", INDICES, source("a"), mock(ActionListener.class));
+        coalescer.search("d2", INDICES, source("b"), mock(ActionListener.class));
+        assertEquals(1, requests.size());
+
+        // the scheduled flush finds nothing to send
+        scheduled.get(0).run();
+        assertEquals(1, requests.size());
+        verify(threadPool, times(1)).schedule(any(Runnable.class), any(TimeValue.class), anyString());
+    }
+}
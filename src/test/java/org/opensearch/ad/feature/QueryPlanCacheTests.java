@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.feature;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.opensearch.ad.TestHelpers;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Feature;
+import org.opensearch.search.aggregations.AggregationBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+
+import com.google.common.collect.ImmutableList;
+
+public class QueryPlanCacheTests extends OpenSearchTestCase {
+    private QueryPlanCache cache;
+    private Feature enabledFeature;
+    private Feature disabledFeature;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new QueryPlanCache(TestHelpers.xContentRegistry(), 10, Duration.ofHours(1));
+        enabledFeature = TestHelpers.randomFeature(true);
+        disabledFeature = TestHelpers.randomFeature(false);
+    }
+
+    private AnomalyDetector mockDetector(String detectorId, Instant lastUpdateTime, List<Feature> features) {
+        AnomalyDetector detector = mock(AnomalyDetector.class);
+        when(detector.getDetectorId()).thenReturn(detectorId);
+        when(detector.getLastUpdateTime()).thenReturn(lastUpdateTime);
+        when(detector.getFeatureAttributes()).thenReturn(features);
+        return detector;
+    }
+
+    public void testAggregationsNamedAfterFeatureIds() throws IOException {
+        AnomalyDetector detector = mockDetector("foo", Instant.now(), ImmutableList.of(enabledFeature, disabledFeature));
+
+        List<AggregationBuilder> all = cache.getFeatureAggregations(detector);
+        assertEquals(2, all.size());
+        assertEquals(enabledFeature.getId(), all.get(0).getName());
+        assertEquals(disabledFeature.getId(), all.get(1).getName());
+
+        List<AggregationBuilder> enabled = cache.getEnabledFeatureAggregations(detector);
+        assertEquals(1, enabled.size());
+        assertEquals(enabledFeature.getId(), enabled.get(0).getName());
+    }
+
+    public void testReuseUntilDetectorUpdated() throws IOException {
+        Instant lastUpdateTime = Instant.now();
+        List<Feature> features = ImmutableList.of(enabledFeature);
+        AnomalyDetector detector = mockDetector("foo", lastUpdateTime, features);
+
+        List<AggregationBuilder> first = cache.getFeatureAggregations(detector);
+        assertSame(first, cache.getFeatureAggregations(mockDetector("foo", lastUpdateTime, features)));
+        assertEquals(1, cache.size());
+
+        List<AggregationBuilder> updated = cache.getFeatureAggregations(mockDetector("foo", lastUpdateTime.plusSeconds(1), features));
+        assertNotSame(first, updated);
+        assertEquals(1, cache.size());
+    }
+
+    public void testFeatureChangeWithoutUpdateTime() throws IOException {
+        Instant lastUpdateTime = Instant.now();
+        cache.getFeatureAggregations(mockDetector("foo", lastUpdateTime, ImmutableList.of(enabledFeature)));
+
+        List<AggregationBuilder> aggs = cache
+            .getFeatureAggregations(mockDetector("foo", lastUpdateTime, ImmutableList.of(disabledFeature)));
+        assertEquals(1, aggs.size());
+        assertEquals(disabledFeature.getId(), aggs.get(0).getName());
+    }
+
+    public void testUnsavedDetectorNotCached() throws IOException {
+        List<AggregationBuilder> aggs = cache.getFeatureAggregations(mockDetector(null, null, ImmutableList.of(enabledFeature)));
+        assertEquals(1, aggs.size());
+        assertEquals(0, cache.size());
+    }
+
+    public void testInvalidate() throws IOException {
+        cache.getFeatureAggregations(mockDetector("foo", Instant.now(), ImmutableList.of(enabledFeature)));
+        assertEquals(1, cache.size());
+        cache.invalidate("foo");
+        assertEquals(0, cache.size());
+    }
+}
@@ -30,10 +30,13 @@ import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.AnyOf.anyOf;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
@@ -42,11 +45,13 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.AbstractMap.SimpleEntry;
@@ -63,6 +68,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
@@ -127,6 +133,7 @@ import org.opensearch.search.aggregations.InternalAggregation;
 import org.opensearch.search.aggregations.InternalAggregations;
 import org.opensearch.search.aggregations.InternalOrder;
 import org.opensearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.opensearch.search.aggregations.bucket.range.InternalDateRange;
 import org.opensearch.search.aggregations.bucket.terms.StringTerms;
 import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.opensearch.search.aggregations.metrics.InternalMax;
@@ -226,7 +233,12 @@ public class SearchFeatureDaoTests {
             Collections
                 .unmodifiableSet(
                     new HashSet<>(
-                        Arrays.asList(AnomalyDetectorSettings.MAX_ENTITIES_PER_QUERY, AnomalyDetectorSettings.MAX_ENTITIES_FOR_PREVIEW)
+                        Arrays
+                            .asList(
+                                AnomalyDetectorSettings.MAX_ENTITIES_PER_QUERY,
+                                AnomalyDetectorSettings.MAX_ENTITIES_FOR_PREVIEW,
+                                AnomalyDetectorSettings.FEATURE_QUERY_COALESCE_WINDOW
+                            )
                     )
                 )
         );
@@ -400,7 +412,7 @@ public class SearchFeatureDaoTests {
         long end = 200L;
 
         // pre-conditions
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), anyList())).thenReturn(searchSourceBuilder);
         when(searchResponse.getAggregations()).thenReturn(new Aggregations(aggs));
         when(detector.getEnabledFeatureIds()).thenReturn(featureIds);
 
@@ -447,7 +459,7 @@ public class SearchFeatureDaoTests {
 
         long start = 100L;
         long end = 200L;
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), anyList())).thenReturn(searchSourceBuilder);
         when(searchResponse.getAggregations()).thenReturn(new Aggregations(aggs));
         when(detector.getEnabledFeatureIds()).thenReturn(featureIds);
         doAnswer(invocation -> {
@@ -471,7 +483,7 @@ public class SearchFeatureDaoTests {
 
         long start = 100L;
         long end = 200L;
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), anyList())).thenReturn(searchSourceBuilder);
         doAnswer(invocation -> {
             ActionListener<SearchResponse> listener = invocation.getArgument(1);
             listener.onFailure(new RuntimeException());
@@ -490,7 +502,7 @@ public class SearchFeatureDaoTests {
 
         long start = 100L;
         long end = 200L;
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), anyList())).thenReturn(searchSourceBuilder);
         when(detector.getEnabledFeatureIds()).thenReturn(null);
         doAnswer(invocation -> {
             ActionListener<SearchResponse> listener = invocation.getArgument(1);
@@ -510,7 +522,7 @@ public class SearchFeatureDaoTests {
         long end = 200L;
 
         // pre-conditions
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), anyList())).thenReturn(searchSourceBuilder);
         when(searchResponse.getAggregations()).thenReturn(null);
 
         // test
@@ -526,7 +538,7 @@ public class SearchFeatureDaoTests {
         long end = 200L;
 
         // pre-conditions
-        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), eq(xContent))).thenReturn(searchSourceBuilder);
+        when(ParseUtils.generateInternalFeatureQuery(eq(detector), eq(start), eq(end), anyList())).thenReturn(searchSourceBuilder);
         when(searchResponse.getHits()).thenReturn(new SearchHits(new SearchHit[0], new TotalHits(0L, TotalHits.Relation.EQUAL_TO), 1f));
 
         List<Aggregation> aggList = new ArrayList<>(1);
@@ -686,22 +698,23 @@ public class SearchFeatureDaoTests {
         int maxStride,
         int maxSamples,
         Optional<Entry<double[][], Integer>> expected
-    ) {
-        doAnswer(invocation -> {
-            ActionListener<Optional<double[]>> listener = invocation.getArgument(3);
-            listener.onResponse(Optional.empty());
-            return null;
-        }).when(searchFeatureDao).getFeaturesForPeriod(any(), anyLong(), anyLong(), any(ActionListener.class));
+    ) throws IOException {
+        Map<Entry<Long, Long>, double[]> results = new HashMap<>();
         for (int i = 0; i < queryRanges.length; i++) {
-            double[] queryResult = queryResults[i];
-            doAnswer(invocation -> {
-                ActionListener<Optional<double[]>> listener = invocation.getArgument(3);
-                listener.onResponse(Optional.of(queryResult));
-                return null;
-            })
-                .when(searchFeatureDao)
-                .getFeaturesForPeriod(eq(detector), eq(queryRanges[i][0]), eq(queryRanges[i][1]), any(ActionListener.class));
+            results.put(new SimpleEntry<>(queryRanges[i][0], queryRanges[i][1]), queryResults[i]);
         }
+        doAnswer(invocation -> {
+            List<Entry<Long, Long>> ranges = invocation.getArgument(1);
+            ActionListener<List<Optional<double[]>>> listener = invocation.getArgument(2);
+            listener
+                .onResponse(
+                    ranges
+                        .stream()
+                        .map(range -> Optional.ofNullable(results.get(new SimpleEntry<>(range.getKey(), range.getValue()))))
+                        .collect(Collectors.toList())
+                );
+            return null;
+        }).when(searchFeatureDao).getFeatureSamplesForPeriods(eq(detector), any(), any(ActionListener.class));
 
         ActionListener<Optional<Entry<double[][], Integer>>> listener = mock(ActionListener.class);
         searchFeatureDao.getFeaturesForSampledPeriods(detector, maxSamples, maxStride, endTime, listener);
@@ -714,16 +727,18 @@ public class SearchFeatureDaoTests {
             assertTrue(Arrays.deepEquals(expected.get().getKey(), result.get().getKey()));
             assertEquals(expected.get().getValue(), result.get().getValue());
         }
+        // all strides are probed by one search
+        verify(searchFeatureDao, times(1)).getFeatureSamplesForPeriods(eq(detector), any(), any(ActionListener.class));
     }
 
     @Test
     @SuppressWarnings("unchecked")
-    public void getFeaturesForSampledPeriods_throwToListener_whenSamplingFail() {
+    public void getFeaturesForSampledPeriods_throwToListener_whenSamplingFail() throws IOException {
         doAnswer(invocation -> {
-            ActionListener<Optional<double[]>> listener = invocation.getArgument(3);
+            ActionListener<List<Optional<double[]>>> listener = invocation.getArgument(2);
             listener.onFailure(new RuntimeException());
             return null;
-        }).when(searchFeatureDao).getFeaturesForPeriod(any(), anyLong(), anyLong(), any(ActionListener.class));
+        }).when(searchFeatureDao).getFeatureSamplesForPeriods(any(), any(), any(ActionListener.class));
 
         ActionListener<Optional<Entry<double[][], Integer>>> listener = mock(ActionListener.class);
         searchFeatureDao.getFeaturesForSampledPeriods(detector, 1, 1, 0, listener);
@@ -743,11 +758,9 @@ public class SearchFeatureDaoTests {
         String aggregationId = "deny_max";
         String featureName = "deny max";
         AggregationBuilder builder = new MaxAggregationBuilder("deny_max").field("deny");
-        AggregatorFactories.Builder aggBuilder = AggregatorFactories.builder();
-        aggBuilder.addAggregator(builder);
         when(detector.getEnabledFeatureIds()).thenReturn(Collections.singletonList(aggregationId));
         when(detector.getFeatureAttributes()).thenReturn(Collections.singletonList(new Feature(aggregationId, featureName, true, builder)));
-        when(ParseUtils.parseAggregators(anyString(), any(), anyString())).thenReturn(aggBuilder);
+        when(ParseUtils.parseFeatureAggregations(any(), anyBoolean(), any())).thenReturn(Collections.singletonList(builder));
 
         String app0Name = "app_0";
         double app0Max = 1976.0;
@@ -875,11 +888,9 @@ public class SearchFeatureDaoTests {
         String aggregationId = "deny_max";
         String featureName = "deny max";
         AggregationBuilder builder = new MaxAggregationBuilder("deny_max").field("deny");
-        AggregatorFactories.Builder aggBuilder = AggregatorFactories.builder();
-        aggBuilder.addAggregator(builder);
         when(detector.getEnabledFeatureIds()).thenReturn(Collections.singletonList(aggregationId));
         when(detector.getFeatureAttributes()).thenReturn(Collections.singletonList(new Feature(aggregationId, featureName, true, builder)));
-        PowerMockito.doThrow(new IOException()).when(ParseUtils.class, "parseAggregators", anyString(), any(), anyString());
+        PowerMockito.doThrow(new IOException()).when(ParseUtils.class, "parseFeatureAggregations", any(), anyBoolean(), any());
 
         ActionListener<Map<String, double[]>> listener = mock(ActionListener.class);
         searchFeatureDao.getFeaturesByEntities(detector, 10L, 20L, listener);
@@ -1028,4 +1039,182 @@ public class SearchFeatureDaoTests {
         assertEquals(entity1Name, result.get(0).getValue());
         assertEquals(entity2Name, result.get(1).getValue());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetFeatureSamplesForPeriodsReadsCachedRanges() throws IOException {
+        List<List<Entry<Long, Long>>> searchedRanges = mockFeatureCacheTest();
+        long start = 1_600_000_000_000L;
+        long interval = 60_000L;
+        List<Entry<Long, Long>> ranges = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ranges.add(new SimpleEntry<>(start + i * interval, start + (i + 1) * interval));
+        }
+
+        // cache the 2nd and 4th ranges
+        mockDateRangeResponse(ranges.get(1), 3, 1.0, ranges.get(3), 3, 3.0);
+        ActionListener<List<Optional<double[]>>> listener = mock(ActionListener.class);
+        searchFeatureDao.getFeatureSamplesForPeriods(detector, Arrays.asList(ranges.get(1), ranges.get(3)), listener);
+        verify(listener).onResponse(any());
+
+        // only the missing ranges are searched and merged back in the order of the requested ranges
+        mockDateRangeResponse(ranges.get(0), 3, 0.0, ranges.get(2), 3, 2.0);
+        listener = mock(ActionListener.class);
+        searchFeatureDao.getFeatureSamplesForPeriods(detector, ranges, listener);
+
+        assertEquals(2, searchedRanges.size());
+        assertEquals(Arrays.asList(ranges.get(0), ranges.get(2)), searchedRanges.get(1));
+        ArgumentCaptor<List<Optional<double[]>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(listener).onResponse(captor.capture());
+        List<Optional<double[]>> samples = captor.getValue();
+        assertEquals(4, samples.size());
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(new double[] { i }, samples.get(i).get(), 0.0001);
+        }
+
+        // all ranges are cached now
+        listener = mock(ActionListener.class);
+        searchFeatureDao.getFeatureSamplesForPeriods(detector, ranges, listener);
+        assertEquals(2, searchedRanges.size());
+        verify(listener).onResponse(captor.capture());
+        assertEquals(4, captor.getValue().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testClearFeatureCache() throws IOException {
+        List<List<Entry<Long, Long>>> searchedRanges = mockFeatureCacheTest();
+        Entry<Long, Long> range = new SimpleEntry<>(1_600_000_000_000L, 1_600_000_060_000L);
+        mockDateRangeResponse(range, 3, 1.0);
+
+        searchFeatureDao.getFeatureSamplesForPeriods(detector, Arrays.asList(range), mock(ActionListener.class));
+        searchFeatureDao.getFeatureSamplesForPeriods(detector, Arrays.asList(range), mock(ActionListener.class));
+        assertEquals(1, searchedRanges.size());
+
+        searchFeatureDao.clearFeatureCache(detector.getDetectorId());
+        searchFeatureDao.getFeatureSamplesForPeriods(detector, Arrays.asList(range), mock(ActionListener.class));
+        assertEquals(2, searchedRanges.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetColdStartSamplesForPeriodsFiltersEmptyBuckets() throws IOException {
+        List<List<Entry<Long, Long>>> searchedRanges = mockFeatureCacheTest();
+        String entity = "app_0";
+        Entry<Long, Long> earlier = new SimpleEntry<>(1_600_000_000_000L, 1_600_000_060_000L);
+        Entry<Long, Long> later = new SimpleEntry<>(1_600_000_060_000L, 1_600_000_120_000L);
+        // ranges out of time order
+        List<Entry<Long, Long>> ranges = Arrays.asList(later, earlier);
+
+        // the bucket without documents is skipped and not cached
+        mockDateRangeResponse(earlier, 3, 1.0, later, 0, 2.0);
+        ActionListener<List<Optional<double[]>>> listener = mock(ActionListener.class);
+        searchFeatureDao.getColdStartSamplesForPeriods(detector, ranges, entity, false, listener);
+        ArgumentCaptor<List<Optional<double[]>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(listener).onResponse(captor.capture());
+        List<Optional<double[]>> samples = captor.getValue();
+        assertEquals(1, samples.size());
+        assertArrayEquals(new double[] { 1.0 }, samples.get(0).get(), 0.0001);
+
+        // the cached bucket is merged with the empty bucket searched again, ordered by range start
+        mockDateRangeResponse(later, 0, 2.0);
+        listener = mock(ActionListener.class);
+        searchFeatureDao.getColdStartSamplesForPeriods(detector, ranges, entity, true, listener);
+        assertEquals(2, searchedRanges.size());
+        assertEquals(Arrays.asList(later), searchedRanges.get(1));
+        verify(listener).onResponse(captor.capture());
+        samples = captor.getValue();
+        assertEquals(2, samples.size());
+        assertArrayEquals(new double[] { 1.0 }, samples.get(0).get(), 0.0001);
+        assertArrayEquals(new double[] { 2.0 }, samples.get(1).get(), 0.0001);
+    }
+
+    /**
+     * Makes the mocked detector cacheable and records the ranges of every feature search.
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<Entry<Long, Long>>> mockFeatureCacheTest() throws IOException {
+        String aggregationId = "deny_max";
+        AggregationBuilder builder = new MaxAggregationBuilder(aggregationId).field("deny");
+        when(detector.getDetectorId()).thenReturn("testId");
+        when(detector.getLastUpdateTime()).thenReturn(Instant.ofEpochMilli(1_500_000_000_000L));
+        when(detector.getDetectorIntervalInMilliseconds()).thenReturn(detectionInterval.toDuration().toMillis());
+        when(detector.getEnabledFeatureIds()).thenReturn(Collections.singletonList(aggregationId));
+        when(detector.getFeatureAttributes()).thenReturn(Collections.singletonList(new Feature(aggregationId, "deny max", true, builder)));
+        when(ParseUtils.parseFeatureAggregations(any(), anyBoolean(), any())).thenReturn(Collections.singletonList(builder));
+
+        List<List<Entry<Long, Long>>> searchedRanges = new ArrayList<>();
+        when(ParseUtils.generatePreviewQuery(eq(detector), any(List.class), any(List.class))).thenAnswer(invocation -> {
+            searchedRanges.add(new ArrayList<>(invocation.getArgument(1)));
+            return new SearchSourceBuilder();
+        });
+        when(ParseUtils.generateEntityColdStartQuery(eq(detector), any(List.class), anyString(), any(List.class)))
+            .thenAnswer(invocation -> {
+                searchedRanges.add(new ArrayList<>(invocation.getArgument(1)));
+                return new SearchSourceBuilder();
+            });
+        return searchedRanges;
+    }
+
+    /**
+     * Responds to searches with a date range bucket per range.
+     *
+     * @param rangeDocCountAndValues range, doc count and feature value of each bucket
+     */
+    @SuppressWarnings("unchecked")
+    private void mockDateRangeResponse(Object... rangeDocCountAndValues) {
+        DocValueFormat dateFormat = new DocValueFormat.DateTime(
+            DateFormatter.forPattern("epoch_millis"),
+            ZoneId.of("UTC"),
+            DateFieldMapper.Resolution.MILLISECONDS
+        );
+        List<InternalDateRange.Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < rangeDocCountAndValues.length; i += 3) {
+            Entry<Long, Long> range = (Entry<Long, Long>) rangeDocCountAndValues[i];
+            InternalAggregation max = new InternalMax(
+                "deny_max",
+                (double) rangeDocCountAndValues[i + 2],
+                DocValueFormat.RAW,
+                Collections.emptyMap()
+            );
+            buckets
+                .add(
+                    new InternalDateRange.Bucket(
+                        range.getKey() + "-" + range.getValue(),
+                        range.getKey(),
+                        range.getValue(),
+                        (int) rangeDocCountAndValues[i + 1],
+                        InternalAggregations.from(Collections.singletonList(max)),
+                        false,
+                        dateFormat
+                    )
+                );
+        }
+        InternalDateRange dateRange = InternalDateRange.FACTORY.create("date_range", buckets, dateFormat, false, Collections.emptyMap());
+        SearchHits hits = new SearchHits(new SearchHit[] {}, null, Float.NaN);
+        SearchResponseSections searchSections = new SearchResponseSections(
+            hits,
+            InternalAggregations.from(Collections.singletonList(dateRange)),
+            null,
+            false,
+            false,
+            null,
+            1
+        );
+        SearchResponse searchResponse = new SearchResponse(
+            searchSections,
+            null,
+            1,
+            1,
+            0,
+            30,
+            ShardSearchFailure.EMPTY_ARRAY,
+            SearchResponse.Clusters.EMPTY
+        );
+        doAnswer(invocation -> {
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+    }
 }
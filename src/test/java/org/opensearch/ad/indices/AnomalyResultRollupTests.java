@@ -0,0 +1,260 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.indices;
+
+import static java.util.Collections.emptyMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchResponseSections;
+import org.opensearch.action.search.ShardSearchFailure;
+import org.opensearch.ad.constant.CommonName;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.Entity;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.index.query.RangeQueryBuilder;
+import org.opensearch.search.DocValueFormat;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.search.aggregations.InternalAggregation;
+import org.opensearch.search.aggregations.InternalAggregations;
+import org.opensearch.search.aggregations.metrics.InternalMax;
+import org.opensearch.search.aggregations.metrics.InternalMin;
+import org.opensearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+public class AnomalyResultRollupTests extends OpenSearchTestCase {
+    private static final long HOUR = AnomalyResultRollup.HOUR_MILLIS;
+
+    Client client;
+    ClusterService clusterService;
+    ThreadPool threadPool;
+    AnomalyDetectionIndices indices;
+    long watermark;
+    // start time of the earliest result after the watermark, infinite if none
+    double earliestResult;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(Client.class);
+        clusterService = mock(ClusterService.class);
+        when(clusterService.getClusterSettings())
+            .thenReturn(
+                new ClusterSettings(
+                    Settings.EMPTY,
+                    Collections.unmodifiableSet(new HashSet<>(Arrays.asList(AnomalyDetectorSettings.AD_RESULT_ROLLUP_AGE)))
+                )
+            );
+        threadPool = mock(ThreadPool.class);
+        indices = mock(AnomalyDetectionIndices.class);
+        when(indices.doesAnomalyResultRollupIndexExist()).thenReturn(true);
+        watermark = 10 * HOUR;
+
+        earliestResult = watermark - HOUR;
+        setUpSearch();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setUpSearch() {
+        doAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            InternalAggregation agg = null;
+            if (Arrays.equals(new String[] { CommonName.ANOMALY_RESULT_ROLLUP_INDEX }, request.indices())) {
+                agg = new InternalMax(AnomalyResultRollup.WATERMARK_AGG, watermark, DocValueFormat.RAW, emptyMap());
+            } else if (isEarliestResultSearch(request)) {
+                agg = new InternalMin(AnomalyResultRollup.WATERMARK_AGG, earliestResult, DocValueFormat.RAW, emptyMap());
+            }
+            SearchResponseSections sections = new SearchResponseSections(
+                new SearchHits(new SearchHit[] {}, null, Float.NaN),
+                agg == null ? InternalAggregations.EMPTY : InternalAggregations.from(Collections.singletonList(agg)),
+                null,
+                false,
+                false,
+                null,
+                1
+            );
+            listener
+                .onResponse(new SearchResponse(sections, null, 1, 1, 0, 1, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY));
+            return null;
+        }).when(client).search(any(), any());
+    }
+
+    private AnomalyResultRollup createRollup(String age, long now) {
+        Settings settings = Settings.builder().put(AnomalyDetectorSettings.AD_RESULT_ROLLUP_AGE.getKey(), age).build();
+        return new AnomalyResultRollup(
+            client,
+            clusterService,
+            threadPool,
+            indices,
+            Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC),
+            settings
+        );
+    }
+
+    public void testRollupSkipsHistoricalAndSummaryResults() {
+        // roll up the latest rolled up hour again and the hour after it
+        createRollup("1h", watermark + 2 * HOUR).rollup();
+
+        ArgumentCaptor<SearchRequest> searches = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, atLeastOnce()).search(searches.capture(), any());
+        int resultSearches = 0;
+        for (SearchRequest search : searches.getAllValues()) {
+            if (!Arrays.equals(new String[] { AnomalyDetectionIndices.ALL_AD_RESULTS_INDEX_PATTERN }, search.indices())) {
+                assertArrayEquals(new String[] { CommonName.ANOMALY_RESULT_ROLLUP_INDEX }, search.indices());
+                continue;
+            }
+            BoolQueryBuilder query = (BoolQueryBuilder) search.source().query();
+            assertTrue(query.mustNot().contains(QueryBuilders.existsQuery(AnomalyResult.TASK_ID_FIELD)));
+            assertTrue(
+                query.mustNot().contains(QueryBuilders.termQuery(AnomalyResult.RESULT_TYPE_FIELD, AnomalyResult.SUMMARY_RESULT_TYPE))
+            );
+            if (!isEarliestResultSearch(search)) {
+                resultSearches++;
+            }
+        }
+        // entity and detector results of the two hours
+        assertEquals(4, resultSearches);
+    }
+
+    public void testRollupSkipsHoursWithoutResults() {
+        // no results for 30 hours after the watermark, e.g., detectors were stopped
+        earliestResult = watermark + 30 * HOUR + TimeValue.timeValueMinutes(10).millis();
+        createRollup("1h", watermark + 40 * HOUR).rollup();
+
+        // starts from the hour of the earliest result up to the cutoff
+        assertEquals(hours(watermark + 30 * HOUR, watermark + 39 * HOUR), rolledUpHours());
+        ArgumentCaptor<SearchRequest> searches = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, atLeastOnce()).search(searches.capture(), any());
+        for (SearchRequest search : searches.getAllValues()) {
+            if (isEarliestResultSearch(search)) {
+                BoolQueryBuilder query = (BoolQueryBuilder) search.source().query();
+                RangeQueryBuilder range = (RangeQueryBuilder) query.filter().get(0);
+                assertEquals(watermark - HOUR, range.from());
+            }
+        }
+    }
+
+    public void testRollupCatchesUpInBatches() {
+        createRollup("1h", watermark + 100 * HOUR).rollup();
+        assertEquals(hours(watermark - HOUR, watermark - HOUR + AnomalyResultRollup.MAX_HOURS_PER_RUN * HOUR), rolledUpHours());
+
+        // the next run continues from the latest rolled up hour
+        watermark += (AnomalyResultRollup.MAX_HOURS_PER_RUN - 1) * HOUR;
+        earliestResult = watermark - HOUR;
+        reset(client);
+        setUpSearch();
+        createRollup("1h", watermark + 100 * HOUR).rollup();
+        assertEquals(hours(watermark - HOUR, watermark - HOUR + AnomalyResultRollup.MAX_HOURS_PER_RUN * HOUR), rolledUpHours());
+    }
+
+    public void testRollupWithoutNewResults() {
+        earliestResult = Double.POSITIVE_INFINITY;
+        createRollup("1h", watermark + 100 * HOUR).rollup();
+        assertEquals(Collections.emptyList(), rolledUpHours());
+    }
+
+    private static boolean isEarliestResultSearch(SearchRequest request) {
+        return request.source().aggregations() != null
+            && request.source().aggregations().getAggregatorFactories().stream().anyMatch(MinAggregationBuilder.class::isInstance);
+    }
+
+    /**
+     * @return start of the hours searched for results to roll up, each hour once
+     */
+    private List<Long> rolledUpHours() {
+        ArgumentCaptor<SearchRequest> searches = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, atLeastOnce()).search(searches.capture(), any());
+        return searches
+            .getAllValues()
+            .stream()
+            .filter(search -> Arrays.equals(new String[] { AnomalyDetectionIndices.ALL_AD_RESULTS_INDEX_PATTERN }, search.indices()))
+            .filter(search -> !isEarliestResultSearch(search))
+            .map(search -> (Long) ((RangeQueryBuilder) ((BoolQueryBuilder) search.source().query()).filter().get(0)).from())
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    private static List<Long> hours(long start, long end) {
+        List<Long> hours = new ArrayList<>();
+        for (long hour = start; hour < end; hour += HOUR) {
+            hours.add(hour);
+        }
+        return hours;
+    }
+
+    public void testDisabled() {
+        AnomalyResultRollup rollup = createRollup("0s", watermark + 2 * HOUR);
+        rollup.rollup();
+        verify(client, never()).search(any(), any());
+        verify(indices, never()).initAnomalyResultRollupIndex(any());
+    }
+
+    public void testRollupId() {
+        Entity entity = new Entity("host", "server_1");
+        assertEquals(AnomalyResultRollup.rollupId("foo", entity, HOUR), AnomalyResultRollup.rollupId("foo", entity, HOUR));
+        assertNotEquals(AnomalyResultRollup.rollupId("foo", entity, HOUR), AnomalyResultRollup.rollupId("foo", entity, 2 * HOUR));
+        assertNotEquals(AnomalyResultRollup.rollupId("foo", entity, HOUR), AnomalyResultRollup.rollupId("foo", null, HOUR));
+    }
+
+    public void testTruncateToHour() {
+        assertEquals(HOUR, AnomalyResultRollup.truncateToHour(HOUR + TimeValue.timeValueMinutes(59).millis()));
+        assertEquals(HOUR, AnomalyResultRollup.truncateToHour(HOUR));
+    }
+}
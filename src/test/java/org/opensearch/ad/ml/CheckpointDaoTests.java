@@ -48,9 +48,13 @@ import java.time.Instant;
 import java.time.Month;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -81,6 +85,9 @@ import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.delete.DeleteResponse;
 import org.opensearch.action.get.GetRequest;
 import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.get.MultiGetRequest;
+import org.opensearch.action.get.MultiGetResponse;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.action.index.IndexResponse;
 import org.opensearch.action.update.UpdateResponse;
@@ -716,4 +723,147 @@ public class CheckpointDaoTests {
         assertEquals(modelToSave.getRcf().getTotalUpdates(), model.getRcf().getTotalUpdates());
         assertTrue(model.getThreshold() != null);
     }
+
+    @Test
+    public void batchTaskCheckpoint_roundTrip() {
+        checkpointDao = new CheckpointDao(
+            client,
+            clientUtil,
+            indexName,
+            new Gson(),
+            new RandomCutForestSerDe(),
+            thresholdingModelClass,
+            clock,
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            indexUtil,
+            maxBulkSize,
+            2
+        );
+        EntityModel model = MLUtil.randomNonEmptyModelState().getModel();
+        Deque<Entry<Long, Optional<double[]>>> shingle = new ArrayDeque<>();
+        shingle.offer(new SimpleEntry<>(1L, Optional.of(new double[] { 1.0, 2.0 })));
+        shingle.offer(new SimpleEntry<>(2L, Optional.empty()));
+        BatchTaskCheckpoint toSave = new BatchTaskCheckpoint(
+            "task",
+            model.getRcf(),
+            model.getThreshold(),
+            false,
+            new double[] { 0.5, 0.6 },
+            shingle,
+            100L
+        );
+
+        Map<String, Object> source = new HashMap<>();
+        source.put(FIELD_MODEL, checkpointDao.toCheckpoint(toSave));
+        BatchTaskCheckpoint restored = checkpointDao.fromBatchTaskCheckpoint(source, "task");
+
+        assertEquals("task", restored.getTaskId());
+        assertEquals(100L, restored.getPieceStartTime());
+        assertFalse(restored.isThresholdModelTrained());
+        assertTrue(Arrays.equals(new double[] { 0.5, 0.6 }, restored.getThresholdModelTrainingData()));
+        assertEquals(model.getRcf().getTotalUpdates(), restored.getRcf().getTotalUpdates());
+        assertNotNull(restored.getThreshold());
+        assertEquals(2, restored.getShingle().size());
+        assertTrue(Arrays.equals(new double[] { 1.0, 2.0 }, restored.getShingle().peekFirst().getValue().get()));
+        assertEquals(Long.valueOf(2L), restored.getShingle().peekLast().getKey());
+        assertFalse(restored.getShingle().peekLast().getValue().isPresent());
+    }
+
+    private CheckpointDao createPartitionedDao() {
+        when(indexUtil.isCheckpointPartitioned()).thenReturn(true);
+        when(indexUtil.doesCheckpointWriteAliasExist()).thenReturn(true);
+        when(indexUtil.getCheckpointIndices()).thenReturn(Arrays.asList("partition-2", "partition-1", CommonName.CHECKPOINT_INDEX_NAME));
+        return new CheckpointDao(
+            client,
+            clientUtil,
+            indexName,
+            gson,
+            rcfSerde,
+            thresholdingModelClass,
+            clock,
+            AnomalyDetectorSettings.HOURLY_MAINTENANCE,
+            indexUtil,
+            maxBulkSize,
+            200.0
+        );
+    }
+
+    private MultiGetItemResponse multiGetItem(String index, boolean exists) {
+        GetResponse response = mock(GetResponse.class);
+        when(response.getIndex()).thenReturn(index);
+        when(response.isExists()).thenReturn(exists);
+        when(response.getSource()).thenReturn(exists ? docSource : null);
+        return new MultiGetItemResponse(response, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void getModelCheckpoint_partitioned_stopsAtLatestKnownPartition() {
+        CheckpointDao dao = createPartitionedDao();
+        ArgumentCaptor<MultiGetRequest> requestCaptor = ArgumentCaptor.forClass(MultiGetRequest.class);
+        doAnswer(invocation -> {
+            ActionListener<MultiGetResponse> listener = invocation.getArgument(2);
+            listener
+                .onResponse(
+                    new MultiGetResponse(
+                        new MultiGetItemResponse[] {
+                            multiGetItem("partition-2", false),
+                            multiGetItem("partition-1", true),
+                            multiGetItem(CommonName.CHECKPOINT_INDEX_NAME, false) }
+                    )
+                );
+            return null;
+        }).when(clientUtil).asyncRequest(requestCaptor.capture(), any(BiConsumer.class), any(ActionListener.class));
+
+        ActionListener<Optional<String>> listener = mock(ActionListener.class);
+        dao.getModelCheckpoint(modelId, listener);
+        verify(listener).onResponse(Optional.of(model));
+        assertEquals(3, requestCaptor.getValue().getItems().size());
+
+        // the checkpoint was found in partition-1 so older partitions are not read again
+        dao.getModelCheckpoint(modelId, listener);
+        List<MultiGetRequest.Item> items = requestCaptor.getValue().getItems();
+        assertEquals(2, items.size());
+        assertEquals("partition-2", items.get(0).index());
+        assertEquals("partition-1", items.get(1).index());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void deleteModelCheckpoint_partitioned_deletesFromAllPartitions() {
+        CheckpointDao dao = createPartitionedDao();
+        ArgumentCaptor<BulkRequest> requestCaptor = ArgumentCaptor.forClass(BulkRequest.class);
+        doAnswer(invocation -> {
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1));
+            return null;
+        }).when(clientUtil).asyncRequest(requestCaptor.capture(), any(BiConsumer.class), any(ActionListener.class));
+
+        ActionListener<Void> listener = mock(ActionListener.class);
+        dao.deleteModelCheckpoint(modelId, listener);
+
+        verify(listener).onResponse(null);
+        BulkRequest request = requestCaptor.getValue();
+        assertEquals(3, request.numberOfActions());
+        for (DocWriteRequest<?> delete : request.requests()) {
+            assertTrue(delete instanceof DeleteRequest);
+            assertEquals(modelId, delete.id());
+        }
+    }
+
+    @Test
+    public void putModelCheckpoint_partitioned_writesToAlias() {
+        CheckpointDao dao = createPartitionedDao();
+        dao.putModelCheckpoint(modelId, model);
+
+        ArgumentCaptor<IndexRequest> indexRequestCaptor = ArgumentCaptor.forClass(IndexRequest.class);
+        verify(clientUtil)
+            .timedRequest(
+                indexRequestCaptor.capture(),
+                anyObject(),
+                Matchers.<BiConsumer<IndexRequest, ActionListener<IndexResponse>>>anyObject()
+            );
+        assertEquals(CommonName.CHECKPOINT_WRITE_ALIAS, indexRequestCaptor.getValue().index());
+        verify(indexUtil, never()).doesCheckpointIndexExist();
+    }
 }
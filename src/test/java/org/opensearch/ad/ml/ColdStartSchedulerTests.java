@@ -0,0 +1,187 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.ml;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+public class ColdStartSchedulerTests extends OpenSearchTestCase {
+    Clock clock;
+    ThreadPool threadPool;
+    Instant now;
+    ColdStartScheduler scheduler;
+    // model ids in the order their cold starts started
+    List<String> started;
+    // callbacks of running cold starts
+    List<Releasable> running;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenReturn(now);
+        threadPool = mock(ThreadPool.class);
+        scheduler = new ColdStartScheduler(clock, threadPool, 1, 2, Duration.ofHours(1));
+        started = new ArrayList<>();
+        running = new ArrayList<>();
+    }
+
+    private void offer(String modelId, String detectorId, float priority) {
+        scheduler.offer(modelId, detectorId, priority, onFinish -> {
+            started.add(modelId);
+            running.add(onFinish);
+        });
+    }
+
+    private void finishOne() {
+        running.remove(0).close();
+    }
+
+    public void testHighPriorityFirst() {
+        // occupies the only slot
+        offer("a0", "a", 1f);
+        offer("a1", "a", 1f);
+        offer("a2", "a", 5f);
+        assertEquals(2, scheduler.getQueueSize());
+
+        finishOne();
+        finishOne();
+        finishOne();
+        assertEquals(Arrays.asList("a0", "a2", "a1"), started);
+        assertEquals(0, scheduler.getQueueSize());
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    public void testFairShareAcrossDetectors() {
+        offer("a0", "a", 10f);
+        offer("a1", "a", 9f);
+        offer("a2", "a", 8f);
+        offer("b0", "b", 1f);
+        offer("b1", "b", 1f);
+
+        while (!running.isEmpty()) {
+            finishOne();
+        }
+        // detector b gets its turn though detector a has higher priority entities
+        assertEquals(Arrays.asList("a0", "b0", "a1", "b1", "a2"), started);
+    }
+
+    public void testBoundedQueueEvictsLowPriority() {
+        offer("a0", "a", 1f);
+        // queue size is 2 per detector
+        offer("a1", "a", 1f);
+        offer("a2", "a", 2f);
+        // lower than anything queued, dropped
+        offer("a3", "a", 0.5f);
+        // higher, evicts a1
+        offer("a4", "a", 3f);
+        assertEquals(2, scheduler.getQueueSize());
+
+        while (!running.isEmpty()) {
+            finishOne();
+        }
+        assertEquals(Arrays.asList("a0", "a4", "a2"), started);
+    }
+
+    public void testDuplicateRefreshesPriority() {
+        offer("a0", "a", 1f);
+        offer("a1", "a", 1f);
+        offer("a2", "a", 2f);
+        offer("a1", "a", 3f);
+        assertEquals(2, scheduler.getQueueSize());
+
+        while (!running.isEmpty()) {
+            finishOne();
+        }
+        assertEquals(Arrays.asList("a0", "a1", "a2"), started);
+    }
+
+    public void testPause() {
+        scheduler.pause(Duration.ofMinutes(5));
+        offer("a0", "a", 1f);
+        assertEquals(0, started.size());
+        assertEquals(1, scheduler.getQueueSize());
+        verify(threadPool, times(1)).schedule(any(), any(TimeValue.class), anyString());
+
+        when(clock.instant()).thenReturn(now.plus(Duration.ofMinutes(6)));
+        scheduler.dispatch();
+        assertEquals(Arrays.asList("a0"), started);
+    }
+
+    public void testExpiredRequestDropped() {
+        offer("a0", "a", 1f);
+        offer("a1", "a", 1f);
+        when(clock.instant()).thenReturn(now.plus(Duration.ofHours(2)));
+        finishOne();
+        assertEquals(Arrays.asList("a0"), started);
+        assertEquals(0, scheduler.getQueueSize());
+    }
+
+    public void testWaitTime() {
+        offer("a0", "a", 1f);
+        offer("a1", "a", 1f);
+        when(clock.instant()).thenReturn(now.plusSeconds(10));
+        finishOne();
+        assertEquals(10_000L, scheduler.getMaxWaitMillis());
+        assertEquals(5_000L, scheduler.getAverageWaitMillis());
+    }
+
+    public void testClear() {
+        offer("a0", "a", 1f);
+        offer("a1", "a", 1f);
+        scheduler.clear("a");
+        assertEquals(0, scheduler.getQueueSize());
+        finishOne();
+        assertEquals(Arrays.asList("a0"), started);
+    }
+
+    public void testTaskException() {
+        scheduler.offer("a0", "a", 1f, onFinish -> { throw new IllegalStateException(); });
+        offer("a1", "a", 1f);
+        // the slot is released after the exception
+        assertEquals(Arrays.asList("a1"), started);
+    }
+}
@@ -29,6 +29,7 @@ package org.opensearch.ad.ml;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -46,6 +47,7 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.ExecutorService;
 
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.get.GetRequest;
@@ -389,6 +391,27 @@ public class EntityColdStarterTests extends AbstractADTest {
         verify(searchFeatureDao, times(1)).getEntityMinMaxDataTime(any(), any(), any());
     }
 
+    public void testColdStartSubmissionRejected() {
+        Queue<double[]> samples = MLUtil.createQueueSamples(1);
+        EntityModel model = new EntityModel(modelId, samples, null, null);
+        modelState = new ModelState<>(model, modelId, detectorId, ModelType.ENTITY.getName(), clock, priority);
+
+        ExecutorService executorService = mock(ExecutorService.class);
+        when(threadPool.executor(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME)).thenReturn(executorService);
+        doThrow(new OpenSearchRejectedExecutionException("")).when(executorService).execute(any(Runnable.class));
+
+        entityColdStarter.trainModel(samples, modelId, entityName, detectorId, modelState);
+
+        verify(searchFeatureDao, never()).getEntityMinMaxDataTime(any(), any(), any());
+        assertFalse(stateManager.isColdStartRunning(detectorId));
+        assertEquals(0, entityColdStarter.getScheduler().getRunning());
+
+        // the entity is not marked as cold started, so it is queued again while the scheduler is paused
+        entityColdStarter.trainModel(samples, modelId, entityName, detectorId, modelState);
+        assertEquals(1, entityColdStarter.getScheduler().getQueueSize());
+        verify(executorService, times(1)).execute(any(Runnable.class));
+    }
+
     public void testColdStartException() {
         Queue<double[]> samples = MLUtil.createQueueSamples(1);
         EntityModel model = new EntityModel(modelId, samples, null, null);
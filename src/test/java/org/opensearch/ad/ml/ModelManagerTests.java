@@ -273,7 +273,8 @@ public class ModelManagerTests {
                 entityColdStarter,
                 modelPartitioner,
                 featureManager,
-                memoryTracker
+                memoryTracker,
+                threadPool
             )
         );
 
@@ -557,7 +558,8 @@ public class ModelManagerTests {
                 entityColdStarter,
                 modelPartitioner,
                 featureManager,
-                memoryTracker
+                memoryTracker,
+                threadPool
             )
         );
 
@@ -1209,6 +1211,69 @@ public class ModelManagerTests {
         modelManager.getPreviewResults(new double[0][0]);
     }
 
+    @Test
+    public void getPreviewResults_sameAsSynchronous_forOnePartition() {
+        int numPoints = 1000;
+        double[][] points = Stream.generate(() -> new double[] { 0 }).limit(numPoints).toArray(double[][]::new);
+        points[points.length - 1] = new double[] { 1. };
+        ActionListener<List<ThresholdingResult>> listener = mock(ActionListener.class);
+
+        modelManager.getPreviewResults(points, listener);
+
+        verify(listener).onResponse(modelManager.getPreviewResults(points));
+    }
+
+    @Test
+    public void getPreviewResults_returnAnomalies_forLastAnomalyWithPartitions() {
+        when(threadPool.info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME))
+            .thenReturn(
+                new ThreadPool.Info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME, ThreadPool.ThreadPoolType.SCALING, 1, 12, null, null)
+            );
+        int numPoints = 1000;
+        double[][] points = Stream.generate(() -> new double[] { 0 }).limit(numPoints).toArray(double[][]::new);
+        points[points.length - 1] = new double[] { 1. };
+        ActionListener<List<ThresholdingResult>> listener = mock(ActionListener.class);
+
+        modelManager.getPreviewResults(points, listener);
+
+        ArgumentCaptor<List<ThresholdingResult>> captor = ArgumentCaptor.forClass(List.class);
+        verify(listener).onResponse(captor.capture());
+        List<ThresholdingResult> results = captor.getValue();
+        assertEquals(numPoints, results.size());
+        assertTrue(results.stream().limit(numPoints - 1).noneMatch(r -> r.getGrade() > 0));
+        assertTrue(results.get(numPoints - 1).getGrade() > 0);
+    }
+
+    @Test
+    public void getPreviewPartitions_takeQuarterOfPool() {
+        assertEquals(1, modelManager.getPreviewPartitions());
+        when(threadPool.info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME))
+            .thenReturn(
+                new ThreadPool.Info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME, ThreadPool.ThreadPoolType.SCALING, 1, 7, null, null)
+            );
+        assertEquals(1, modelManager.getPreviewPartitions());
+        when(threadPool.info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME))
+            .thenReturn(
+                new ThreadPool.Info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME, ThreadPool.ThreadPoolType.SCALING, 1, 12, null, null)
+            );
+        assertEquals(3, modelManager.getPreviewPartitions());
+        // each partition has at least 10 trees
+        when(threadPool.info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME))
+            .thenReturn(
+                new ThreadPool.Info(AnomalyDetectorPlugin.AD_THREAD_POOL_NAME, ThreadPool.ThreadPoolType.SCALING, 1, 1000, null, null)
+            );
+        assertEquals(numTrees / 10, modelManager.getPreviewPartitions());
+    }
+
+    @Test
+    public void getPreviewResults_returnIllegalArgument_forInvalidInput() {
+        ActionListener<List<ThresholdingResult>> listener = mock(ActionListener.class);
+
+        modelManager.getPreviewResults(new double[0][0], listener);
+
+        verify(listener).onFailure(any(IllegalArgumentException.class));
+    }
+
     @Test
     public void getNullState() {
         assertEquals(new ThresholdingResult(0, 0, 0), modelManager.getAnomalyResultForEntity("", new double[] {}, "", null, ""));
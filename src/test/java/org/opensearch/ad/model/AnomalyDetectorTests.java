@@ -509,29 +509,37 @@ public class AnomalyDetectorTests extends AbstractADTest {
         assertEquals(0, anomalyDetector.getFeatureAttributes().size());
     }
 
-    public void testHistoricalHCDetector() {
-        expectThrows(
-            IllegalArgumentException.class,
-            () -> new AnomalyDetector(
-                randomAlphaOfLength(5),
-                randomLong(),
-                randomAlphaOfLength(5),
-                randomAlphaOfLength(5),
-                randomAlphaOfLength(5),
-                ImmutableList.of(randomAlphaOfLength(5)),
-                null,
-                TestHelpers.randomQuery(),
-                TestHelpers.randomIntervalTimeConfiguration(),
-                TestHelpers.randomIntervalTimeConfiguration(),
-                null,
-                null,
-                1,
-                Instant.now(),
-                ImmutableList.of(randomAlphaOfLength(5)),
-                TestHelpers.randomUser(),
-                null,
-                TestHelpers.randomDetectionDateRange()
-            )
+    public void testHistoricalHCDetector() throws IOException {
+        String categoryField = randomAlphaOfLength(5);
+        DetectionDateRange detectionDateRange = TestHelpers.randomDetectionDateRange();
+        AnomalyDetector detector = new AnomalyDetector(
+            randomAlphaOfLength(5),
+            randomLong(),
+            randomAlphaOfLength(5),
+            randomAlphaOfLength(5),
+            randomAlphaOfLength(5),
+            ImmutableList.of(randomAlphaOfLength(5)),
+            ImmutableList.of(TestHelpers.randomFeature(true)),
+            TestHelpers.randomQuery(),
+            TestHelpers.randomIntervalTimeConfiguration(),
+            TestHelpers.randomIntervalTimeConfiguration(),
+            null,
+            null,
+            1,
+            Instant.now().truncatedTo(ChronoUnit.SECONDS),
+            ImmutableList.of(categoryField),
+            TestHelpers.randomUser(),
+            AnomalyDetectorType.HISTORICAL_MULTI_ENTITY.name(),
+            detectionDateRange
         );
+        assertTrue(detector.isMultientityDetector());
+        assertFalse(detector.isRealTimeDetector());
+        assertEquals(ImmutableList.of(categoryField), detector.getCategoryField());
+        assertEquals(detectionDateRange, detector.getDetectionDateRange());
+
+        String detectorString = TestHelpers.xContentBuilderToString(detector.toXContent(TestHelpers.builder(), ToXContent.EMPTY_PARAMS));
+        AnomalyDetector parsedDetector = AnomalyDetector.parse(TestHelpers.parser(detectorString));
+        assertEquals(detector, parsedDetector);
+        assertEquals(AnomalyDetectorType.HISTORICAL_MULTI_ENTITY.name(), parsedDetector.getDetectorType());
     }
 }
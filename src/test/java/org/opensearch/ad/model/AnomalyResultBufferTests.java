@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.model;
+
+import static org.opensearch.common.xcontent.XContentFactory.jsonBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opensearch.ad.util.RestHandlerUtils;
+import org.opensearch.common.bytes.BytesReference;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class AnomalyResultBufferTests extends OpenSearchTestCase {
+    private static final long INTERVAL = 60_000L;
+    private static final long EXECUTION_START = 1_000_000L;
+
+    private final List<String> featureIds = Arrays.asList("f1", "f2");
+    private final List<String> featureNames = Arrays.asList("cpu", "memory");
+
+    private AnomalyResultBuffer createBuffer(int capacity) {
+        return new AnomalyResultBuffer("detector", "task", featureIds, featureNames, null, 1, INTERVAL, EXECUTION_START, capacity);
+    }
+
+    private String toJson(AnomalyResult result) throws IOException {
+        return BytesReference.bytes(result.toXContent(jsonBuilder(), RestHandlerUtils.XCONTENT_WITH_TYPE)).utf8ToString();
+    }
+
+    public void testScoredResultMatchesAnomalyResult() throws IOException {
+        AnomalyResultBuffer buffer = createBuffer(1);
+        buffer.add(0L, new double[] { 1.5, 2.5 }, 0.8, 0.3, 0.9, null, 2_000_000L);
+
+        AnomalyResult expected = new AnomalyResult(
+            "detector",
+            "task",
+            0.8,
+            0.3,
+            0.9,
+            Arrays.asList(new FeatureData("f1", "cpu", 1.5), new FeatureData("f2", "memory", 2.5)),
+            Instant.ofEpochMilli(0L),
+            Instant.ofEpochMilli(INTERVAL),
+            Instant.ofEpochMilli(EXECUTION_START),
+            Instant.ofEpochMilli(2_000_000L),
+            null,
+            null,
+            null,
+            1
+        );
+        assertEquals(toJson(expected), buffer.toSources().get(0).utf8ToString());
+    }
+
+    public void testErrorResultMatchesAnomalyResult() throws IOException {
+        AnomalyResultBuffer buffer = createBuffer(1);
+        buffer.add(INTERVAL, null, Double.NaN, Double.NaN, Double.NaN, "No data in current detection window", 2_000_000L);
+
+        AnomalyResult expected = new AnomalyResult(
+            "detector",
+            "task",
+            Double.NaN,
+            Double.NaN,
+            Double.NaN,
+            null,
+            Instant.ofEpochMilli(INTERVAL),
+            Instant.ofEpochMilli(2 * INTERVAL),
+            Instant.ofEpochMilli(EXECUTION_START),
+            Instant.ofEpochMilli(2_000_000L),
+            "No data in current detection window",
+            null,
+            null,
+            1
+        );
+        assertEquals(toJson(expected), buffer.toSources().get(0).utf8ToString());
+    }
+
+    public void testEntityResultMatchesAnomalyResult() throws IOException {
+        Entity entity = new Entity("host", "server_1");
+        AnomalyResultBuffer buffer = createBuffer(1);
+        buffer.add(0L, new double[] { 1.5, 2.5 }, 0.8, 0.3, 0.9, null, 2_000_000L, entity);
+
+        AnomalyResult expected = new AnomalyResult(
+            "detector",
+            "task",
+            0.8,
+            0.3,
+            0.9,
+            Arrays.asList(new FeatureData("f1", "cpu", 1.5), new FeatureData("f2", "memory", 2.5)),
+            Instant.ofEpochMilli(0L),
+            Instant.ofEpochMilli(INTERVAL),
+            Instant.ofEpochMilli(EXECUTION_START),
+            Instant.ofEpochMilli(2_000_000L),
+            null,
+            Arrays.asList(entity),
+            null,
+            1
+        );
+        assertEquals(toJson(expected), buffer.toSources().get(0).utf8ToString());
+    }
+
+    public void testGrowPastCapacity() throws IOException {
+        AnomalyResultBuffer buffer = createBuffer(2);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(i * INTERVAL, new double[] { i, i + 1 }, i, 0, 1, null, EXECUTION_START + i);
+        }
+        assertEquals(5, buffer.size());
+        List<BytesReference> sources = buffer.toSources();
+        assertEquals(5, sources.size());
+        assertTrue(sources.get(4).utf8ToString().contains("\"data_start_time\":" + 4 * INTERVAL));
+        assertTrue(sources.get(4).utf8ToString().contains("\"data\":5.0"));
+    }
+}
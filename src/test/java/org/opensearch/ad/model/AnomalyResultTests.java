@@ -29,15 +29,18 @@ package org.opensearch.ad.model;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Locale;
 
+import org.opensearch.LegacyESVersion;
 import org.opensearch.ad.AnomalyDetectorPlugin;
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.constant.CommonValue;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.opensearch.common.io.stream.NamedWriteableRegistry;
+import org.opensearch.common.io.stream.StreamInput;
 import org.opensearch.common.xcontent.ToXContent;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.test.InternalSettingsPlugin;
@@ -192,6 +195,62 @@ public class AnomalyResultTests extends OpenSearchSingleNodeTestCase {
         assertTrue(parsedDetectResult.equals(detectResult));
     }
 
+    public void testParseSummaryAnomalyResult() throws IOException {
+        AnomalyResult detectResult = summaryResult();
+        String detectResultString = TestHelpers
+            .xContentBuilderToString(detectResult.toXContent(TestHelpers.builder(), ToXContent.EMPTY_PARAMS));
+        assertTrue(detectResultString.contains("\"" + AnomalyResult.RESULT_TYPE_FIELD + "\":\"summary\""));
+        // summarized entities are kept out of the nested entity field
+        assertTrue(detectResultString.contains("\"" + AnomalyResult.SUMMARIZED_ENTITY_FIELD + "\":"));
+        assertFalse(detectResultString.contains("\"" + AnomalyResult.ENTITY_FIELD + "\":"));
+        AnomalyResult parsedDetectResult = AnomalyResult.parse(TestHelpers.parser(detectResultString));
+        assertEquals("Parsing anomaly detect result doesn't work", detectResult, parsedDetectResult);
+        assertTrue(parsedDetectResult.isSummary());
+    }
+
+    public void testSerializeSummaryAnomalyResult() throws IOException {
+        AnomalyResult detectResult = summaryResult();
+        BytesStreamOutput output = new BytesStreamOutput();
+        detectResult.writeTo(output);
+        NamedWriteableAwareStreamInput input = new NamedWriteableAwareStreamInput(output.bytes().streamInput(), writableRegistry());
+        AnomalyResult parsedDetectResult = new AnomalyResult(input);
+        assertTrue(parsedDetectResult.equals(detectResult));
+    }
+
+    public void testSerializeSummaryAnomalyResultToOldNode() throws IOException {
+        AnomalyResult detectResult = summaryResult();
+        BytesStreamOutput output = new BytesStreamOutput();
+        output.setVersion(LegacyESVersion.V_7_10_2);
+        detectResult.writeTo(output);
+        StreamInput streamInput = output.bytes().streamInput();
+        streamInput.setVersion(LegacyESVersion.V_7_10_2);
+        NamedWriteableAwareStreamInput input = new NamedWriteableAwareStreamInput(streamInput, writableRegistry());
+        AnomalyResult parsedDetectResult = new AnomalyResult(input);
+        assertEquals(null, parsedDetectResult.getResultType());
+        assertEquals(detectResult.getEntity(), parsedDetectResult.getEntity());
+    }
+
+    private AnomalyResult summaryResult() {
+        AnomalyResult result = TestHelpers.randomMultiEntityAnomalyDetectResult(0.8, 0);
+        return new AnomalyResult(
+            result.getDetectorId(),
+            null,
+            result.getAnomalyScore(),
+            result.getAnomalyGrade(),
+            result.getConfidence(),
+            new ArrayList<>(),
+            result.getDataStartTime(),
+            result.getDataEndTime(),
+            result.getExecutionStartTime(),
+            result.getExecutionEndTime(),
+            null,
+            result.getEntity(),
+            null,
+            CommonValue.NO_SCHEMA_VERSION,
+            AnomalyResult.SUMMARY_RESULT_TYPE
+        );
+    }
+
     public void testSerializeAnomalyResultWithEntity() throws IOException {
         AnomalyResult detectResult = TestHelpers.randomMultiEntityAnomalyDetectResult(0.8, 0.5);
         BytesStreamOutput output = new BytesStreamOutput();
@@ -26,10 +26,12 @@
 
 package org.opensearch.ad.stats;
 
+import java.util.Map;
 import java.util.function.Supplier;
 
 import org.junit.Test;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.ad.stats.suppliers.SettableSupplier;
 import org.opensearch.test.OpenSearchTestCase;
 
@@ -74,6 +76,18 @@ public class ADStatTests extends OpenSearchTestCase {
         nonIncStat.increment();
     }
 
+    @Test
+    public void testRecordSince() {
+        ADStat<Map<String, Object>> latencyStat = new ADStat<>(false, new LatencySupplier());
+        latencyStat.recordSince(System.nanoTime());
+        assertEquals("recordSince does not work", 1L, latencyStat.getValue().get(LatencySupplier.COUNT));
+
+        // Ensure that no problems occur for a stat that cannot record latencies
+        ADStat<Long> counterStat = new ADStat<>(false, new CounterSupplier());
+        counterStat.recordSince(System.nanoTime());
+        assertEquals("recordSince changes a counter", 0L, (long) counterStat.getValue());
+    }
+
     private class TestSupplier implements Supplier<String> {
         TestSupplier() {}
 
@@ -0,0 +1,73 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.stats.suppliers;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class LatencySupplierTests extends OpenSearchTestCase {
+    @Test
+    public void testEmpty() {
+        Map<String, Object> value = new LatencySupplier().get();
+        assertEquals(0L, value.get(LatencySupplier.COUNT));
+        assertEquals(0.0, value.get(LatencySupplier.P50));
+        assertEquals(0.0, value.get(LatencySupplier.P99));
+        assertEquals(0.0, value.get(LatencySupplier.MAX));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencySupplier supplier = new LatencySupplier();
+        // 1ms .. 100ms
+        for (int i = 1; i <= 100; i++) {
+            supplier.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Map<String, Object> value = supplier.get();
+        assertEquals(100L, value.get(LatencySupplier.COUNT));
+        assertEquals(50.0, (double) value.get(LatencySupplier.P50), 50.0 * 0.125);
+        assertEquals(99.0, (double) value.get(LatencySupplier.P99), 99.0 * 0.125);
+        assertEquals(100.0, (double) value.get(LatencySupplier.MAX), 0.001);
+    }
+
+    @Test
+    public void testBuckets() {
+        long[] values = new long[] { 0, 1, 15, 16, 17, 1000, 123_456_789L, Long.MAX_VALUE };
+        for (long value : values) {
+            int index = LatencySupplier.bucketIndex(value);
+            long upperBound = LatencySupplier.bucketUpperBound(index);
+            assertTrue(upperBound >= value);
+            // three significant bits
+            assertTrue(upperBound - value <= value / 8);
+            if (index > 0) {
+                assertTrue(LatencySupplier.bucketUpperBound(index - 1) < value);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.task;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opensearch.ad.model.ADTask;
+import org.opensearch.ad.model.ADTaskState;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class ADBatchTaskProgressTests extends OpenSearchTestCase {
+    private static final String INIT = ADTaskState.INIT.name();
+    private static final String RUNNING = ADTaskState.RUNNING.name();
+
+    public void testPersistBoundedRate() {
+        ADBatchTaskProgress progress = new ADBatchTaskProgress();
+        assertNull(progress.toADTask("task"));
+
+        assertTrue(progress.update(INIT, Instant.ofEpochMilli(0), 0.0f, 0.1f, 1000, 10_000));
+        // one persist in flight at a time
+        assertFalse(progress.update(INIT, Instant.ofEpochMilli(1), 0.1f, 0.2f, 20_000, 10_000));
+        progress.persisted();
+        // same state within interval
+        assertFalse(progress.update(INIT, Instant.ofEpochMilli(2), 0.2f, 0.3f, 5000, 10_000));
+        // interval elapsed
+        assertTrue(progress.update(INIT, Instant.ofEpochMilli(3), 0.3f, 0.4f, 11_000, 10_000));
+        progress.persisted();
+        // state changed
+        assertTrue(progress.update(RUNNING, Instant.ofEpochMilli(4), 0.4f, 1.0f, 12_000, 10_000));
+
+        ADTask adTask = progress.toADTask("task");
+        assertEquals("task", adTask.getTaskId());
+        assertEquals(RUNNING, adTask.getState());
+        assertEquals(Instant.ofEpochMilli(4), adTask.getCurrentPiece());
+        assertEquals(0.4f, adTask.getTaskProgress(), 0.0001);
+        assertEquals(1.0f, adTask.getInitProgress(), 0.0001);
+    }
+
+    public void testAfterPersisted() {
+        ADBatchTaskProgress progress = new ADBatchTaskProgress();
+        AtomicInteger executed = new AtomicInteger(0);
+        progress.afterPersisted(() -> executed.incrementAndGet());
+        assertEquals(1, executed.get());
+
+        assertTrue(progress.update(INIT, Instant.ofEpochMilli(0), 0.0f, 0.1f, 1000, 10_000));
+        progress.afterPersisted(() -> executed.incrementAndGet());
+        assertEquals(1, executed.get());
+        progress.persisted();
+        assertEquals(2, executed.get());
+        progress.persisted();
+        assertEquals(2, executed.get());
+    }
+}
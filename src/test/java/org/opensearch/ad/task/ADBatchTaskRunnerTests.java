@@ -0,0 +1,334 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.task;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.opensearch.ad.AnomalyDetectorPlugin.AD_BATCH_TASK_THREAD_POOL_NAME;
+import static org.opensearch.ad.TestHelpers.randomAdTask;
+import static org.opensearch.ad.TestHelpers.randomDetector;
+import static org.opensearch.ad.TestHelpers.randomFeature;
+import static org.opensearch.ad.model.ADTask.CURRENT_PIECE_FIELD;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_CHECKPOINT_PIECES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_MAX_ENTITIES;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_SIZE;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PROGRESS_UPDATE_INTERVAL;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_BATCH_TASK_PER_NODE;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import org.mockito.ArgumentCaptor;
+import org.opensearch.action.ActionListener;
+import org.opensearch.ad.ADUnitTestCase;
+import org.opensearch.ad.breaker.ADCircuitBreakerService;
+import org.opensearch.ad.constant.CommonName;
+import org.opensearch.ad.feature.FeatureManager;
+import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.ml.BatchTaskCheckpoint;
+import org.opensearch.ad.ml.CheckpointDao;
+import org.opensearch.ad.model.ADTask;
+import org.opensearch.ad.model.ADTaskState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.model.DetectionDateRange;
+import org.opensearch.ad.stats.ADStat;
+import org.opensearch.ad.stats.ADStats;
+import org.opensearch.ad.transport.handler.AnomalyResultBulkIndexHandler;
+import org.opensearch.ad.util.DiscoveryNodeFilterer;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.RangeQueryBuilder;
+import org.opensearch.index.query.TermQueryBuilder;
+import org.opensearch.index.reindex.BulkByScrollResponse;
+import org.opensearch.index.reindex.DeleteByQueryAction;
+import org.opensearch.index.reindex.DeleteByQueryRequest;
+import org.opensearch.threadpool.ThreadPool;
+
+import com.google.common.collect.ImmutableList;
+
+public class ADBatchTaskRunnerTests extends ADUnitTestCase {
+
+    private Client client;
+    private ThreadPool threadPool;
+    private ADTaskManager adTaskManager;
+    private ADTaskCacheManager adTaskCacheManager;
+    private CheckpointDao checkpointDao;
+    private ADBatchTaskRunner runner;
+
+    private AnomalyDetector detector;
+    private ADTask adTask;
+    private ActionListener<String> listener;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        Settings settings = Settings.EMPTY;
+        ClusterSettings clusterSettings = clusterSetting(
+            settings,
+            MAX_BATCH_TASK_PER_NODE,
+            BATCH_TASK_PIECE_SIZE,
+            BATCH_TASK_PIECE_INTERVAL_SECONDS,
+            BATCH_TASK_CHECKPOINT_PIECES,
+            BATCH_TASK_PROGRESS_UPDATE_INTERVAL,
+            BATCH_TASK_MAX_ENTITIES
+        );
+        DiscoveryNode localNode = mock(DiscoveryNode.class);
+        when(localNode.getId()).thenReturn("node1");
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
+        when(clusterService.localNode()).thenReturn(localNode);
+
+        threadPool = mock(ThreadPool.class);
+        ExecutorService executorService = mock(ExecutorService.class);
+        when(threadPool.executor(anyString())).thenReturn(executorService);
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(executorService).execute(any(Runnable.class));
+
+        ADStats adStats = mock(ADStats.class);
+        when(adStats.getStat(anyString())).thenReturn(mock(ADStat.class));
+
+        client = mock(Client.class);
+        adTaskManager = mock(ADTaskManager.class);
+        adTaskCacheManager = mock(ADTaskCacheManager.class);
+        checkpointDao = mock(CheckpointDao.class);
+        runner = new ADBatchTaskRunner(
+            settings,
+            threadPool,
+            clusterService,
+            client,
+            mock(DiscoveryNodeFilterer.class),
+            mock(IndexNameExpressionResolver.class),
+            mock(ADCircuitBreakerService.class),
+            mock(FeatureManager.class),
+            adTaskManager,
+            mock(AnomalyDetectionIndices.class),
+            adStats,
+            mock(AnomalyResultBulkIndexHandler.class),
+            adTaskCacheManager,
+            checkpointDao
+        );
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        detector = randomDetector(
+            new DetectionDateRange(now.minus(10, ChronoUnit.DAYS), now.minus(1, ChronoUnit.DAYS)),
+            ImmutableList.of(randomFeature(true)),
+            randomAlphaOfLength(5),
+            1,
+            randomAlphaOfLength(5)
+        );
+        adTask = randomAdTask(randomAlphaOfLength(5), ADTaskState.STOPPED, null, null, detector.getDetectorId(), detector);
+        listener = mock(ActionListener.class);
+    }
+
+    public void testResumeWithCheckpoint() {
+        long pieceStartTime = detector.getDetectionDateRange().getStartTime().plus(1, ChronoUnit.DAYS).toEpochMilli();
+        BatchTaskCheckpoint checkpoint = new BatchTaskCheckpoint(
+            adTask.getTaskId(),
+            null,
+            null,
+            false,
+            null,
+            new ArrayDeque<>(),
+            pieceStartTime
+        );
+        doAnswer(invocation -> {
+            ActionListener<Optional<BatchTaskCheckpoint>> listener = invocation.getArgument(1);
+            listener.onResponse(Optional.of(checkpoint));
+            return null;
+        }).when(checkpointDao).restoreBatchTaskCheckpoint(eq(adTask.getTaskId()), any());
+
+        runner.executeADBatchTask(adTask, listener);
+
+        verify(adTaskCacheManager, times(1)).add(adTask, checkpoint);
+        verify(checkpointDao, never()).deleteModelCheckpoint(anyString(), any());
+        assertEquals(pieceStartTime, currentPieceOfResumedTask());
+    }
+
+    public void testResumeWithoutCheckpointIndex() {
+        doAnswer(invocation -> {
+            ActionListener<Optional<BatchTaskCheckpoint>> listener = invocation.getArgument(1);
+            listener.onFailure(new IndexNotFoundException(CommonName.CHECKPOINT_INDEX_NAME));
+            return null;
+        }).when(checkpointDao).restoreBatchTaskCheckpoint(eq(adTask.getTaskId()), any());
+
+        runner.executeADBatchTask(adTask, listener);
+
+        verify(adTaskCacheManager, times(1)).add(adTask, null);
+        verify(checkpointDao, never()).deleteModelCheckpoint(anyString(), any());
+        assertEquals(detector.getDetectionDateRange().getStartTime().toEpochMilli(), currentPieceOfResumedTask());
+    }
+
+    public void testResumeWithBrokenCheckpoint() {
+        doAnswer(invocation -> {
+            ActionListener<Optional<BatchTaskCheckpoint>> listener = invocation.getArgument(1);
+            listener.onFailure(new IllegalArgumentException("corrupted checkpoint"));
+            return null;
+        }).when(checkpointDao).restoreBatchTaskCheckpoint(eq(adTask.getTaskId()), any());
+        doAnswer(invocation -> {
+            ActionListener<Void> listener = invocation.getArgument(1);
+            listener.onResponse(null);
+            return null;
+        }).when(checkpointDao).deleteModelCheckpoint(eq(adTask.getTaskId()), any());
+
+        runner.executeADBatchTask(adTask, listener);
+
+        // the broken checkpoint is deleted and the task reruns from the start of the detection date range
+        verify(checkpointDao, times(1)).deleteModelCheckpoint(eq(adTask.getTaskId()), any());
+        verify(adTaskCacheManager, times(1)).add(adTask, null);
+        assertEquals(detector.getDetectionDateRange().getStartTime().toEpochMilli(), currentPieceOfResumedTask());
+        verify(listener, never()).onFailure(any());
+    }
+
+    public void testResumeWithBrokenCheckpointFailToDelete() {
+        doAnswer(invocation -> {
+            ActionListener<Optional<BatchTaskCheckpoint>> listener = invocation.getArgument(1);
+            listener.onFailure(new IllegalArgumentException("corrupted checkpoint"));
+            return null;
+        }).when(checkpointDao).restoreBatchTaskCheckpoint(eq(adTask.getTaskId()), any());
+        doAnswer(invocation -> {
+            ActionListener<Void> listener = invocation.getArgument(1);
+            listener.onFailure(new RuntimeException("fail to delete"));
+            return null;
+        }).when(checkpointDao).deleteModelCheckpoint(eq(adTask.getTaskId()), any());
+
+        runner.executeADBatchTask(adTask, listener);
+
+        verify(adTaskCacheManager, times(1)).add(adTask, null);
+        assertEquals(detector.getDetectionDateRange().getStartTime().toEpochMilli(), currentPieceOfResumedTask());
+        verify(listener, never()).onFailure(any());
+    }
+
+    public void testResumeFromPiece() {
+        long dataStartTime = detector.getDetectionDateRange().getStartTime().toEpochMilli();
+        long dataEndTime = detector.getDetectionDateRange().getEndTime().toEpochMilli();
+        doAnswer(invocation -> {
+            ActionListener<BulkByScrollResponse> listener = invocation.getArgument(2);
+            listener.onResponse(mock(BulkByScrollResponse.class));
+            return null;
+        }).when(client).execute(eq(DeleteByQueryAction.INSTANCE), any(), any());
+        mockUpdateADTask();
+
+        // resume from the end of the data so the task finishes right after the delete
+        runner.resumeFromPiece(adTask, dataEndTime, dataStartTime, dataEndTime, 60_000L, listener);
+
+        ArgumentCaptor<DeleteByQueryRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteByQueryRequest.class);
+        verify(client, times(1)).execute(eq(DeleteByQueryAction.INSTANCE), deleteCaptor.capture(), any());
+        BoolQueryBuilder query = (BoolQueryBuilder) deleteCaptor.getValue().getSearchRequest().source().query();
+        assertEquals(new TermQueryBuilder(AnomalyResult.TASK_ID_FIELD, adTask.getTaskId()), query.filter().get(0));
+        RangeQueryBuilder rangeQuery = (RangeQueryBuilder) query.filter().get(1);
+        assertEquals(AnomalyResult.DATA_START_TIME_FIELD, rangeQuery.fieldName());
+        assertEquals(dataEndTime, rangeQuery.from());
+        assertTrue(rangeQuery.includeLower());
+
+        assertEquals(dataEndTime, currentPieceOfFinishedTask());
+        verify(listener, times(1)).onResponse(anyString());
+    }
+
+    public void testResumeFromPieceFailToDeleteResults() {
+        long dataStartTime = detector.getDetectionDateRange().getStartTime().toEpochMilli();
+        long dataEndTime = detector.getDetectionDateRange().getEndTime().toEpochMilli();
+        doAnswer(invocation -> {
+            ActionListener<BulkByScrollResponse> listener = invocation.getArgument(2);
+            listener.onFailure(new RuntimeException("fail to delete"));
+            return null;
+        }).when(client).execute(eq(DeleteByQueryAction.INSTANCE), any(), any());
+        mockUpdateADTask();
+
+        runner.resumeFromPiece(adTask, dataEndTime, dataStartTime, dataEndTime, 60_000L, listener);
+
+        // the task goes on even if old results of the resumed pieces are not deleted
+        assertEquals(dataEndTime, currentPieceOfFinishedTask());
+        verify(listener, times(1)).onResponse(anyString());
+        verify(listener, never()).onFailure(any());
+    }
+
+    public void testEntityGroups() {
+        // two batch tasks per node by default
+        assertEquals(1, runner.getEntityGroups());
+        mockBatchTaskThreadPool(1);
+        assertEquals(1, runner.getEntityGroups());
+        mockBatchTaskThreadPool(2);
+        assertEquals(1, runner.getEntityGroups());
+        mockBatchTaskThreadPool(9);
+        assertEquals(4, runner.getEntityGroups());
+    }
+
+    private void mockBatchTaskThreadPool(int max) {
+        when(threadPool.info(AD_BATCH_TASK_THREAD_POOL_NAME))
+            .thenReturn(new ThreadPool.Info(AD_BATCH_TASK_THREAD_POOL_NAME, ThreadPool.ThreadPoolType.SCALING, 1, max, null, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private long currentPieceOfResumedTask() {
+        ArgumentCaptor<Map<String, Object>> fieldsCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(adTaskManager, times(1)).updateADTask(eq(adTask.getTaskId()), fieldsCaptor.capture(), any());
+        Map<String, Object> updatedFields = fieldsCaptor.getValue();
+        assertEquals(ADTaskState.INIT.name(), updatedFields.get(ADTask.STATE_FIELD));
+        return (long) updatedFields.get(CURRENT_PIECE_FIELD);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long currentPieceOfFinishedTask() {
+        ArgumentCaptor<Map<String, Object>> fieldsCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(adTaskManager, times(1)).updateADTask(eq(adTask.getTaskId()), fieldsCaptor.capture(), any());
+        Map<String, Object> updatedFields = fieldsCaptor.getValue();
+        assertEquals(1.0f, updatedFields.get(ADTask.TASK_PROGRESS_FIELD));
+        verify(adTaskCacheManager, times(1)).remove(adTask.getTaskId());
+        return (long) updatedFields.get(CURRENT_PIECE_FIELD);
+    }
+
+    private void mockUpdateADTask() {
+        doAnswer(invocation -> {
+            ActionListener<Object> listener = invocation.getArgument(2);
+            listener.onResponse(null);
+            return null;
+        }).when(adTaskManager).updateADTask(eq(adTask.getTaskId()), any(), any());
+    }
+}
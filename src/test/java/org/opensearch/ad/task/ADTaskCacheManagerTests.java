@@ -30,18 +30,24 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.opensearch.ad.MemoryTracker.Origin.HISTORICAL_MULTI_ENTITY_DETECTOR;
 import static org.opensearch.ad.MemoryTracker.Origin.HISTORICAL_SINGLE_ENTITY_DETECTOR;
 import static org.opensearch.ad.constant.CommonErrorMessages.DETECTOR_IS_RUNNING;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.THRESHOLD_MODEL_TRAINING_SIZE;
 
 import java.io.IOException;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 
 import org.junit.After;
 import org.junit.Before;
@@ -49,14 +55,19 @@ import org.opensearch.ad.MemoryTracker;
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.common.exception.DuplicateTaskException;
 import org.opensearch.ad.common.exception.LimitExceededException;
+import org.opensearch.ad.ml.BatchTaskCheckpoint;
 import org.opensearch.ad.model.ADTask;
 import org.opensearch.ad.model.ADTaskState;
+import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.test.OpenSearchTestCase;
 
+import com.google.common.collect.ImmutableList;
+
 public class ADTaskCacheManagerTests extends OpenSearchTestCase {
     private MemoryTracker memoryTracker;
     private ADTaskCacheManager adTaskCacheManager;
@@ -77,6 +88,7 @@ public class ADTaskCacheManagerTests extends OpenSearchTestCase {
         );
         when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
         memoryTracker = mock(MemoryTracker.class);
+        when(memoryTracker.getHeapLimit()).thenReturn(Long.MAX_VALUE);
         adTaskCacheManager = new ADTaskCacheManager(settings, clusterService, memoryTracker);
     }
 
@@ -181,4 +193,144 @@ public class ADTaskCacheManagerTests extends OpenSearchTestCase {
         LimitExceededException e = expectThrows(LimitExceededException.class, () -> adTaskCacheManager.add(TestHelpers.randomAdTask()));
         assertEquals("Can't run more than 2 historical detectors per data node", e.getMessage());
     }
+
+    public void testCheckpoint() throws IOException {
+        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
+        ADTask adTask = TestHelpers.randomAdTask();
+        adTaskCacheManager.add(adTask);
+        assertFalse(adTaskCacheManager.shouldCheckpoint(adTask.getTaskId(), 2));
+        assertTrue(adTaskCacheManager.shouldCheckpoint(adTask.getTaskId(), 2));
+        assertFalse(adTaskCacheManager.shouldCheckpoint(adTask.getTaskId(), 2));
+
+        adTaskCacheManager.addThresholdModelTrainingData(adTask.getTaskId(), 1.0, 2.0);
+        adTaskCacheManager.getShingle(adTask.getTaskId()).offer(new SimpleEntry<>(1L, Optional.of(new double[] { 1.0 })));
+        BatchTaskCheckpoint checkpoint = adTaskCacheManager.getCheckpoint(adTask.getTaskId(), 100L);
+        assertEquals(100L, checkpoint.getPieceStartTime());
+        assertFalse(checkpoint.isThresholdModelTrained());
+        assertArrayEquals(new double[] { 1.0, 2.0 }, checkpoint.getThresholdModelTrainingData(), 0.0001);
+
+        adTaskCacheManager.remove(adTask.getTaskId());
+        adTaskCacheManager.add(adTask, checkpoint);
+        assertSame(checkpoint.getRcf(), adTaskCacheManager.getRcfModel(adTask.getTaskId()));
+        assertEquals(2, adTaskCacheManager.getThresholdModelTrainingDataSize(adTask.getTaskId()));
+        assertEquals(1, adTaskCacheManager.getShingle(adTask.getTaskId()).size());
+    }
+
+    public void testEntityModels() throws IOException {
+        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
+        AnomalyDetector detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        ADTask adTask = TestHelpers.randomAdTask(randomAlphaOfLength(5), ADTaskState.INIT, null, null, detector.getDetectorId(), detector);
+        String taskId = adTask.getTaskId();
+        adTaskCacheManager.add(adTask);
+        assertTrue(adTaskCacheManager.isMultiEntityTask(taskId));
+        assertNull(adTaskCacheManager.getRcfModel(taskId));
+        assertTrue(adTaskCacheManager.getEntities(taskId).isEmpty());
+
+        List<Entity> entities = Arrays.asList(new Entity("host", "server_1"), new Entity("host", "server_2"));
+        adTaskCacheManager.addEntities(taskId, detector, entities);
+        assertEquals(entities, adTaskCacheManager.getEntities(taskId));
+        long trainingDataSize = adTaskCacheManager.trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE);
+        long entitySize = trainingDataSize + adTaskCacheManager
+            .shingleMemorySize(detector.getShingleSize(), detector.getEnabledFeatureIds().size());
+        verify(memoryTracker, times(1))
+            .reserveMemory(eq(detector.getDetectorId()), eq(2 * entitySize), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+
+        ADBatchEntityModel entityModel = adTaskCacheManager.getEntityModels(taskId).get("server_1");
+        for (int i = 0; i < THRESHOLD_MODEL_TRAINING_SIZE; i++) {
+            entityModel.addThresholdModelTrainingData(randomDouble());
+        }
+        adTaskCacheManager.trainEntityThresholdModel(taskId, entityModel);
+        assertTrue(entityModel.isThresholdModelTrained());
+        verify(memoryTracker, times(1)).releaseMemory(eq(trainingDataSize), eq(true), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+
+        adTaskCacheManager.remove(taskId);
+        verify(memoryTracker, times(1))
+            .releaseMemory(eq(2 * entitySize - trainingDataSize), eq(true), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+    }
+
+    public void testPieceMemory() throws IOException {
+        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
+        AnomalyDetector detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        ADTask adTask = TestHelpers.randomAdTask(randomAlphaOfLength(5), ADTaskState.INIT, null, null, detector.getDetectorId(), detector);
+        String taskId = adTask.getTaskId();
+        adTaskCacheManager.add(adTask);
+        List<Entity> entities = Arrays.asList(new Entity("host", "server_1"), new Entity("host", "server_2"));
+        adTaskCacheManager.addEntities(taskId, detector, entities);
+
+        int featureSize = detector.getEnabledFeatureIds().size();
+        long pieceSize = adTaskCacheManager.pieceMemorySize(2, 1000, featureSize);
+        assertEquals(2 * 1000 * (adTaskCacheManager.pieceMemorySize(1, 1, featureSize)), pieceSize);
+        adTaskCacheManager.reservePieceMemory(taskId, detector, 1000);
+        verify(memoryTracker, times(1)).reserveMemory(eq(detector.getDetectorId()), eq(pieceSize), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+
+        adTaskCacheManager.releasePieceMemory(taskId);
+        verify(memoryTracker, times(1)).releaseMemory(eq(pieceSize), eq(true), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+        // released only once
+        adTaskCacheManager.releasePieceMemory(taskId);
+        verify(memoryTracker, times(1)).releaseMemory(eq(pieceSize), eq(true), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+
+        // memory of a piece is released with the task
+        adTaskCacheManager.reservePieceMemory(taskId, detector, 1000);
+        long entitySize = adTaskCacheManager.trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE) + adTaskCacheManager
+            .shingleMemorySize(detector.getShingleSize(), featureSize);
+        adTaskCacheManager.remove(taskId);
+        verify(memoryTracker, times(1)).releaseMemory(eq(2 * entitySize + pieceSize), eq(true), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+        adTaskCacheManager.releasePieceMemory(taskId);
+    }
+
+    public void testPieceMemoryExceedLimit() throws IOException {
+        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
+        AnomalyDetector detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        ADTask adTask = TestHelpers.randomAdTask(randomAlphaOfLength(5), ADTaskState.INIT, null, null, detector.getDetectorId(), detector);
+        String taskId = adTask.getTaskId();
+        adTaskCacheManager.add(adTask);
+        adTaskCacheManager.addEntities(taskId, detector, Arrays.asList(new Entity("host", "server_1")));
+        long pieceSize = adTaskCacheManager.pieceMemorySize(1, 1000, detector.getEnabledFeatureIds().size());
+        doThrow(new LimitExceededException(detector.getDetectorId(), "No enough memory"))
+            .when(memoryTracker)
+            .reserveMemory(eq(detector.getDetectorId()), eq(pieceSize), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+
+        expectThrows(LimitExceededException.class, () -> adTaskCacheManager.reservePieceMemory(taskId, detector, 1000));
+        adTaskCacheManager.releasePieceMemory(taskId);
+        verify(memoryTracker, never()).releaseMemory(eq(pieceSize), anyBoolean(), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+    }
+
+    public void testEntityModelsExceedFreeMemory() throws IOException {
+        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
+        AnomalyDetector detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        ADTask adTask = TestHelpers.randomAdTask(randomAlphaOfLength(5), ADTaskState.INIT, null, null, detector.getDetectorId(), detector);
+        String taskId = adTask.getTaskId();
+        adTaskCacheManager.add(adTask);
+        long entitySize = adTaskCacheManager.trainingDataMemorySize(THRESHOLD_MODEL_TRAINING_SIZE) + adTaskCacheManager
+            .shingleMemorySize(detector.getShingleSize(), detector.getEnabledFeatureIds().size());
+        // half of the free memory holds 2 entity models
+        when(memoryTracker.getHeapLimit()).thenReturn(10 * entitySize);
+        when(memoryTracker.getTotalMemoryBytes()).thenReturn(6 * entitySize);
+
+        List<Entity> entities = Arrays
+            .asList(new Entity("host", "server_1"), new Entity("host", "server_2"), new Entity("host", "server_3"));
+        List<Entity> taskEntities = adTaskCacheManager.addEntities(taskId, detector, entities);
+        assertEquals(entities.subList(0, 2), taskEntities);
+        assertEquals(taskEntities, adTaskCacheManager.getEntities(taskId));
+        verify(memoryTracker, times(1))
+            .reserveMemory(eq(detector.getDetectorId()), eq(2 * entitySize), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+    }
+
+    public void testEntityModelsWithoutFreeMemory() throws IOException {
+        when(memoryTracker.canAllocateReserved(anyString(), anyLong())).thenReturn(true);
+        AnomalyDetector detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        ADTask adTask = TestHelpers.randomAdTask(randomAlphaOfLength(5), ADTaskState.INIT, null, null, detector.getDetectorId(), detector);
+        String taskId = adTask.getTaskId();
+        adTaskCacheManager.add(adTask);
+        when(memoryTracker.getHeapLimit()).thenReturn(1000L);
+        when(memoryTracker.getTotalMemoryBytes()).thenReturn(1000L);
+
+        LimitExceededException exception = expectThrows(
+            LimitExceededException.class,
+            () -> adTaskCacheManager.addEntities(taskId, detector, Arrays.asList(new Entity("host", "server_1")))
+        );
+        assertTrue(exception.getMessage().contains("No enough memory to run historical detector"));
+        verify(memoryTracker, never()).reserveMemory(anyString(), anyLong(), eq(HISTORICAL_MULTI_ENTITY_DETECTOR));
+        assertTrue(adTaskCacheManager.getEntities(taskId).isEmpty());
+    }
 }
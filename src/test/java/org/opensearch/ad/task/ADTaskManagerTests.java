@@ -27,46 +27,69 @@
 package org.opensearch.ad.task;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.opensearch.ad.TestHelpers.randomAdTask;
+import static org.opensearch.ad.TestHelpers.randomAnomalyDetector;
+import static org.opensearch.ad.TestHelpers.randomAnomalyDetectorUsingCategoryFields;
 import static org.opensearch.ad.TestHelpers.randomDetector;
 import static org.opensearch.ad.TestHelpers.randomFeature;
 import static org.opensearch.ad.TestHelpers.randomUser;
+import static org.opensearch.ad.constant.CommonErrorMessages.DETECTOR_IS_RUNNING;
 import static org.opensearch.ad.constant.CommonName.ANOMALY_RESULT_INDEX_ALIAS;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PIECE_INTERVAL_SECONDS;
+import static org.opensearch.ad.settings.AnomalyDetectorSettings.BATCH_TASK_PROGRESS_UPDATE_INTERVAL;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.MAX_OLD_AD_TASK_DOCS_PER_DETECTOR;
 import static org.opensearch.ad.settings.AnomalyDetectorSettings.REQUEST_TIMEOUT;
 
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
 
+import org.mockito.ArgumentCaptor;
 import org.opensearch.ResourceAlreadyExistsException;
 import org.opensearch.action.ActionListener;
+import org.opensearch.action.DocWriteResponse;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
+import org.opensearch.action.update.UpdateRequest;
+import org.opensearch.action.update.UpdateResponse;
 import org.opensearch.ad.ADUnitTestCase;
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.cluster.HashRing;
 import org.opensearch.ad.common.exception.DuplicateTaskException;
+import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
+import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.model.ADTask;
+import org.opensearch.ad.model.ADTaskState;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.DetectionDateRange;
+import org.opensearch.ad.transport.ADBatchAnomalyResultAction;
+import org.opensearch.ad.transport.ADBatchAnomalyResultRequest;
+import org.opensearch.ad.transport.ADBatchAnomalyResultResponse;
 import org.opensearch.ad.transport.AnomalyDetectorJobResponse;
 import org.opensearch.ad.util.DiscoveryNodeFilterer;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.common.xcontent.NamedXContentRegistry;
+import org.opensearch.index.shard.ShardId;
 import org.opensearch.transport.TransportService;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 public class ADTaskManagerTests extends ADUnitTestCase {
 
@@ -99,7 +122,13 @@ public class ADTaskManagerTests extends ADUnitTestCase {
             .put(REQUEST_TIMEOUT.getKey(), TimeValue.timeValueSeconds(10))
             .build();
 
-        clusterSettings = clusterSetting(settings, MAX_OLD_AD_TASK_DOCS_PER_DETECTOR, BATCH_TASK_PIECE_INTERVAL_SECONDS, REQUEST_TIMEOUT);
+        clusterSettings = clusterSetting(
+            settings,
+            MAX_OLD_AD_TASK_DOCS_PER_DETECTOR,
+            BATCH_TASK_PIECE_INTERVAL_SECONDS,
+            REQUEST_TIMEOUT,
+            BATCH_TASK_PROGRESS_UPDATE_INTERVAL
+        );
 
         clusterService = new ClusterService(settings, clusterSettings, null);
 
@@ -117,7 +146,8 @@ public class ADTaskManagerTests extends ADUnitTestCase {
             anomalyDetectionIndices,
             nodeFilter,
             hashRing,
-            adTaskCacheManager
+            adTaskCacheManager,
+            mock(CheckpointDao.class)
         );
 
         listener = spy(new ActionListener<AnomalyDetectorJobResponse>() {
@@ -194,4 +224,160 @@ public class ADTaskManagerTests extends ADUnitTestCase {
         adTaskManager.handleADTaskException(adTask, new DuplicateTaskException("test"));
         verify(client, times(1)).delete(any(), any());
     }
+
+    public void testIsResumable() throws IOException {
+        Instant lastUpdateTime = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        AnomalyDetector detector = randomAnomalyDetector(ImmutableMap.of(), lastUpdateTime);
+        ADTask adTask = randomAdTask(randomAlphaOfLength(5), ADTaskState.STOPPED, null, null, detector.getDetectorId(), detector);
+        assertTrue(adTaskManager.isResumable(adTask, detector));
+
+        // a failed task is resumed too, as losing its worker node fails it
+        ADTask failedTask = randomAdTask(randomAlphaOfLength(5), ADTaskState.FAILED, null, null, detector.getDetectorId(), detector);
+        assertTrue(adTaskManager.isResumable(failedTask, detector));
+
+        ADTask finishedTask = randomAdTask(randomAlphaOfLength(5), ADTaskState.FINISHED, null, null, detector.getDetectorId(), detector);
+        assertFalse(adTaskManager.isResumable(finishedTask, detector));
+
+        AnomalyDetector changedDetector = randomAnomalyDetector(ImmutableMap.of(), lastUpdateTime.plusSeconds(1));
+        assertFalse(adTaskManager.isResumable(adTask, changedDetector));
+
+        ADTask notStartedTask = ADTask
+            .builder()
+            .taskId(randomAlphaOfLength(5))
+            .detectorId(detector.getDetectorId())
+            .detector(detector)
+            .state(ADTaskState.STOPPED.name())
+            .build();
+        assertFalse(adTaskManager.isResumable(notStartedTask, detector));
+
+        ADTask taskWithoutDetector = randomAdTask(randomAlphaOfLength(5), ADTaskState.STOPPED, null, null, detector.getDetectorId(), null);
+        assertFalse(adTaskManager.isResumable(taskWithoutDetector, detector));
+
+        AnomalyDetector hcDetector = randomAnomalyDetectorUsingCategoryFields(detector.getDetectorId(), ImmutableList.of("a"));
+        ADTask hcTask = randomAdTask(randomAlphaOfLength(5), ADTaskState.STOPPED, null, null, hcDetector.getDetectorId(), hcDetector);
+        assertFalse(adTaskManager.isResumable(hcTask, hcDetector));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testResumeHistoricalDetector() throws IOException {
+        String nodeId = randomAlphaOfLength(5);
+        ADTaskManager manager = createManagerOnNode(nodeId);
+        AnomalyDetector detector = randomAnomalyDetector(ImmutableMap.of(), Instant.now());
+        ADTask adTask = randomAdTask(
+            randomAlphaOfLength(5),
+            ADTaskState.STOPPED,
+            Instant.now(),
+            "user",
+            detector.getDetectorId(),
+            detector
+        );
+
+        doAnswer(invocation -> {
+            ActionListener<UpdateResponse> listener = invocation.getArgument(1);
+            listener.onResponse(updateResponse(adTask.getTaskId()));
+            return null;
+        }).when(client).update(any(), any());
+        doAnswer(invocation -> {
+            ActionListener<ADBatchAnomalyResultResponse> listener = invocation.getArgument(2);
+            listener.onResponse(new ADBatchAnomalyResultResponse(nodeId, false));
+            return null;
+        }).when(client).execute(eq(ADBatchAnomalyResultAction.INSTANCE), any(), any());
+
+        manager.resumeHistoricalDetector(adTask, listener);
+
+        verify(adTaskCacheManager, times(1)).add(detector.getDetectorId());
+        ArgumentCaptor<UpdateRequest> updateCaptor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(client, times(1)).update(updateCaptor.capture(), any());
+        UpdateRequest updateRequest = updateCaptor.getValue();
+        assertEquals(adTask.getTaskId(), updateRequest.id());
+        Map<String, Object> updatedFields = updateRequest.doc().sourceAsMap();
+        assertEquals(ADTaskState.CREATED.name(), updatedFields.get(ADTask.STATE_FIELD));
+        assertEquals(nodeId, updatedFields.get(ADTask.COORDINATING_NODE_FIELD));
+        assertTrue(updatedFields.containsKey(ADTask.STOPPED_BY_FIELD));
+        assertNull(updatedFields.get(ADTask.STOPPED_BY_FIELD));
+        assertNull(updatedFields.get(ADTask.EXECUTION_END_TIME_FIELD));
+
+        // the task keeps its id and current piece
+        ArgumentCaptor<ADBatchAnomalyResultRequest> requestCaptor = ArgumentCaptor.forClass(ADBatchAnomalyResultRequest.class);
+        verify(client, times(1)).execute(eq(ADBatchAnomalyResultAction.INSTANCE), requestCaptor.capture(), any());
+        assertEquals(adTask.getTaskId(), requestCaptor.getValue().getAdTask().getTaskId());
+        assertEquals(adTask.getCurrentPiece(), requestCaptor.getValue().getAdTask().getCurrentPiece());
+        verify(listener, times(1)).onResponse(any());
+        verify(adTaskCacheManager, never()).removeDetector(anyString());
+    }
+
+    public void testResumeHistoricalDetectorWhenDispatchFails() throws IOException {
+        ADTaskManager manager = createManagerOnNode(randomAlphaOfLength(5));
+        AnomalyDetector detector = randomAnomalyDetector(ImmutableMap.of(), Instant.now());
+        ADTask adTask = randomAdTask(
+            randomAlphaOfLength(5),
+            ADTaskState.STOPPED,
+            Instant.now(),
+            "user",
+            detector.getDetectorId(),
+            detector
+        );
+        String error = randomAlphaOfLength(5);
+
+        doAnswer(invocation -> {
+            ActionListener<UpdateResponse> listener = invocation.getArgument(1);
+            listener.onResponse(updateResponse(adTask.getTaskId()));
+            return null;
+        }).when(client).update(any(), any());
+        doAnswer(invocation -> {
+            ActionListener<ADBatchAnomalyResultResponse> listener = invocation.getArgument(2);
+            listener.onFailure(new RuntimeException(error));
+            return null;
+        }).when(client).execute(eq(ADBatchAnomalyResultAction.INSTANCE), any(), any());
+
+        manager.resumeHistoricalDetector(adTask, listener);
+
+        verify(listener, times(1)).onFailure(exceptionCaptor.capture());
+        assertEquals(error, exceptionCaptor.getValue().getMessage());
+        verify(adTaskCacheManager, times(1)).removeDetector(detector.getDetectorId());
+    }
+
+    public void testResumeHistoricalDetectorWhenRunning() throws IOException {
+        ADTaskManager manager = createManagerOnNode(randomAlphaOfLength(5));
+        AnomalyDetector detector = randomAnomalyDetector(ImmutableMap.of(), Instant.now());
+        ADTask adTask = randomAdTask(
+            randomAlphaOfLength(5),
+            ADTaskState.STOPPED,
+            Instant.now(),
+            "user",
+            detector.getDetectorId(),
+            detector
+        );
+        doThrow(new DuplicateTaskException("running")).when(adTaskCacheManager).add(detector.getDetectorId());
+
+        manager.resumeHistoricalDetector(adTask, listener);
+
+        verify(listener, times(1)).onFailure(exceptionCaptor.capture());
+        assertEquals(DETECTOR_IS_RUNNING, exceptionCaptor.getValue().getMessage());
+        verify(client, never()).update(any(), any());
+    }
+
+    private ADTaskManager createManagerOnNode(String nodeId) {
+        DiscoveryNode localNode = mock(DiscoveryNode.class);
+        when(localNode.getId()).thenReturn(nodeId);
+        ClusterService mockClusterService = mock(ClusterService.class);
+        when(mockClusterService.getClusterSettings()).thenReturn(clusterSettings);
+        when(mockClusterService.localNode()).thenReturn(localNode);
+        return new ADTaskManager(
+            settings,
+            mockClusterService,
+            client,
+            NamedXContentRegistry.EMPTY,
+            anomalyDetectionIndices,
+            nodeFilter,
+            hashRing,
+            adTaskCacheManager,
+            mock(CheckpointDao.class)
+        );
+    }
+
+    private UpdateResponse updateResponse(String taskId) {
+        ShardId shardId = new ShardId(CommonName.DETECTION_STATE_INDEX, randomAlphaOfLength(5), 0);
+        return new UpdateResponse(shardId, CommonName.MAPPING_TYPE, taskId, 0L, 1L, 1L, DocWriteResponse.Result.UPDATED);
+    }
 }
@@ -32,17 +32,21 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.mockito.ArgumentCaptor;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.action.bulk.BulkRequest;
@@ -52,12 +56,14 @@ import org.opensearch.action.support.PlainActionFuture;
 import org.opensearch.ad.AbstractADTest;
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
+import org.opensearch.ad.transport.handler.ResultBulkRetryBuffer;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.io.stream.StreamInput;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.OpenSearchRejectedExecutionException;
 import org.opensearch.index.IndexingPressure;
 import org.opensearch.transport.TransportService;
 
@@ -67,6 +73,7 @@ public class ADResultBulkTransportActionTests extends AbstractADTest {
     private ClusterService clusterService;
     private IndexingPressure indexingPressure;
     private Client client;
+    private ResultBulkRetryBuffer retryBuffer;
 
     @BeforeClass
     public static void setUpBeforeClass() {
@@ -100,7 +107,17 @@ public class ADResultBulkTransportActionTests extends AbstractADTest {
 
         client = mock(Client.class);
 
-        resultBulk = new ADResultBulkTransportAction(transportService, actionFilters, indexingPressure, settings, clusterService, client);
+        retryBuffer = mock(ResultBulkRetryBuffer.class);
+
+        resultBulk = new ADResultBulkTransportAction(
+            transportService,
+            actionFilters,
+            indexingPressure,
+            settings,
+            clusterService,
+            client,
+            retryBuffer
+        );
     }
 
     @Override
@@ -205,6 +222,30 @@ public class ADResultBulkTransportActionTests extends AbstractADTest {
         future.actionGet();
     }
 
+    @SuppressWarnings("unchecked")
+    public void testRejectedBulkRetried() {
+        when(indexingPressure.getCurrentCombinedCoordinatingAndPrimaryBytes()).thenReturn(0L);
+        when(indexingPressure.getCurrentReplicaBytes()).thenReturn(0L);
+
+        ADResultBulkRequest originalRequest = new ADResultBulkRequest();
+        originalRequest.add(TestHelpers.randomMultiEntityAnomalyDetectResult(0.8d, 0d));
+        originalRequest.add(TestHelpers.randomMultiEntityAnomalyDetectResult(8d, 0.2d));
+
+        doAnswer(invocation -> {
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            listener.onFailure(new OpenSearchRejectedExecutionException("rejected"));
+            return null;
+        }).when(client).execute(any(), any(), any());
+
+        PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+        resultBulk.doExecute(null, originalRequest, future);
+
+        expectThrows(OpenSearchRejectedExecutionException.class, () -> future.actionGet());
+        ArgumentCaptor<List<Boolean>> anomalies = ArgumentCaptor.forClass(List.class);
+        verify(retryBuffer, times(1)).offerAll(any(), anomalies.capture());
+        assertEquals(Arrays.asList(false, true), anomalies.getValue());
+    }
+
     public void testSerialzationRequest() throws IOException {
         ADResultBulkRequest request = new ADResultBulkRequest();
         request.add(TestHelpers.randomMultiEntityAnomalyDetectResult(0.8d, 0d));
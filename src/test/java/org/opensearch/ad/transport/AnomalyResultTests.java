@@ -103,10 +103,12 @@ import org.opensearch.ad.ml.rcf.CombinedRcfResult;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.DetectorInternalState;
 import org.opensearch.ad.model.FeatureData;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.stats.ADStat;
 import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.stats.StatNames;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.ad.util.IndexUtils;
 import org.opensearch.ad.util.Throttler;
@@ -146,7 +148,8 @@ import test.org.opensearch.ad.util.JsonDeserializer;
 import com.google.gson.JsonElement;
 
 public class AnomalyResultTests extends AbstractADTest {
-    private static Settings settings = Settings.EMPTY;
+    // most tests inject failures through the transport layer; local scoring is covered by testLocalScoring*
+    private static Settings settings = Settings.builder().put(AnomalyDetectorSettings.LOCAL_MODEL_SCORING.getKey(), false).build();
     private TransportService transportService;
     private ClusterService clusterService;
     private NodeStateManager stateManager;
@@ -285,6 +288,8 @@ public class AnomalyResultTests extends AbstractADTest {
                 put(StatNames.AD_EXECUTE_FAIL_COUNT.getName(), new ADStat<>(false, new CounterSupplier()));
                 put(StatNames.AD_HC_EXECUTE_REQUEST_COUNT.getName(), new ADStat<>(false, new CounterSupplier()));
                 put(StatNames.AD_HC_EXECUTE_FAIL_COUNT.getName(), new ADStat<>(false, new CounterSupplier()));
+                put(StatNames.AD_FEATURE_SEARCH_LATENCY.getName(), new ADStat<>(false, new LatencySupplier()));
+                put(StatNames.AD_HC_ENTITY_FANOUT_LATENCY.getName(), new ADStat<>(false, new LatencySupplier()));
             }
         };
 
@@ -360,6 +365,74 @@ public class AnomalyResultTests extends AbstractADTest {
         assertAnomalyResultResponse(response, 0, 1, 0d);
     }
 
+    private AnomalyResultTransportAction createLocalScoringAction(ModelManager modelManager) {
+        return new AnomalyResultTransportAction(
+            new ActionFilters(Collections.emptySet()),
+            transportService,
+            Settings.EMPTY,
+            client,
+            stateManager,
+            featureQuery,
+            modelManager,
+            normalModelPartitioner,
+            hashRing,
+            clusterService,
+            indexNameResolver,
+            adCircuitBreakerService,
+            adStats,
+            threadPool,
+            searchFeatureDao
+        );
+    }
+
+    public void testLocalScoring() {
+        // no RCF or threshold transport action is registered: all models are hosted locally
+        AnomalyResultTransportAction action = createLocalScoringAction(normalModelManager);
+
+        AnomalyResultRequest request = new AnomalyResultRequest(adID, 100, 200);
+        PlainActionFuture<AnomalyResultResponse> listener = new PlainActionFuture<>();
+        action.doExecute(null, request, listener);
+
+        AnomalyResultResponse response = listener.actionGet(10000L);
+        assertAnomalyResultResponse(response, 0, 1, 0d);
+        verify(normalModelManager, times(partitionNum))
+            .getRcfResult(any(String.class), any(String.class), any(double[].class), any(ActionListener.class));
+        verify(normalModelManager, times(1))
+            .getThresholdingResult(any(String.class), any(String.class), anyDouble(), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testLocalScoringRcfException() {
+        ModelManager rcfManager = mock(ModelManager.class);
+        doThrow(new NotSerializableExceptionWrapper(new LimitExceededException(adID, CommonErrorMessages.MEMORY_LIMIT_EXCEEDED_ERR_MSG)))
+            .when(rcfManager)
+            .getRcfResult(any(String.class), any(String.class), any(double[].class), any(ActionListener.class));
+
+        AnomalyResultTransportAction action = createLocalScoringAction(rcfManager);
+
+        AnomalyResultRequest request = new AnomalyResultRequest(adID, 100, 200);
+        PlainActionFuture<AnomalyResultResponse> listener = new PlainActionFuture<>();
+        action.doExecute(null, request, listener);
+
+        assertException(listener, LimitExceededException.class);
+        verify(rcfManager, never()).getThresholdingResult(any(String.class), any(String.class), anyDouble(), any(ActionListener.class));
+    }
+
+    public void testLocalScoringRemoteThreshold() {
+        DiscoveryNode thresholdNode = testNodes[1].discoveryNode();
+        when(hashRing.getOwningNode(eq(thresholdModelID))).thenReturn(Optional.of(thresholdNode));
+        new ThresholdResultTransportAction(new ActionFilters(Collections.emptySet()), testNodes[1].transportService, normalModelManager);
+
+        AnomalyResultTransportAction action = createLocalScoringAction(normalModelManager);
+
+        AnomalyResultRequest request = new AnomalyResultRequest(adID, 100, 200);
+        PlainActionFuture<AnomalyResultResponse> listener = new PlainActionFuture<>();
+        action.doExecute(null, request, listener);
+
+        AnomalyResultResponse response = listener.actionGet(10000L);
+        assertAnomalyResultResponse(response, 0, 1, 0d);
+    }
+
     private void assertAnomalyResultResponse(AnomalyResultResponse response, double anomalyGrade, double confidence, double featureData) {
         assertEquals(anomalyGrade, response.getAnomalyGrade(), 0.001);
         assertEquals(confidence, response.getConfidence(), 0.001);
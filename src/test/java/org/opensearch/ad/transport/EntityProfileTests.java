@@ -35,14 +35,19 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.opensearch.Version;
+import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.action.support.ActionFilters;
 import org.opensearch.action.support.PlainActionFuture;
 import org.opensearch.ad.AbstractADTest;
@@ -52,10 +57,12 @@ import org.opensearch.ad.caching.EntityCache;
 import org.opensearch.ad.cluster.HashRing;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
 import org.opensearch.ad.common.exception.JsonPathNotFoundException;
+import org.opensearch.ad.constant.CommonErrorMessages;
 import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.ml.ModelManager;
 import org.opensearch.ad.model.EntityProfileName;
 import org.opensearch.ad.model.ModelProfile;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.io.stream.BytesStreamOutput;
@@ -204,7 +211,7 @@ public class EntityProfileTests extends AbstractADTest {
                         TransportRequestOptions options,
                         TransportResponseHandler<T> handler
                     ) {
-                        if (EntityProfileAction.NAME.equals(action)) {
+                        if (EntityProfileAction.NAME.equals(action) || EntityProfilesAction.NAME.equals(action)) {
                             sender.sendRequest(connection, action, request, options, entityFailureProfileandler(handler));
                         } else {
                             sender.sendRequest(connection, action, request, options, handler);
@@ -413,4 +420,107 @@ public class EntityProfileTests extends AbstractADTest {
         set.add(response);
         assertTrue(set.contains(response));
     }
+
+    private EntityProfilesTransportAction createBatchAction(TransportService transportService) {
+        return new EntityProfilesTransportAction(
+            actionFilters,
+            transportService,
+            settings,
+            modelManager,
+            hashRing,
+            clusterService,
+            cacheProvider
+        );
+    }
+
+    public void testBatchLocalNodeHit() {
+        DiscoveryNode localNode = new DiscoveryNode(nodeId, transportAddress1, Version.CURRENT.minimumCompatibilityVersion());
+        when(hashRing.getOwningNode(anyString())).thenReturn(Optional.of(localNode));
+        when(clusterService.localNode()).thenReturn(localNode);
+
+        PlainActionFuture<EntityProfilesResponse> batchFuture = new PlainActionFuture<>();
+        createBatchAction(transportService)
+            .doExecute(task, new EntityProfilesRequest(detectorId, Arrays.asList(entityValue, "app_1"), all), batchFuture);
+
+        EntityProfileResponse expectedResponse = new EntityProfileResponse(
+            isActive,
+            lastActiveTimestamp,
+            updates,
+            new ModelProfile(modelId, modelSize, nodeId)
+        );
+        Map<String, EntityProfileResponse> profiles = batchFuture.actionGet(20_000).getProfiles();
+        assertEquals(2, profiles.size());
+        assertEquals(expectedResponse, profiles.get(entityValue));
+        assertEquals(expectedResponse, profiles.get("app_1"));
+    }
+
+    public void testBatchNoNodeFound() {
+        when(hashRing.getOwningNode(anyString())).thenReturn(Optional.empty());
+
+        PlainActionFuture<EntityProfilesResponse> batchFuture = new PlainActionFuture<>();
+        createBatchAction(transportService)
+            .doExecute(task, new EntityProfilesRequest(detectorId, Arrays.asList(entityValue), state), batchFuture);
+
+        assertTrue(batchFuture.actionGet(20_000).getProfiles().isEmpty());
+    }
+
+    public void testBatchRemoteFailureLeavesOutEntities() {
+        setupTestNodes(Settings.EMPTY, failureTransportInterceptor);
+        try {
+            clusterService = testNodes[0].clusterService;
+            EntityProfilesTransportAction batchAction = createBatchAction(testNodes[0].transportService);
+
+            when(hashRing.getOwningNode(any(String.class))).thenReturn(Optional.of(testNodes[1].discoveryNode()));
+            new EntityProfilesTransportAction(
+                new ActionFilters(Collections.emptySet()),
+                testNodes[1].transportService,
+                Settings.EMPTY,
+                modelManager,
+                hashRing,
+                testNodes[1].clusterService,
+                cacheProvider
+            );
+
+            PlainActionFuture<EntityProfilesResponse> batchFuture = new PlainActionFuture<>();
+            batchAction.doExecute(null, new EntityProfilesRequest(detectorId, Arrays.asList(entityValue), state), batchFuture);
+
+            assertTrue(batchFuture.actionGet(10_000).getProfiles().isEmpty());
+        } finally {
+            tearDownTestNodes();
+        }
+    }
+
+    public void testBatchRequestWithTooManyEntities() {
+        List<String> entityValues = new ArrayList<>();
+        for (int i = 0; i <= AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST; i++) {
+            entityValues.add("app_" + i);
+        }
+        EntityProfilesRequest batchRequest = new EntityProfilesRequest(detectorId, entityValues, all);
+        ActionRequestValidationException exception = batchRequest.validate();
+        assertNotNull(exception);
+        assertTrue(exception.getMessage().contains(CommonErrorMessages.TOO_MANY_ENTITIES_TO_PROFILE));
+
+        entityValues.remove(0);
+        assertNull(batchRequest.validate());
+    }
+
+    public void testSerializationBatch() throws IOException {
+        EntityProfilesRequest batchRequest = new EntityProfilesRequest(detectorId, Arrays.asList(entityValue, "app_1"), all);
+        BytesStreamOutput output = new BytesStreamOutput();
+        batchRequest.writeTo(output);
+        EntityProfilesRequest readRequest = new EntityProfilesRequest(output.bytes().streamInput());
+        assertEquals(detectorId, readRequest.getAdID());
+        assertEquals(batchRequest.getEntityValues(), readRequest.getEntityValues());
+        assertEquals(all, readRequest.getProfilesToCollect());
+
+        EntityProfileResponse profile = new EntityProfileResponse.Builder()
+            .setLastActiveMs(lastActiveTimestamp)
+            .setModelProfile(new ModelProfile(modelId, modelSize, nodeId))
+            .build();
+        EntityProfilesResponse batchResponse = new EntityProfilesResponse(Collections.singletonMap(entityValue, profile));
+        output = new BytesStreamOutput();
+        batchResponse.writeTo(output);
+        EntityProfilesResponse readResponse = EntityProfilesAction.INSTANCE.getResponseReader().read(output.bytes().streamInput());
+        assertEquals(batchResponse.getProfiles(), readResponse.getProfiles());
+    }
 }
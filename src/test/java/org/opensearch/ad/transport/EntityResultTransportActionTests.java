@@ -43,12 +43,15 @@ import static org.opensearch.common.xcontent.XContentFactory.jsonBuilder;
 import java.io.IOException;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 import org.junit.Before;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.LegacyESVersion;
 import org.opensearch.action.ActionListener;
 import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.action.support.ActionFilters;
@@ -58,6 +61,7 @@ import org.opensearch.ad.AbstractADTest;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
+import org.opensearch.ad.breaker.LoadLevel;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.caching.EntityCache;
 import org.opensearch.ad.common.exception.EndRunException;
@@ -71,8 +75,10 @@ import org.opensearch.ad.ml.CheckpointDao;
 import org.opensearch.ad.ml.EntityModel;
 import org.opensearch.ad.ml.ModelManager;
 import org.opensearch.ad.ml.ModelState;
+import org.opensearch.ad.ml.ThresholdingModel;
 import org.opensearch.ad.ml.ThresholdingResult;
 import org.opensearch.ad.model.AnomalyDetector;
+import org.opensearch.ad.model.AnomalyResult;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.ad.transport.handler.MultiEntityResultHandler;
 import org.opensearch.common.Strings;
@@ -86,6 +92,8 @@ import org.opensearch.transport.TransportService;
 
 import test.org.opensearch.ad.util.JsonDeserializer;
 
+import com.amazon.randomcutforest.RandomCutForest;
+
 public class EntityResultTransportActionTests extends AbstractADTest {
     EntityResultTransportAction entityResult;
     ActionFilters actionFilters;
@@ -123,6 +131,7 @@ public class EntityResultTransportActionTests extends AbstractADTest {
 
         adCircuitBreakerService = mock(ADCircuitBreakerService.class);
         when(adCircuitBreakerService.isOpen()).thenReturn(false);
+        when(adCircuitBreakerService.getLoadLevel()).thenReturn(LoadLevel.NORMAL);
 
         anomalyResultHandler = mock(MultiEntityResultHandler.class);
         checkpointDao = mock(CheckpointDao.class);
@@ -155,19 +164,19 @@ public class EntityResultTransportActionTests extends AbstractADTest {
         provider = mock(CacheProvider.class);
         entityCache = mock(EntityCache.class);
         when(provider.get()).thenReturn(entityCache);
-        when(entityCache.get(eq(cacheMissEntity), any(), any(), anyString())).thenReturn(null);
+        when(entityCache.get(eq(cacheMissEntity), any(), any(), anyString(), any())).thenReturn(null);
 
         ModelState<EntityModel> state = mock(ModelState.class);
-        when(entityCache.get(eq(cacheHitEntity), any(), any(), anyString())).thenReturn(state);
+        when(entityCache.get(eq(cacheHitEntity), any(), any(), anyString(), any())).thenReturn(state);
 
         String field = "a";
         detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(detectorId, Arrays.asList(field));
         stateManager = mock(NodeStateManager.class);
         doAnswer(invocation -> {
-            ActionListener<Optional<AnomalyDetector>> listener = invocation.getArgument(1);
+            ActionListener<Optional<AnomalyDetector>> listener = invocation.getArgument(2);
             listener.onResponse(Optional.of(detector));
             return null;
-        }).when(stateManager).getAnomalyDetector(any(String.class), any(ActionListener.class));
+        }).when(stateManager).getAnomalyDetector(any(String.class), any(), any(ActionListener.class));
         when(stateManager.getLastIndexThrottledTime()).thenReturn(Instant.MIN);
 
         settings = Settings.builder().put(AnomalyDetectorSettings.COOLDOWN_MINUTES.getKey(), TimeValue.timeValueMinutes(5)).build();
@@ -197,6 +206,7 @@ public class EntityResultTransportActionTests extends AbstractADTest {
 
     public void testCircuitBreakerOpen() {
         when(adCircuitBreakerService.isOpen()).thenReturn(true);
+        when(adCircuitBreakerService.getLoadLevel()).thenReturn(LoadLevel.OVERLOADED);
         PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
 
         entityResult.doExecute(null, request, future);
@@ -214,14 +224,129 @@ public class EntityResultTransportActionTests extends AbstractADTest {
         verify(anomalyResultHandler, times(1)).flush(any(), any());
     }
 
+    public void testChangeOnlyResults() {
+        setUpChangeOnlyResults();
+
+        // the first result is saved in full
+        PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
+        entityResult.doExecute(null, request, future);
+        future.actionGet(timeoutMs);
+
+        // an unchanged normal result goes to the summary
+        future = PlainActionFuture.newFuture();
+        entityResult.doExecute(null, request, future);
+        future.actionGet(timeoutMs);
+
+        ArgumentCaptor<ADResultBulkRequest> bulk = ArgumentCaptor.forClass(ADResultBulkRequest.class);
+        verify(anomalyResultHandler, times(2)).flush(bulk.capture(), any());
+        AnomalyResult full = bulk.getAllValues().get(0).getAnomalyResults().get(0);
+        assertEquals(1, full.getEntity().size());
+        assertEquals(1, full.getFeatureData().size());
+        AnomalyResult summary = bulk.getAllValues().get(1).getAnomalyResults().get(0);
+        assertEquals(cacheHitEntity, summary.getEntity().get(0).getValue());
+        assertEquals(0, summary.getFeatureData().size());
+        assertEquals(0d, summary.getAnomalyGrade(), 0.001);
+        assertTrue(summary.isSummary());
+        assertFalse(full.isSummary());
+    }
+
+    public void testSkipSummaryResultsWhenIndexThrottled() {
+        setUpChangeOnlyResults();
+
+        // the first result is saved in full
+        PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
+        entityResult.doExecute(null, request, future);
+        future.actionGet(timeoutMs);
+
+        // only anomalies are saved while the result index is throttled
+        when(stateManager.getLastIndexThrottledTime()).thenReturn(Instant.now());
+        future = PlainActionFuture.newFuture();
+        entityResult.doExecute(null, request, future);
+        future.actionGet(timeoutMs);
+
+        verify(anomalyResultHandler, times(1)).flush(any(), any());
+    }
+
+    private void setUpChangeOnlyResults() {
+        Settings changeOnlySettings = Settings
+            .builder()
+            .put(settings)
+            .put(AnomalyDetectorSettings.CHANGE_ONLY_ENTITY_RESULTS.getKey(), true)
+            .build();
+        ModelState<EntityModel> state = new ModelState<>(null, cacheHitEntity, detectorId, "entity", clock, 0f);
+        when(entityCache.get(eq(cacheHitEntity), any(), any(), anyString(), any())).thenReturn(state);
+        // not an anomaly
+        when(manager.getAnomalyResultForEntity(anyString(), any(), anyString(), any(), anyString()))
+            .thenReturn(new ThresholdingResult(0, 1, 1));
+        AnomalyDetectionIndices indexUtil = mock(AnomalyDetectionIndices.class);
+        when(indexUtil.getSchemaVersion(any())).thenReturn(CommonValue.NO_SCHEMA_VERSION);
+        entityResult = new EntityResultTransportAction(
+            actionFilters,
+            transportService,
+            manager,
+            adCircuitBreakerService,
+            anomalyResultHandler,
+            checkpointDao,
+            provider,
+            stateManager,
+            changeOnlySettings,
+            clock,
+            indexUtil
+        );
+    }
+
+    public void testSkipColdStartUnderLoad() {
+        when(adCircuitBreakerService.getLoadLevel()).thenReturn(LoadLevel.SKIP_COLD_START);
+        EntityModel model = new EntityModel(cacheHitEntity, new ArrayDeque<>(), null, null);
+        ModelState<EntityModel> state = new ModelState<>(model, cacheHitEntity, detectorId, "entity", clock, 0f);
+        when(entityCache.get(eq(cacheHitEntity), any(), any(), anyString(), any())).thenReturn(state);
+
+        PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
+        entityResult.doExecute(null, request, future);
+        future.actionGet(timeoutMs);
+
+        // the untrained model only collects the sample
+        assertEquals(1, model.getSamples().size());
+        verify(manager, never()).getAnomalyResultForEntity(anyString(), any(), anyString(), any(), anyString());
+    }
+
+    public void testTopPriorityOnlyUnderLoad() {
+        when(adCircuitBreakerService.getLoadLevel()).thenReturn(LoadLevel.TOP_PRIORITY_ONLY);
+        ModelState<EntityModel> lowPriority = new ModelState<>(
+            new EntityModel(cacheMissEntity, new ArrayDeque<>(), mock(RandomCutForest.class), mock(ThresholdingModel.class)),
+            cacheMissEntity,
+            detectorId,
+            "entity",
+            clock,
+            0.1f
+        );
+        ModelState<EntityModel> highPriority = new ModelState<>(
+            new EntityModel(cacheHitEntity, new ArrayDeque<>(), mock(RandomCutForest.class), mock(ThresholdingModel.class)),
+            cacheHitEntity,
+            detectorId,
+            "entity",
+            clock,
+            0.9f
+        );
+        when(entityCache.get(eq(cacheMissEntity), any(), any(), anyString(), any())).thenReturn(lowPriority);
+        when(entityCache.get(eq(cacheHitEntity), any(), any(), anyString(), any())).thenReturn(highPriority);
+
+        PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
+        entityResult.doExecute(null, request, future);
+        future.actionGet(timeoutMs);
+
+        verify(manager, times(1)).getAnomalyResultForEntity(anyString(), any(), anyString(), any(), anyString());
+        verify(manager, times(1)).getAnomalyResultForEntity(anyString(), any(), eq(cacheHitEntity), any(), anyString());
+    }
+
     // test get detector failure
     @SuppressWarnings("unchecked")
     public void testFailtoGetDetector() {
         doAnswer(invocation -> {
-            ActionListener<Optional<AnomalyDetector>> listener = invocation.getArgument(1);
+            ActionListener<Optional<AnomalyDetector>> listener = invocation.getArgument(2);
             listener.onResponse(Optional.empty());
             return null;
-        }).when(stateManager).getAnomalyDetector(any(String.class), any(ActionListener.class));
+        }).when(stateManager).getAnomalyDetector(any(String.class), any(), any(ActionListener.class));
 
         PlainActionFuture<AcknowledgedResponse> future = PlainActionFuture.newFuture();
 
@@ -271,6 +396,32 @@ public class EntityResultTransportActionTests extends AbstractADTest {
         assertTrue(areEqualWithArrayValue(entities, readRequest.getEntities()));
     }
 
+    public void testSerialzationRequestWithVersion() throws IOException {
+        request = new EntityResultRequest(detectorId, entities, start, end, 3L);
+        BytesStreamOutput output = new BytesStreamOutput();
+        request.writeTo(output);
+
+        StreamInput streamInput = output.bytes().streamInput();
+        EntityResultRequest readRequest = new EntityResultRequest(streamInput);
+        assertThat(detectorId, equalTo(readRequest.getDetectorId()));
+        assertEquals(Long.valueOf(3L), readRequest.getDetectorVersion());
+    }
+
+    public void testSerialzationRequestToOldNode() throws IOException {
+        request = new EntityResultRequest(detectorId, entities, start, end, 3L);
+        BytesStreamOutput output = new BytesStreamOutput();
+        output.setVersion(LegacyESVersion.V_7_10_2);
+        request.writeTo(output);
+
+        StreamInput streamInput = output.bytes().streamInput();
+        streamInput.setVersion(LegacyESVersion.V_7_10_2);
+        EntityResultRequest readRequest = new EntityResultRequest(streamInput);
+        assertThat(detectorId, equalTo(readRequest.getDetectorId()));
+        assertThat(end, equalTo(readRequest.getEnd()));
+        assertEquals(null, readRequest.getDetectorVersion());
+        assertEquals(0, streamInput.available());
+    }
+
     public void testValidRequest() {
         ActionRequestValidationException e = request.validate();
         assertThat(e, equalTo(null));
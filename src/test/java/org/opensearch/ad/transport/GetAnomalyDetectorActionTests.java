@@ -27,16 +27,21 @@
 package org.opensearch.ad.transport;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.ad.constant.CommonErrorMessages;
 import org.opensearch.ad.model.ADTask;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyDetectorJob;
 import org.opensearch.ad.model.DetectorProfile;
+import org.opensearch.ad.settings.AnomalyDetectorSettings;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.io.stream.StreamInput;
 import org.opensearch.rest.RestStatus;
@@ -63,6 +68,31 @@ public class GetAnomalyDetectorActionTests {
 
     }
 
+    @Test
+    public void testGetRequestWithTooManyEntities() {
+        List<String> entityValues = new ArrayList<>();
+        for (int i = 0; i <= AnomalyDetectorSettings.MAX_ENTITIES_PER_PROFILE_REQUEST; i++) {
+            entityValues.add("app_" + i);
+        }
+        GetAnomalyDetectorRequest request = new GetAnomalyDetectorRequest(
+            "1234",
+            4321,
+            false,
+            false,
+            "entity_info",
+            "",
+            false,
+            null,
+            entityValues
+        );
+        ActionRequestValidationException exception = request.validate();
+        Assert.assertNotNull(exception);
+        Assert.assertTrue(exception.getMessage().contains(CommonErrorMessages.TOO_MANY_ENTITIES_TO_PROFILE));
+
+        entityValues.remove(0);
+        Assert.assertNull(request.validate());
+    }
+
     @Test
     public void testGetResponse() throws Exception {
         BytesStreamOutput out = new BytesStreamOutput();
@@ -158,4 +158,51 @@ public class GetAnomalyDetectorTests extends AbstractADTest {
         action.doExecute(null, request, future);
         assertException(future, InvalidParameterException.class, CommonErrorMessages.FAIL_TO_FIND_DETECTOR_MSG);
     }
+
+    public void testInvalidEntitiesRequest() throws IOException {
+        typeStr = "entity_info2,init_progress2";
+
+        rawPath = "_opendistro/_anomaly_detection/detectors/T4c3dXUBj-2IZN7itix_/_profile";
+
+        request = new GetAnomalyDetectorRequest(detectorId, 0L, false, false, typeStr, rawPath, false, null, Arrays.asList(entityValue));
+
+        future = new PlainActionFuture<>();
+        action.doExecute(null, request, future);
+        assertException(future, InvalidParameterException.class, CommonErrorMessages.EMPTY_PROFILES_COLLECT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testValidEntitiesRequest() throws IOException {
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            GetRequest request = (GetRequest) args[0];
+            ActionListener<GetResponse> listener = (ActionListener<GetResponse>) args[1];
+
+            String indexName = request.index();
+            if (indexName.equals(ANOMALY_DETECTORS_INDEX)) {
+                listener.onResponse(null);
+            }
+            return null;
+        }).when(client).get(any(), any());
+
+        typeStr = "entity_info,init_progress";
+
+        rawPath = "_opendistro/_anomaly_detection/detectors/T4c3dXUBj-2IZN7itix_/_profile";
+
+        request = new GetAnomalyDetectorRequest(
+            detectorId,
+            0L,
+            false,
+            false,
+            typeStr,
+            rawPath,
+            false,
+            null,
+            Arrays.asList(entityValue, "app_1")
+        );
+
+        future = new PlainActionFuture<>();
+        action.doExecute(null, request, future);
+        assertException(future, InvalidParameterException.class, CommonErrorMessages.FAIL_TO_FIND_DETECTOR_MSG);
+    }
 }
@@ -34,6 +34,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Assert;
@@ -170,6 +171,28 @@ public class GetAnomalyDetectorTransportActionTests extends OpenSearchSingleNode
         Assert.assertNull(newRequest.getEntityValue());
     }
 
+    @Test
+    public void testGetAnomalyDetectorRequestWithEntityValues() throws IOException {
+        List<String> entityValues = Arrays.asList("app_0", "app_1");
+        GetAnomalyDetectorRequest request = new GetAnomalyDetectorRequest(
+            "1234",
+            4321,
+            false,
+            false,
+            "",
+            "abcd",
+            false,
+            null,
+            entityValues
+        );
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        StreamInput input = out.bytes().streamInput();
+        GetAnomalyDetectorRequest newRequest = new GetAnomalyDetectorRequest(input);
+        Assert.assertNull(newRequest.getEntityValue());
+        Assert.assertEquals(entityValues, newRequest.getEntityValues());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testGetAnomalyDetectorResponse() throws IOException {
@@ -234,4 +257,25 @@ public class GetAnomalyDetectorTransportActionTests extends OpenSearchSingleNode
         Assert.assertEquals(map.get(EntityProfile.CATEGORY_FIELD), "catField");
         Assert.assertEquals(map.get(EntityProfile.ENTITY_VALUE), "app-0");
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetAnomalyDetectorEntityProfilesResponse() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        List<EntityProfile> entityProfiles = Arrays
+            .asList(new EntityProfile.Builder("catField", "app-0").build(), new EntityProfile.Builder("catField", "app-1").build());
+        GetAnomalyDetectorResponse response = new GetAnomalyDetectorResponse(entityProfiles);
+        response.writeTo(out);
+        NamedWriteableAwareStreamInput input = new NamedWriteableAwareStreamInput(out.bytes().streamInput(), writableRegistry());
+        GetAnomalyDetectorResponse newResponse = new GetAnomalyDetectorResponse(input);
+        Assert.assertEquals(2, newResponse.getEntityProfiles().size());
+        XContentBuilder builder = TestHelpers.builder();
+        Assert.assertNotNull(newResponse.toXContent(builder, ToXContent.EMPTY_PARAMS));
+
+        Map<String, Object> map = TestHelpers.XContentBuilderToMap(builder);
+        List<Map<String, Object>> profiles = (List<Map<String, Object>>) map.get(RestHandlerUtils.ENTITIES);
+        Assert.assertEquals(2, profiles.size());
+        Assert.assertEquals("app-0", profiles.get(0).get(EntityProfile.ENTITY_VALUE));
+        Assert.assertEquals("app-1", profiles.get(1).get(EntityProfile.ENTITY_VALUE));
+    }
 }
@@ -57,6 +57,7 @@ import org.opensearch.ad.AbstractADTest;
 import org.opensearch.ad.NodeStateManager;
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.breaker.ADCircuitBreakerService;
+import org.opensearch.ad.breaker.LoadLevel;
 import org.opensearch.ad.caching.CacheProvider;
 import org.opensearch.ad.caching.EntityCache;
 import org.opensearch.ad.cluster.HashRing;
@@ -78,6 +79,7 @@ import org.opensearch.ad.stats.ADStat;
 import org.opensearch.ad.stats.ADStats;
 import org.opensearch.ad.stats.StatNames;
 import org.opensearch.ad.stats.suppliers.CounterSupplier;
+import org.opensearch.ad.stats.suppliers.LatencySupplier;
 import org.opensearch.ad.transport.handler.MultiEntityResultHandler;
 import org.opensearch.ad.util.ClientUtil;
 import org.opensearch.ad.util.IndexUtils;
@@ -190,6 +192,7 @@ public class MultientityResultTests extends AbstractADTest {
 
         adCircuitBreakerService = mock(ADCircuitBreakerService.class);
         when(adCircuitBreakerService.isOpen()).thenReturn(false);
+        when(adCircuitBreakerService.getLoadLevel()).thenReturn(LoadLevel.NORMAL);
 
         IndexUtils indexUtils = new IndexUtils(client, mock(ClientUtil.class), clusterService, indexNameResolver);
         Map<String, ADStat<?>> statsMap = new HashMap<String, ADStat<?>>() {
@@ -198,6 +201,8 @@ public class MultientityResultTests extends AbstractADTest {
                 put(StatNames.AD_EXECUTE_FAIL_COUNT.getName(), new ADStat<>(false, new CounterSupplier()));
                 put(StatNames.AD_HC_EXECUTE_REQUEST_COUNT.getName(), new ADStat<>(false, new CounterSupplier()));
                 put(StatNames.AD_HC_EXECUTE_FAIL_COUNT.getName(), new ADStat<>(false, new CounterSupplier()));
+                put(StatNames.AD_FEATURE_SEARCH_LATENCY.getName(), new ADStat<>(false, new LatencySupplier()));
+                put(StatNames.AD_HC_ENTITY_FANOUT_LATENCY.getName(), new ADStat<>(false, new LatencySupplier()));
             }
         };
         adStats = new ADStats(indexUtils, normalModelManager, statsMap);
@@ -382,7 +387,7 @@ public class MultientityResultTests extends AbstractADTest {
 
         EntityCache entityCache = mock(EntityCache.class);
         when(provider.get()).thenReturn(entityCache);
-        when(entityCache.get(any(), any(), any(), anyString())).thenReturn(MLUtil.randomNonEmptyModelState());
+        when(entityCache.get(any(), any(), any(), anyString(), any())).thenReturn(MLUtil.randomNonEmptyModelState());
 
         when(normalModelManager.getAnomalyResultForEntity(anyString(), any(), anyString(), any(), anyString()))
             .thenReturn(new ThresholdingResult(0, 1, 1));
@@ -474,6 +479,7 @@ public class MultientityResultTests extends AbstractADTest {
 
         ADCircuitBreakerService openBreaker = mock(ADCircuitBreakerService.class);
         when(openBreaker.isOpen()).thenReturn(true);
+        when(openBreaker.getLoadLevel()).thenReturn(LoadLevel.OVERLOADED);
         // register entity result action
         new EntityResultTransportAction(
             new ActionFilters(Collections.emptySet()),
@@ -30,7 +30,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyObject;
 import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +59,7 @@ import org.opensearch.ad.feature.FeatureManager;
 import org.opensearch.ad.feature.Features;
 import org.opensearch.ad.indices.AnomalyDetectionIndices;
 import org.opensearch.ad.ml.ModelManager;
+import org.opensearch.ad.ml.ThresholdingResult;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyResult;
 import org.opensearch.ad.settings.AnomalyDetectorSettings;
@@ -108,7 +108,12 @@ public class PreviewAnomalyDetectorTransportActionTests extends OpenSearchSingle
         when(clusterService.getClusterSettings()).thenReturn(clusterSettings);
         featureManager = mock(FeatureManager.class);
         modelManager = mock(ModelManager.class);
-        runner = new AnomalyDetectorRunner(modelManager, featureManager, AnomalyDetectorSettings.MAX_PREVIEW_RESULTS);
+        runner = new AnomalyDetectorRunner(
+            modelManager,
+            featureManager,
+            AnomalyDetectorSettings.MAX_PREVIEW_RESULTS,
+            mock(ThreadPool.class)
+        );
         action = new PreviewAnomalyDetectorTransportAction(
             Settings.EMPTY,
             mock(TransportService.class),
@@ -155,7 +160,11 @@ public class PreviewAnomalyDetectorTransportActionTests extends OpenSearchSingle
             }
         };
 
-        doReturn(TestHelpers.randomThresholdingResults()).when(modelManager).getPreviewResults(any());
+        doAnswer(invocation -> {
+            ActionListener<List<ThresholdingResult>> listener = invocation.getArgument(1);
+            listener.onResponse(TestHelpers.randomThresholdingResults());
+            return null;
+        }).when(modelManager).getPreviewResults(any(), any());
 
         doAnswer(responseMock -> {
             Long startTime = responseMock.getArgument(1);
@@ -346,7 +355,11 @@ public class PreviewAnomalyDetectorTransportActionTests extends OpenSearchSingle
                 Assert.assertTrue(false);
             }
         };
-        doReturn(TestHelpers.randomThresholdingResults()).when(modelManager).getPreviewResults(any());
+        doAnswer(invocation -> {
+            ActionListener<List<ThresholdingResult>> listener = invocation.getArgument(1);
+            listener.onResponse(TestHelpers.randomThresholdingResults());
+            return null;
+        }).when(modelManager).getPreviewResults(any(), any());
 
         doAnswer(responseMock -> {
             Long startTime = responseMock.getArgument(1);
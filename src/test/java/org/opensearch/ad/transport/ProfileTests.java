@@ -41,10 +41,12 @@ import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.opensearch.LegacyESVersion;
 import org.opensearch.Version;
 import org.opensearch.action.FailedNodeException;
 import org.opensearch.ad.common.exception.JsonPathNotFoundException;
 import org.opensearch.ad.constant.CommonName;
+import org.opensearch.ad.model.DetectorProfile;
 import org.opensearch.ad.model.DetectorProfileName;
 import org.opensearch.ad.model.ModelProfile;
 import org.opensearch.cluster.ClusterName;
@@ -52,6 +54,7 @@ import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.common.Strings;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.Writeable;
 import org.opensearch.common.transport.TransportAddress;
 import org.opensearch.common.xcontent.ToXContent;
 import org.opensearch.common.xcontent.XContentBuilder;
@@ -269,4 +272,78 @@ public class ProfileTests extends OpenSearchTestCase {
         String readJson = Strings.toString(readResponse.toXContent(builder.startObject(), ToXContent.EMPTY_PARAMS).endObject());
         assertEquals("Serialization fails", readJson, json);
     }
+
+    @Test
+    public void testEntityCacheSerialization() throws IOException {
+        Map<String, Long> entityCache = Collections.singletonMap("hit", 3L);
+        ProfileNodeResponse profileNodeResponse = new ProfileNodeResponse(discoveryNode1, modelSizeMap1, shingleSize, 1, 2, entityCache);
+        ProfileResponse profileResponse = new ProfileResponse(
+            new ClusterName(clusterName),
+            Arrays.asList(profileNodeResponse),
+            Collections.emptyList()
+        );
+        DetectorProfile detectorProfile = new DetectorProfile.Builder().entityCache(entityCache).build();
+
+        assertEquals(entityCache, ProfileNodeResponse.readProfiles(serialize(profileNodeResponse, Version.CURRENT)).getEntityCache());
+        assertEquals(entityCache, new ProfileResponse(serialize(profileResponse, Version.CURRENT)).getEntityCache());
+        assertEquals(entityCache, new DetectorProfile(serialize(detectorProfile, Version.CURRENT)).getEntityCache());
+    }
+
+    @Test
+    public void testEntityCacheSerializationWithOldNode() throws IOException {
+        Map<String, Long> entityCache = Collections.singletonMap("hit", 3L);
+        ProfileNodeResponse profileNodeResponse = new ProfileNodeResponse(discoveryNode1, modelSizeMap1, shingleSize, 1, 2, entityCache);
+        ProfileResponse profileResponse = new ProfileResponse(
+            new ClusterName(clusterName),
+            Arrays.asList(profileNodeResponse),
+            Collections.emptyList()
+        );
+        DetectorProfile detectorProfile = new DetectorProfile.Builder().shingleSize(shingleSize).entityCache(entityCache).build();
+
+        // nodes before ENTITY_CACHE_MIN_NODE_VERSION neither send nor expect entity cache counters
+        StreamInput streamInput = serialize(profileNodeResponse, LegacyESVersion.V_7_10_2);
+        ProfileNodeResponse readNodeResponse = ProfileNodeResponse.readProfiles(streamInput);
+        assertEquals(0, streamInput.available());
+        assertNull(readNodeResponse.getEntityCache());
+        assertEquals(profileNodeResponse.getModelSize(), readNodeResponse.getModelSize());
+        assertEquals(profileNodeResponse.getTotalUpdates(), readNodeResponse.getTotalUpdates());
+
+        streamInput = serialize(profileResponse, LegacyESVersion.V_7_10_2);
+        ProfileResponse readResponse = new ProfileResponse(streamInput);
+        assertEquals(0, streamInput.available());
+        assertNull(readResponse.getEntityCache());
+        assertEquals(1, readResponse.getNodes().size());
+        assertEquals(profileResponse.getTotalUpdates(), readResponse.getTotalUpdates());
+
+        streamInput = serialize(detectorProfile, LegacyESVersion.V_7_10_2);
+        DetectorProfile readProfile = new DetectorProfile(streamInput);
+        assertEquals(0, streamInput.available());
+        assertNull(readProfile.getEntityCache());
+        assertEquals(shingleSize, readProfile.getShingleSize());
+    }
+
+    @Test
+    public void testProfileRequestWithOldNode() throws IOException {
+        Set<DetectorProfileName> profilesToRetrieve = new HashSet<DetectorProfileName>(
+            Arrays.asList(DetectorProfileName.MODELS, DetectorProfileName.ENTITY_CACHE)
+        );
+        ProfileRequest profileRequest = new ProfileRequest(detectorId, profilesToRetrieve, true);
+
+        // older nodes cannot read the entity cache profile name
+        ProfileRequest readRequest = new ProfileRequest(serialize(profileRequest, LegacyESVersion.V_7_10_2));
+        assertEquals(Collections.singleton(DetectorProfileName.MODELS), readRequest.getProfilesToBeRetrieved());
+        assertEquals(profilesToRetrieve, profileRequest.getProfilesToBeRetrieved());
+
+        readRequest = new ProfileRequest(serialize(profileRequest, Version.CURRENT));
+        assertEquals(profilesToRetrieve, readRequest.getProfilesToBeRetrieved());
+    }
+
+    private StreamInput serialize(Writeable writeable, Version version) throws IOException {
+        BytesStreamOutput output = new BytesStreamOutput();
+        output.setVersion(version);
+        writeable.writeTo(output);
+        StreamInput streamInput = output.bytes().streamInput();
+        streamInput.setVersion(version);
+        return streamInput;
+    }
 }
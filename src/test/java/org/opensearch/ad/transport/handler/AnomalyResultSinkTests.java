@@ -0,0 +1,221 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport.handler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BackoffPolicy;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.ad.NodeStateManager;
+import org.opensearch.ad.model.AnomalyResult;
+import org.opensearch.ad.transport.ADResultBulkAction;
+import org.opensearch.ad.transport.ADResultBulkRequest;
+import org.opensearch.client.Client;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchRejectedExecutionException;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.common.xcontent.ToXContentObject;
+import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.rest.RestStatus;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+public class AnomalyResultSinkTests extends OpenSearchTestCase {
+    private static final String INDEX = "result";
+    private static final ToXContentObject DOC = (builder, params) -> builder.startObject().endObject();
+
+    Client client;
+    ThreadPool threadPool;
+    NodeStateManager nodeStateManager;
+    Clock clock;
+    List<BulkRequest> bulkRequests;
+    List<ActionListener<BulkResponse>> bulkListeners;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(Client.class);
+        threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        nodeStateManager = mock(NodeStateManager.class);
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(Instant.now());
+        bulkRequests = new ArrayList<>();
+        bulkListeners = new ArrayList<>();
+        doAnswer(invocation -> {
+            bulkRequests.add(invocation.getArgument(0));
+            bulkListeners.add(invocation.getArgument(1));
+            return null;
+        }).when(client).bulk(any(), any());
+    }
+
+    private AnomalyResultSink createSink(TimeValue linger, int bulkSize) {
+        BackoffPolicy backoff = BackoffPolicy.constantBackoff(TimeValue.timeValueMillis(10), 1);
+        return new AnomalyResultSink(client, threadPool, nodeStateManager, clock, backoff, linger, bulkSize);
+    }
+
+    private BulkItemResponse item(int id, boolean rejected) {
+        if (rejected) {
+            BulkItemResponse.Failure failure = new BulkItemResponse.Failure(
+                INDEX,
+                "_doc",
+                null,
+                new OpenSearchRejectedExecutionException("rejected"),
+                RestStatus.TOO_MANY_REQUESTS
+            );
+            return new BulkItemResponse(id, DocWriteRequest.OpType.INDEX, failure);
+        }
+        BulkItemResponse response = mock(BulkItemResponse.class);
+        when(response.getItemId()).thenReturn(id);
+        when(response.isFailed()).thenReturn(false);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ActionListener<Void> listener() {
+        return mock(ActionListener.class);
+    }
+
+    public void testLingerMergesDetectors() {
+        AnomalyResultSink sink = createSink(TimeValue.timeValueSeconds(1), 10);
+        sink.add("a", INDEX, null, DOC, listener());
+        sink.add("b", INDEX, null, DOC, listener());
+
+        verify(threadPool, times(1)).schedule(any(), any(TimeValue.class), anyString());
+        assertEquals(0, bulkRequests.size());
+        assertEquals(2, sink.size());
+
+        sink.flush();
+        assertEquals(1, bulkRequests.size());
+        assertEquals(2, bulkRequests.get(0).numberOfActions());
+        assertEquals(0, sink.size());
+    }
+
+    public void testBulkSizeTriggersWrite() {
+        AnomalyResultSink sink = createSink(TimeValue.timeValueSeconds(1), 2);
+        sink.add("a", INDEX, null, DOC, listener());
+        assertEquals(0, bulkRequests.size());
+        sink.add("b", INDEX, "b", DOC, listener());
+        assertEquals(1, bulkRequests.size());
+        assertEquals("b", bulkRequests.get(0).requests().get(1).id());
+    }
+
+    public void testZeroLingerWritesImmediately() {
+        AnomalyResultSink sink = createSink(TimeValue.timeValueMillis(0), 10);
+        sink.add("a", INDEX, null, DOC, listener());
+        assertEquals(1, bulkRequests.size());
+        verify(threadPool, never()).schedule(any(), any(TimeValue.class), anyString());
+    }
+
+    public void testRetryRejectedItems() {
+        AnomalyResultSink sink = createSink(TimeValue.timeValueMillis(0), 10);
+        ActionListener<Void> written = listener();
+        ActionListener<Void> rejected = listener();
+        sink.add("a", INDEX, null, DOC, written);
+        // the first write is not finished yet, so the second one goes in its own request
+        sink.add("b", INDEX, null, DOC, rejected);
+        bulkListeners.get(0).onResponse(new BulkResponse(new BulkItemResponse[] { item(0, false) }, 0));
+        bulkListeners.get(1).onResponse(new BulkResponse(new BulkItemResponse[] { item(0, true) }, 0));
+        verify(written, times(1)).onResponse(null);
+        verify(nodeStateManager, times(1)).setLastIndexThrottledTime(any());
+
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(threadPool, times(1)).schedule(retry.capture(), any(TimeValue.class), anyString());
+        retry.getValue().run();
+        assertEquals(3, bulkRequests.size());
+        assertEquals(1, bulkRequests.get(2).numberOfActions());
+
+        // no retry left
+        bulkListeners.get(2).onResponse(new BulkResponse(new BulkItemResponse[] { item(0, true) }, 0));
+        verify(rejected, times(1)).onFailure(any());
+        verify(rejected, never()).onResponse(any());
+    }
+
+    public void testAddAllNotifiesOnce() {
+        AnomalyResultSink sink = createSink(TimeValue.timeValueSeconds(1), 10);
+        AnomalyResult result = mock(AnomalyResult.class);
+        try {
+            when(result.toXContent(any(), any())).thenAnswer(invocation -> {
+                XContentBuilder builder = invocation.getArgument(0);
+                return builder.startObject().endObject();
+            });
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+        sink.add("a", INDEX, null, DOC, listener());
+        ActionListener<Void> listener = listener();
+        sink.addAll("b", INDEX, Arrays.asList(result, result), listener);
+
+        // does not wait for the linger time and carries the buffered write along
+        assertEquals(1, bulkRequests.size());
+        assertEquals(3, bulkRequests.get(0).numberOfActions());
+
+        bulkListeners.get(0).onFailure(new IllegalArgumentException());
+        verify(listener, times(1)).onFailure(any(IllegalArgumentException.class));
+        verify(listener, never()).onResponse(any());
+    }
+
+    public void testEntityResultsMerged() {
+        AnomalyResultSink sink = createSink(TimeValue.timeValueSeconds(1), 10);
+        ADResultBulkRequest first = new ADResultBulkRequest();
+        first.add(mock(AnomalyResult.class));
+        ADResultBulkRequest second = new ADResultBulkRequest();
+        second.add(mock(AnomalyResult.class));
+        second.add(mock(AnomalyResult.class));
+        sink.addEntityResults(first, "a");
+        sink.addEntityResults(second, "b");
+        assertEquals(3, sink.size());
+
+        sink.flush();
+        ArgumentCaptor<ADResultBulkRequest> request = ArgumentCaptor.forClass(ADResultBulkRequest.class);
+        verify(client, times(1)).execute(eq(ADResultBulkAction.INSTANCE), request.capture(), any());
+        assertEquals(3, request.getValue().numberOfActions());
+        assertEquals(0, bulkRequests.size());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.transport.handler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkAction;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.client.Client;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchRejectedExecutionException;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.rest.RestStatus;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+public class ResultBulkRetryBufferTests extends OpenSearchTestCase {
+    private static final String INDEX = "result";
+    // every document is 9 bytes
+    private static final String DOC = "{\"a\":100}";
+
+    Client client;
+    ThreadPool threadPool;
+    List<BulkRequest> bulkRequests;
+    List<ActionListener<BulkResponse>> bulkListeners;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(Client.class);
+        threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        bulkRequests = new ArrayList<>();
+        bulkListeners = new ArrayList<>();
+        doAnswer(invocation -> {
+            bulkRequests.add(invocation.getArgument(1));
+            bulkListeners.add(invocation.getArgument(2));
+            return null;
+        }).when(client).execute(eq(BulkAction.INSTANCE), any(), any());
+    }
+
+    private ResultBulkRetryBuffer createBuffer(long maxBytes, int maxRetries) {
+        return new ResultBulkRetryBuffer(
+            client,
+            threadPool,
+            new Random(42),
+            maxBytes,
+            TimeValue.timeValueMillis(100),
+            TimeValue.timeValueSeconds(1),
+            maxRetries
+        );
+    }
+
+    private BulkRequest bulk(int size) {
+        BulkRequest request = new BulkRequest();
+        for (int i = 0; i < size; i++) {
+            request.add(new IndexRequest(INDEX).source(DOC, XContentType.JSON));
+        }
+        return request;
+    }
+
+    private BulkItemResponse item(int id, RestStatus status) {
+        if (status == RestStatus.OK) {
+            BulkItemResponse response = mock(BulkItemResponse.class);
+            when(response.getItemId()).thenReturn(id);
+            when(response.isFailed()).thenReturn(false);
+            when(response.status()).thenReturn(status);
+            return response;
+        }
+        BulkItemResponse.Failure failure = new BulkItemResponse.Failure(INDEX, "_doc", null, new RuntimeException(), status);
+        return new BulkItemResponse(id, DocWriteRequest.OpType.INDEX, failure);
+    }
+
+    private Runnable scheduledRetry(int times) {
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(threadPool, times(times)).schedule(retry.capture(), any(TimeValue.class), anyString());
+        return retry.getValue();
+    }
+
+    public void testOnlyRejectedItemsRetried() {
+        ResultBulkRetryBuffer buffer = createBuffer(1000, 3);
+        BulkResponse response = new BulkResponse(
+            new BulkItemResponse[] { item(0, RestStatus.OK), item(1, RestStatus.TOO_MANY_REQUESTS), item(2, RestStatus.BAD_REQUEST) },
+            0
+        );
+        buffer.offerRejected(bulk(3), Arrays.asList(false, false, false), response);
+        assertEquals(1, buffer.size());
+        assertEquals(9, buffer.getBytes());
+
+        scheduledRetry(1).run();
+        assertEquals(0, buffer.size());
+        assertEquals(1, bulkRequests.size());
+        assertEquals(1, bulkRequests.get(0).numberOfActions());
+    }
+
+    public void testNoFailure() {
+        ResultBulkRetryBuffer buffer = createBuffer(1000, 3);
+        buffer.offerRejected(bulk(1), Arrays.asList(false), new BulkResponse(new BulkItemResponse[] { item(0, RestStatus.OK) }, 0));
+        buffer.offerRejected(bulk(1), Arrays.asList(false), null);
+        assertEquals(0, buffer.size());
+        verify(threadPool, never()).schedule(any(), any(TimeValue.class), anyString());
+    }
+
+    public void testAnomaliesKeptWhenFull() {
+        // room for 2 documents
+        ResultBulkRetryBuffer buffer = createBuffer(20, 3);
+        buffer.offerAll(bulk(2), Arrays.asList(false, false));
+        assertEquals(2, buffer.size());
+
+        // a zero grade result does not evict anything
+        buffer.offerAll(bulk(1), Arrays.asList(false));
+        assertEquals(2, buffer.size());
+
+        // anomalies evict zero grade results
+        buffer.offerAll(bulk(2), Arrays.asList(true, true));
+        assertEquals(2, buffer.size());
+
+        // no zero grade result left to evict
+        buffer.offerAll(bulk(1), Arrays.asList(true));
+        assertEquals(2, buffer.size());
+        assertEquals(18, buffer.getBytes());
+    }
+
+    public void testGiveUpAfterMaxRetries() {
+        ResultBulkRetryBuffer buffer = createBuffer(1000, 2);
+        buffer.offerAll(bulk(2), Arrays.asList(false, true));
+
+        scheduledRetry(1).run();
+        bulkListeners.get(0).onFailure(new OpenSearchRejectedExecutionException("rejected"));
+        assertEquals(2, buffer.size());
+
+        scheduledRetry(2).run();
+        bulkListeners
+            .get(1)
+            .onResponse(new BulkResponse(new BulkItemResponse[] { item(0, RestStatus.OK), item(1, RestStatus.TOO_MANY_REQUESTS) }, 0));
+        // the second document used up its retries
+        assertEquals(0, buffer.size());
+        assertEquals(2, bulkRequests.size());
+    }
+
+    public void testJitteredDelayBounded() {
+        ResultBulkRetryBuffer buffer = createBuffer(1000, 3);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(buffer.nextDelay(0).millis() <= 100);
+            assertTrue(buffer.nextDelay(2).millis() <= 400);
+            // capped by the max delay
+            assertTrue(buffer.nextDelay(100).millis() <= 1000);
+        }
+    }
+}
@@ -28,16 +28,14 @@ package org.opensearch.ad.util;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
-import static org.opensearch.ad.TestHelpers.randomMutlEntityAnomalyDetectResult;
 
-import java.util.ArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.opensearch.action.ActionListener;
-import org.opensearch.ad.model.AnomalyResult;
 import org.opensearch.ad.model.DetectorProfile;
-import org.opensearch.ad.model.EntityAnomalyResult;
+import org.opensearch.ad.model.DetectorState;
 import org.opensearch.test.OpenSearchTestCase;
 
 public class MultiResponsesDelegateActionListenerTests extends OpenSearchTestCase {
@@ -66,28 +64,23 @@ public class MultiResponsesDelegateActionListenerTests extends OpenSearchTestCas
 
     @SuppressWarnings("unchecked")
     public void testForceResponse() {
-        AnomalyResult anomalyResult1 = randomMutlEntityAnomalyDetectResult(0.25, 0.25, "error");
-        AnomalyResult anomalyResult2 = randomMutlEntityAnomalyDetectResult(0.5, 0.5, "error");
+        DetectorProfile profile1 = new DetectorProfile.Builder().state(DetectorState.RUNNING).build();
+        DetectorProfile profile2 = new DetectorProfile.Builder().error("error").build();
 
-        EntityAnomalyResult entityAnomalyResult1 = new EntityAnomalyResult(new ArrayList<AnomalyResult>() {
-            {
-                add(anomalyResult1);
-            }
-        });
-        EntityAnomalyResult entityAnomalyResult2 = new EntityAnomalyResult(new ArrayList<AnomalyResult>() {
-            {
-                add(anomalyResult2);
-            }
-        });
-
-        ActionListener<EntityAnomalyResult> actualListener = mock(ActionListener.class);
-        MultiResponsesDelegateActionListener<EntityAnomalyResult> multiListener =
-            new MultiResponsesDelegateActionListener<EntityAnomalyResult>(actualListener, 3, "blah", true);
-        multiListener.onResponse(entityAnomalyResult1);
-        multiListener.onResponse(entityAnomalyResult2);
+        ActionListener<DetectorProfile> actualListener = mock(ActionListener.class);
+        MultiResponsesDelegateActionListener<DetectorProfile> multiListener = new MultiResponsesDelegateActionListener<DetectorProfile>(
+            actualListener,
+            3,
+            "blah",
+            true
+        );
+        multiListener.onResponse(profile1);
+        multiListener.onResponse(profile2);
         multiListener.onFailure(new RuntimeException());
-        entityAnomalyResult1.merge(entityAnomalyResult2);
 
-        verify(actualListener).onResponse(entityAnomalyResult1);
+        ArgumentCaptor<DetectorProfile> response = ArgumentCaptor.forClass(DetectorProfile.class);
+        verify(actualListener).onResponse(response.capture());
+        assertEquals(DetectorState.RUNNING, response.getValue().getState());
+        assertEquals("error", response.getValue().getError());
     }
 }
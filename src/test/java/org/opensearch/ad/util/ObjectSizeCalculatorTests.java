@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ *
+ * Modifications Copyright OpenSearch Contributors. See
+ * GitHub history for details.
+ */
+
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package org.opensearch.ad.util;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class ObjectSizeCalculatorTests extends OpenSearchTestCase {
+    private static class Node {
+        private final long[] values;
+        private Node next;
+
+        Node(int size) {
+            this.values = new long[size];
+        }
+    }
+
+    private enum Color {
+        RED
+    }
+
+    private static class Holder {
+        private Color color = Color.RED;
+        private Class<?> clazz = Holder.class;
+    }
+
+    public void testNull() {
+        assertEquals(0, ObjectSizeCalculator.sizeOf(null));
+    }
+
+    public void testArray() {
+        long[] array = new long[100];
+        assertEquals(RamUsageEstimator.sizeOf(array), ObjectSizeCalculator.sizeOf(array));
+    }
+
+    public void testSharedAndCyclicReferences() {
+        Node first = new Node(10);
+        Node second = new Node(20);
+        first.next = second;
+        second.next = first;
+        long expected = 2 * RamUsageEstimator.shallowSizeOf(first) + RamUsageEstimator.sizeOf(first.values) + RamUsageEstimator
+            .sizeOf(second.values);
+        assertEquals(expected, ObjectSizeCalculator.sizeOf(first));
+
+        Node[] nodes = new Node[] { first, second, first };
+        assertEquals(expected + RamUsageEstimator.shallowSizeOf(nodes), ObjectSizeCalculator.sizeOf(nodes));
+    }
+
+    public void testSharedObjectsSkipped() {
+        Holder holder = new Holder();
+        assertEquals(RamUsageEstimator.shallowSizeOf(holder), ObjectSizeCalculator.sizeOf(holder));
+    }
+}
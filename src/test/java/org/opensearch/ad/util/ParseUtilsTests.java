@@ -31,17 +31,26 @@ import static org.opensearch.ad.util.ParseUtils.addUserBackendRolesFilter;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map.Entry;
 
 import org.opensearch.ad.TestHelpers;
 import org.opensearch.ad.common.exception.AnomalyDetectionException;
+import org.opensearch.ad.constant.CommonName;
 import org.opensearch.ad.model.AnomalyDetector;
 import org.opensearch.ad.model.AnomalyDetectorType;
+import org.opensearch.ad.model.Entity;
 import org.opensearch.ad.model.Feature;
 import org.opensearch.common.xcontent.XContentBuilder;
 import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.common.xcontent.XContentParser;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.TermsQueryBuilder;
 import org.opensearch.search.aggregations.AggregationBuilder;
 import org.opensearch.search.aggregations.AggregatorFactories;
+import org.opensearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.test.OpenSearchTestCase;
 
@@ -125,6 +134,33 @@ public class ParseUtilsTests extends OpenSearchTestCase {
         }
     }
 
+    public void testGenerateEntitiesPreviewQuery() throws IOException {
+        AnomalyDetector detector = TestHelpers.randomAnomalyDetectorUsingCategoryFields(randomAlphaOfLength(5), ImmutableList.of("host"));
+        List<Entry<Long, Long>> ranges = ImmutableList
+            .of(new SimpleImmutableEntry<>(0L, 60_000L), new SimpleImmutableEntry<>(120_000L, 180_000L));
+        List<Entity> entities = ImmutableList.of(new Entity("host", "server_1"), new Entity("host", "server_2"));
+        SearchSourceBuilder builder = ParseUtils
+            .generateEntitiesPreviewQuery(
+                detector,
+                ranges,
+                entities,
+                ParseUtils.parseFeatureAggregations(detector, false, TestHelpers.xContentRegistry())
+            );
+
+        TermsQueryBuilder entityFilter = (TermsQueryBuilder) ((BoolQueryBuilder) builder.query()).filter().get(1);
+        assertEquals("host", entityFilter.fieldName());
+        assertEquals(ImmutableList.of("server_1", "server_2"), entityFilter.values());
+
+        TermsAggregationBuilder entityTerms = (TermsAggregationBuilder) builder.aggregations().getAggregatorFactories().iterator().next();
+        assertEquals(CommonName.ENTITY_TERMS, entityTerms.getName());
+        assertEquals(entities.size(), entityTerms.size());
+        DateRangeAggregationBuilder dateRange = (DateRangeAggregationBuilder) entityTerms.getSubAggregations().iterator().next();
+        assertEquals(ranges.size(), dateRange.ranges().size());
+        for (Feature feature : detector.getFeatureAttributes()) {
+            assertTrue(dateRange.getSubAggregations().stream().anyMatch(agg -> agg.getName().equals(feature.getId())));
+        }
+    }
+
     public void testAddUserRoleFilterWithNullUser() {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         addUserBackendRolesFilter(null, searchSourceBuilder);